@@ -0,0 +1,36 @@
+package com.example.accountService.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Published on Redis when an instance changes cached entries: one entry in {@code key}, several written together in
+ * {@code keys}. Neither set means the whole cache was cleared, which is also how instances that predate {@code keys}
+ * read a batch.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation {
+    private String origin;
+    private String cacheName;
+    private String key;
+    private List<String> keys;
+
+    public CacheInvalidation(String origin, String cacheName, String key) {
+        this(origin, cacheName, key, null);
+    }
+
+    /**
+     * The keys to drop, or {@code null} for the whole cache.
+     */
+    public List<String> affectedKeys() {
+        if (key != null) {
+            return List.of(key);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.accountService.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+
+/**
+ * A Caffeine cache (L1) in front of a shared cache (L2, Redis). Reads try L1 first and fill it from L2; writes go
+ * to both and tell the other instances to drop their L1 copy. L1 entries expire after a short TTL, which bounds how
+ * long an instance can serve a value whose invalidation message it missed.
+ * <p>
+ * Only changes are announced: {@link #put}, {@link #evict}, {@link #clear} and {@link #writeAll}. Values loaded
+ * through {@link #get(Object, Callable)} after a miss on both levels are stored without a message, since no other
+ * instance can hold a copy of an entry L2 did not have; {@code @Cacheable} methods therefore use {@code sync = true}
+ * so Spring fills through the loader rather than through {@code put}.
+ * <p>
+ * Every change to an L1 entry, local or announced by another instance, first advances a change stamp striped by key.
+ * An L1 fill after an L2 read carries the stamp from before that read and is dropped if the stamp has moved on, so an
+ * invalidation that lands while L2 is being read is not undone by putting the older value back.
+ */
+public class TwoLevelCache implements Cache {
+
+    private static final int CHANGE_STRIPES = 1024;
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final BiConsumer<String, List<String>> invalidationPublisher;
+    private final AtomicLongArray changes = new AtomicLongArray(CHANGE_STRIPES);
+    // Advanced when the whole L1 is dropped; part of every key's stamp.
+    private final AtomicLong clears = new AtomicLong();
+
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                         Cache remote,
+                         BiConsumer<String, List<String>> invalidationPublisher,
+                         MeterRegistry meterRegistry) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationPublisher = invalidationPublisher;
+
+        this.localHits = requests(meterRegistry, "l1", "hit");
+        this.localMisses = requests(meterRegistry, "l1", "miss");
+        this.remoteHits = requests(meterRegistry, "l2", "hit");
+        this.remoteMisses = requests(meterRegistry, "l2", "miss");
+        hitRatio(meterRegistry, "l1", localHits, localMisses);
+        hitRatio(meterRegistry, "l2", remoteHits, remoteMisses);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = String.valueOf(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            localHits.increment();
+            return new SimpleValueWrapper(value);
+        }
+        localMisses.increment();
+
+        long changeStamp = changeStamp(localKey);
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null || wrapper.get() == null) {
+            remoteMisses.increment();
+            return wrapper;
+        }
+        remoteHits.increment();
+        fill(localKey, wrapper.get(), changeStamp);
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        store(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        store(key, value);
+        invalidationPublisher.accept(name, List.of(String.valueOf(key)));
+    }
+
+    @Override
+    public void evict(Object key) {
+        drop(key);
+        invalidationPublisher.accept(name, List.of(String.valueOf(key)));
+    }
+
+    /**
+     * Writes and evicts many entries, announcing them to the other instances in a single message.
+     */
+    public void writeAll(Map<String, ?> values, Collection<String> evictions) {
+        List<String> keys = new ArrayList<>(values.size() + evictions.size());
+        values.forEach((key, value) -> {
+            store(key, value);
+            keys.add(key);
+        });
+        for (String key : evictions) {
+            drop(key);
+            keys.add(key);
+        }
+        if (!keys.isEmpty()) {
+            invalidationPublisher.accept(name, keys);
+        }
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        clears.incrementAndGet();
+        local.invalidateAll();
+        invalidationPublisher.accept(name, null);
+    }
+
+    /**
+     * Drops entries another instance has changed; {@code keys == null} drops the whole L1.
+     */
+    void invalidateLocal(Collection<String> keys) {
+        if (keys == null) {
+            clears.incrementAndGet();
+            local.invalidateAll();
+        } else {
+            keys.forEach(this::changed);
+            local.invalidateAll(keys);
+        }
+    }
+
+    private void store(Object key, Object value) {
+        String localKey = String.valueOf(key);
+        remote.put(key, value);
+        changed(localKey);
+        if (value != null) {
+            local.put(localKey, value);
+        } else {
+            local.invalidate(localKey);
+        }
+    }
+
+    private void drop(Object key) {
+        String localKey = String.valueOf(key);
+        remote.evict(key);
+        changed(localKey);
+        local.invalidate(localKey);
+    }
+
+    // Both parts only grow, so any change between two reads of a key's stamp makes them differ.
+    private long changeStamp(String localKey) {
+        return clears.get() + changes.get(stripe(localKey));
+    }
+
+    private void changed(String localKey) {
+        changes.incrementAndGet(stripe(localKey));
+    }
+
+    // A change always advances the stamp before it touches L1. One landing between the check and the put has
+    // therefore moved the stamp by the second check, and the value it would have dropped is taken out again.
+    private void fill(String localKey, Object value, long changeStamp) {
+        if (changeStamp(localKey) != changeStamp) {
+            return;
+        }
+        local.put(localKey, value);
+        if (changeStamp(localKey) != changeStamp) {
+            local.asMap().remove(localKey, value);
+        }
+    }
+
+    private static int stripe(String localKey) {
+        int hash = localKey.hashCode();
+        return (hash ^ (hash >>> 16)) & (CHANGE_STRIPES - 1);
+    }
+
+    private Counter requests(MeterRegistry meterRegistry, String level, String result) {
+        return Counter.builder("cache.level.requests")
+                .tag("cache", name)
+                .tag("level", level)
+                .tag("result", result)
+                .description("Lookups per cache level of the two-level cache")
+                .register(meterRegistry);
+    }
+
+    private void hitRatio(MeterRegistry meterRegistry, String level, Counter hits, Counter misses) {
+        Gauge.builder("cache.level.hit.ratio", () -> {
+                    double total = hits.count() + misses.count();
+                    return total == 0 ? 0 : hits.count() / total;
+                })
+                .tag("cache", name)
+                .tag("level", level)
+                .description("Share of lookups answered by this cache level")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.accountService.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Wraps every cache of the Redis cache manager in a {@link TwoLevelCache} and keeps the in-process level of all
+ * instances consistent through Redis pub/sub on {@link #CHANNEL}.
+ */
+public class TwoLevelCacheManager implements CacheManager, MessageListener, InitializingBean {
+
+    public static final String CHANNEL = "account-cache-invalidation";
+
+    private static final Logger logger = Logger.getLogger(TwoLevelCacheManager.class.getName());
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final long localMaxSize;
+    private final Duration localTtl;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate,
+                                ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                long localMaxSize, Duration localTtl) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (remoteCacheManager instanceof InitializingBean initializingBean) {
+            initializingBean.afterPropertiesSet();
+        }
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, cacheName -> new TwoLevelCache(cacheName,
+                Caffeine.newBuilder()
+                        .maximumSize(localMaxSize)
+                        .expireAfterWrite(localTtl)
+                        .build(),
+                remote, this::publishInvalidation, meterRegistry));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            CacheInvalidation invalidation = objectMapper.readValue(message.getBody(), CacheInvalidation.class);
+            if (instanceId.equals(invalidation.getOrigin())) {
+                return;
+            }
+            TwoLevelCache cache = caches.get(invalidation.getCacheName());
+            if (cache != null) {
+                cache.invalidateLocal(invalidation.affectedKeys());
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Ignoring unreadable cache invalidation: "
+                    + new String(message.getBody(), StandardCharsets.UTF_8), e);
+        }
+    }
+
+    private void publishInvalidation(String cacheName, List<String> keys) {
+        CacheInvalidation invalidation = keys == null || keys.size() != 1
+                ? new CacheInvalidation(instanceId, cacheName, null, keys)
+                : new CacheInvalidation(instanceId, cacheName, keys.get(0));
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(invalidation));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize cache invalidation", e);
+        } catch (RuntimeException e) {
+            // The write itself succeeded; other instances fall back on the L1 TTL.
+            logger.log(Level.WARNING, "Failed to publish cache invalidation for " + cacheName + "::" + keys, e);
+        }
+    }
+}
@@ -5,10 +5,19 @@ import com.example.accountService.dto.EmployeeResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.Collection;
+import java.util.List;
 
 @FeignClient(name = "employeeService", path = "/api/employee")
 public interface EmployeeClient {
 
     @GetMapping("/{id}")
     EmployeeResponse getEmployeeById(@PathVariable("id") Long id);
+
+    // Returns only the employees that exist; ids missing from the result are unknown.
+    @PostMapping("/batch")
+    List<EmployeeResponse> getEmployeesByIds(@RequestBody Collection<Long> ids);
 }
@@ -1,10 +1,21 @@
 package com.example.accountService.config;
 
 
+import com.example.accountService.cache.TwoLevelCacheManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.cache.CacheGenerations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.web.client.RestTemplate;
@@ -33,4 +44,37 @@ public class AppConfig {
                 .withCacheConfiguration("Account",
                         RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(10)));
     }
+
+    // Named so cache keys can reach it from SpEL as @cacheGenerations.
+    @Bean
+    public CacheGenerations cacheGenerations(StringRedisTemplate redisTemplate) {
+        return new CacheGenerations(redisTemplate);
+    }
+
+    // Replaces the auto-configured Redis cache manager; Redis stays the shared L2 with the configuration above.
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             RedisCacheConfiguration cacheConfiguration,
+                                             ObjectProvider<RedisCacheManagerBuilderCustomizer> customizers,
+                                             StringRedisTemplate stringRedisTemplate,
+                                             ObjectMapper objectMapper,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${account.cache.local.max-size:10000}") long localMaxSize,
+                                             @Value("${account.cache.local.ttl:30s}") Duration localTtl) {
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(cacheConfiguration);
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+
+        return new TwoLevelCacheManager(builder.build(), stringRedisTemplate, objectMapper, meterRegistry,
+                localMaxSize, localTtl);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(TwoLevelCacheManager.CHANNEL));
+        return container;
+    }
 }
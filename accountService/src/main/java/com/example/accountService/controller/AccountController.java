@@ -1,16 +1,21 @@
 package com.example.accountService.controller;
 
 import com.example.accountService.dto.AccountCreationRequest;
+import com.example.accountService.dto.AccountCreationResult;
+import com.example.accountService.dto.AccountSlice;
+import com.example.accountService.dto.BalanceUpdateRequest;
+import com.example.accountService.dto.BalanceUpdateResult;
 import com.example.accountService.model.Account;
+import com.example.accountService.service.AccountBulkService;
 import com.example.accountService.service.AccountService;
+import com.example.accountService.service.AccountStreamService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -20,10 +25,15 @@ import java.util.List;
 public class AccountController {
 
     private final AccountService accountService;
+    private final AccountStreamService accountStreamService;
+    private final AccountBulkService accountBulkService;
 
     @Autowired
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService, AccountStreamService accountStreamService,
+                             AccountBulkService accountBulkService) {
         this.accountService = accountService;
+        this.accountStreamService = accountStreamService;
+        this.accountBulkService = accountBulkService;
     }
 
     @PostMapping
@@ -32,6 +42,12 @@ public class AccountController {
         return ResponseEntity.status(HttpStatus.CREATED).body(account);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<List<AccountCreationResult>> createAccounts(@RequestBody List<AccountCreationRequest> requests) {
+        List<AccountCreationResult> results = accountBulkService.createAccounts(requests);
+        return ResponseEntity.ok(results);
+    }
+
     @PutMapping("/{accountNumber}")
     public ResponseEntity<Account> updateAccount(@PathVariable String accountNumber,@Valid @RequestBody AccountCreationRequest request) {
         Account updatedAccount = accountService.updateAccount(accountNumber, request);
@@ -45,6 +61,17 @@ public class AccountController {
         return ResponseEntity.ok(updatedAccount);
     }
 
+    @PostMapping("/balances/batch")
+    public ResponseEntity<List<BalanceUpdateResult>> updateBalances(@RequestBody List<BalanceUpdateRequest> updates) {
+        List<BalanceUpdateResult> results = accountService.updateBalances(updates);
+        return ResponseEntity.ok(results);
+    }
+
+    @PostMapping("/balances/batch/revert")
+    public ResponseEntity<List<BalanceUpdateResult>> revertCredits(@RequestBody List<String> references) {
+        return ResponseEntity.ok(accountService.revertCredits(references));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteAccount(@PathVariable String id) {
         accountService.deleteAccount(id);
@@ -58,11 +85,19 @@ public class AccountController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Page<Account>> getAllAccounts(Pageable pageable) {
-        Page<Account> accounts = accountService.getAllAccounts(pageable);
+    public ResponseEntity<AccountSlice> getAllAccounts(@RequestParam(required = false) String after,
+                                                       @RequestParam(defaultValue = "20") int limit,
+                                                       @RequestParam(defaultValue = "false") boolean includeTotal) {
+        AccountSlice accounts = accountService.getAccounts(after, limit, includeTotal);
         return ResponseEntity.ok(accounts);
     }
 
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAccounts(@RequestParam(required = false) String after) {
+        StreamingResponseBody body = out -> accountStreamService.streamAccounts(after, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @PostMapping("/{id}/rollback")
     public ResponseEntity<Void> rollbackBalance(@PathVariable("id") String accountNumber, @RequestBody Double amount) {
         accountService.rollbackBalance(accountNumber, amount);
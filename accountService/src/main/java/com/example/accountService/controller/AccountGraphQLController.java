@@ -1,26 +1,47 @@
 package com.example.accountService.controller;
 
+import com.example.accountService.client.EmployeeClient;
 import com.example.accountService.dto.AccountCreationRequest;
+import com.example.accountService.dto.AccountSlice;
+import com.example.accountService.dto.EmployeeResponse;
 import com.example.accountService.model.Account;
 import com.example.accountService.service.AccountService;
 import jakarta.validation.Valid;
+import org.dataloader.DataLoader;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Controller
 public class AccountGraphQLController {
 
+    // employeeService rejects batch lookups above this size.
+    private static final int EMPLOYEE_BATCH_SIZE = 1000;
+
     private final AccountService accountService;
 
     @Autowired
-    public AccountGraphQLController(AccountService accountService) {
+    public AccountGraphQLController(AccountService accountService, EmployeeClient employeeClient,
+                                    BatchLoaderRegistry batchLoaderRegistry) {
         this.accountService = accountService;
+
+        // DataLoaders are created per request, so each query gets its own batch and cache of employees.
+        batchLoaderRegistry.forTypePair(Long.class, EmployeeResponse.class)
+                .withOptions(options -> options.setMaxBatchSize(EMPLOYEE_BATCH_SIZE))
+                .registerMappedBatchLoader((employeeIds, environment) -> Mono.fromCallable(() ->
+                                employeeClient.getEmployeesByIds(employeeIds).stream()
+                                        .collect(Collectors.toMap(EmployeeResponse::getId, Function.identity())))
+                        .subscribeOn(Schedulers.boundedElastic()));
     }
 
     @MutationMapping
@@ -50,9 +71,15 @@ public class AccountGraphQLController {
     }
 
     @QueryMapping
-    public Page<Account> getAllAccounts(@Argument int page, @Argument int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        return accountService.getAllAccounts(pageable);
+    public AccountSlice getAllAccounts(@Argument String after, @Argument int limit, @Argument boolean includeTotal) {
+        return accountService.getAccounts(after, limit, includeTotal);
+    }
+
+    @SchemaMapping(typeName = "Account")
+    public CompletableFuture<EmployeeResponse> employee(Account account, DataLoader<Long, EmployeeResponse> employeeLoader) {
+        return account.getEmployeeId() != null
+                ? employeeLoader.load(account.getEmployeeId())
+                : CompletableFuture.completedFuture(null);
     }
 
     @MutationMapping
@@ -0,0 +1,17 @@
+package com.example.accountService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountCreationResult {
+    // Position of the row in the bulk request.
+    private int index;
+    private String accountNumber;
+    private Long employeeId;
+    private boolean created;
+    private String error;
+}
@@ -0,0 +1,27 @@
+package com.example.accountService.dto;
+
+import com.example.accountService.model.Account;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * One keyset page of accounts ordered by account number. {@code nextCursor} is passed back as {@code after} to get
+ * the following slice; {@code totalElements} is only filled in when the caller asked for it. Slices are kept in the
+ * Account cache, which uses JDK serialization.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountSlice implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<Account> content;
+    private boolean hasNext;
+    private String nextCursor;
+    private Long totalElements;
+}
@@ -0,0 +1,25 @@
+package com.example.accountService.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceUpdateRequest {
+    @NotBlank(message = "Account number cannot be blank")
+    private String accountNumber;
+
+    @NotNull(message = "Amount cannot be null")
+    private Double amount;
+
+    // Optional. An update with a reference is applied at most once; repeating it is reported but changes nothing.
+    private String reference;
+
+    public BalanceUpdateRequest(String accountNumber, Double amount) {
+        this(accountNumber, amount, null);
+    }
+}
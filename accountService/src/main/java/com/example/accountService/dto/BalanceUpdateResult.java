@@ -0,0 +1,15 @@
+package com.example.accountService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceUpdateResult {
+    private String accountNumber;
+    private Double amount;
+    private Double balance;
+    private boolean updated;
+}
@@ -10,6 +10,7 @@ import java.io.Serial;
 import java.io.Serializable;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_account_employee_id", columnNames = "employeeId"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,26 @@
+package com.example.accountService.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A balance change applied under a caller-chosen reference. The reference is the primary key, so the same change
+ * cannot be applied twice, and deleting the row is how it is undone.
+ */
+@Entity
+@Table(name = "balance_credit")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceCredit {
+
+    @Id
+    private String reference;
+
+    private String accountNumber;
+    private Double amount;
+}
@@ -0,0 +1,16 @@
+package com.example.accountService.repository;
+
+import com.example.accountService.dto.BalanceUpdateRequest;
+import com.example.accountService.model.Account;
+
+import java.util.List;
+
+public interface AccountBatchRepository {
+
+    void addToBalances(List<BalanceUpdateRequest> updates);
+
+    // Stores the references of applied updates in balance_credit; every update must carry one.
+    void recordCredits(List<BalanceUpdateRequest> updates);
+
+    void insertAll(List<Account> accounts);
+}
@@ -0,0 +1,50 @@
+package com.example.accountService.repository;
+
+import com.example.accountService.dto.BalanceUpdateRequest;
+import com.example.accountService.model.Account;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+public class AccountBatchRepositoryImpl implements AccountBatchRepository {
+
+    private static final String ADD_TO_BALANCE_SQL = "UPDATE account SET balance = balance + ? WHERE account_number = ?";
+    private static final String RECORD_CREDIT_SQL =
+            "INSERT INTO balance_credit (reference, account_number, amount) VALUES (?, ?, ?)";
+    private static final String INSERT_SQL = "INSERT INTO account (account_number, balance, employee_id) VALUES (?, ?, ?)";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public AccountBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addToBalances(List<BalanceUpdateRequest> updates) {
+        jdbcTemplate.batchUpdate(ADD_TO_BALANCE_SQL, updates, BATCH_SIZE, (ps, update) -> {
+            ps.setDouble(1, update.getAmount());
+            ps.setString(2, update.getAccountNumber());
+        });
+    }
+
+    @Override
+    public void recordCredits(List<BalanceUpdateRequest> updates) {
+        jdbcTemplate.batchUpdate(RECORD_CREDIT_SQL, updates, BATCH_SIZE, (ps, update) -> {
+            ps.setString(1, update.getReference());
+            ps.setString(2, update.getAccountNumber());
+            ps.setDouble(3, update.getAmount());
+        });
+    }
+
+    @Override
+    public void insertAll(List<Account> accounts) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, accounts, BATCH_SIZE, (ps, account) -> {
+            ps.setString(1, account.getAccountNumber());
+            ps.setDouble(2, account.getBalance());
+            ps.setLong(3, account.getEmployeeId());
+        });
+    }
+}
@@ -1,13 +1,38 @@
 package com.example.accountService.repository;
 
 import com.example.accountService.model.Account;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface AccountRepository extends JpaRepository<Account, String> {
+public interface AccountRepository extends JpaRepository<Account, String>, AccountBatchRepository,
+        AccountStreamRepository {
 
     Optional<Account> findByEmployeeId(Long employeeId);
 
     Optional<Account> findByAccountNumber(String accountNumber);
+
+    @Query("SELECT a.employeeId FROM Account a WHERE a.employeeId IN :employeeIds")
+    List<Long> findExistingEmployeeIds(@Param("employeeIds") Collection<Long> employeeIds);
+
+    @Query("SELECT a.accountNumber FROM Account a WHERE a.accountNumber IN :accountNumbers")
+    List<String> findExistingAccountNumbers(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    // Keyset pages over the primary key: a Slice reads one extra row instead of running a COUNT(*).
+    Slice<Account> findAllBy(Pageable pageable);
+
+    Slice<Account> findByAccountNumberGreaterThan(String after, Pageable pageable);
+
+    // Applies the delta in the database so concurrent credits on the same row never overwrite each other. There is no
+    // condition beyond the key: balances may go negative, as they always could. Returns 0 when the account is missing.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance + :amount WHERE a.accountNumber = :accountNumber")
+    int addToBalance(@Param("accountNumber") String accountNumber, @Param("amount") Double amount);
 }
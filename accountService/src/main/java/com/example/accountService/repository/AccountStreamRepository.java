@@ -0,0 +1,15 @@
+package com.example.accountService.repository;
+
+import com.example.accountService.model.Account;
+
+import java.util.stream.Stream;
+
+public interface AccountStreamRepository {
+
+    /**
+     * Streams accounts ordered by account number, starting after {@code after} when it is given, from a
+     * forward-only cursor that fetches {@code fetchSize} rows at a time. The stream holds a connection and must be
+     * closed.
+     */
+    Stream<Account> streamAll(String after, int fetchSize);
+}
@@ -0,0 +1,45 @@
+package com.example.accountService.repository;
+
+import com.example.accountService.model.Account;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.stream.Stream;
+
+public class AccountStreamRepositoryImpl implements AccountStreamRepository {
+
+    private static final String SELECT_ALL_SQL =
+            "SELECT account_number, balance, employee_id FROM account ORDER BY account_number";
+    private static final String SELECT_AFTER_SQL =
+            "SELECT account_number, balance, employee_id FROM account WHERE account_number > ? ORDER BY account_number";
+
+    private static final RowMapper<Account> ACCOUNT_ROW_MAPPER = (rs, rowNum) -> Account.builder()
+            .accountNumber(rs.getString("account_number"))
+            .balance(rs.getObject("balance", Double.class))
+            .employeeId(rs.getObject("employee_id", Long.class))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public AccountStreamRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Stream<Account> streamAll(String after, int fetchSize) {
+        return jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement ps = connection.prepareStatement(after == null ? SELECT_ALL_SQL : SELECT_AFTER_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // With useCursorFetch=true MySQL hands out fetchSize rows per round trip instead of the whole result.
+            ps.setFetchSize(fetchSize);
+            if (after != null) {
+                ps.setString(1, after);
+            }
+            return ps;
+        }, ACCOUNT_ROW_MAPPER);
+    }
+}
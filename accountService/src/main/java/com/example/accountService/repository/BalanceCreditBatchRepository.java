@@ -0,0 +1,10 @@
+package com.example.accountService.repository;
+
+import java.util.List;
+
+public interface BalanceCreditBatchRepository {
+
+    // Deletes the credits in one JDBC batch and returns the rows each reference removed, in order; 0 means another
+    // transaction already removed it, so only one of them reverses the credit.
+    int[] deleteCredits(List<String> references);
+}
@@ -0,0 +1,27 @@
+package com.example.accountService.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class BalanceCreditBatchRepositoryImpl implements BalanceCreditBatchRepository {
+
+    private static final String DELETE_CREDIT_SQL = "DELETE FROM balance_credit WHERE reference = ?";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public BalanceCreditBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] deleteCredits(List<String> references) {
+        int[][] counts = jdbcTemplate.batchUpdate(DELETE_CREDIT_SQL, references, BATCH_SIZE,
+                (ps, reference) -> ps.setString(1, reference));
+        return Arrays.stream(counts).flatMapToInt(Arrays::stream).toArray();
+    }
+}
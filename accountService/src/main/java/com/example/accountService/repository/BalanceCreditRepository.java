@@ -0,0 +1,15 @@
+package com.example.accountService.repository;
+
+import com.example.accountService.model.BalanceCredit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Set;
+
+public interface BalanceCreditRepository extends JpaRepository<BalanceCredit, String>, BalanceCreditBatchRepository {
+
+    @Query("SELECT c.reference FROM BalanceCredit c WHERE c.reference IN :references")
+    Set<String> findAppliedReferences(@Param("references") Collection<String> references);
+}
@@ -0,0 +1,198 @@
+package com.example.accountService.service;
+
+import com.example.accountService.client.EmployeeClient;
+import com.example.accountService.dto.AccountCreationRequest;
+import com.example.accountService.dto.AccountCreationResult;
+import com.example.accountService.dto.EmployeeResponse;
+import com.example.accountService.model.Account;
+import com.example.accountService.repository.AccountRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.example.cache.CacheGenerations;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Creates many accounts in one call: employee ids are checked with batched lookups against employeeService,
+ * duplicates with {@code IN} queries, and the accepted rows are written with one JDBC batch. Every row gets its own
+ * outcome, so one bad row does not fail the rest.
+ */
+@Service
+public class AccountBulkService {
+
+    static final int LOOKUP_BATCH_SIZE = 1000;
+
+    private static final Logger logger = Logger.getLogger(AccountBulkService.class.getName());
+    private static final String ACCOUNT_CACHE = "Account";
+    private static final int MAX_INSERT_ATTEMPTS = 2;
+
+    private final AccountRepository accountRepository;
+    private final EmployeeClient employeeClient;
+    private final Validator validator;
+    private final CacheGenerations cacheGenerations;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxSize;
+
+    @Autowired
+    public AccountBulkService(AccountRepository accountRepository,
+                              EmployeeClient employeeClient,
+                              Validator validator,
+                              CacheGenerations cacheGenerations,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${account.bulk.max-size:10000}") int maxSize) {
+        this.accountRepository = accountRepository;
+        this.employeeClient = employeeClient;
+        this.validator = validator;
+        this.cacheGenerations = cacheGenerations;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxSize = maxSize;
+    }
+
+    public List<AccountCreationResult> createAccounts(List<AccountCreationRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Bulk account request cannot be empty");
+        }
+        if (requests.size() > maxSize) {
+            throw new IllegalArgumentException("Bulk account request cannot exceed " + maxSize + " rows");
+        }
+
+        String[] errors = new String[requests.size()];
+        validateRows(requests, errors);
+        rejectUnknownEmployees(requests, errors);
+
+        for (int attempt = 1; ; attempt++) {
+            rejectExistingAccounts(requests, errors);
+            List<Account> accounts = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                if (errors[i] == null) {
+                    AccountCreationRequest request = requests.get(i);
+                    accounts.add(Account.builder()
+                            .accountNumber(request.getAccountNumber())
+                            .balance(request.getInitialBalance())
+                            .employeeId(request.getEmployeeId())
+                            .build());
+                }
+            }
+            if (accounts.isEmpty()) {
+                break;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> accountRepository.insertAll(accounts));
+                cacheGenerations.bump(ACCOUNT_CACHE);
+                break;
+            } catch (DataIntegrityViolationException e) {
+                // Another request created some of these accounts after our duplicate check; check again.
+                if (attempt == MAX_INSERT_ATTEMPTS) {
+                    throw e;
+                }
+                logger.warning("Bulk insert of " + accounts.size() + " accounts hit a duplicate, re-checking");
+            }
+        }
+
+        List<AccountCreationResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            AccountCreationRequest request = requests.get(i);
+            results.add(new AccountCreationResult(i,
+                    request != null ? request.getAccountNumber() : null,
+                    request != null ? request.getEmployeeId() : null,
+                    errors[i] == null, errors[i]));
+        }
+        return results;
+    }
+
+    private void validateRows(List<AccountCreationRequest> requests, String[] errors) {
+        Set<String> accountNumbers = new HashSet<>();
+        Set<Long> employeeIds = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            AccountCreationRequest request = requests.get(i);
+            if (request == null) {
+                errors[i] = "Row is empty";
+                continue;
+            }
+            Set<ConstraintViolation<AccountCreationRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                errors[i] = violations.stream()
+                        .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .collect(Collectors.joining("; "));
+            } else if (!accountNumbers.add(request.getAccountNumber())) {
+                errors[i] = "Account number appears more than once in the request";
+            } else if (!employeeIds.add(request.getEmployeeId())) {
+                errors[i] = "Employee appears more than once in the request";
+            }
+        }
+    }
+
+    private void rejectUnknownEmployees(List<AccountCreationRequest> requests, String[] errors) {
+        Set<Long> employeeIds = pendingValues(requests, errors, AccountCreationRequest::getEmployeeId);
+        Set<Long> known = new HashSet<>();
+        for (List<Long> batch : batches(employeeIds)) {
+            employeeClient.getEmployeesByIds(batch).stream()
+                    .map(EmployeeResponse::getId)
+                    .forEach(known::add);
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            if (errors[i] == null && !known.contains(requests.get(i).getEmployeeId())) {
+                errors[i] = "Employee not found";
+            }
+        }
+    }
+
+    private void rejectExistingAccounts(List<AccountCreationRequest> requests, String[] errors) {
+        Set<Long> takenEmployeeIds = new HashSet<>();
+        for (List<Long> batch : batches(pendingValues(requests, errors, AccountCreationRequest::getEmployeeId))) {
+            takenEmployeeIds.addAll(accountRepository.findExistingEmployeeIds(batch));
+        }
+        Set<String> takenAccountNumbers = new HashSet<>();
+        for (List<String> batch : batches(pendingValues(requests, errors, AccountCreationRequest::getAccountNumber))) {
+            takenAccountNumbers.addAll(accountRepository.findExistingAccountNumbers(batch));
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            if (errors[i] != null) {
+                continue;
+            }
+            AccountCreationRequest request = requests.get(i);
+            if (takenEmployeeIds.contains(request.getEmployeeId())) {
+                errors[i] = "Employee already has an account";
+            } else if (takenAccountNumbers.contains(request.getAccountNumber())) {
+                errors[i] = "Account number already exists";
+            }
+        }
+    }
+
+    private static <T> Set<T> pendingValues(List<AccountCreationRequest> requests, String[] errors,
+                                            Function<AccountCreationRequest, T> value) {
+        Set<T> values = new LinkedHashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (errors[i] == null) {
+                values.add(value.apply(requests.get(i)));
+            }
+        }
+        return values;
+    }
+
+    private static <T> List<List<T>> batches(Set<T> values) {
+        List<T> list = new ArrayList<>(values);
+        List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += LOOKUP_BATCH_SIZE) {
+            batches.add(list.subList(from, Math.min(from + LOOKUP_BATCH_SIZE, list.size())));
+        }
+        return batches;
+    }
+}
@@ -1,34 +1,61 @@
 package com.example.accountService.service;
 
+import com.example.accountService.cache.TwoLevelCache;
 import com.example.accountService.client.EmployeeClient;
 import com.example.accountService.dto.AccountCreationRequest;
+import com.example.accountService.dto.AccountSlice;
+import com.example.accountService.dto.BalanceUpdateRequest;
+import com.example.accountService.dto.BalanceUpdateResult;
 import com.example.accountService.model.Account;
+import com.example.accountService.model.BalanceCredit;
 import com.example.accountService.repository.AccountRepository;
+import com.example.accountService.repository.BalanceCreditRepository;
+import org.example.cache.CacheGenerations;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.apache.kafka.common.errors.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Validated
 public class AccountService {
 
     private final AccountRepository accountRepository;
+    private final BalanceCreditRepository balanceCreditRepository;
     private final EmployeeClient employeeClient;
+    private final CacheManager cacheManager;
+    private final CacheGenerations cacheGenerations;
     private static final String ACCOUNT_CACHE = "Account";
+    private static final int MAX_SLICE_LIMIT = 1000;
 
     @Autowired
-    public AccountService(AccountRepository accountRepository, EmployeeClient employeeClient) {
+    public AccountService(AccountRepository accountRepository, BalanceCreditRepository balanceCreditRepository,
+                          EmployeeClient employeeClient, CacheManager cacheManager, CacheGenerations cacheGenerations) {
         this.accountRepository = accountRepository;
+        this.balanceCreditRepository = balanceCreditRepository;
         this.employeeClient = employeeClient;
+        this.cacheManager = cacheManager;
+        this.cacheGenerations = cacheGenerations;
     }
 
     @CachePut(value = ACCOUNT_CACHE, key = "#request.accountNumber")
@@ -52,7 +79,9 @@ public class AccountService {
                 .employeeId(request.getEmployeeId())
                 .build();
 
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        cacheGenerations.bump(ACCOUNT_CACHE);
+        return saved;
     }
 
     @CachePut(value = ACCOUNT_CACHE, key = "#accountNumber")
@@ -72,18 +101,69 @@ public class AccountService {
         Optional.ofNullable(request.getEmployeeId())
                 .ifPresent(account::setEmployeeId);
 
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        cacheGenerations.bump(ACCOUNT_CACHE);
+        return saved;
     }
 
     @CachePut(value = ACCOUNT_CACHE, key = "#accountNumber")
+    @Transactional
     public Account updateBalance(String accountNumber, Double amount) {
-        Account account = accountRepository.findById(accountNumber)
-                .orElseThrow(() -> new ResourceNotFoundException("Account not found with number: " + accountNumber));
+        return applyBalanceDelta(accountNumber, amount);
+    }
+
+    @Transactional
+    public List<BalanceUpdateResult> updateBalances(List<BalanceUpdateRequest> updates) {
+        if (updates == null || updates.isEmpty()) {
+            throw new IllegalArgumentException("Balance update batch cannot be empty");
+        }
+        updates.forEach(update -> {
+            if (update.getAccountNumber() == null || update.getAccountNumber().isBlank() || update.getAmount() == null) {
+                throw new IllegalArgumentException("Each balance update needs an account number and an amount");
+            }
+        });
 
-        Double newBalance = account.getBalance() + amount;
-        account.setBalance(newBalance);
+        List<BalanceUpdateRequest> pending = withoutAppliedCredits(updates);
+        accountRepository.addToBalances(pending);
+        Map<String, Account> updatedAccounts = refreshAccounts(updates);
 
-        return accountRepository.save(account);
+        // Only credits that reached an account are recorded, so one sent to a missing account can be sent again.
+        List<BalanceUpdateRequest> credits = pending.stream()
+                .filter(update -> update.getReference() != null && updatedAccounts.containsKey(update.getAccountNumber()))
+                .toList();
+        if (!credits.isEmpty()) {
+            accountRepository.recordCredits(credits);
+        }
+        return results(updates, updatedAccounts);
+    }
+
+    /**
+     * Undoes the credits applied under the given references. References that were never applied, or were already
+     * reverted, are skipped, so a revert can be repeated safely.
+     */
+    @Transactional
+    public List<BalanceUpdateResult> revertCredits(List<String> references) {
+        if (references == null || references.isEmpty()) {
+            throw new IllegalArgumentException("Credit references cannot be empty");
+        }
+        List<BalanceCredit> credits = balanceCreditRepository.findAllById(new HashSet<>(references));
+        if (credits.isEmpty()) {
+            return List.of();
+        }
+        int[] deleted = balanceCreditRepository.deleteCredits(credits.stream().map(BalanceCredit::getReference).toList());
+        List<BalanceUpdateRequest> reversals = new ArrayList<>(credits.size());
+        for (int i = 0; i < credits.size(); i++) {
+            // Only the transaction whose delete removed the row reverses the credit.
+            if (deleted[i] == 1) {
+                BalanceCredit credit = credits.get(i);
+                reversals.add(new BalanceUpdateRequest(credit.getAccountNumber(), -credit.getAmount(), credit.getReference()));
+            }
+        }
+        if (reversals.isEmpty()) {
+            return List.of();
+        }
+        accountRepository.addToBalances(reversals);
+        return results(reversals, refreshAccounts(reversals));
     }
 
     @CacheEvict(value = ACCOUNT_CACHE, key = "#id")
@@ -95,9 +175,10 @@ public class AccountService {
         }
 
         accountRepository.deleteById(id);
+        cacheGenerations.bump(ACCOUNT_CACHE);
     }
 
-    @Cacheable(value = ACCOUNT_CACHE, key = "#id")
+    @Cacheable(value = ACCOUNT_CACHE, key = "#id", sync = true)
     @Transactional(readOnly = true)
     public Account getAccountById(String id) {
         System.out.println("No cache, getting account number " + id + " from DB...");
@@ -105,25 +186,103 @@ public class AccountService {
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found with ID: " + id));
     }
 
-    @Cacheable(value = ACCOUNT_CACHE, key = "'page-' + #pageable.pageNumber + '-' + #pageable.pageSize + '-' + #pageable.sort")
+    // Keyed by the cache generation so any account write invalidates every cached slice at once.
+    @Cacheable(value = ACCOUNT_CACHE, key = "'slice-' + @cacheGenerations.current(#root.caches[0].name) + '-' + #after + '-' + #limit + '-' + #includeTotal", sync = true)
     @Transactional(readOnly = true)
-    public Page<Account> getAllAccounts(Pageable pageable) {
-        System.out.println("No cache, fetching accounts from the database...");
-        Page<Account> accountsPage = accountRepository.findAll(pageable);
-        if (accountsPage.isEmpty()) {
-            throw new ResourceNotFoundException("No accounts found");
+    public AccountSlice getAccounts(String after, int limit, boolean includeTotal) {
+        if (limit < 1 || limit > MAX_SLICE_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SLICE_LIMIT);
         }
-        return accountsPage;
+        Pageable pageable = PageRequest.of(0, limit, Sort.by("accountNumber"));
+        Slice<Account> slice = after == null || after.isEmpty()
+                ? accountRepository.findAllBy(pageable)
+                : accountRepository.findByAccountNumberGreaterThan(after, pageable);
+
+        List<Account> accounts = slice.getContent();
+        String nextCursor = slice.hasNext() ? accounts.get(accounts.size() - 1).getAccountNumber() : null;
+        Long totalElements = includeTotal ? accountRepository.count() : null;
+        return new AccountSlice(accounts, slice.hasNext(), nextCursor, totalElements);
     }
 
-    @CachePut(value = ACCOUNT_CACHE, key = "#accountNumber")
-    public Account rollbackBalance(String accountNumber, Double amount) {
-        Account account = accountRepository.findById(accountNumber)
-                .orElseThrow(() -> new ResourceNotFoundException("Account not found with number: " + accountNumber));
+    // Callers only need to know the rollback happened, so this is the UPDATE alone: the cached row is evicted
+    // instead of re-read, and the next read fills it.
+    @CacheEvict(value = ACCOUNT_CACHE, key = "#accountNumber")
+    @Transactional
+    public void rollbackBalance(String accountNumber, Double amount) {
+        addToBalance(accountNumber, -amount);
+    }
+
+    // Referenced updates that are already in balance_credit, or repeat a reference earlier in the batch, are dropped.
+    private List<BalanceUpdateRequest> withoutAppliedCredits(List<BalanceUpdateRequest> updates) {
+        List<String> references = updates.stream()
+                .map(BalanceUpdateRequest::getReference)
+                .filter(Objects::nonNull)
+                .toList();
+        if (references.isEmpty()) {
+            return updates;
+        }
+        Set<String> seen = new HashSet<>(balanceCreditRepository.findAppliedReferences(references));
+        return updates.stream()
+                .filter(update -> update.getReference() == null || seen.add(update.getReference()))
+                .toList();
+    }
+
+    private Map<String, Account> refreshAccounts(List<BalanceUpdateRequest> updates) {
+        Set<String> accountNumbers = updates.stream()
+                .map(BalanceUpdateRequest::getAccountNumber)
+                .collect(Collectors.toCollection(HashSet::new));
+        Map<String, Account> updatedAccounts = accountRepository.findAllById(accountNumbers).stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+
+        refreshCachedAccounts(accountNumbers, updatedAccounts);
+        cacheGenerations.bump(ACCOUNT_CACHE);
+        return updatedAccounts;
+    }
+
+    private static List<BalanceUpdateResult> results(List<BalanceUpdateRequest> updates,
+                                                     Map<String, Account> updatedAccounts) {
+        return updates.stream()
+                .map(update -> {
+                    Account account = updatedAccounts.get(update.getAccountNumber());
+                    return new BalanceUpdateResult(update.getAccountNumber(), update.getAmount(),
+                            account != null ? account.getBalance() : null, account != null);
+                })
+                .toList();
+    }
 
-        Double newBalance = account.getBalance() - amount;
-        account.setBalance(newBalance);
+    private void refreshCachedAccounts(Set<String> accountNumbers, Map<String, Account> updatedAccounts) {
+        Cache cache = cacheManager.getCache(ACCOUNT_CACHE);
+        if (cache == null) {
+            return;
+        }
+        if (cache instanceof TwoLevelCache twoLevelCache) {
+            Set<String> missing = new HashSet<>(accountNumbers);
+            missing.removeAll(updatedAccounts.keySet());
+            twoLevelCache.writeAll(updatedAccounts, missing);
+            return;
+        }
+        for (String accountNumber : accountNumbers) {
+            Account account = updatedAccounts.get(accountNumber);
+            if (account != null) {
+                cache.put(accountNumber, account);
+            } else {
+                cache.evict(accountNumber);
+            }
+        }
+    }
 
-        return accountRepository.save(account);
+    private Account applyBalanceDelta(String accountNumber, Double delta) {
+        addToBalance(accountNumber, delta);
+        // The UPDATE cannot hand back the new balance on every database we run on, so the row is re-read by primary
+        // key inside the same transaction; that is the value the response and @CachePut need.
+        return accountRepository.findById(accountNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found with number: " + accountNumber));
+    }
+
+    private void addToBalance(String accountNumber, Double delta) {
+        if (accountRepository.addToBalance(accountNumber, delta) == 0) {
+            throw new ResourceNotFoundException("Account not found with number: " + accountNumber);
+        }
+        cacheGenerations.bump(ACCOUNT_CACHE);
     }
 }
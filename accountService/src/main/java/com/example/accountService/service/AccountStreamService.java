@@ -0,0 +1,53 @@
+package com.example.accountService.service;
+
+import com.example.accountService.model.Account;
+import com.example.accountService.repository.AccountRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every account as newline-delimited JSON while reading the table through a forward-only cursor, so memory
+ * use stays at one fetch of rows no matter how many accounts there are.
+ */
+@Service
+public class AccountStreamService {
+
+    private final AccountRepository accountRepository;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    @Autowired
+    public AccountStreamService(AccountRepository accountRepository, ObjectMapper objectMapper,
+                                @Value("${account.stream.fetch-size:1000}") int fetchSize) {
+        this.accountRepository = accountRepository;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    public long streamAccounts(String after, OutputStream out) throws IOException {
+        long rows = 0;
+        try (Stream<Account> accounts = accountRepository.streamAll(after == null || after.isEmpty() ? null : after, fetchSize);
+             SequenceWriter writer = objectMapper.writer()
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .withRootValueSeparator("\n")
+                     .writeValues(out)) {
+            Iterator<Account> iterator = accounts.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                if (++rows % fetchSize == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.accountService.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+class TwoLevelCacheTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrentMapCacheManager remoteCacheManager;
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        remoteCacheManager = new ConcurrentMapCacheManager("Account");
+        cacheManager = new TwoLevelCacheManager(remoteCacheManager, redisTemplate, objectMapper, meterRegistry,
+                100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void get_shouldServeRepeatedReadsFromLocalLevel() {
+        remoteCacheManager.getCache("Account").put("acc1", "value");
+        var cache = cacheManager.getCache("Account");
+
+        assertEquals("value", cache.get("acc1").get());
+        // Changing L2 behind the cache's back shows the second read never reached it.
+        remoteCacheManager.getCache("Account").put("acc1", "changed");
+        assertEquals("value", cache.get("acc1").get());
+
+        assertEquals(1.0, requests("l1", "hit"));
+        assertEquals(1.0, requests("l1", "miss"));
+        assertEquals(1.0, requests("l2", "hit"));
+        assertEquals(0.5, meterRegistry.get("cache.level.hit.ratio").tag("level", "l1").gauge().value());
+    }
+
+    @Test
+    void get_shouldCountMissOnBothLevels() {
+        assertNull(cacheManager.getCache("Account").get("missing"));
+
+        assertEquals(1.0, requests("l1", "miss"));
+        assertEquals(1.0, requests("l2", "miss"));
+    }
+
+    @Test
+    void putEvictAndClear_shouldWriteThroughAndPublishInvalidations() throws Exception {
+        List<String> published = capturePublished();
+        var cache = cacheManager.getCache("Account");
+
+        cache.put("acc1", "value");
+        assertEquals("value", remoteCacheManager.getCache("Account").get("acc1").get());
+        cache.evict("acc1");
+        assertNull(remoteCacheManager.getCache("Account").get("acc1"));
+        assertNull(cache.get("acc1"));
+        cache.clear();
+
+        assertEquals(3, published.size());
+        assertEquals("acc1", objectMapper.readValue(published.get(1), CacheInvalidation.class).getKey());
+        CacheInvalidation cleared = objectMapper.readValue(published.get(2), CacheInvalidation.class);
+        assertEquals("Account", cleared.getCacheName());
+        assertNull(cleared.getKey());
+    }
+
+    @Test
+    void get_shouldFillBothLevelsFromLoaderWithoutPublishing() {
+        List<String> published = capturePublished();
+        var cache = cacheManager.getCache("Account");
+
+        assertEquals("loaded", cache.get("acc1", () -> "loaded"));
+
+        assertEquals("loaded", remoteCacheManager.getCache("Account").get("acc1").get());
+        assertEquals("loaded", cache.get("acc1", () -> "reloaded"));
+        assertTrue(published.isEmpty());
+    }
+
+    @Test
+    void writeAll_shouldPublishOneInvalidationForAllKeys() throws Exception {
+        List<String> published = capturePublished();
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache("Account");
+        cache.put("acc3", "stale");
+        published.clear();
+
+        cache.writeAll(Map.of("acc1", "one", "acc2", "two"), List.of("acc3"));
+
+        assertEquals("one", remoteCacheManager.getCache("Account").get("acc1").get());
+        assertEquals("two", remoteCacheManager.getCache("Account").get("acc2").get());
+        assertNull(cache.get("acc3"));
+        assertEquals(1, published.size());
+        CacheInvalidation invalidation = objectMapper.readValue(published.get(0), CacheInvalidation.class);
+        assertNull(invalidation.getKey());
+        assertEquals(Set.of("acc1", "acc2", "acc3"), Set.copyOf(invalidation.getKeys()));
+    }
+
+    @Test
+    void onMessage_shouldDropEveryLocalEntryOfABatch() throws Exception {
+        var cache = cacheManager.getCache("Account");
+        cache.put("acc1", "old1");
+        cache.put("acc2", "old2");
+        cache.put("acc3", "kept");
+        remoteCacheManager.getCache("Account").put("acc1", "new1");
+        remoteCacheManager.getCache("Account").put("acc2", "new2");
+        remoteCacheManager.getCache("Account").put("acc3", "changed");
+
+        cacheManager.onMessage(message(new CacheInvalidation("other-instance", "Account", null,
+                List.of("acc1", "acc2"))), null);
+
+        assertEquals("new1", cache.get("acc1").get());
+        assertEquals("new2", cache.get("acc2").get());
+        assertEquals("kept", cache.get("acc3").get());
+    }
+
+    @Test
+    void onMessage_shouldDropLocalEntryChangedByAnotherInstance() throws Exception {
+        var cache = cacheManager.getCache("Account");
+        cache.put("acc1", "old");
+        // Another instance wrote the new value to L2 and announced it.
+        remoteCacheManager.getCache("Account").put("acc1", "new");
+
+        cacheManager.onMessage(message(new CacheInvalidation("other-instance", "Account", "acc1")), null);
+
+        assertEquals("new", cache.get("acc1").get());
+    }
+
+    @Test
+    void onMessage_shouldIgnoreOwnInvalidations() {
+        List<String> published = capturePublished();
+        var cache = cacheManager.getCache("Account");
+        cache.put("acc1", "value");
+        remoteCacheManager.getCache("Account").put("acc1", "changed");
+
+        cacheManager.onMessage(new DefaultMessage(TwoLevelCacheManager.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                published.get(0).getBytes(StandardCharsets.UTF_8)), null);
+
+        assertEquals("value", cache.get("acc1").get());
+    }
+
+    @Test
+    void put_shouldSucceedWhenInvalidationCannotBePublished() {
+        doThrow(new RuntimeException("redis down")).when(redisTemplate)
+                .convertAndSend(eq(TwoLevelCacheManager.CHANNEL), anyString());
+
+        cacheManager.getCache("Account").put("acc1", "value");
+
+        assertEquals("value", remoteCacheManager.getCache("Account").get("acc1").get());
+    }
+
+    @Test
+    void get_shouldNotRefillAnEntryInvalidatedWhileReadingTheRemoteLevel() {
+        ConcurrentMapCache remote = new ConcurrentMapCache("Account");
+        remote.put("acc1", "old");
+        TwoLevelCache[] cache = new TwoLevelCache[1];
+        cache[0] = racingCache(remote, () -> {
+            // Another instance writes L2 and its invalidation arrives before the stale read is put in L1.
+            remote.put("acc1", "new");
+            cache[0].invalidateLocal(List.of("acc1"));
+        });
+
+        assertEquals("old", cache[0].get("acc1").get());
+
+        assertEquals("new", cache[0].get("acc1").get());
+    }
+
+    @Test
+    void get_shouldNotRefillAfterTheWholeLocalLevelWasDroppedDuringTheRead() {
+        ConcurrentMapCache remote = new ConcurrentMapCache("Account");
+        remote.put("acc1", "old");
+        TwoLevelCache[] cache = new TwoLevelCache[1];
+        cache[0] = racingCache(remote, () -> {
+            remote.put("acc1", "new");
+            cache[0].invalidateLocal(null);
+        });
+
+        cache[0].get("acc1");
+
+        assertEquals("new", cache[0].get("acc1").get());
+    }
+
+    @Test
+    void get_shouldKeepAPutMadeWhileReadingTheRemoteLevel() {
+        ConcurrentMapCache remote = new ConcurrentMapCache("Account");
+        remote.put("acc1", "old");
+        TwoLevelCache[] cache = new TwoLevelCache[1];
+        cache[0] = racingCache(remote, () -> cache[0].put("acc1", "new"));
+
+        cache[0].get("acc1");
+        // Changing L2 behind the cache's back shows the next read is answered by L1.
+        remote.put("acc1", "changed");
+
+        assertEquals("new", cache[0].get("acc1").get());
+    }
+
+    // A two-level cache whose first L2 read returns what L2 held, with concurrentChange run in between.
+    private TwoLevelCache racingCache(ConcurrentMapCache remote, Runnable concurrentChange) {
+        Cache slowRemote = new ConcurrentMapCache("Account") {
+            private boolean raced;
+
+            @Override
+            public ValueWrapper get(Object key) {
+                ValueWrapper wrapper = remote.get(key);
+                if (!raced) {
+                    raced = true;
+                    concurrentChange.run();
+                }
+                return wrapper;
+            }
+
+            @Override
+            public void put(Object key, Object value) {
+                remote.put(key, value);
+            }
+        };
+        return new TwoLevelCache("Account", Caffeine.newBuilder().build(), slowRemote, (name, keys) -> { },
+                meterRegistry);
+    }
+
+    private double requests(String level, String result) {
+        return requests("Account", level, result);
+    }
+
+    private double requests(String cacheName, String level, String result) {
+        return meterRegistry.get("cache.level.requests")
+                .tag("cache", cacheName).tag("level", level).tag("result", result)
+                .counter().count();
+    }
+
+    private List<String> capturePublished() {
+        List<String> published = new ArrayList<>();
+        doAnswer(i -> published.add(i.getArgument(1))).when(redisTemplate)
+                .convertAndSend(eq(TwoLevelCacheManager.CHANNEL), anyString());
+        return published;
+    }
+
+    private DefaultMessage message(CacheInvalidation invalidation) throws Exception {
+        return new DefaultMessage(TwoLevelCacheManager.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                objectMapper.writeValueAsBytes(invalidation));
+    }
+}
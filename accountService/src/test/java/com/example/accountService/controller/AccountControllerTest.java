@@ -1,8 +1,14 @@
 package com.example.accountService.controller;
 
 import com.example.accountService.dto.AccountCreationRequest;
+import com.example.accountService.dto.AccountCreationResult;
+import com.example.accountService.dto.AccountSlice;
+import com.example.accountService.dto.BalanceUpdateRequest;
+import com.example.accountService.dto.BalanceUpdateResult;
 import com.example.accountService.model.Account;
+import com.example.accountService.service.AccountBulkService;
 import com.example.accountService.service.AccountService;
+import com.example.accountService.service.AccountStreamService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,11 +19,16 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.*;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
@@ -33,6 +44,12 @@ class AccountControllerTest {
     @MockBean
     private AccountService accountService;
 
+    @MockBean
+    private AccountStreamService accountStreamService;
+
+    @MockBean
+    private AccountBulkService accountBulkService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -74,6 +91,27 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.employeeId").value(123));
     }
 
+    @Test
+    void updateBalances_shouldReturnPerItemResults() throws Exception {
+        List<BalanceUpdateRequest> updates = List.of(
+                new BalanceUpdateRequest("acc1234567", 100.0),
+                new BalanceUpdateRequest("acc7654321", 100.0));
+
+        when(accountService.updateBalances(anyList())).thenReturn(List.of(
+                new BalanceUpdateResult("acc1234567", 100.0, 1100.0, true),
+                new BalanceUpdateResult("acc7654321", 100.0, null, false)));
+
+        mockMvc.perform(post("/api/account/balances/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updates)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].accountNumber").value("acc1234567"))
+                .andExpect(jsonPath("$[0].balance").value(1100.0))
+                .andExpect(jsonPath("$[0].updated").value(true))
+                .andExpect(jsonPath("$[1].updated").value(false));
+    }
+
     @Test
     void deleteAccount_shouldReturnNoContent() throws Exception {
         String accountId = "acc1234567";
@@ -99,7 +137,7 @@ class AccountControllerTest {
     }
 
     @Test
-    void getAllAccounts_shouldReturnPaginatedAccounts() throws Exception {
+    void getAllAccounts_shouldReturnSliceAfterCursor() throws Exception {
         // Arrange
         Account account1 = Account.builder()
                 .accountNumber("acc123")
@@ -113,20 +151,16 @@ class AccountControllerTest {
                 .employeeId(456L)
                 .build();
 
-        List<Account> accounts = List.of(account1, account2);
-        Pageable pageable = PageRequest.of(0, 2, Sort.by("balance").ascending());
-        Page<Account> accountsPage = new PageImpl<>(accounts, pageable, 2);
+        AccountSlice slice = new AccountSlice(List.of(account1, account2), true, "acc456", null);
 
-        when(accountService.getAllAccounts(any(Pageable.class))).thenReturn(accountsPage);
+        when(accountService.getAccounts("acc100", 2, false)).thenReturn(slice);
 
         // Act & Assert
         mockMvc.perform(get("/api/account/all")
-                        .param("page", "0")
-                        .param("size", "2")
-                        .param("sort", "balance,asc")
+                        .param("after", "acc100")
+                        .param("limit", "2")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                // Verify pagination metadata
                 .andExpect(jsonPath("$.content", hasSize(2)))
                 .andExpect(jsonPath("$.content[0].accountNumber").value("acc123"))
                 .andExpect(jsonPath("$.content[0].balance").value(500.0))
@@ -134,16 +168,56 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.content[1].accountNumber").value("acc456"))
                 .andExpect(jsonPath("$.content[1].balance").value(1500.0))
                 .andExpect(jsonPath("$.content[1].employeeId").value(456))
-                // Verify pagination details
-                .andExpect(jsonPath("$.pageable.pageNumber").value(0))
-                .andExpect(jsonPath("$.pageable.pageSize").value(2))
-                .andExpect(jsonPath("$.totalElements").value(2))
-                .andExpect(jsonPath("$.totalPages").value(1))
-                .andExpect(jsonPath("$.last").value(true))
-                .andExpect(jsonPath("$.size").value(2))
-                .andExpect(jsonPath("$.number").value(0))
-                .andExpect(jsonPath("$.numberOfElements").value(2))
-                .andExpect(jsonPath("$.first").value(true))
-                .andExpect(jsonPath("$.empty").value(false));
+                // Verify slice details
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("acc456"))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void getAllAccounts_shouldRejectInvalidLimit() throws Exception {
+        when(accountService.getAccounts(null, 0, false))
+                .thenThrow(new IllegalArgumentException("Limit must be between 1 and 1000"));
+
+        mockMvc.perform(get("/api/account/all").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamAccounts_shouldStreamNdjsonAfterCursor() throws Exception {
+        when(accountStreamService.streamAccounts(eq("acc100"), any(OutputStream.class))).thenAnswer(i -> {
+            OutputStream out = i.getArgument(1);
+            out.write("{\"accountNumber\":\"acc123\",\"balance\":500.0,\"employeeId\":123}\n{\"accountNumber\":\"acc456\",\"balance\":1500.0,\"employeeId\":456}"
+                    .getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/account/stream").param("after", "acc100"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"accountNumber\":\"acc456\"")));
+    }
+
+    @Test
+    void createAccounts_shouldReturnPerRowOutcomes() throws Exception {
+        List<AccountCreationRequest> requests = List.of(
+                new AccountCreationRequest(1L, "acc1000000000", 100.0),
+                new AccountCreationRequest(2L, "acc2000000000", 100.0));
+        when(accountBulkService.createAccounts(requests)).thenReturn(List.of(
+                new AccountCreationResult(0, "acc1000000000", 1L, true, null),
+                new AccountCreationResult(1, "acc2000000000", 2L, false, "Employee not found")));
+
+        mockMvc.perform(post("/api/account/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].created").value(true))
+                .andExpect(jsonPath("$[1].created").value(false))
+                .andExpect(jsonPath("$[1].error").value("Employee not found"));
     }
 }
@@ -0,0 +1,95 @@
+package com.example.accountService.controller;
+
+import com.example.accountService.client.EmployeeClient;
+import com.example.accountService.dto.AccountSlice;
+import com.example.accountService.dto.EmployeeResponse;
+import com.example.accountService.model.Account;
+import com.example.accountService.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.GraphQlTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.graphql.test.tester.GraphQlTester;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@GraphQlTest(AccountGraphQLController.class)
+class AccountGraphQLControllerTest {
+
+    private static final String ACCOUNTS_WITH_OWNERS = """
+            query {
+              getAllAccounts(limit: 100) {
+                content { accountNumber employee { id name } }
+              }
+            }
+            """;
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @MockBean
+    private AccountService accountService;
+
+    @MockBean
+    private EmployeeClient employeeClient;
+
+    @Test
+    void employee_shouldLoadAllOwnersOfAPageWithOneBatchedCall() {
+        // 100 accounts owned by 50 employees: every id is requested once, in a single call.
+        List<Account> accounts = IntStream.range(0, 100)
+                .mapToObj(i -> Account.builder().accountNumber("acc" + i).balance(0.0).employeeId((long) i % 50).build())
+                .toList();
+        when(accountService.getAccounts(null, 100, false)).thenReturn(new AccountSlice(accounts, false, null, null));
+        when(employeeClient.getEmployeesByIds(anyCollection())).thenAnswer(i -> {
+            Collection<Long> ids = i.getArgument(0);
+            assertEquals(50, ids.size());
+            return ids.stream().map(id -> new EmployeeResponse(id, "Employee " + id, id + "@example.com", "Engineer")).toList();
+        });
+
+        graphQlTester.document(ACCOUNTS_WITH_OWNERS)
+                .execute()
+                .path("getAllAccounts.content").entityList(Object.class).hasSize(100)
+                .path("getAllAccounts.content[7].employee.name").entity(String.class).isEqualTo("Employee 7")
+                .path("getAllAccounts.content[57].employee.name").entity(String.class).isEqualTo("Employee 7");
+
+        verify(employeeClient, times(1)).getEmployeesByIds(anyCollection());
+        verify(employeeClient, never()).getEmployeeById(any());
+    }
+
+    @Test
+    void employee_shouldBeNullWhenTheOwnerIsUnknown() {
+        Account account = Account.builder().accountNumber("acc1").balance(0.0).employeeId(99L).build();
+        when(accountService.getAccounts(null, 100, false)).thenReturn(new AccountSlice(List.of(account), false, null, null));
+        when(employeeClient.getEmployeesByIds(anyCollection())).thenReturn(List.of());
+
+        graphQlTester.document(ACCOUNTS_WITH_OWNERS)
+                .execute()
+                .path("getAllAccounts.content[0].accountNumber").entity(String.class).isEqualTo("acc1")
+                .path("getAllAccounts.content[0].employee").valueIsNull();
+
+        verify(employeeClient, times(1)).getEmployeesByIds(anyCollection());
+    }
+
+    @Test
+    void employee_shouldNotCallEmployeeServiceWhenTheFieldIsNotRequested() {
+        Account account = Account.builder().accountNumber("acc1").balance(0.0).employeeId(1L).build();
+        when(accountService.getAccountById("acc1")).thenReturn(account);
+
+        String accountNumber = graphQlTester.document("query { getAccountByNumber(accountNumber: \"acc1\") { accountNumber } }")
+                .execute()
+                .path("getAccountByNumber.accountNumber").entity(String.class).get();
+
+        assertEquals("acc1", accountNumber);
+        verify(employeeClient, never()).getEmployeesByIds(anyCollection());
+    }
+}
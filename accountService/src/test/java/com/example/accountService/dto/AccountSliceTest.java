@@ -0,0 +1,34 @@
+package com.example.accountService.dto;
+
+import com.example.accountService.model.Account;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AccountSliceTest {
+
+    @Test
+    void accountSlice_shouldRoundTripThroughAccountCacheSerializer() {
+        // The same value serializer AppConfig gives the Account cache.
+        RedisSerializationContext.SerializationPair<Object> serializer =
+                RedisCacheConfiguration.defaultCacheConfig().getValueSerializationPair();
+        List<Account> accounts = List.of(
+                Account.builder().accountNumber("acc000000001").balance(100.0).employeeId(1L).build(),
+                Account.builder().accountNumber("acc000000002").balance(200.0).employeeId(2L).build());
+        // Content as AccountService.getAccounts gets it from the repository.
+        AccountSlice slice = new AccountSlice(new SliceImpl<>(accounts, PageRequest.of(0, 2), true).getContent(),
+                true, "acc000000002", 5L);
+
+        ByteBuffer written = serializer.write(slice);
+        Object read = serializer.read(written);
+
+        assertEquals(slice, read);
+    }
+}
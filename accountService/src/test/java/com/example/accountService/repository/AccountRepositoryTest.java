@@ -0,0 +1,101 @@
+package com.example.accountService.repository;
+
+import com.example.accountService.model.Account;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class AccountRepositoryTest {
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Saved out of order so the slices have to come back sorted by account number.
+        IntStream.of(4, 0, 3, 1, 2).forEach(i -> accountRepository.save(
+                Account.builder().accountNumber("acc" + i).balance(100.0 * i).employeeId((long) i).build()));
+        // streamAll reads through JDBC, so the rows have to reach the database first.
+        accountRepository.flush();
+    }
+
+    @Test
+    void slices_shouldWalkEveryAccountInOrderWithoutGapsOrDuplicates() {
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("accountNumber"));
+        List<String> seen = new ArrayList<>();
+
+        Slice<Account> slice = accountRepository.findAllBy(pageable);
+        while (true) {
+            slice.forEach(account -> seen.add(account.getAccountNumber()));
+            if (!slice.hasNext()) {
+                break;
+            }
+            String after = slice.getContent().get(slice.getNumberOfElements() - 1).getAccountNumber();
+            slice = accountRepository.findByAccountNumberGreaterThan(after, pageable);
+        }
+
+        assertEquals(List.of("acc0", "acc1", "acc2", "acc3", "acc4"), seen);
+    }
+
+    @Test
+    void findByAccountNumberGreaterThan_shouldReportLastSlice() {
+        Slice<Account> slice = accountRepository.findByAccountNumberGreaterThan("acc2",
+                PageRequest.of(0, 2, Sort.by("accountNumber")));
+
+        assertEquals(List.of("acc3", "acc4"), slice.map(Account::getAccountNumber).getContent());
+        assertFalse(slice.hasNext());
+    }
+
+    @Test
+    void streamAll_shouldReadEveryAccountInOrderThroughTheCursor() {
+        try (Stream<Account> accounts = accountRepository.streamAll(null, 2)) {
+            assertEquals(List.of("acc0", "acc1", "acc2", "acc3", "acc4"),
+                    accounts.map(Account::getAccountNumber).toList());
+        }
+    }
+
+    @Test
+    void streamAll_shouldStartAfterTheGivenAccount() {
+        try (Stream<Account> accounts = accountRepository.streamAll("acc2", 2)) {
+            List<Account> remaining = accounts.toList();
+
+            assertEquals(List.of("acc3", "acc4"), remaining.stream().map(Account::getAccountNumber).toList());
+            assertEquals(300.0, remaining.get(0).getBalance());
+            assertEquals(3L, remaining.get(0).getEmployeeId());
+        }
+    }
+
+    @Test
+    void insertAll_shouldBatchInsertAndBeVisibleToTheInQueries() {
+        accountRepository.insertAll(List.of(
+                Account.builder().accountNumber("acc10").balance(10.0).employeeId(10L).build(),
+                Account.builder().accountNumber("acc11").balance(11.0).employeeId(11L).build()));
+
+        assertEquals(List.of(3L, 10L), accountRepository.findExistingEmployeeIds(List.of(3L, 10L, 99L)).stream().sorted().toList());
+        assertEquals(List.of("acc11"), accountRepository.findExistingAccountNumbers(List.of("acc11", "acc99")));
+    }
+
+    @Test
+    void insertAll_shouldRejectASecondAccountForTheSameEmployee() {
+        assertThrows(DataIntegrityViolationException.class, () -> accountRepository.insertAll(List.of(
+                Account.builder().accountNumber("acc20").balance(10.0).employeeId(1L).build())));
+    }
+}
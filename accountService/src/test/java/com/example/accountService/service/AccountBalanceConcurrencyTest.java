@@ -0,0 +1,180 @@
+package com.example.accountService.service;
+
+import com.example.accountService.client.EmployeeClient;
+import com.example.accountService.dto.BalanceUpdateRequest;
+import com.example.accountService.dto.BalanceUpdateResult;
+import com.example.accountService.model.Account;
+import com.example.accountService.repository.AccountRepository;
+import com.example.accountService.repository.BalanceCreditRepository;
+import org.example.cache.CacheGenerations;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import(AccountService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // every worker thread commits its own transaction
+class AccountBalanceConcurrencyTest {
+
+    private static final String ACCOUNT_NUMBER = "acc1234567890";
+    private static final int THREADS = 64;
+    private static final int CREDITS_PER_THREAD = 50;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceCreditRepository balanceCreditRepository;
+
+    @MockBean
+    private EmployeeClient employeeClient;
+
+    @MockBean
+    private CacheGenerations cacheGenerations;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository.save(Account.builder().accountNumber(ACCOUNT_NUMBER).balance(0.0).employeeId(1L).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        balanceCreditRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    void updateBalance_shouldNotLoseUpdatesUnderConcurrentCredits() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < CREDITS_PER_THREAD; j++) {
+                    accountService.updateBalance(ACCOUNT_NUMBER, 1.0);
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Account account = accountRepository.findById(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals((double) THREADS * CREDITS_PER_THREAD, account.getBalance());
+    }
+
+    @Test
+    void rollbackBalance_shouldCancelOutConcurrentCredits() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                accountService.updateBalance(ACCOUNT_NUMBER, 10.0);
+                accountService.rollbackBalance(ACCOUNT_NUMBER, 10.0);
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Account account = accountRepository.findById(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(0.0, account.getBalance());
+    }
+
+    @Test
+    void updateBalances_shouldApplyWholeBatchAndReportMissingAccounts() {
+        List<BalanceUpdateRequest> updates = List.of(
+                new BalanceUpdateRequest(ACCOUNT_NUMBER, 25.0),
+                new BalanceUpdateRequest("acc0000000000", 25.0),
+                new BalanceUpdateRequest(ACCOUNT_NUMBER, 25.0));
+
+        List<BalanceUpdateResult> results = accountService.updateBalances(updates);
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isUpdated());
+        assertFalse(results.get(1).isUpdated());
+        assertEquals(50.0, accountRepository.findById(ACCOUNT_NUMBER).orElseThrow().getBalance());
+    }
+
+    @Test
+    void updateBalances_shouldApplyAReferencedCreditOnceWhenResent() {
+        List<BalanceUpdateRequest> updates = List.of(
+                new BalanceUpdateRequest(ACCOUNT_NUMBER, 25.0, "payroll-1-" + ACCOUNT_NUMBER),
+                new BalanceUpdateRequest("acc0000000000", 25.0, "payroll-1-acc0000000000"));
+
+        accountService.updateBalances(updates);
+        List<BalanceUpdateResult> resent = accountService.updateBalances(updates);
+
+        assertTrue(resent.get(0).isUpdated());
+        assertEquals(25.0, resent.get(0).getBalance());
+        assertFalse(resent.get(1).isUpdated());
+        assertEquals(25.0, accountRepository.findById(ACCOUNT_NUMBER).orElseThrow().getBalance());
+        assertEquals(1, balanceCreditRepository.count());
+    }
+
+    @Test
+    void revertCredits_shouldUndoACreditOnceAndLetItBeAppliedAgain() {
+        String reference = "payroll-1-" + ACCOUNT_NUMBER;
+        List<BalanceUpdateRequest> credit = List.of(new BalanceUpdateRequest(ACCOUNT_NUMBER, 25.0, reference));
+        accountService.updateBalances(credit);
+
+        accountService.revertCredits(List.of(reference));
+        assertTrue(accountService.revertCredits(List.of(reference)).isEmpty());
+        assertEquals(0.0, accountRepository.findById(ACCOUNT_NUMBER).orElseThrow().getBalance());
+
+        accountService.updateBalances(credit);
+        assertEquals(25.0, accountRepository.findById(ACCOUNT_NUMBER).orElseThrow().getBalance());
+    }
+
+    @Test
+    void revertCredits_shouldReverseEveryCreditOfABatchItRemoved() {
+        List<BalanceUpdateRequest> credits = List.of(
+                new BalanceUpdateRequest(ACCOUNT_NUMBER, 25.0, "payroll-1-" + ACCOUNT_NUMBER),
+                new BalanceUpdateRequest(ACCOUNT_NUMBER, 10.0, "payroll-2-" + ACCOUNT_NUMBER));
+        accountService.updateBalances(credits);
+        accountService.revertCredits(List.of("payroll-1-" + ACCOUNT_NUMBER));
+
+        List<BalanceUpdateResult> reverted = accountService.revertCredits(
+                List.of("payroll-1-" + ACCOUNT_NUMBER, "payroll-2-" + ACCOUNT_NUMBER, "payroll-3-" + ACCOUNT_NUMBER));
+
+        assertEquals(1, reverted.size());
+        assertEquals(-10.0, reverted.get(0).getAmount());
+        assertEquals(0.0, accountRepository.findById(ACCOUNT_NUMBER).orElseThrow().getBalance());
+        assertEquals(0, balanceCreditRepository.count());
+    }
+}
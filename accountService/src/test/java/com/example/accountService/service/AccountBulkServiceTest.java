@@ -0,0 +1,135 @@
+package com.example.accountService.service;
+
+import com.example.accountService.client.EmployeeClient;
+import com.example.accountService.dto.AccountCreationRequest;
+import com.example.accountService.dto.AccountCreationResult;
+import com.example.accountService.dto.EmployeeResponse;
+import com.example.accountService.model.Account;
+import com.example.accountService.repository.AccountRepository;
+import jakarta.validation.Validation;
+import org.example.cache.CacheGenerations;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AccountBulkServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private EmployeeClient employeeClient;
+
+    @Mock
+    private CacheGenerations cacheGenerations;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AccountBulkService accountBulkService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        accountBulkService = new AccountBulkService(accountRepository, employeeClient,
+                Validation.buildDefaultValidatorFactory().getValidator(), cacheGenerations, transactionManager, 5000);
+
+        when(employeeClient.getEmployeesByIds(anyCollection())).thenAnswer(i -> {
+            Collection<Long> ids = i.getArgument(0);
+            return ids.stream()
+                    .filter(id -> id != 950L)
+                    .map(id -> new EmployeeResponse(id, "Employee " + id, id + "@example.com", "Developer"))
+                    .toList();
+        });
+        when(accountRepository.findExistingEmployeeIds(anyCollection())).thenReturn(List.of());
+        when(accountRepository.findExistingAccountNumbers(anyCollection())).thenReturn(List.of());
+    }
+
+    @Test
+    void createAccounts_shouldInsertValidRowsAndReportEveryOutcome() {
+        when(accountRepository.findExistingEmployeeIds(anyCollection())).thenReturn(List.of(3L));
+        when(accountRepository.findExistingAccountNumbers(anyCollection())).thenReturn(List.of("acc4000000000"));
+        List<AccountCreationRequest> requests = List.of(
+                new AccountCreationRequest(1L, "acc1000000000", 100.0),
+                new AccountCreationRequest(2L, "short", 100.0),
+                new AccountCreationRequest(3L, "acc3000000000", 100.0),
+                new AccountCreationRequest(4L, "acc4000000000", 100.0),
+                new AccountCreationRequest(950L, "acc9500000000", 100.0),
+                new AccountCreationRequest(6L, "acc1000000000", 100.0),
+                new AccountCreationRequest(7L, "acc7000000000", 50.0));
+
+        List<AccountCreationResult> results = accountBulkService.createAccounts(requests);
+
+        assertEquals(7, results.size());
+        assertTrue(results.get(0).isCreated());
+        assertTrue(results.get(1).getError().startsWith("accountNumber: "));
+        assertEquals("Employee already has an account", results.get(2).getError());
+        assertEquals("Account number already exists", results.get(3).getError());
+        assertEquals("Employee not found", results.get(4).getError());
+        assertEquals("Account number appears more than once in the request", results.get(5).getError());
+        assertTrue(results.get(6).isCreated());
+        assertEquals(6, results.get(6).getIndex());
+
+        verify(employeeClient, times(1)).getEmployeesByIds(anyCollection());
+        verify(accountRepository).insertAll(argThat(accounts -> accounts.stream()
+                .map(Account::getAccountNumber).toList().equals(List.of("acc1000000000", "acc7000000000"))));
+        verify(accountRepository, never()).save(any());
+        verify(cacheGenerations).bump("Account");
+    }
+
+    @Test
+    void createAccounts_shouldLookUpEmployeesInBatches() {
+        List<AccountCreationRequest> requests = IntStream.range(0, AccountBulkService.LOOKUP_BATCH_SIZE + 1)
+                .mapToObj(i -> new AccountCreationRequest(1000L + i, "acc" + (1_000_000_000L + i), 10.0))
+                .toList();
+
+        accountBulkService.createAccounts(requests);
+
+        verify(employeeClient, times(2)).getEmployeesByIds(anyCollection());
+        verify(accountRepository, times(2)).findExistingEmployeeIds(anyCollection());
+    }
+
+    @Test
+    void createAccounts_shouldRecheckDuplicatesWhenAConcurrentInsertWins() {
+        when(accountRepository.findExistingEmployeeIds(anyCollection())).thenReturn(List.of(), List.of(2L));
+        List<List<String>> attempts = new ArrayList<>();
+        doAnswer(i -> {
+            List<Account> accounts = i.getArgument(0);
+            attempts.add(accounts.stream().map(Account::getAccountNumber).toList());
+            if (attempts.size() == 1) {
+                throw new DuplicateKeyException("uk_account_employee_id");
+            }
+            return null;
+        }).when(accountRepository).insertAll(anyList());
+
+        List<AccountCreationResult> results = accountBulkService.createAccounts(List.of(
+                new AccountCreationRequest(1L, "acc1000000000", 100.0),
+                new AccountCreationRequest(2L, "acc2000000000", 100.0)));
+
+        assertEquals(List.of(List.of("acc1000000000", "acc2000000000"), List.of("acc1000000000")), attempts);
+        assertTrue(results.get(0).isCreated());
+        assertEquals("Employee already has an account", results.get(1).getError());
+    }
+
+    @Test
+    void createAccounts_shouldRejectEmptyAndOversizedRequests() {
+        assertThrows(IllegalArgumentException.class, () -> accountBulkService.createAccounts(List.of()));
+        List<AccountCreationRequest> tooMany = IntStream.range(0, 5001)
+                .mapToObj(i -> new AccountCreationRequest((long) i, "acc" + (1_000_000_000L + i), 10.0))
+                .toList();
+        assertThrows(IllegalArgumentException.class, () -> accountBulkService.createAccounts(tooMany));
+        verifyNoInteractions(employeeClient, accountRepository);
+    }
+}
@@ -1,21 +1,32 @@
 package com.example.accountService.service;
 
+import com.example.accountService.cache.TwoLevelCache;
 import com.example.accountService.client.EmployeeClient;
 import com.example.accountService.dto.AccountCreationRequest;
+import com.example.accountService.dto.AccountSlice;
+import com.example.accountService.dto.BalanceUpdateRequest;
+import com.example.accountService.dto.BalanceUpdateResult;
 import com.example.accountService.dto.EmployeeResponse;
 import com.example.accountService.model.Account;
+import com.example.accountService.model.BalanceCredit;
 import com.example.accountService.repository.AccountRepository;
+import com.example.accountService.repository.BalanceCreditRepository;
 import feign.FeignException;
 import org.apache.kafka.common.errors.ResourceNotFoundException;
+import org.example.cache.CacheGenerations;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -26,9 +37,21 @@ class AccountServiceTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private BalanceCreditRepository balanceCreditRepository;
+
     @Mock
     private EmployeeClient employeeClient;
 
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private CacheGenerations cacheGenerations;
+
     @InjectMocks
     private AccountService accountService;
 
@@ -54,6 +77,7 @@ class AccountServiceTest {
         assertEquals(1000.0, createdAccount.getBalance());
         assertEquals(123L, createdAccount.getEmployeeId());
         verify(accountRepository, times(1)).save(any(Account.class));
+        verify(cacheGenerations).bump("Account");
     }
 
 
@@ -86,6 +110,137 @@ class AccountServiceTest {
         assertThrows(ResourceNotFoundException.class, () -> accountService.updateAccount(accountId, request));
     }
 
+    @Test
+    void updateBalance_shouldApplyDeltaAndReturnUpdatedAccount() {
+        String accountNumber = "acc123456789";
+        Account updated = Account.builder().accountNumber(accountNumber).balance(1500.0).employeeId(123L).build();
+
+        when(accountRepository.addToBalance(accountNumber, 500.0)).thenReturn(1);
+        when(accountRepository.findById(accountNumber)).thenReturn(Optional.of(updated));
+
+        Account result = accountService.updateBalance(accountNumber, 500.0);
+
+        assertEquals(1500.0, result.getBalance());
+        verify(accountRepository, times(1)).addToBalance(accountNumber, 500.0);
+        verify(cacheGenerations).bump("Account");
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    @Test
+    void updateBalance_shouldThrowExceptionIfAccountNotFound() {
+        String accountNumber = "acc123456789";
+
+        when(accountRepository.addToBalance(accountNumber, 500.0)).thenReturn(0);
+
+        assertThrows(ResourceNotFoundException.class, () -> accountService.updateBalance(accountNumber, 500.0));
+        verify(accountRepository, never()).findById(accountNumber);
+    }
+
+    @Test
+    void rollbackBalance_shouldApplyNegatedDeltaWithoutReadingTheRow() {
+        String accountNumber = "acc123456789";
+
+        when(accountRepository.addToBalance(accountNumber, -500.0)).thenReturn(1);
+
+        accountService.rollbackBalance(accountNumber, 500.0);
+
+        verify(accountRepository, times(1)).addToBalance(accountNumber, -500.0);
+        verify(accountRepository, never()).findById(accountNumber);
+        verify(cacheGenerations).bump("Account");
+    }
+
+    @Test
+    void rollbackBalance_shouldThrowExceptionIfAccountNotFound() {
+        String accountNumber = "acc123456789";
+
+        when(accountRepository.addToBalance(accountNumber, -500.0)).thenReturn(0);
+
+        assertThrows(ResourceNotFoundException.class, () -> accountService.rollbackBalance(accountNumber, 500.0));
+    }
+
+    @Test
+    void updateBalances_shouldApplyBatchAndRefreshCache() {
+        Account updated = Account.builder().accountNumber("acc123456789").balance(600.0).employeeId(123L).build();
+        List<BalanceUpdateRequest> updates = List.of(
+                new BalanceUpdateRequest("acc123456789", 100.0),
+                new BalanceUpdateRequest("acc000000000", 100.0));
+
+        when(accountRepository.findAllById(any())).thenReturn(List.of(updated));
+        when(cacheManager.getCache("Account")).thenReturn(cache);
+
+        List<BalanceUpdateResult> results = accountService.updateBalances(updates);
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).isUpdated());
+        assertEquals(600.0, results.get(0).getBalance());
+        assertFalse(results.get(1).isUpdated());
+        assertNull(results.get(1).getBalance());
+        verify(accountRepository, times(1)).addToBalances(updates);
+        verify(cacheGenerations).bump("Account");
+        verify(cache, times(1)).put("acc123456789", updated);
+        verify(cache, times(1)).evict("acc000000000");
+    }
+
+    @Test
+    void updateBalances_shouldRefreshTwoLevelCacheInOneWrite() {
+        Account updated = Account.builder().accountNumber("acc123456789").balance(600.0).employeeId(123L).build();
+        TwoLevelCache twoLevelCache = mock(TwoLevelCache.class);
+        when(accountRepository.findAllById(any())).thenReturn(List.of(updated));
+        when(cacheManager.getCache("Account")).thenReturn(twoLevelCache);
+
+        accountService.updateBalances(List.of(
+                new BalanceUpdateRequest("acc123456789", 100.0),
+                new BalanceUpdateRequest("acc000000000", 100.0)));
+
+        verify(twoLevelCache).writeAll(Map.of("acc123456789", updated), Set.of("acc000000000"));
+        verify(twoLevelCache, never()).put(any(), any());
+        verify(twoLevelCache, never()).evict(any());
+    }
+
+    @Test
+    void updateBalances_shouldSkipAppliedCreditsAndRecordNewOnes() {
+        Account updated = Account.builder().accountNumber("acc123456789").balance(600.0).employeeId(123L).build();
+        BalanceUpdateRequest applied = new BalanceUpdateRequest("acc123456789", 100.0, "payroll-1-acc123456789");
+        BalanceUpdateRequest fresh = new BalanceUpdateRequest("acc123456789", 100.0, "payroll-2-acc123456789");
+
+        when(balanceCreditRepository.findAppliedReferences(any())).thenReturn(Set.of("payroll-1-acc123456789"));
+        when(accountRepository.findAllById(any())).thenReturn(List.of(updated));
+
+        List<BalanceUpdateResult> results = accountService.updateBalances(List.of(applied, fresh));
+
+        assertTrue(results.get(0).isUpdated());
+        assertTrue(results.get(1).isUpdated());
+        verify(accountRepository).addToBalances(List.of(fresh));
+        verify(accountRepository).recordCredits(List.of(fresh));
+    }
+
+    @Test
+    void revertCredits_shouldReverseOnlyCreditsItDeleted() {
+        Account updated = Account.builder().accountNumber("acc123456789").balance(500.0).employeeId(123L).build();
+        when(balanceCreditRepository.findAllById(any())).thenReturn(List.of(
+                new BalanceCredit("payroll-1-acc123456789", "acc123456789", 100.0),
+                new BalanceCredit("payroll-1-acc000000000", "acc000000000", 100.0)));
+        when(balanceCreditRepository.deleteCredits(List.of("payroll-1-acc123456789", "payroll-1-acc000000000")))
+                .thenReturn(new int[]{1, 0});
+        when(accountRepository.findAllById(any())).thenReturn(List.of(updated));
+
+        List<BalanceUpdateResult> results = accountService.revertCredits(
+                List.of("payroll-1-acc123456789", "payroll-1-acc000000000"));
+
+        assertEquals(1, results.size());
+        assertEquals(-100.0, results.get(0).getAmount());
+        verify(accountRepository).addToBalances(List.of(
+                new BalanceUpdateRequest("acc123456789", -100.0, "payroll-1-acc123456789")));
+        verify(balanceCreditRepository, times(1)).deleteCredits(any());
+    }
+
+    @Test
+    void updateBalances_shouldRejectEmptyBatch() {
+        assertThrows(IllegalArgumentException.class, () -> accountService.updateBalances(List.of()));
+        verify(accountRepository, never()).addToBalances(any());
+        verify(cacheGenerations, never()).bump(any());
+    }
+
     @Test
     void deleteAccount_shouldDeleteAccountSuccessfully() {
         String accountId = "acc45678910";
@@ -97,6 +252,7 @@ class AccountServiceTest {
         accountService.deleteAccount(accountId);
 
         verify(accountRepository, times(1)).deleteById(accountId);
+        verify(cacheGenerations).bump("Account");
     }
 
     @Test
@@ -132,59 +288,43 @@ class AccountServiceTest {
     }
 
     @Test
-    void getAllAccounts_shouldReturnPaginatedAccountsSuccessfully() {
-        // Arrange
-        Account account1 = Account.builder()
-                .accountNumber("acc12345678")
-                .balance(500.0)
-                .employeeId(123L)
-                .build();
-
-        Account account2 = Account.builder()
-                .accountNumber("acc45678910")
-                .balance(1000.0)
-                .employeeId(456L)
-                .build();
-
-        List<Account> accounts = List.of(account1, account2);
-        Pageable pageable = PageRequest.of(0, 2, Sort.by("balance").ascending());
-        Page<Account> accountsPage = new PageImpl<>(accounts, pageable, accounts.size());
+    void getAccounts_shouldReturnFirstSliceWithCursorAndSkipTheCount() {
+        Account account1 = Account.builder().accountNumber("acc12345678").balance(500.0).employeeId(123L).build();
+        Account account2 = Account.builder().accountNumber("acc45678910").balance(1000.0).employeeId(456L).build();
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("accountNumber"));
 
-        when(accountRepository.findAll(pageable)).thenReturn(accountsPage);
+        when(accountRepository.findAllBy(pageable)).thenReturn(new SliceImpl<>(List.of(account1, account2), pageable, true));
 
-        // Act
-        Page<Account> result = accountService.getAllAccounts(pageable);
+        AccountSlice result = accountService.getAccounts(null, 2, false);
 
-        // Assert
-        assertNotNull(result, "The result should not be null");
-        assertEquals(2, result.getContent().size(), "There should be 2 accounts in the result");
-        assertEquals("acc12345678", result.getContent().get(0).getAccountNumber(), "First account number should be acc123");
-        assertEquals(500.0, result.getContent().get(0).getBalance(), "First account balance should be 500.0");
-        assertEquals(123L, result.getContent().get(0).getEmployeeId(), "First account employeeId should be 123L");
-        assertEquals("acc45678910", result.getContent().get(1).getAccountNumber(), "Second account number should be acc456");
-        assertEquals(1000.0, result.getContent().get(1).getBalance(), "Second account balance should be 1000.0");
-        assertEquals(456L, result.getContent().get(1).getEmployeeId(), "Second account employeeId should be 456L");
-
-        // Verify that the repository's findAll method was called once with the correct pageable
-        verify(accountRepository, times(1)).findAll(pageable);
+        assertEquals(2, result.getContent().size());
+        assertTrue(result.isHasNext());
+        assertEquals("acc45678910", result.getNextCursor());
+        assertNull(result.getTotalElements());
+        verify(accountRepository, never()).count();
     }
 
     @Test
-    void getAllAccounts_shouldThrowExceptionIfNoAccountsFound() {
-        // Arrange
-        Pageable pageable = PageRequest.of(0, 2, Sort.by("balance").ascending());
-        Page<Account> emptyPage = new PageImpl<>(List.of(), pageable, 0);
+    void getAccounts_shouldContinueAfterCursorAndCountOnRequest() {
+        Account account = Account.builder().accountNumber("acc99999999").balance(10.0).employeeId(789L).build();
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("accountNumber"));
 
-        when(accountRepository.findAll(pageable)).thenReturn(emptyPage);
+        when(accountRepository.findByAccountNumberGreaterThan("acc45678910", pageable))
+                .thenReturn(new SliceImpl<>(List.of(account), pageable, false));
+        when(accountRepository.count()).thenReturn(3L);
 
-        // Act & Assert
-        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
-            accountService.getAllAccounts(pageable);
-        }, "Expected getAllAccounts to throw ResourceNotFoundException when no accounts are found");
+        AccountSlice result = accountService.getAccounts("acc45678910", 2, true);
 
-        assertEquals("No accounts found", exception.getMessage(), "Exception message should match the expected value");
+        assertEquals(List.of(account), result.getContent());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+        assertEquals(3L, result.getTotalElements());
+    }
 
-        // Verify that the repository's findAll method was called once with the correct pageable
-        verify(accountRepository, times(1)).findAll(pageable);
+    @Test
+    void getAccounts_shouldRejectLimitOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> accountService.getAccounts(null, 0, false));
+        assertThrows(IllegalArgumentException.class, () -> accountService.getAccounts(null, 1001, false));
+        verifyNoInteractions(accountRepository);
     }
 }
@@ -0,0 +1,51 @@
+package com.example.accountService.service;
+
+import com.example.accountService.model.Account;
+import com.example.accountService.repository.AccountRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class AccountStreamServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    private AccountStreamService accountStreamService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        accountStreamService = new AccountStreamService(accountRepository, new ObjectMapper(), 2);
+    }
+
+    @Test
+    void streamAccounts_shouldWriteOneJsonObjectPerLineAndCloseTheCursor() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(accountRepository.streamAll(null, 2)).thenReturn(Stream.of(
+                Account.builder().accountNumber("acc1").balance(10.0).employeeId(1L).build(),
+                Account.builder().accountNumber("acc2").balance(20.0).employeeId(2L).build(),
+                Account.builder().accountNumber("acc3").balance(30.0).employeeId(3L).build())
+                .onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = accountStreamService.streamAccounts("", out);
+
+        assertEquals(3, rows);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("{\"accountNumber\":\"acc1\",\"balance\":10.0,\"employeeId\":1}", lines[0]);
+        assertTrue(lines[2].contains("\"acc3\""));
+        assertTrue(closed.get());
+    }
+}
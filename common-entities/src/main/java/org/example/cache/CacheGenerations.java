@@ -0,0 +1,60 @@
+package org.example.cache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per-cache generation counters kept in Redis. Page entries put the current generation into their key, so bumping
+ * the counter after a write makes every cached page of that cache unreachable at once; the orphaned entries simply
+ * expire with the cache TTL instead of being looked up with a {@code KEYS} scan.
+ * <p>
+ * Services register it as a bean named {@code cacheGenerations}, which is how cache keys reach it in SpEL:
+ * {@code @cacheGenerations.current(#root.caches[0].name)}.
+ */
+public class CacheGenerations {
+
+    static final String KEY_PREFIX = "cache-generation:";
+
+    private static final Logger logger = Logger.getLogger(CacheGenerations.class.getName());
+
+    private final StringRedisTemplate redisTemplate;
+
+    public CacheGenerations(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public long current(String cacheName) {
+        String generation = redisTemplate.opsForValue().get(KEY_PREFIX + cacheName);
+        return generation != null ? Long.parseLong(generation) : 0L;
+    }
+
+    /**
+     * Moves {@code cacheName} to a new generation. Inside a transaction the bump waits for the commit, otherwise a
+     * reader could cache the not yet committed state under the new generation.
+     */
+    public void bump(String cacheName) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(cacheName);
+                }
+            });
+        } else {
+            increment(cacheName);
+        }
+    }
+
+    private void increment(String cacheName) {
+        try {
+            redisTemplate.opsForValue().increment(KEY_PREFIX + cacheName);
+        } catch (RuntimeException e) {
+            // The write itself succeeded; cached pages are only stale until their TTL runs out.
+            logger.log(Level.WARNING, "Failed to bump generation of cache " + cacheName, e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Assigns the id in the application with {@link TimeOrderedIdGenerator} instead of relying on AUTO_INCREMENT, so
+ * Hibernate can batch the inserts.
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedId {
+
+    /**
+     * Hibernate setting holding this instance's node id, e.g. {@code payment.id.node-id}, set through
+     * {@code spring.jpa.properties.<setting>}.
+     */
+    String nodeIdSetting();
+}
@@ -0,0 +1,131 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CacheGenerationsTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+    private CacheGenerations cacheGenerations;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenAnswer(i -> redis.get(i.<String>getArgument(0)));
+        when(valueOperations.increment(anyString())).thenAnswer(i -> Long.parseLong(
+                redis.merge(i.getArgument(0), "1", (current, one) -> String.valueOf(Long.parseLong(current) + 1))));
+        cacheGenerations = new CacheGenerations(redisTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void current_shouldStartAtZeroAndFollowBumps() {
+        assertEquals(0L, cacheGenerations.current("Account"));
+
+        cacheGenerations.bump("Account");
+        cacheGenerations.bump("Account");
+
+        assertEquals(2L, cacheGenerations.current("Account"));
+        assertEquals(0L, cacheGenerations.current("Employee"));
+    }
+
+    @Test
+    void bump_shouldWaitForTheSurroundingTransactionToCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        cacheGenerations.bump("Account");
+        assertEquals(0L, cacheGenerations.current("Account"));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1L, cacheGenerations.current("Account"));
+    }
+
+    @Test
+    void bump_shouldNotFailTheWriteWhenRedisIsUnavailable() {
+        when(valueOperations.increment(anyString())).thenThrow(new IllegalStateException("redis down"));
+
+        assertDoesNotThrow(() -> cacheGenerations.bump("Account"));
+    }
+
+    @Test
+    void pageKeys_shouldMissAfterABump() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean("cacheGenerations", CacheGenerations.class, () -> cacheGenerations);
+            context.register(PageCacheConfig.class);
+            context.refresh();
+            Pages pages = context.getBean(Pages.class);
+
+            pages.page(0);
+            pages.page(0);
+            assertEquals(1, pages.loads());
+
+            cacheGenerations.bump("Account");
+            pages.page(0);
+            assertEquals(2, pages.loads());
+        }
+    }
+
+    @Configuration
+    @EnableCaching
+    static class PageCacheConfig {
+
+        @Bean
+        ConcurrentMapCacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("Account");
+        }
+
+        @Bean
+        Pages pages() {
+            return new Pages();
+        }
+    }
+
+    static class Pages {
+
+        private final AtomicInteger loads = new AtomicInteger();
+
+        @Cacheable(value = "Account", key = "'page-' + @cacheGenerations.current(#root.caches[0].name) + '-' + #page")
+        public String page(int page) {
+            loads.incrementAndGet();
+            return "page " + page;
+        }
+
+        public int loads() {
+            return loads.get();
+        }
+    }
+}
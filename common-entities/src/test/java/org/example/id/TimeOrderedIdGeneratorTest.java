@@ -0,0 +1,74 @@
+package org.example.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdGeneratorTest {
+
+    private static final long NOW = TimeOrderedIdGenerator.EPOCH_MILLIS + 1_000_000L;
+
+    @Test
+    void nextId_shouldIncreaseWithinAndAcrossMilliseconds() {
+        AtomicLong clock = new AtomicLong(NOW);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(3, clock::get);
+
+        long first = generator.nextId();
+        long second = generator.nextId();
+        clock.incrementAndGet();
+        long third = generator.nextId();
+
+        assertTrue(first < second);
+        assertTrue(second < third);
+        assertEquals(3, (first >> TimeOrderedIdGenerator.SEQUENCE_BITS) & 0xF);
+        assertEquals(1_000_000L, first >> (TimeOrderedIdGenerator.NODE_BITS + TimeOrderedIdGenerator.SEQUENCE_BITS));
+    }
+
+    @Test
+    void nextId_shouldStayUniqueWhenSequenceOverflowsOrClockGoesBack() {
+        AtomicLong clock = new AtomicLong(NOW);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(0, clock::get);
+        Set<Long> ids = new HashSet<>();
+        long previous = -1;
+
+        for (int i = 0; i < 2_000; i++) {
+            if (i == 1_000) {
+                clock.addAndGet(-5_000);
+            }
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertTrue(ids.add(id));
+            previous = id;
+        }
+    }
+
+    @Test
+    void nextId_shouldFitInJavaScriptSafeIntegerRange() {
+        long farFuture = TimeOrderedIdGenerator.EPOCH_MILLIS + (1L << 41) - 1;
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(15, () -> farFuture);
+
+        assertTrue(generator.nextId() <= (1L << 53) - 1);
+    }
+
+    @Test
+    void nodeIdFrom_shouldRequireTheNamedSetting() {
+        String setting = "payment.id.node-id";
+
+        assertThrows(IllegalStateException.class, () -> TimeOrderedIdGenerator.nodeIdFrom(Map.of(), setting));
+        assertThrows(IllegalStateException.class,
+                () -> TimeOrderedIdGenerator.nodeIdFrom(Map.of(setting, " "), setting));
+        assertThrows(IllegalStateException.class,
+                () -> TimeOrderedIdGenerator.nodeIdFrom(Map.of("employee.id.node-id", "7"), setting));
+        assertEquals(7, TimeOrderedIdGenerator.nodeIdFrom(Map.of(setting, "7"), setting));
+    }
+
+    @Test
+    void constructor_shouldRejectNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(16, System::currentTimeMillis));
+    }
+}
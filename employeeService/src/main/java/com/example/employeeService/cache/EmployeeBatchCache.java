@@ -0,0 +1,186 @@
+package com.example.employeeService.cache;
+
+import com.example.employeeService.model.Employee;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads and writes many entries of the {@code Employee} cache at once: one {@code MGET} for the lookups and one
+ * pipelined round trip for the backfill, using the same keys and serializer as {@code @Cacheable(key = "#id")}.
+ * Falls back to per-key calls when the cache is not Redis backed. When the off-heap directory is enabled it is read
+ * before Redis and filled with what Redis returns. Like {@link EmployeeDirectoryCache#get}, every fill carries the
+ * directory's change stamp from before the value was read, so an update or eviction that lands during the lookup is
+ * not overwritten with the older value.
+ */
+@Component
+public class EmployeeBatchCache {
+
+    static final String EMPLOYEE_CACHE = "Employee";
+
+    private static final Logger logger = Logger.getLogger(EmployeeBatchCache.class.getName());
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+
+    @Autowired
+    public EmployeeBatchCache(CacheManager cacheManager, StringRedisTemplate redisTemplate) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+    }
+
+    /** Returns the cached employees among {@code ids}; ids that are missing from the map were cache misses. */
+    public Map<Long, Employee> getAll(Collection<Long> ids) {
+        Map<Long, Employee> hits = new HashMap<>();
+        if (ids.isEmpty()) {
+            return hits;
+        }
+        Cache cache = cacheManager.getCache(EMPLOYEE_CACHE);
+        OffHeapEmployeeDirectory directory = null;
+        Map<Long, Long> changeStamps = Map.of();
+        List<Long> keys = new ArrayList<>(ids);
+        if (cache instanceof EmployeeDirectoryCache directoryCache) {
+            directory = directoryCache.getDirectory();
+            cache = directoryCache.getRemote();
+            for (Long id : ids) {
+                Employee employee = directory.get(id);
+                if (employee != null) {
+                    hits.put(id, employee);
+                }
+            }
+            keys.removeAll(hits.keySet());
+            if (keys.isEmpty()) {
+                return hits;
+            }
+            changeStamps = changeStamps(directory, keys);
+        }
+        Map<Long, Employee> remoteHits = new HashMap<>();
+        try {
+            if (cache instanceof RedisCache redisCache) {
+                RedisCacheConfiguration config = redisCache.getCacheConfiguration();
+                byte[][] rawKeys = keys.stream().map(id -> rawKey(config, id)).toArray(byte[][]::new);
+                List<byte[]> values = redisTemplate.execute(
+                        (RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(rawKeys));
+                for (int i = 0; values != null && i < keys.size(); i++) {
+                    byte[] value = values.get(i);
+                    if (value != null && config.getValueSerializationPair().read(ByteBuffer.wrap(value)) instanceof Employee employee) {
+                        remoteHits.put(keys.get(i), employee);
+                    }
+                }
+            } else if (cache != null) {
+                for (Long id : keys) {
+                    Employee employee = cache.get(id, Employee.class);
+                    if (employee != null) {
+                        remoteHits.put(id, employee);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // A cache outage turns every id into a miss instead of failing the lookup.
+            logger.log(Level.WARNING, "Batch read of the employee cache failed", e);
+            remoteHits.clear();
+        }
+        if (directory != null) {
+            fill(directory, remoteHits.values(), changeStamps);
+        }
+        hits.putAll(remoteHits);
+        return hits;
+    }
+
+    /**
+     * Takes the directory's change stamps of {@code ids}, to be taken before they are read from the database and
+     * passed to {@link #putAll}. Empty when the directory is not enabled.
+     */
+    public Map<Long, Long> changeStamps(Collection<Long> ids) {
+        if (cacheManager.getCache(EMPLOYEE_CACHE) instanceof EmployeeDirectoryCache directoryCache) {
+            return changeStamps(directoryCache.getDirectory(), ids);
+        }
+        return Map.of();
+    }
+
+    /**
+     * Backfills the cache. The directory only takes employees whose stamp in {@code changeStamps} is still current.
+     */
+    public void putAll(Collection<Employee> employees, Map<Long, Long> changeStamps) {
+        if (employees.isEmpty()) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(EMPLOYEE_CACHE);
+        if (cache instanceof EmployeeDirectoryCache directoryCache) {
+            fill(directoryCache.getDirectory(), employees, changeStamps);
+            cache = directoryCache.getRemote();
+        }
+        try {
+            if (cache instanceof RedisCache redisCache) {
+                RedisCacheConfiguration config = redisCache.getCacheConfiguration();
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (Employee employee : employees) {
+                        byte[] value = rawValue(config, employee);
+                        Duration ttl = config.getTtlFunction().getTimeToLive(employee.getId(), employee);
+                        Expiration expiration = ttl != null && !ttl.isZero() && !ttl.isNegative()
+                                ? Expiration.from(ttl) : Expiration.persistent();
+                        connection.stringCommands().set(rawKey(config, employee.getId()), value, expiration,
+                                RedisStringCommands.SetOption.upsert());
+                    }
+                    return null;
+                });
+            } else if (cache != null) {
+                for (Employee employee : employees) {
+                    cache.put(employee.getId(), employee);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Batch write of the employee cache failed", e);
+        }
+    }
+
+    private static Map<Long, Long> changeStamps(OffHeapEmployeeDirectory directory, Collection<Long> ids) {
+        Map<Long, Long> changeStamps = new HashMap<>();
+        for (Long id : ids) {
+            changeStamps.put(id, directory.changeStamp(id));
+        }
+        return changeStamps;
+    }
+
+    // Employees without a stamp are left out, since nothing says their value is still current.
+    private static void fill(OffHeapEmployeeDirectory directory, Collection<Employee> employees,
+                             Map<Long, Long> changeStamps) {
+        for (Employee employee : employees) {
+            Long changeStamp = changeStamps.get(employee.getId());
+            if (changeStamp != null) {
+                directory.fill(employee, changeStamp);
+            }
+        }
+    }
+
+    private static byte[] rawKey(RedisCacheConfiguration config, Long id) {
+        return toBytes(config.getKeySerializationPair().write(config.getKeyPrefixFor(EMPLOYEE_CACHE) + id));
+    }
+
+    private static byte[] rawValue(RedisCacheConfiguration config, Employee employee) {
+        return toBytes(config.getValueSerializationPair().write(employee));
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
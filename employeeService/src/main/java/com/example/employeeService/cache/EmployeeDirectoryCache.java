@@ -0,0 +1,147 @@
+package com.example.employeeService.cache;
+
+import com.example.employeeService.model.Employee;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * The {@code Employee} cache with an {@link OffHeapEmployeeDirectory} in front of Redis. Lookups by employee id try
+ * the directory first and fill it from Redis; writes and evictions go to both. Other keys, such as the cached pages,
+ * only live in Redis.
+ * <p>
+ * A fill carries the directory's change stamp from before the Redis read, so an update or eviction that lands while
+ * the read is in flight wins over the value it read.
+ */
+public class EmployeeDirectoryCache implements Cache {
+
+    private final Cache remote;
+    private final OffHeapEmployeeDirectory directory;
+
+    public EmployeeDirectoryCache(Cache remote, OffHeapEmployeeDirectory directory, MeterRegistry meterRegistry) {
+        this.remote = remote;
+        this.directory = directory;
+
+        FunctionCounter.builder("employee.directory.requests", directory, OffHeapEmployeeDirectory::hits)
+                .tag("result", "hit")
+                .description("Employee lookups answered by the off-heap directory")
+                .register(meterRegistry);
+        FunctionCounter.builder("employee.directory.requests", directory, OffHeapEmployeeDirectory::misses)
+                .tag("result", "miss")
+                .description("Employee lookups the off-heap directory passed on to Redis")
+                .register(meterRegistry);
+        FunctionCounter.builder("employee.directory.rejected", directory, OffHeapEmployeeDirectory::rejected)
+                .description("Employees not stored because the off-heap directory was full")
+                .register(meterRegistry);
+        Gauge.builder("employee.directory.hit.ratio", directory, d -> {
+                    double total = d.hits() + d.misses();
+                    return total == 0 ? 0 : d.hits() / total;
+                })
+                .description("Share of employee lookups answered by the off-heap directory")
+                .register(meterRegistry);
+        Gauge.builder("employee.directory.entries", directory, OffHeapEmployeeDirectory::size)
+                .description("Employees held in the off-heap directory")
+                .register(meterRegistry);
+        Gauge.builder("employee.directory.memory.used", directory, OffHeapEmployeeDirectory::liveBytes)
+                .baseUnit("bytes")
+                .description("Off-heap bytes taken by current employee records")
+                .register(meterRegistry);
+        Gauge.builder("employee.directory.memory.reserved", directory, OffHeapEmployeeDirectory::reservedBytes)
+                .baseUnit("bytes")
+                .description("Off-heap bytes allocated for the directory records and id table")
+                .register(meterRegistry);
+    }
+
+    public Cache getRemote() {
+        return remote;
+    }
+
+    public OffHeapEmployeeDirectory getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        if (!(key instanceof Long id)) {
+            return remote.get(key);
+        }
+        Employee cached = directory.get(id);
+        if (cached != null) {
+            return new SimpleValueWrapper(cached);
+        }
+        long changeStamp = directory.changeStamp(id);
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() instanceof Employee employee && id.equals(employee.getId())) {
+            directory.fill(employee, changeStamp);
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        if (key instanceof Long id) {
+            if (value instanceof Employee employee && id.equals(employee.getId())) {
+                directory.put(employee);
+            } else {
+                directory.remove(id);
+            }
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        if (key instanceof Long id) {
+            directory.remove(id);
+        }
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        directory.clear();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.employeeService.cache;
+
+import com.example.employeeService.search.SearchIndexUpdate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves the {@code Employee} cache through an {@link EmployeeDirectoryCache} and every other cache straight from
+ * Redis. Listens to the employee change announcements on the search index channel and drops the announced ids from
+ * the directory, so a write on another instance is picked up on the next lookup. This instance's own announcements
+ * drop its fresh entries too, which only costs one Redis read.
+ */
+public class EmployeeDirectoryCacheManager implements CacheManager, MessageListener, InitializingBean {
+
+    private static final Logger logger = Logger.getLogger(EmployeeDirectoryCacheManager.class.getName());
+
+    private final CacheManager remoteCacheManager;
+    private final OffHeapEmployeeDirectory directory;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private volatile EmployeeDirectoryCache employeeCache;
+
+    public EmployeeDirectoryCacheManager(CacheManager remoteCacheManager, OffHeapEmployeeDirectory directory,
+                                         ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (remoteCacheManager instanceof InitializingBean initializingBean) {
+            initializingBean.afterPropertiesSet();
+        }
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        if (!EmployeeBatchCache.EMPLOYEE_CACHE.equals(name)) {
+            return remoteCacheManager.getCache(name);
+        }
+        EmployeeDirectoryCache cache = employeeCache;
+        if (cache == null) {
+            synchronized (this) {
+                if (employeeCache == null) {
+                    Cache remote = remoteCacheManager.getCache(name);
+                    if (remote == null) {
+                        return null;
+                    }
+                    employeeCache = new EmployeeDirectoryCache(remote, directory, meterRegistry);
+                }
+                cache = employeeCache;
+            }
+        }
+        return cache;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            SearchIndexUpdate update = objectMapper.readValue(message.getBody(), SearchIndexUpdate.class);
+            if (update.getIds() != null) {
+                update.getIds().forEach(directory::remove);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Ignoring unreadable employee update: "
+                    + new String(message.getBody(), StandardCharsets.UTF_8), e);
+        }
+    }
+}
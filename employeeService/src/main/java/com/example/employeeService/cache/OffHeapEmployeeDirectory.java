@@ -0,0 +1,382 @@
+package com.example.employeeService.cache;
+
+import com.example.employeeService.model.Employee;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Employees keyed by id, stored outside the Java heap so a full directory adds nothing to GC work.
+ * <p>
+ * Records are appended to one direct buffer:
+ * <pre>
+ * id (8) | expires at, epoch millis (8) | email, name, position byte lengths (2 each, -1 for null) | UTF-8 bytes
+ * </pre>
+ * An open-addressing hash table in two more direct buffers maps each id to the offset of its current record. An
+ * update appends a new record and repoints the id; the old record becomes garbage that is reclaimed by sliding the
+ * live records down once the buffer is full. A lookup only probes the table and decodes one record, so the
+ * returned {@link Employee} and its strings are the only objects it allocates.
+ * <p>
+ * Every put, remove and clear advances a change stamp for the ids it touches (ids share stamps in stripes). A fill
+ * from a slower source takes the stamp before reading there and is dropped by {@link #fill} if the id changed in
+ * the meantime, so a value read before an update cannot replace it.
+ */
+public class OffHeapEmployeeDirectory {
+
+    private static final int HEADER_BYTES = 22;
+    private static final int EXPIRES_AT = 8;
+    private static final int LENGTHS = 16;
+    private static final long FREE = 0L;
+    private static final int CHANGE_STRIPES = 1024;
+
+    private final ByteBuffer records;
+    private final LongBuffer keys;
+    private final IntBuffer offsets;
+    private final int mask;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final StampedLock lock = new StampedLock();
+    private final long[] changes = new long[CHANGE_STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private int writePosition;
+    private int liveBytes;
+    private int entries;
+    private long lastCompaction;
+
+    public OffHeapEmployeeDirectory(int capacityBytes, int maxEntries, Duration ttl, Clock clock) {
+        if (capacityBytes <= HEADER_BYTES) {
+            throw new IllegalArgumentException("Directory capacity must be larger than " + HEADER_BYTES + " bytes");
+        }
+        if (maxEntries < 1 || maxEntries > 1 << 29) {
+            throw new IllegalArgumentException("Directory max entries must be between 1 and " + (1 << 29));
+        }
+        // At most half of the slots are used, so a probe always reaches a free slot quickly.
+        int slots = Integer.highestOneBit(maxEntries * 2 - 1) << 1;
+        this.records = ByteBuffer.allocateDirect(capacityBytes).order(ByteOrder.nativeOrder());
+        this.keys = ByteBuffer.allocateDirect(slots * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        this.offsets = ByteBuffer.allocateDirect(slots * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        this.mask = slots - 1;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.lastCompaction = clock.millis();
+    }
+
+    /**
+     * Returns a copy of the employee, or {@code null} when it is not in the directory or its entry has expired.
+     */
+    public Employee get(long id) {
+        long stamp = lock.readLock();
+        try {
+            int slot = id == FREE ? -1 : find(id);
+            if (slot < 0 || records.getLong(offsets.get(slot) + EXPIRES_AT) <= clock.millis()) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return read(offsets.get(slot));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Stores the employee, replacing any previous version. Returns {@code false} when it does not fit; the id is
+     * then no longer in the directory, so an older version can never be served in its place.
+     */
+    public boolean put(Employee employee) {
+        return store(employee, -1);
+    }
+
+    /**
+     * The current change stamp of the id, to be passed to {@link #fill} with a value read after taking it.
+     */
+    public long changeStamp(long id) {
+        long stamp = lock.readLock();
+        try {
+            return changes[stripe(id)];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Stores the employee like {@link #put}, unless the id was put, removed or cleared after {@code changeStamp}
+     * was taken. Returns {@code false} when it was not stored.
+     */
+    public boolean fill(Employee employee, long changeStamp) {
+        return store(employee, changeStamp);
+    }
+
+    // An expected stamp of -1 stores unconditionally; stamps themselves never go below 0.
+    private boolean store(Employee employee, long expectedStamp) {
+        Long id = employee.getId();
+        if (id == null || id == FREE) {
+            return false;
+        }
+        byte[] email = encode(employee.getEmail());
+        byte[] name = encode(employee.getName());
+        byte[] position = encode(employee.getPosition());
+        long length = (long) HEADER_BYTES + length(email) + length(name) + length(position);
+
+        long stamp = lock.writeLock();
+        try {
+            if (expectedStamp >= 0 && changes[stripe(id)] != expectedStamp) {
+                return false;
+            }
+            changes[stripe(id)]++;
+            int slot = find(id);
+            boolean fits = fits(email) && fits(name) && fits(position) && length <= records.capacity();
+            if (fits && full(slot, length) && compactionAllowed()) {
+                compact();
+                slot = find(id);
+            }
+            if (!fits || full(slot, length)) {
+                if (slot >= 0) {
+                    delete(slot);
+                }
+                rejected.increment();
+                return false;
+            }
+
+            int offset = writePosition;
+            records.putLong(offset, id);
+            records.putLong(offset + EXPIRES_AT, clock.millis() + ttlMillis);
+            records.putShort(offset + LENGTHS, (short) (email == null ? -1 : email.length));
+            records.putShort(offset + LENGTHS + 2, (short) (name == null ? -1 : name.length));
+            records.putShort(offset + LENGTHS + 4, (short) (position == null ? -1 : position.length));
+            int field = offset + HEADER_BYTES;
+            field = write(field, email);
+            field = write(field, name);
+            write(field, position);
+            writePosition += (int) length;
+
+            if (slot >= 0) {
+                liveBytes -= recordLength(offsets.get(slot));
+                offsets.put(slot, offset);
+            } else {
+                insert(id, offset);
+                entries++;
+            }
+            liveBytes += (int) length;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(long id) {
+        long stamp = lock.writeLock();
+        try {
+            changes[stripe(id)]++;
+            int slot = id == FREE ? -1 : find(id);
+            if (slot >= 0) {
+                delete(slot);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            for (int stripe = 0; stripe < CHANGE_STRIPES; stripe++) {
+                changes[stripe]++;
+            }
+            for (int slot = 0; slot <= mask; slot++) {
+                keys.put(slot, FREE);
+            }
+            writePosition = 0;
+            liveBytes = 0;
+            entries = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return entries;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** Bytes of the record buffer holding current records, including ones that have expired but not been reclaimed. */
+    public long liveBytes() {
+        long stamp = lock.readLock();
+        try {
+            return liveBytes;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** Off-heap memory held by the directory: the record buffer and the id table. */
+    public long reservedBytes() {
+        return records.capacity() + (long) keys.capacity() * Long.BYTES + (long) offsets.capacity() * Integer.BYTES;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    /** Employees that could not be stored because the directory was full. */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private Employee read(int offset) {
+        int field = offset + HEADER_BYTES;
+        String email = decode(field, records.getShort(offset + LENGTHS));
+        field += Math.max(records.getShort(offset + LENGTHS), 0);
+        String name = decode(field, records.getShort(offset + LENGTHS + 2));
+        field += Math.max(records.getShort(offset + LENGTHS + 2), 0);
+        String position = decode(field, records.getShort(offset + LENGTHS + 4));
+        return new Employee(records.getLong(offset), email, name, position);
+    }
+
+    private String decode(int offset, short length) {
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        records.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int write(int offset, byte[] bytes) {
+        if (bytes == null) {
+            return offset;
+        }
+        records.put(offset, bytes);
+        return offset + bytes.length;
+    }
+
+    private int recordLength(int offset) {
+        return HEADER_BYTES
+                + Math.max(records.getShort(offset + LENGTHS), 0)
+                + Math.max(records.getShort(offset + LENGTHS + 2), 0)
+                + Math.max(records.getShort(offset + LENGTHS + 4), 0);
+    }
+
+    private boolean full(int slot, long length) {
+        return writePosition + length > records.capacity() || (slot < 0 && entries == maxEntries);
+    }
+
+    // Compacting a buffer that is mostly live would free little and run again on the next put. Every record that
+    // was live at the last compaction has expired one TTL later, so compacting again then always pays off.
+    private boolean compactionAllowed() {
+        return writePosition - liveBytes >= records.capacity() / 8 || clock.millis() - lastCompaction >= ttlMillis;
+    }
+
+    // Slides current, unexpired records to the start of the buffer in their original order and drops the rest.
+    private void compact() {
+        long now = clock.millis();
+        int read = 0;
+        int write = 0;
+        while (read < writePosition) {
+            int length = recordLength(read);
+            int slot = find(records.getLong(read));
+            if (slot >= 0 && offsets.get(slot) == read) {
+                if (records.getLong(read + EXPIRES_AT) <= now) {
+                    delete(slot);
+                } else {
+                    if (write != read) {
+                        records.put(write, records, read, length);
+                        offsets.put(slot, write);
+                    }
+                    write += length;
+                }
+            }
+            read += length;
+        }
+        writePosition = write;
+        lastCompaction = now;
+    }
+
+    private int find(long id) {
+        int slot = home(id);
+        while (true) {
+            long key = keys.get(slot);
+            if (key == id) {
+                return slot;
+            }
+            if (key == FREE) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void insert(long id, int offset) {
+        int slot = home(id);
+        while (keys.get(slot) != FREE) {
+            slot = (slot + 1) & mask;
+        }
+        keys.put(slot, id);
+        offsets.put(slot, offset);
+    }
+
+    // Linear-probing delete: later entries of the same probe run move back into the hole, so no tombstones are left.
+    private void delete(int slot) {
+        liveBytes -= recordLength(offsets.get(slot));
+        entries--;
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            long key = keys.get(next);
+            if (key == FREE) {
+                break;
+            }
+            int home = home(key);
+            boolean reachable = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+            if (!reachable) {
+                keys.put(hole, key);
+                offsets.put(hole, offsets.get(next));
+                hole = next;
+            }
+        }
+        keys.put(hole, FREE);
+    }
+
+    private static int stripe(long id) {
+        return (int) (id ^ (id >>> 32)) & (CHANGE_STRIPES - 1);
+    }
+
+    private int home(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static byte[] encode(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static boolean fits(byte[] bytes) {
+        return bytes == null || bytes.length <= Short.MAX_VALUE;
+    }
+}
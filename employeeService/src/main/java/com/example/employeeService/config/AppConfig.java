@@ -1,19 +1,34 @@
 package com.example.employeeService.config;
 
 
+import com.example.employeeService.cache.EmployeeDirectoryCacheManager;
+import com.example.employeeService.cache.OffHeapEmployeeDirectory;
+import com.example.employeeService.search.EmployeeSearchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.aop.TimedAspect;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.cache.CacheGenerations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartResolver;
 import org.springframework.web.multipart.support.StandardServletMultipartResolver;
 
+import java.time.Clock;
 import java.time.Duration;
 
 @Configuration
@@ -38,10 +53,54 @@ public class AppConfig {
                         RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(10)));
     }
 
+    // Named so cache keys can reach it from SpEL as @cacheGenerations.
+    @Bean
+    public CacheGenerations cacheGenerations(StringRedisTemplate redisTemplate) {
+        return new CacheGenerations(redisTemplate);
+    }
+
+    // Replaces the auto-configured Redis cache manager so the Employee cache can be fronted by the off-heap directory.
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     RedisCacheConfiguration cacheConfiguration,
+                                     ObjectProvider<RedisCacheManagerBuilderCustomizer> customizers,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${employee.directory.enabled:false}") boolean directoryEnabled,
+                                     @Value("${employee.directory.capacity:64MB}") DataSize directoryCapacity,
+                                     @Value("${employee.directory.max-entries:500000}") int directoryMaxEntries,
+                                     @Value("${employee.directory.ttl:5m}") Duration directoryTtl) {
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(cacheConfiguration);
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        RedisCacheManager redisCacheManager = builder.build();
+        if (!directoryEnabled) {
+            return redisCacheManager;
+        }
+
+        OffHeapEmployeeDirectory directory = new OffHeapEmployeeDirectory(Math.toIntExact(directoryCapacity.toBytes()),
+                directoryMaxEntries, directoryTtl, Clock.systemUTC());
+        return new EmployeeDirectoryCacheManager(redisCacheManager, directory, objectMapper, meterRegistry);
+    }
+
     @Bean
     public TimedAspect timedAspect(MeterRegistry registry) {
         return new TimedAspect(registry);
     }
 
+    @Bean
+    public RedisMessageListenerContainer searchIndexListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                     EmployeeSearchService employeeSearchService,
+                                                                     CacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(employeeSearchService, new ChannelTopic(EmployeeSearchService.CHANNEL));
+        if (cacheManager instanceof EmployeeDirectoryCacheManager directoryCacheManager) {
+            // The same announcements keep the off-heap directories of the other instances current.
+            container.addMessageListener(directoryCacheManager, new ChannelTopic(EmployeeSearchService.CHANNEL));
+        }
+        return container;
+    }
+
 
 }
\ No newline at end of file
@@ -1,18 +1,23 @@
 package com.example.employeeService.controller;
 
 import com.example.employeeService.dto.EmployeeCreationRequest;
+import com.example.employeeService.dto.EmployeeImportJobResponse;
 import com.example.employeeService.model.Employee;
+import com.example.employeeService.model.EmployeeImportError;
+import com.example.employeeService.service.EmployeeImportService;
 import com.example.employeeService.service.EmployeeService;
 import io.micrometer.core.annotation.Timed;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.List;
 
 
 @RestController
@@ -20,11 +25,13 @@ import java.io.IOException;
 public class EmployeeController {
 
     private final EmployeeService employeeService;
+    private final EmployeeImportService employeeImportService;
 
 
     @Autowired
-    public EmployeeController (EmployeeService employeeService) {
+    public EmployeeController (EmployeeService employeeService, EmployeeImportService employeeImportService) {
         this.employeeService = employeeService;
+        this.employeeImportService = employeeImportService;
     }
 
     @PostMapping
@@ -33,14 +40,21 @@ public class EmployeeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(employee);
     }
 
+    // The file is imported in the background; poll the returned job for its progress.
     @PostMapping("/upload")
-    public ResponseEntity<String> uploadPayrollFile(@RequestParam("file") MultipartFile file) throws IOException {
-        if (file.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Please upload a valid file.");
-        }
-         employeeService.saveEmployees(file);
-        return ResponseEntity.ok("Payroll file uploaded and saved successfully.");
+    public ResponseEntity<EmployeeImportJobResponse> uploadPayrollFile(@RequestParam("file") MultipartFile file) throws IOException {
+        EmployeeImportJobResponse job = employeeImportService.startImport(file);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/import/{id}")
+    public ResponseEntity<EmployeeImportJobResponse> getImportJob(@PathVariable Long id) {
+        return ResponseEntity.ok(employeeImportService.getJob(id));
+    }
 
+    @GetMapping("/import/{id}/errors")
+    public ResponseEntity<Page<EmployeeImportError>> getImportJobErrors(@PathVariable Long id, Pageable pageable) {
+        return ResponseEntity.ok(employeeImportService.getJobErrors(id, pageable));
     }
 
     @Timed(value = "employeeIdREST", description = "The description of getting employee by id")
@@ -49,6 +63,28 @@ public class EmployeeController {
         return ResponseEntity.ok(employeeService.getEmployeeById(id));
     }
 
+    // Unknown ids are left out of the response, so callers can tell which employees do not exist.
+    @Timed(value = "employeeBatchREST", description = "Batch lookup of employees by id")
+    @GetMapping("/batch")
+    public ResponseEntity<List<Employee>> getEmployeesByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(employeeService.getEmployeesByIds(ids));
+    }
+
+    // Same lookup for id sets too large for a query string.
+    @Timed(value = "employeeBatchREST", description = "Batch lookup of employees by id")
+    @PostMapping("/batch")
+    public ResponseEntity<List<Employee>> getEmployeesByIdsPost(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(employeeService.getEmployeesByIds(ids));
+    }
+
+    // Served from the in-memory search index; matches employees whose name, email or position words start with the query words.
+    @Timed(value = "employeeSearchREST", description = "Search of employees by name, email and position")
+    @GetMapping("/search")
+    public ResponseEntity<List<Employee>> searchEmployees(@RequestParam("q") String query,
+                                                          @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(employeeService.searchEmployees(query, limit));
+    }
+
     @Timed(value = "AllEmployeeREST", description = "The description of getting employee by id")
     @GetMapping
     public ResponseEntity<Page<Employee>> getAllEmployees(
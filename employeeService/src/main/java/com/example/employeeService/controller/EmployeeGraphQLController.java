@@ -1,7 +1,9 @@
 package com.example.employeeService.controller;
 
 import com.example.employeeService.dto.EmployeeCreationRequest;
+import com.example.employeeService.dto.EmployeeImportJobResponse;
 import com.example.employeeService.model.Employee;
+import com.example.employeeService.service.EmployeeImportService;
 import com.example.employeeService.service.EmployeeService;
 import graphql.schema.DataFetchingEnvironment;
 import io.micrometer.core.annotation.Timed;
@@ -14,15 +16,18 @@ import org.springframework.stereotype.Controller;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.List;
 
 @Controller
 public class EmployeeGraphQLController {
 
     private final EmployeeService employeeService;
+    private final EmployeeImportService employeeImportService;
 
     @Autowired
-    public EmployeeGraphQLController(EmployeeService employeeService) {
+    public EmployeeGraphQLController(EmployeeService employeeService, EmployeeImportService employeeImportService) {
         this.employeeService = employeeService;
+        this.employeeImportService = employeeImportService;
     }
 
 
@@ -44,6 +49,12 @@ public class EmployeeGraphQLController {
         return employees;
     }
 
+    @QueryMapping
+    @Timed(value = "employeeSearch", description = "Time taken to search employees")
+    public List<Employee> searchEmployees(@Argument String query, @Argument int limit) {
+        return employeeService.searchEmployees(query, limit);
+    }
+
     @MutationMapping
     @Timed(value = "employeeCreate", description = "Time taken to create an employee")
     public Employee createEmployee(@Argument EmployeeCreationRequest input) {
@@ -63,13 +74,14 @@ public class EmployeeGraphQLController {
         return true;
     }
 
+    @QueryMapping
+    public EmployeeImportJobResponse getImportJob(@Argument Long id) {
+        return employeeImportService.getJob(id);
+    }
+
     @MutationMapping
-    public String uploadPayrollFile(DataFetchingEnvironment environment) throws IOException {
+    public EmployeeImportJobResponse uploadPayrollFile(DataFetchingEnvironment environment) throws IOException {
             MultipartFile file = environment.getArgument("file");
-            if (file.isEmpty()) {
-                throw new RuntimeException("Please upload a valid file.");
-            }
-            employeeService.saveEmployees(file);
-            return "Payroll file uploaded and saved successfully.";
+            return employeeImportService.startImport(file);
         }
 }
@@ -0,0 +1,7 @@
+package com.example.employeeService.csv;
+
+/**
+ * The raw text of a run of whole CSV records, and the line of the file it starts on.
+ */
+public record CsvChunk(long firstLine, String text) {
+}
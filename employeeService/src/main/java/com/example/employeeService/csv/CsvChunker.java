@@ -0,0 +1,86 @@
+package com.example.employeeService.csv;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Cuts a CSV stream into chunks of whole records without parsing fields. It only tracks whether it is inside a
+ * quoted field, so a line break inside quotes never ends a chunk. The chunks can then be handed to
+ * {@link CsvParser}s on separate threads.
+ */
+public class CsvChunker {
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private boolean inQuotes;
+    private boolean pendingCr;
+    private boolean pendingCrEndsRecord;
+    private long line = 1;
+
+    public CsvChunker(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the next {@code maxRecords} records (fewer at the end of the input), or {@code null} once the input is
+     * exhausted.
+     */
+    public CsvChunk nextChunk(int maxRecords) throws IOException {
+        long firstLine = line;
+        StringBuilder text = new StringBuilder();
+        int records = 0;
+
+        while (records < maxRecords) {
+            if (position == limit && !fill()) {
+                break;
+            }
+            char c = buffer[position];
+
+            if (pendingCr) {
+                // A CR ends a line on its own unless an LF follows; either way the pair counts once.
+                pendingCr = false;
+                line++;
+                if (c == '\n') {
+                    text.append(c);
+                    position++;
+                }
+                if (pendingCrEndsRecord && ++records == maxRecords) {
+                    break;
+                }
+                if (c == '\n') {
+                    continue;
+                }
+            }
+
+            text.append(c);
+            position++;
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if (c == '\r') {
+                pendingCr = true;
+                pendingCrEndsRecord = !inQuotes;
+            } else if (c == '\n') {
+                line++;
+                if (!inQuotes) {
+                    records++;
+                }
+            }
+        }
+
+        if (pendingCr && position == limit && !fill()) {
+            // The input ended on a CR.
+            pendingCr = false;
+            line++;
+        }
+        return text.isEmpty() ? null : new CsvChunk(firstLine, text.toString());
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.employeeService.csv;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the input is not valid CSV, for example when it ends inside a quoted field.
+ */
+public class CsvFormatException extends IOException {
+
+    private final long line;
+
+    public CsvFormatException(long line, String message) {
+        super(message);
+        this.line = line;
+    }
+
+    public long getLine() {
+        return line;
+    }
+}
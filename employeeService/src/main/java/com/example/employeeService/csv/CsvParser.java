@@ -0,0 +1,119 @@
+package com.example.employeeService.csv;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 records one at a time. Fields may be quoted, and quoted fields may hold commas, line breaks and
+ * doubled quotes; records end with CRLF, LF or a lone CR. Only the current record is kept in memory.
+ * <p>
+ * The reader should be buffered: it is read one character at a time.
+ */
+public class CsvParser {
+
+    private static final int NONE = -2;
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private long line;
+    private long recordLine;
+    private int pushedBack = NONE;
+
+    public CsvParser(Reader reader) {
+        this(reader, 1);
+    }
+
+    /**
+     * @param firstLine line number of the first character, for inputs that are a slice of a larger file
+     */
+    public CsvParser(Reader reader, long firstLine) {
+        this.reader = reader;
+        this.line = firstLine;
+    }
+
+    /**
+     * Returns the fields of the next record, or {@code null} at the end of the input. An empty line is returned as a
+     * record with a single empty field.
+     *
+     * @throws CsvFormatException if the input ends inside a quoted field
+     */
+    public List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new CsvFormatException(recordLine, "Quoted field is not closed");
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                    if (consumeLineBreak(c)) {
+                        field.append('\n');
+                    }
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                consumeLineBreak(c);
+                fields.add(field.toString());
+                return fields;
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else {
+                // Stray quotes inside an unquoted field are kept as they are.
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Line number on which the last record returned by {@link #readRecord()} started.
+     */
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    // Counts one line for LF, CR or CRLF; returns true when it consumed the LF of a CRLF pair.
+    private boolean consumeLineBreak(int c) throws IOException {
+        if (c == '\n') {
+            line++;
+        } else if (c == '\r') {
+            line++;
+            int next = read();
+            if (next == '\n') {
+                return true;
+            }
+            pushedBack = next;
+        }
+        return false;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != NONE) {
+            int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        return reader.read();
+    }
+}
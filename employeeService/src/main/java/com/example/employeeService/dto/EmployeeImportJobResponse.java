@@ -0,0 +1,26 @@
+package com.example.employeeService.dto;
+
+import com.example.employeeService.model.EmployeeImportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeImportJobResponse {
+
+    private Long id;
+    private String fileName;
+    private EmployeeImportStatus status;
+    private long rowsRead;
+    private long imported;
+    private long failed;
+    // Rows read per second since the job started.
+    private double throughput;
+    private String message;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
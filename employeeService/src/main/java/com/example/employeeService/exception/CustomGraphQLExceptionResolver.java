@@ -42,6 +42,24 @@ public class CustomGraphQLExceptionResolver implements DataFetcherExceptionResol
             ));
         }
 
+        if (exception instanceof IllegalArgumentException) {
+            return Mono.just(Collections.singletonList(
+                    GraphqlErrorBuilder.newError(environment)
+                            .message(exception.getMessage())
+                            .errorType(ErrorType.BAD_REQUEST)
+                            .build()
+            ));
+        }
+
+        if (exception instanceof SearchIndexUnavailableException) {
+            return Mono.just(Collections.singletonList(
+                    GraphqlErrorBuilder.newError(environment)
+                            .message(exception.getMessage())
+                            .errorType(ErrorType.INTERNAL_ERROR)
+                            .build()
+            ));
+        }
+
         if (exception instanceof DataIntegrityViolationException) {
             return Mono.just(Collections.singletonList(
                     GraphqlErrorBuilder.newError(environment)
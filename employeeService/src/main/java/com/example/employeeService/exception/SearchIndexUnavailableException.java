@@ -0,0 +1,7 @@
+package com.example.employeeService.exception;
+
+public class SearchIndexUnavailableException extends RuntimeException {
+    public SearchIndexUnavailableException() {
+        super("Employee search is still loading, try again shortly");
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.example.id.TimeOrderedId;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -19,7 +20,7 @@ public class Employee implements Serializable {
 
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId(nodeIdSetting = "employee.id.node-id")
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -0,0 +1,33 @@
+package com.example.employeeService.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.id.TimeOrderedId;
+
+@Entity
+@Table(name = "employee_import_error", indexes = @Index(name = "idx_import_error_job_line", columnList = "jobId, line"))
+@Data
+@NoArgsConstructor
+public class EmployeeImportError {
+
+    @Id
+    @TimeOrderedId(nodeIdSetting = "employee.id.node-id")
+    private Long id;
+
+    private Long jobId;
+
+    // Line of the uploaded file the row starts on.
+    private long line;
+
+    private String message;
+
+    public EmployeeImportError(Long jobId, long line, String message) {
+        this.jobId = jobId;
+        this.line = line;
+        this.message = message;
+    }
+}
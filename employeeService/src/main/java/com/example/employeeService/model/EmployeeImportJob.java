@@ -0,0 +1,42 @@
+package com.example.employeeService.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "employee_import_job")
+@Data
+@NoArgsConstructor
+public class EmployeeImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String fileName;
+
+    @Enumerated(EnumType.STRING)
+    private EmployeeImportStatus status;
+
+    // Data rows read so far, header and blank lines excluded.
+    private long rowsRead;
+    private long imported;
+    private long failed;
+
+    // Why the whole job failed, if it did; row errors are stored in employee_import_error.
+    private String message;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+
+    public EmployeeImportJob(String fileName, LocalDateTime now) {
+        this.fileName = fileName;
+        this.status = EmployeeImportStatus.RUNNING;
+        this.startedAt = now;
+        this.updatedAt = now;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.employeeService.model;
+
+public enum EmployeeImportStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,13 @@
+package com.example.employeeService.repository;
+
+import com.example.employeeService.model.EmployeeImportError;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EmployeeImportErrorRepository extends JpaRepository<EmployeeImportError, Long> {
+
+    Page<EmployeeImportError> findByJobIdOrderByLine(Long jobId, Pageable pageable);
+}
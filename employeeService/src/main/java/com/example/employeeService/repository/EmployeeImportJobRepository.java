@@ -0,0 +1,14 @@
+package com.example.employeeService.repository;
+
+import com.example.employeeService.model.EmployeeImportJob;
+import com.example.employeeService.model.EmployeeImportStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EmployeeImportJobRepository extends JpaRepository<EmployeeImportJob, Long> {
+
+    List<EmployeeImportJob> findByStatus(EmployeeImportStatus status);
+}
@@ -0,0 +1,258 @@
+package com.example.employeeService.search;
+
+import com.example.employeeService.model.Employee;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over employee name, email and position. Every field is split into lower-case words, and
+ * the words are kept in sorted order so a query word matches all indexed words it is a prefix of with one range
+ * scan. An employee matches a query when every query word matches one of its words; results are ranked by how well
+ * they match (whole word over prefix, name over email over position).
+ * <p>
+ * Reads share a lock and writes take it exclusively; writes are rare compared to searches.
+ */
+public class EmployeeSearchIndex {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Fields a word occurs in, stored as flags on each posting.
+    static final byte NAME = 1;
+    static final byte EMAIL = 2;
+    static final byte POSITION = 4;
+
+    private static final Comparator<Scored> RANKING = Comparator.comparingDouble(Scored::score)
+            .thenComparing(scored -> scored.employee().getName(), Comparator.nullsFirst(Comparator.reverseOrder()))
+            .thenComparing(scored -> scored.employee().getId(), Comparator.reverseOrder());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Employee> employees = new HashMap<>();
+    private final NavigableMap<String, Map<Long, Byte>> postings = new TreeMap<>();
+
+    // Ids written through put/remove while a full load is running; the load must not overwrite them.
+    private Set<Long> writtenDuringLoad;
+
+    /**
+     * Adds the employee, or replaces the indexed version of it.
+     */
+    public void put(Employee employee) {
+        lock.writeLock().lock();
+        try {
+            if (writtenDuringLoad != null) {
+                writtenDuringLoad.add(employee.getId());
+            }
+            replace(employee);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            if (writtenDuringLoad != null) {
+                writtenDuringLoad.add(id);
+            }
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts a full load: the index is emptied, and until {@link #finishLoad()} any {@link #put}/{@link #remove} wins
+     * over the rows passed to {@link #load}, which may have been read before that write.
+     */
+    public void startLoad() {
+        lock.writeLock().lock();
+        try {
+            employees.clear();
+            postings.clear();
+            writtenDuringLoad = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void load(List<Employee> batch) {
+        lock.writeLock().lock();
+        try {
+            for (Employee employee : batch) {
+                if (writtenDuringLoad == null || !writtenDuringLoad.contains(employee.getId())) {
+                    replace(employee);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void finishLoad() {
+        lock.writeLock().lock();
+        try {
+            writtenDuringLoad = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return employees.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the best {@code limit} employees for which every word of {@code query} is a prefix of one of their
+     * words. The employees returned are copies.
+     */
+    public List<Employee> search(String query, int limit) {
+        List<String> words = words(query);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String word : new HashSet<>(words)) {
+                Map<Long, Double> wordScores = match(word);
+                scores = scores == null ? wordScores : intersect(scores, wordScores);
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return top(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Best score of every employee that has a word starting with the query word.
+    private Map<Long, Double> match(String word) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Byte>> entry : postings.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+            boolean whole = entry.getKey().length() == word.length();
+            for (Map.Entry<Long, Byte> posting : entry.getValue().entrySet()) {
+                scores.merge(posting.getKey(), weight(posting.getValue(), whole), Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private static Map<Long, Double> intersect(Map<Long, Double> scores, Map<Long, Double> wordScores) {
+        Map<Long, Double> smaller = scores.size() <= wordScores.size() ? scores : wordScores;
+        Map<Long, Double> larger = smaller == scores ? wordScores : scores;
+        Map<Long, Double> result = new HashMap<>();
+        smaller.forEach((id, score) -> {
+            Double other = larger.get(id);
+            if (other != null) {
+                result.put(id, score + other);
+            }
+        });
+        return result;
+    }
+
+    private List<Employee> top(Map<Long, Double> scores, int limit) {
+        // Min-heap of the best `limit` results seen so far.
+        PriorityQueue<Scored> best = new PriorityQueue<>(Math.min(limit, scores.size()) + 1, RANKING);
+        scores.forEach((id, score) -> {
+            best.add(new Scored(employees.get(id), score));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        });
+
+        List<Employee> results = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            Employee employee = best.poll().employee();
+            results.add(new Employee(employee.getId(), employee.getEmail(), employee.getName(), employee.getPosition()));
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    private static double weight(byte fields, boolean whole) {
+        double weight = 0;
+        if ((fields & NAME) != 0) {
+            weight = 3;
+        } else if ((fields & EMAIL) != 0) {
+            weight = 2;
+        } else if ((fields & POSITION) != 0) {
+            weight = 1;
+        }
+        return whole ? weight * 2 : weight;
+    }
+
+    private void replace(Employee employee) {
+        unindex(employee.getId());
+        Employee copy = new Employee(employee.getId(), employee.getEmail(), employee.getName(), employee.getPosition());
+        employees.put(copy.getId(), copy);
+        addWords(copy.getId(), copy.getName(), NAME);
+        addWords(copy.getId(), copy.getEmail(), EMAIL);
+        addWords(copy.getId(), copy.getPosition(), POSITION);
+    }
+
+    private void unindex(Long id) {
+        Employee previous = employees.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String word : wordsOf(previous)) {
+            Map<Long, Byte> ids = postings.get(word);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(word);
+                }
+            }
+        }
+    }
+
+    private void addWords(Long id, String text, byte field) {
+        for (String word : words(text)) {
+            postings.computeIfAbsent(word, key -> new HashMap<>(4))
+                    .merge(id, field, (a, b) -> (byte) (a | b));
+        }
+    }
+
+    private static Set<String> wordsOf(Employee employee) {
+        Set<String> words = new HashSet<>(words(employee.getName()));
+        words.addAll(words(employee.getEmail()));
+        words.addAll(words(employee.getPosition()));
+        return words;
+    }
+
+    static List<String> words(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> words = new ArrayList<>();
+        for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private record Scored(Employee employee, double score) {
+    }
+}
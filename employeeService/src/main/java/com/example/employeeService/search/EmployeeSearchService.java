@@ -0,0 +1,226 @@
+package com.example.employeeService.search;
+
+import com.example.employeeService.exception.SearchIndexUnavailableException;
+import com.example.employeeService.model.Employee;
+import com.example.employeeService.repository.EmployeeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Serves employee search from an in-process {@link EmployeeSearchIndex}, so searches never reach MySQL. The index is
+ * loaded at startup with one streaming scan of the employee table and then kept current: local writes are applied
+ * after they commit and announced on Redis, and the other instances reload the announced ids by primary key.
+ */
+@Service
+public class EmployeeSearchService implements MessageListener {
+
+    public static final String CHANNEL = "employee-search-index";
+    public static final int MAX_LIMIT = 100;
+
+    private static final Logger logger = Logger.getLogger(EmployeeSearchService.class.getName());
+
+    private final EmployeeSearchIndex index = new EmployeeSearchIndex();
+    private final String instanceId = UUID.randomUUID().toString();
+    private final EmployeeRepository employeeRepository;
+    private final EntityManager entityManager;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration loadRetryDelay;
+    private final ScheduledExecutorService loader;
+
+    private volatile boolean ready;
+
+    @Autowired
+    public EmployeeSearchService(EmployeeRepository employeeRepository,
+                                 EntityManager entityManager,
+                                 StringRedisTemplate redisTemplate,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${employee.search.load-retry-delay:30s}") Duration loadRetryDelay) {
+        this.employeeRepository = employeeRepository;
+        this.entityManager = entityManager;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.loadRetryDelay = loadRetryDelay;
+        this.loader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-search-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("employee.search.index.size", index, EmployeeSearchIndex::size)
+                .description("Employees held in the search index")
+                .register(meterRegistry);
+    }
+
+    public List<Employee> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query cannot be blank");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Search limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (!ready) {
+            throw new SearchIndexUnavailableException();
+        }
+        return index.search(query, limit);
+    }
+
+    /**
+     * Indexes employees that were just created or changed, once the surrounding transaction (if any) commits.
+     */
+    public void indexed(Collection<Employee> employees) {
+        if (employees.isEmpty()) {
+            return;
+        }
+        List<Employee> copies = employees.stream()
+                .map(employee -> new Employee(employee.getId(), employee.getEmail(), employee.getName(), employee.getPosition()))
+                .toList();
+        afterCommit(() -> {
+            copies.forEach(index::put);
+            publish(copies.stream().map(Employee::getId).toList(), false);
+        });
+    }
+
+    public void indexed(Employee employee) {
+        indexed(List.of(employee));
+    }
+
+    public void removed(Long id) {
+        afterCommit(() -> {
+            index.remove(id);
+            publish(List.of(id), true);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        loader.execute(this::load);
+    }
+
+    void load() {
+        try {
+            long started = System.nanoTime();
+            index.startLoad();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Employee> employees = employeeRepository.streamAll()) {
+                    Iterator<Employee> iterator = employees.iterator();
+                    List<Employee> batch = new ArrayList<>(EmployeeRepository.SCAN_FETCH_SIZE);
+                    while (iterator.hasNext()) {
+                        Employee employee = iterator.next();
+                        batch.add(employee);
+                        entityManager.detach(employee);
+                        if (batch.size() == EmployeeRepository.SCAN_FETCH_SIZE) {
+                            index.load(batch);
+                            batch.clear();
+                        }
+                    }
+                    index.load(batch);
+                }
+            });
+            index.finishLoad();
+            ready = true;
+            logger.info("Loaded " + index.size() + " employees into the search index in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + " ms");
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Failed to load the employee search index, retrying in " + loadRetryDelay, e);
+            loader.schedule(this::load, loadRetryDelay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        SearchIndexUpdate update;
+        try {
+            update = objectMapper.readValue(message.getBody(), SearchIndexUpdate.class);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Ignoring unreadable search index update: " + new String(message.getBody()), e);
+            return;
+        }
+        if (instanceId.equals(update.getOrigin()) || update.getIds() == null) {
+            return;
+        }
+
+        if (update.isRemoved()) {
+            update.getIds().forEach(index::remove);
+            return;
+        }
+        Set<Long> missing = new HashSet<>(update.getIds());
+        for (Employee employee : employeeRepository.findAllById(update.getIds())) {
+            index.put(employee);
+            missing.remove(employee.getId());
+        }
+        // Deleted again before we read them.
+        missing.forEach(index::remove);
+    }
+
+    private void publish(List<Long> ids, boolean removed) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL,
+                    objectMapper.writeValueAsString(new SearchIndexUpdate(instanceId, ids, removed)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize search index update", e);
+        } catch (RuntimeException e) {
+            // The write itself succeeded; other instances only see it after their next restart.
+            logger.log(Level.WARNING, "Failed to publish search index update for " + ids.size() + " employees", e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+}
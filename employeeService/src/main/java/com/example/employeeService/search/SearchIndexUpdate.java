@@ -0,0 +1,19 @@
+package com.example.employeeService.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Published on Redis when an instance writes employees, so the other instances refresh those ids in their index.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchIndexUpdate {
+    private String origin;
+    private List<Long> ids;
+    private boolean removed;
+}
@@ -0,0 +1,436 @@
+package com.example.employeeService.service;
+
+import com.example.employeeService.csv.CsvChunk;
+import com.example.employeeService.csv.CsvChunker;
+import com.example.employeeService.csv.CsvFormatException;
+import com.example.employeeService.csv.CsvParser;
+import com.example.employeeService.dto.EmployeeCreationRequest;
+import com.example.employeeService.dto.EmployeeImportJobResponse;
+import com.example.employeeService.model.Employee;
+import com.example.employeeService.model.EmployeeImportError;
+import com.example.employeeService.model.EmployeeImportJob;
+import com.example.employeeService.model.EmployeeImportStatus;
+import com.example.employeeService.repository.EmployeeImportErrorRepository;
+import com.example.employeeService.repository.EmployeeImportJobRepository;
+import com.example.employeeService.repository.EmployeeRepository;
+import com.example.employeeService.search.EmployeeSearchService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.apache.kafka.common.errors.ResourceNotFoundException;
+import org.example.cache.CacheGenerations;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Imports employees from an uploaded CSV file in the background. The upload is spooled to a temporary file and read
+ * once: a single reader cuts it into chunks of whole records, and a bounded pool parses, validates and inserts each
+ * chunk in its own transaction. At most two chunks per worker are held in memory, whatever the size of the file.
+ * Rows that cannot be imported are stored in {@code employee_import_error} with their line number.
+ */
+@Service
+public class EmployeeImportService {
+
+    static final List<String> COLUMNS = List.of("name", "email", "position");
+
+    private static final Logger logger = Logger.getLogger(EmployeeImportService.class.getName());
+    private static final String EMPLOYEE_CACHE = "Employee";
+    private static final int MAX_INSERT_ATTEMPTS = 2;
+
+    private final EmployeeImportJobRepository jobRepository;
+    private final EmployeeImportErrorRepository errorRepository;
+    private final EmployeeRepository employeeRepository;
+    private final Validator validator;
+    private final CacheGenerations cacheGenerations;
+    private final EmployeeSearchService employeeSearchService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int concurrency;
+    private final int maxErrors;
+    private final ExecutorService jobExecutor;
+    private final ExecutorService workers;
+
+    private final Counter importedCounter;
+    private final Counter failedCounter;
+
+    @Autowired
+    public EmployeeImportService(EmployeeImportJobRepository jobRepository,
+                                 EmployeeImportErrorRepository errorRepository,
+                                 EmployeeRepository employeeRepository,
+                                 Validator validator,
+                                 CacheGenerations cacheGenerations,
+                                 EmployeeSearchService employeeSearchService,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${employee.import.chunk-size:1000}") int chunkSize,
+                                 @Value("${employee.import.concurrency:4}") int concurrency,
+                                 @Value("${employee.import.max-errors:10000}") int maxErrors,
+                                 @Value("${employee.import.max-concurrent-jobs:1}") int maxConcurrentJobs) {
+        this.jobRepository = jobRepository;
+        this.errorRepository = errorRepository;
+        this.employeeRepository = employeeRepository;
+        this.validator = validator;
+        this.cacheGenerations = cacheGenerations;
+        this.employeeSearchService = employeeSearchService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.concurrency = concurrency;
+        this.maxErrors = maxErrors;
+        this.jobExecutor = Executors.newFixedThreadPool(maxConcurrentJobs, threadFactory("employee-import"));
+        this.workers = Executors.newFixedThreadPool(concurrency, threadFactory("employee-import-worker"));
+
+        this.importedCounter = Counter.builder("employee.import.rows")
+                .tag("outcome", "imported")
+                .description("Employee rows imported from uploaded files")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("employee.import.rows")
+                .tag("outcome", "failed")
+                .description("Employee rows rejected while importing uploaded files")
+                .register(meterRegistry);
+    }
+
+    public EmployeeImportJobResponse startImport(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Please upload a valid file.");
+        }
+        // The multipart part is deleted when the request ends, so keep our own copy for the job.
+        Path spooled = Files.createTempFile("employee-import-", ".csv");
+        try {
+            file.transferTo(spooled);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+
+        EmployeeImportJob job = jobRepository.save(new EmployeeImportJob(file.getOriginalFilename(), LocalDateTime.now()));
+        EmployeeImportJobResponse response = toResponse(job);
+        jobExecutor.submit(() -> execute(job, spooled));
+        return response;
+    }
+
+    public EmployeeImportJobResponse getJob(Long id) {
+        return toResponse(findJob(id));
+    }
+
+    public Page<EmployeeImportError> getJobErrors(Long id, Pageable pageable) {
+        findJob(id);
+        return errorRepository.findByJobIdOrderByLine(id, pageable);
+    }
+
+    // The spooled file of a job does not survive a restart, so such a job can only be uploaded again.
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        for (EmployeeImportJob job : jobRepository.findByStatus(EmployeeImportStatus.RUNNING)) {
+            job.setMessage("Interrupted by a restart; upload the file again");
+            job.setStatus(EmployeeImportStatus.FAILED);
+            job.setFinishedAt(LocalDateTime.now());
+            job.setUpdatedAt(job.getFinishedAt());
+            jobRepository.save(job);
+        }
+    }
+
+    void execute(EmployeeImportJob job, Path file) {
+        ImportProgress progress = new ImportProgress();
+        // Bounds the chunks that are read but not yet stored.
+        Semaphore inFlight = new Semaphore(concurrency * 2);
+        String failure = null;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            CsvChunker chunker = new CsvChunker(reader);
+            int[] columns = readHeader(chunker.nextChunk(1));
+
+            CsvChunk chunk;
+            while ((chunk = chunker.nextChunk(chunkSize)) != null) {
+                inFlight.acquire();
+                CsvChunk current = chunk;
+                workers.execute(() -> {
+                    try {
+                        importChunk(job.getId(), current, columns, progress);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                checkpoint(job, progress);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = "Import was interrupted";
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Employee import " + job.getId() + " failed", e);
+            failure = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+
+        try {
+            inFlight.acquireUninterruptibly(concurrency * 2);
+            finish(job, progress, failure);
+        } finally {
+            if (progress.imported.get() > 0) {
+                cacheGenerations.bump(EMPLOYEE_CACHE);
+            }
+            deleteQuietly(file);
+        }
+        logger.info("Employee import " + job.getId() + " finished: " + progress);
+    }
+
+    // Finds the columns by name; a file without a recognisable header is read as name,email,position.
+    private int[] readHeader(CsvChunk headerChunk) throws IOException {
+        if (headerChunk == null) {
+            throw new CsvFormatException(1, "File is empty");
+        }
+        List<String> header = new CsvParser(new StringReader(headerChunk.text())).readRecord();
+        List<String> names = header.stream().map(name -> name.trim().toLowerCase(Locale.ROOT)).toList();
+        if (!names.containsAll(COLUMNS)) {
+            return new int[]{0, 1, 2};
+        }
+        return COLUMNS.stream().mapToInt(names::indexOf).toArray();
+    }
+
+    void importChunk(Long jobId, CsvChunk chunk, int[] columns, ImportProgress progress) {
+        List<ImportRow> rows = new ArrayList<>();
+        List<EmployeeImportError> errors = new ArrayList<>();
+        parseRows(jobId, chunk, columns, rows, errors);
+        progress.rowsRead.addAndGet(rows.size() + errors.size());
+
+        int imported = 0;
+        try {
+            imported = insertRows(rows);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Failed to store " + rows.size() + " employees from line " + chunk.firstLine(), e);
+            String message = "Could not be stored: " + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            rows.stream().filter(row -> row.error == null).forEach(row -> row.error = message);
+        }
+        for (ImportRow row : rows) {
+            if (row.error != null) {
+                errors.add(new EmployeeImportError(jobId, row.line, row.error));
+            }
+        }
+
+        progress.imported.addAndGet(imported);
+        importedCounter.increment(imported);
+        recordErrors(errors, progress);
+    }
+
+    private void parseRows(Long jobId, CsvChunk chunk, int[] columns, List<ImportRow> rows,
+                           List<EmployeeImportError> errors) {
+        int width = Math.max(columns[0], Math.max(columns[1], columns[2])) + 1;
+        Set<String> emails = new HashSet<>();
+        CsvParser parser = new CsvParser(new StringReader(chunk.text()), chunk.firstLine());
+        try {
+            List<String> record;
+            while ((record = parser.readRecord()) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                ImportRow row = new ImportRow(parser.getRecordLine());
+                rows.add(row);
+                if (record.size() < width) {
+                    row.error = "Expected " + width + " columns but found " + record.size();
+                    continue;
+                }
+                row.request = new EmployeeCreationRequest(record.get(columns[0]).trim(),
+                        record.get(columns[1]).trim(), record.get(columns[2]).trim());
+                row.error = validate(row.request);
+                if (row.error == null && !emails.add(normalize(row.request.getEmail()))) {
+                    row.error = "Email appears more than once in the file";
+                }
+            }
+        } catch (CsvFormatException e) {
+            errors.add(new EmployeeImportError(jobId, e.getLine(), e.getMessage()));
+        } catch (IOException e) {
+            // Parsing an in-memory string does not do I/O.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String validate(EmployeeCreationRequest request) {
+        Set<ConstraintViolation<EmployeeCreationRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.joining("; "));
+    }
+
+    private int insertRows(List<ImportRow> rows) {
+        for (int attempt = 1; ; attempt++) {
+            rejectExistingEmails(rows);
+            List<Employee> employees = rows.stream()
+                    .filter(row -> row.error == null)
+                    .map(row -> new Employee(null, row.request.getEmail(), row.request.getName(), row.request.getPosition()))
+                    .toList();
+            if (employees.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> employeeRepository.saveAll(employees));
+                employeeSearchService.indexed(employees);
+                return employees.size();
+            } catch (DataIntegrityViolationException e) {
+                // Another chunk or request stored one of these emails after our check; check again.
+                if (attempt == MAX_INSERT_ATTEMPTS) {
+                    throw e;
+                }
+                logger.warning("Import of " + employees.size() + " employees hit a duplicate email, re-checking");
+            }
+        }
+    }
+
+    private void rejectExistingEmails(List<ImportRow> rows) {
+        List<String> emails = rows.stream()
+                .filter(row -> row.error == null)
+                .map(row -> row.request.getEmail())
+                .toList();
+        if (emails.isEmpty()) {
+            return;
+        }
+        Set<String> existing = employeeRepository.findExistingEmails(emails).stream()
+                .map(EmployeeImportService::normalize)
+                .collect(Collectors.toSet());
+        for (ImportRow row : rows) {
+            if (row.error == null && existing.contains(normalize(row.request.getEmail()))) {
+                row.error = "An employee with this email already exists";
+            }
+        }
+    }
+
+    // Only the first max-errors errors of a job are stored; the rest are counted.
+    private void recordErrors(List<EmployeeImportError> errors, ImportProgress progress) {
+        if (errors.isEmpty()) {
+            return;
+        }
+        progress.failed.addAndGet(errors.size());
+        failedCounter.increment(errors.size());
+
+        long stored = progress.errorsStored.getAndAdd(errors.size());
+        int room = (int) Math.min(errors.size(), Math.max(maxErrors - stored, 0));
+        if (room > 0) {
+            try {
+                errorRepository.saveAll(errors.subList(0, room));
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Failed to store " + room + " import errors", e);
+            }
+        }
+    }
+
+    private void checkpoint(EmployeeImportJob job, ImportProgress progress) {
+        copyProgress(job, progress);
+        jobRepository.save(job);
+    }
+
+    private void finish(EmployeeImportJob job, ImportProgress progress, String failure) {
+        copyProgress(job, progress);
+        job.setStatus(failure == null ? EmployeeImportStatus.COMPLETED : EmployeeImportStatus.FAILED);
+        job.setMessage(failure);
+        job.setFinishedAt(job.getUpdatedAt());
+        jobRepository.save(job);
+    }
+
+    private void copyProgress(EmployeeImportJob job, ImportProgress progress) {
+        job.setRowsRead(progress.rowsRead.get());
+        job.setImported(progress.imported.get());
+        job.setFailed(progress.failed.get());
+        job.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private EmployeeImportJob findJob(Long id) {
+        return jobRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("No import job found with id: " + id));
+    }
+
+    private EmployeeImportJobResponse toResponse(EmployeeImportJob job) {
+        LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+        long elapsedMillis = Math.max(Duration.between(job.getStartedAt(), end).toMillis(), 1);
+        double throughput = job.getRowsRead() * 1000.0 / elapsedMillis;
+
+        return new EmployeeImportJobResponse(job.getId(), job.getFileName(), job.getStatus(), job.getRowsRead(),
+                job.getImported(), job.getFailed(), throughput, job.getMessage(), job.getStartedAt(),
+                job.getFinishedAt());
+    }
+
+    private static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to delete " + file, e);
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdown();
+        workers.shutdown();
+    }
+
+    static class ImportProgress {
+        final AtomicLong rowsRead = new AtomicLong();
+        final AtomicLong imported = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong errorsStored = new AtomicLong();
+
+        @Override
+        public String toString() {
+            return "rowsRead=" + rowsRead + ", imported=" + imported + ", failed=" + failed;
+        }
+    }
+
+    private static class ImportRow {
+        final long line;
+        EmployeeCreationRequest request;
+        String error;
+
+        ImportRow(long line) {
+            this.line = line;
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.employeeService.service;
 
+import com.example.employeeService.cache.EmployeeBatchCache;
 import com.example.employeeService.dto.EmployeeCreationRequest;
 import com.example.employeeService.exception.EmployeeNotFoundException;
 import com.example.employeeService.model.Employee;
 import com.example.employeeService.repository.EmployeeRepository;
+import com.example.employeeService.search.EmployeeSearchService;
 import io.micrometer.core.annotation.Timed;
+import org.example.cache.CacheGenerations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
@@ -14,23 +17,32 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class EmployeeService {
 
     private final EmployeeRepository employeeRepository;
+    private final CacheGenerations cacheGenerations;
+    private final EmployeeBatchCache employeeBatchCache;
+    private final EmployeeSearchService employeeSearchService;
     private static final String EMPLOYEE_CACHE = "Employee";
+    private static final int MAX_BATCH_IDS = 1000;
 
     @Autowired
-    public EmployeeService(EmployeeRepository employeeRepository) {
+    public EmployeeService(EmployeeRepository employeeRepository, CacheGenerations cacheGenerations,
+                           EmployeeBatchCache employeeBatchCache, EmployeeSearchService employeeSearchService) {
         this.employeeRepository = employeeRepository;
+        this.cacheGenerations = cacheGenerations;
+        this.employeeBatchCache = employeeBatchCache;
+        this.employeeSearchService = employeeSearchService;
     }
 
     @CachePut(value = EMPLOYEE_CACHE, key = "#result.id")
@@ -39,28 +51,10 @@ public class EmployeeService {
         employee.setName(request.getName());
         employee.setEmail(request.getEmail());
         employee.setPosition(request.getPosition());
-        return employeeRepository.save(employee);
-    }
-
-    public void saveEmployees(MultipartFile file) throws IOException {
-        List<Employee> employees = new ArrayList<>();
-
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
-            String line;
-            boolean isFirstLine = true;
-            while ((line = reader.readLine()) != null) {
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue;
-                }
-                String[] data = line.split(",");
-                if (data.length == 3) {  // 3 columns: name, email, position
-                    Employee employee = new Employee(null, data[1], data[0], data[2]);
-                    employees.add(employee);
-                }
-            }
-        }
-        employeeRepository.saveAll(employees);
+        Employee saved = employeeRepository.save(employee);
+        cacheGenerations.bump(EMPLOYEE_CACHE);
+        employeeSearchService.indexed(saved);
+        return saved;
     }
 
     @Timed("employeeCacheGet")
@@ -72,8 +66,44 @@ public class EmployeeService {
                 .orElseThrow(() -> new EmployeeNotFoundException(id));
     }
 
+    /**
+     * Looks up many employees in three round trips at most: one cache multi-get, one {@code findAllById} for the
+     * misses and one pipelined cache backfill. Unknown ids are left out; the result follows the order of {@code ids}.
+     */
+    @Timed("employeeCacheGetBatch")
+    @Transactional(readOnly = true)
+    public List<Employee> getEmployeesByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        uniqueIds.remove(null);
+        if (uniqueIds.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("Cannot look up more than " + MAX_BATCH_IDS + " employees at once");
+        }
+
+        Map<Long, Employee> employees = new HashMap<>(employeeBatchCache.getAll(uniqueIds));
+        List<Long> misses = uniqueIds.stream().filter(id -> !employees.containsKey(id)).toList();
+        if (!misses.isEmpty()) {
+            Map<Long, Long> changeStamps = employeeBatchCache.changeStamps(misses);
+            List<Employee> loaded = employeeRepository.findAllById(misses);
+            employeeBatchCache.putAll(loaded, changeStamps);
+            loaded.forEach(employee -> employees.put(employee.getId(), employee));
+        }
+
+        return uniqueIds.stream()
+                .map(employees::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public List<Employee> searchEmployees(String query, int limit) {
+        return employeeSearchService.search(query, limit);
+    }
+
+    // Keyed by the cache generation so any employee write invalidates every cached page at once.
     @Timed("employeeCacheGetAll")
-    @Cacheable(value = EMPLOYEE_CACHE, key = "#page + '-' + #size")
+    @Cacheable(value = EMPLOYEE_CACHE, key = "'page-' + @cacheGenerations.current(#root.caches[0].name) + '-' + #page + '-' + #size")
     @Transactional(readOnly = true)
     public Page<Employee> getAllEmployees(int page, int size) {
         System.out.println("No cache, getting employees from the database...");
@@ -87,7 +117,10 @@ public class EmployeeService {
         employee.setName(request.getName());
         employee.setEmail(request.getEmail());
         employee.setPosition(request.getPosition());
-        return employeeRepository.save(employee);
+        Employee saved = employeeRepository.save(employee);
+        cacheGenerations.bump(EMPLOYEE_CACHE);
+        employeeSearchService.indexed(saved);
+        return saved;
     }
 
     @CacheEvict(value = EMPLOYEE_CACHE, key = "#id")
@@ -97,5 +130,7 @@ public class EmployeeService {
             throw new EmployeeNotFoundException(id);
         }
         employeeRepository.deleteById(id);
+        cacheGenerations.bump(EMPLOYEE_CACHE);
+        employeeSearchService.removed(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,196 @@
+package com.example.employeeService.cache;
+
+import com.example.employeeService.model.Employee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class EmployeeBatchCacheTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisStringCommands stringCommands;
+
+    private final RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(10));
+    private EmployeeBatchCache batchCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        RedisCacheManager cacheManager = RedisCacheManager.builder(mock(RedisCacheWriter.class))
+                .withCacheConfiguration("Employee", config)
+                .build();
+        cacheManager.afterPropertiesSet();
+        batchCache = new EmployeeBatchCache(cacheManager, redisTemplate);
+
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(redisTemplate.execute(any(RedisCallback.class))).thenAnswer(i -> i.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(i -> {
+            i.<RedisCallback<?>>getArgument(0).doInRedis(connection);
+            return List.of();
+        });
+    }
+
+    @Test
+    void getAll_shouldReadEveryIdWithOneMultiGetUsingTheCacheKeys() {
+        Employee employee = new Employee(2L, "sara@example.com", "Sara", "Manager");
+        List<String> requestedKeys = new ArrayList<>();
+        when(stringCommands.mGet(any(byte[][].class))).thenAnswer(i -> {
+            for (Object key : i.getArguments()) {
+                requestedKeys.add(new String((byte[]) key, StandardCharsets.UTF_8));
+            }
+            return Arrays.asList(null, serialize(employee));
+        });
+
+        Map<Long, Employee> hits = batchCache.getAll(List.of(1L, 2L));
+
+        assertEquals(Map.of(2L, employee), hits);
+        assertEquals(List.of("Employee::1", "Employee::2"), requestedKeys);
+        verify(stringCommands, times(1)).mGet(any(byte[][].class));
+    }
+
+    @Test
+    void getAll_shouldTreatAnOutageAsMisses() {
+        when(stringCommands.mGet(any(byte[][].class))).thenThrow(new IllegalStateException("redis down"));
+
+        assertTrue(batchCache.getAll(List.of(1L)).isEmpty());
+    }
+
+    @Test
+    void putAll_shouldBackfillInOnePipelineWithTheCacheTtl() {
+        Employee employee = new Employee(3L, "rashed@example.com", "Rashed", "Developer");
+
+        batchCache.putAll(List.of(employee), Map.of());
+
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(stringCommands).set(aryEq("Employee::3".getBytes(StandardCharsets.UTF_8)), aryEq(serialize(employee)),
+                eq(Expiration.from(Duration.ofMinutes(10))), eq(RedisStringCommands.SetOption.upsert()));
+    }
+
+    @Test
+    void getAll_shouldFallBackToPerKeyReadsWithoutRedis() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("Employee");
+        Employee employee = new Employee(1L, "rashed@example.com", "Rashed", "Developer");
+        EmployeeBatchCache localCache = new EmployeeBatchCache(cacheManager, redisTemplate);
+
+        localCache.putAll(List.of(employee), Map.of());
+
+        assertEquals(Map.of(1L, employee), localCache.getAll(List.of(1L, 2L)));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void getAll_shouldOnlyAskRedisForIdsMissingFromTheDirectory() {
+        OffHeapEmployeeDirectory directory = new OffHeapEmployeeDirectory(4096, 16, Duration.ofMinutes(5), Clock.systemUTC());
+        EmployeeBatchCache directoryCache = new EmployeeBatchCache(directoryCacheManager(directory), redisTemplate);
+        Employee local = new Employee(1L, "rashed@example.com", "Rashed", "Developer");
+        Employee remote = new Employee(2L, "sara@example.com", "Sara", "Manager");
+        directory.put(local);
+        List<String> requestedKeys = new ArrayList<>();
+        when(stringCommands.mGet(any(byte[][].class))).thenAnswer(i -> {
+            for (Object key : i.getArguments()) {
+                requestedKeys.add(new String((byte[]) key, StandardCharsets.UTF_8));
+            }
+            return List.of(serialize(remote));
+        });
+
+        assertEquals(Map.of(1L, local, 2L, remote), directoryCache.getAll(List.of(1L, 2L)));
+
+        assertEquals(List.of("Employee::2"), requestedKeys);
+        assertEquals(remote, directory.get(2L));
+    }
+
+    @Test
+    void getAll_shouldNotOverwriteAnUpdateMadeDuringTheMultiGet() {
+        OffHeapEmployeeDirectory directory = new OffHeapEmployeeDirectory(4096, 16, Duration.ofMinutes(5), Clock.systemUTC());
+        EmployeeBatchCache directoryCache = new EmployeeBatchCache(directoryCacheManager(directory), redisTemplate);
+        Employee stale = new Employee(2L, "sara@example.com", "Sara", "Manager");
+        Employee updated = new Employee(2L, "sara@example.com", "Sara", "Director");
+        when(stringCommands.mGet(any(byte[][].class))).thenAnswer(i -> {
+            directory.put(updated);
+            return List.of(serialize(stale));
+        });
+
+        assertEquals(Map.of(2L, stale), directoryCache.getAll(List.of(2L)));
+
+        assertEquals(updated, directory.get(2L));
+    }
+
+    @Test
+    void getAll_shouldNotRefillAnEmployeeEvictedDuringTheMultiGet() {
+        OffHeapEmployeeDirectory directory = new OffHeapEmployeeDirectory(4096, 16, Duration.ofMinutes(5), Clock.systemUTC());
+        EmployeeBatchCache directoryCache = new EmployeeBatchCache(directoryCacheManager(directory), redisTemplate);
+        Employee stale = new Employee(2L, "sara@example.com", "Sara", "Manager");
+        when(stringCommands.mGet(any(byte[][].class))).thenAnswer(i -> {
+            directory.remove(2L);
+            return List.of(serialize(stale));
+        });
+
+        directoryCache.getAll(List.of(2L));
+
+        assertNull(directory.get(2L));
+    }
+
+    @Test
+    void putAll_shouldNotOverwriteAnUpdateMadeAfterTheStampsWereTaken() {
+        OffHeapEmployeeDirectory directory = new OffHeapEmployeeDirectory(4096, 16, Duration.ofMinutes(5), Clock.systemUTC());
+        EmployeeBatchCache directoryCache = new EmployeeBatchCache(directoryCacheManager(directory), redisTemplate);
+        Employee stale = new Employee(2L, "sara@example.com", "Sara", "Manager");
+        Employee updated = new Employee(2L, "sara@example.com", "Sara", "Director");
+        Employee unchanged = new Employee(3L, "rashed@example.com", "Rashed", "Developer");
+
+        Map<Long, Long> changeStamps = directoryCache.changeStamps(List.of(2L, 3L));
+        directory.put(updated);
+        directoryCache.putAll(List.of(stale, unchanged), changeStamps);
+
+        assertEquals(updated, directory.get(2L));
+        assertEquals(unchanged, directory.get(3L));
+    }
+
+    private EmployeeDirectoryCacheManager directoryCacheManager(OffHeapEmployeeDirectory directory) {
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(mock(RedisCacheWriter.class))
+                .withCacheConfiguration("Employee", config)
+                .build();
+        redisCacheManager.afterPropertiesSet();
+        return new EmployeeDirectoryCacheManager(redisCacheManager, directory, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    private byte[] serialize(Employee employee) {
+        ByteBuffer buffer = config.getValueSerializationPair().write(employee);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
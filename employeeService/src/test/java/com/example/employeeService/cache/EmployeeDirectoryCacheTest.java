@@ -0,0 +1,146 @@
+package com.example.employeeService.cache;
+
+import com.example.employeeService.model.Employee;
+import com.example.employeeService.search.SearchIndexUpdate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeDirectoryCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OffHeapEmployeeDirectory directory =
+            new OffHeapEmployeeDirectory(1 << 16, 1_000, Duration.ofMinutes(5), Clock.systemUTC());
+
+    private Cache remote;
+    private EmployeeDirectoryCacheManager cacheManager;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCacheManager remoteCacheManager = new ConcurrentMapCacheManager("Employee", "Account");
+        remote = remoteCacheManager.getCache("Employee");
+        cacheManager = new EmployeeDirectoryCacheManager(remoteCacheManager, directory, objectMapper, meterRegistry);
+        cache = cacheManager.getCache("Employee");
+    }
+
+    @Test
+    void getCache_shouldOnlyFrontTheEmployeeCache() {
+        assertInstanceOf(EmployeeDirectoryCache.class, cache);
+        assertSame(cache, cacheManager.getCache("Employee"));
+        assertFalse(cacheManager.getCache("Account") instanceof EmployeeDirectoryCache);
+    }
+
+    @Test
+    void get_shouldAnswerFromTheDirectoryBeforeTheRemoteCache() {
+        Employee employee = new Employee(1L, "rashed@example.com", "Rashed", "Developer");
+        cache.put(1L, employee);
+        remote.evict(1L);
+
+        assertEquals(employee, cache.get(1L, Employee.class));
+        assertEquals(1.0, meterRegistry.get("employee.directory.requests").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void get_shouldFillTheDirectoryFromTheRemoteCache() {
+        Employee employee = new Employee(2L, "sara@example.com", "Sara", "Manager");
+        remote.put(2L, employee);
+
+        assertEquals(employee, cache.get(2L).get());
+
+        assertEquals(employee, directory.get(2L));
+    }
+
+    @Test
+    void get_shouldNotOverwriteAnUpdateMadeWhileReadingTheRemoteCache() {
+        Employee stale = new Employee(3L, "omar@example.com", "Omar", "Developer");
+        Employee updated = new Employee(3L, "omar@example.com", "Omar", "Lead Developer");
+        Cache racing = racingCache(stale, () -> cache.put(3L, updated));
+
+        assertEquals(stale, racing.get(3L).get());
+
+        assertEquals(updated, directory.get(3L));
+        assertEquals(updated, racing.get(3L).get());
+    }
+
+    @Test
+    void get_shouldNotRefillAnEmployeeEvictedWhileReadingTheRemoteCache() {
+        Employee stale = new Employee(3L, "omar@example.com", "Omar", "Developer");
+        Cache racing = racingCache(stale, () -> cache.evict(3L));
+
+        assertEquals(stale, racing.get(3L).get());
+
+        assertNull(directory.get(3L));
+    }
+
+    @Test
+    void evict_shouldDropTheEmployeeFromBothLevels() {
+        cache.put(1L, new Employee(1L, "rashed@example.com", "Rashed", "Developer"));
+
+        cache.evict(1L);
+
+        assertNull(cache.get(1L));
+        assertNull(directory.get(1L));
+    }
+
+    @Test
+    void put_shouldKeepPagesOutOfTheDirectory() {
+        cache.put("page-0-0-10", List.of());
+
+        assertEquals(List.of(), cache.get("page-0-0-10").get());
+        assertEquals(0, directory.size());
+    }
+
+    @Test
+    void onMessage_shouldDropEmployeesChangedOnAnotherInstance() throws Exception {
+        cache.put(1L, new Employee(1L, "rashed@example.com", "Rashed", "Developer"));
+        cache.put(2L, new Employee(2L, "sara@example.com", "Sara", "Manager"));
+
+        cacheManager.onMessage(new DefaultMessage("employee-search-index".getBytes(),
+                objectMapper.writeValueAsBytes(new SearchIndexUpdate("other-instance", List.of(1L), false))), null);
+
+        assertNull(directory.get(1L));
+        assertNotNull(directory.get(2L));
+    }
+
+    // A directory cache whose Redis read of the first lookup returns stale, with concurrentChange
+    // run by another caller after that value was read and before it is put in the directory.
+    private Cache racingCache(Employee stale, Runnable concurrentChange) {
+        remote.put(stale.getId(), stale);
+        Cache slowRemote = new ConcurrentMapCache("Employee") {
+            private boolean raced;
+
+            @Override
+            public ValueWrapper get(Object key) {
+                ValueWrapper wrapper = remote.get(key);
+                if (!raced) {
+                    raced = true;
+                    concurrentChange.run();
+                }
+                return wrapper;
+            }
+        };
+        return new EmployeeDirectoryCache(slowRemote, directory, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void metrics_shouldReportTheOffHeapFootprint() {
+        cache.put(1L, new Employee(1L, "rashed@example.com", "Rashed", "Developer"));
+
+        assertEquals(1.0, meterRegistry.get("employee.directory.entries").gauge().value());
+        assertTrue(meterRegistry.get("employee.directory.memory.used").gauge().value() > 0);
+        assertEquals(directory.reservedBytes(), meterRegistry.get("employee.directory.memory.reserved").gauge().value());
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.employeeService.cache;
+
+import com.example.employeeService.model.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapEmployeeDirectoryTest {
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void get_shouldReturnACopyOfTheStoredEmployee() {
+        OffHeapEmployeeDirectory directory = directory(1024, 16);
+        Employee employee = new Employee(7L, "zoë@example.com", "Zoë Ørsted", null);
+
+        assertTrue(directory.put(employee));
+        Employee found = directory.get(7L);
+
+        assertEquals(employee, found);
+        assertNotSame(employee, found);
+        assertNull(directory.get(8L));
+        assertEquals(1, directory.hits());
+        assertEquals(1, directory.misses());
+    }
+
+    @Test
+    void put_shouldReplaceThePreviousVersion() {
+        OffHeapEmployeeDirectory directory = directory(1024, 16);
+        directory.put(new Employee(1L, "rashed@example.com", "Rashed", "Developer"));
+
+        directory.put(new Employee(1L, "rashed@example.com", "Rashed", "Senior Developer"));
+
+        assertEquals("Senior Developer", directory.get(1L).getPosition());
+        assertEquals(1, directory.size());
+    }
+
+    @Test
+    void fill_shouldOnlyStoreWhenTheIdIsUnchangedSinceTheStamp() {
+        OffHeapEmployeeDirectory directory = directory(1024, 16);
+        long stamp = directory.changeStamp(1L);
+        directory.put(new Employee(1L, "rashed@example.com", "Rashed", "Senior Developer"));
+
+        assertFalse(directory.fill(new Employee(1L, "rashed@example.com", "Rashed", "Developer"), stamp));
+        assertEquals("Senior Developer", directory.get(1L).getPosition());
+
+        stamp = directory.changeStamp(1L);
+        directory.remove(1L);
+        assertFalse(directory.fill(new Employee(1L, "rashed@example.com", "Rashed", "Developer"), stamp));
+        assertNull(directory.get(1L));
+
+        stamp = directory.changeStamp(1L);
+        assertTrue(directory.fill(new Employee(1L, "rashed@example.com", "Rashed", "Developer"), stamp));
+        assertEquals("Developer", directory.get(1L).getPosition());
+    }
+
+    @Test
+    void remove_shouldKeepOtherIdsOfTheSameProbeRunReachable() {
+        // Far more ids than home slots spread, so many of them share probe runs.
+        OffHeapEmployeeDirectory directory = directory(1 << 20, 5_000);
+        for (long id = 1; id <= 5_000; id++) {
+            directory.put(new Employee(id, "user" + id + "@example.com", "User " + id, "Developer"));
+        }
+
+        for (long id = 1; id <= 5_000; id += 2) {
+            directory.remove(id);
+        }
+
+        assertEquals(2_500, directory.size());
+        for (long id = 1; id <= 5_000; id++) {
+            Employee employee = directory.get(id);
+            if (id % 2 == 1) {
+                assertNull(employee);
+            } else {
+                assertEquals("User " + id, employee.getName());
+            }
+        }
+    }
+
+    @Test
+    void get_shouldMissOnceTheEntryHasExpired() {
+        OffHeapEmployeeDirectory directory = directory(1024, 16);
+        directory.put(new Employee(1L, "rashed@example.com", "Rashed", "Developer"));
+
+        clock.advance(Duration.ofMinutes(5));
+
+        assertNull(directory.get(1L));
+    }
+
+    @Test
+    void put_shouldReclaimReplacedRecordsWhenTheBufferIsFull() {
+        // Room for about four records, so updates soon need the space of the versions they replaced.
+        OffHeapEmployeeDirectory directory = directory(200, 16);
+        directory.put(new Employee(1L, "a@example.com", "Ana", "Developer"));
+        directory.put(new Employee(2L, "b@example.com", "Bob", "Developer"));
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(directory.put(new Employee(2L, "b@example.com", "Bob", "Developer " + i)));
+        }
+
+        assertEquals("Ana", directory.get(1L).getName());
+        assertEquals("Developer 19", directory.get(2L).getPosition());
+        assertEquals(0, directory.rejected());
+    }
+
+    @Test
+    void put_shouldRejectWhenFullAndDropTheOlderVersion() {
+        OffHeapEmployeeDirectory directory = directory(1024, 2);
+        directory.put(new Employee(1L, "a@example.com", "Ana", "Developer"));
+        directory.put(new Employee(2L, "b@example.com", "Bob", "Developer"));
+
+        assertFalse(directory.put(new Employee(3L, "c@example.com", "Cid", "Developer")));
+        assertFalse(directory.put(new Employee(1L, "a@example.com", "Ana", "x".repeat(Short.MAX_VALUE + 1))));
+
+        assertNull(directory.get(3L));
+        assertNull(directory.get(1L));
+        assertEquals(2, directory.rejected());
+    }
+
+    @Test
+    void put_shouldMakeRoomByDroppingExpiredEntries() {
+        OffHeapEmployeeDirectory directory = directory(1024, 2);
+        directory.put(new Employee(1L, "a@example.com", "Ana", "Developer"));
+        directory.put(new Employee(2L, "b@example.com", "Bob", "Developer"));
+        clock.advance(Duration.ofMinutes(5));
+
+        assertTrue(directory.put(new Employee(3L, "c@example.com", "Cid", "Developer")));
+
+        assertEquals(1, directory.size());
+        assertEquals("Cid", directory.get(3L).getName());
+    }
+
+    @Test
+    void clear_shouldEmptyTheDirectory() {
+        OffHeapEmployeeDirectory directory = directory(1024, 16);
+        directory.put(new Employee(1L, "a@example.com", "Ana", "Developer"));
+
+        directory.clear();
+
+        assertEquals(0, directory.size());
+        assertEquals(0, directory.liveBytes());
+        assertNull(directory.get(1L));
+        assertTrue(directory.put(new Employee(1L, "a@example.com", "Ana", "Developer")));
+    }
+
+    private OffHeapEmployeeDirectory directory(int capacity, int maxEntries) {
+        return new OffHeapEmployeeDirectory(capacity, maxEntries, Duration.ofMinutes(5), clock);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
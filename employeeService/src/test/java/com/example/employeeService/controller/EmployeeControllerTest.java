@@ -1,7 +1,11 @@
 package com.example.employeeService.controller;
 
 import com.example.employeeService.dto.EmployeeCreationRequest;
+import com.example.employeeService.dto.EmployeeImportJobResponse;
+import com.example.employeeService.exception.SearchIndexUnavailableException;
 import com.example.employeeService.model.Employee;
+import com.example.employeeService.model.EmployeeImportStatus;
+import com.example.employeeService.service.EmployeeImportService;
 import com.example.employeeService.service.EmployeeService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,8 +18,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
@@ -35,6 +41,9 @@ class EmployeeControllerTest {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeImportService employeeImportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -133,4 +142,70 @@ class EmployeeControllerTest {
         mockMvc.perform(delete("/api/employee/{id}", employeeId))
                 .andExpect(status().isNoContent());
     }
+
+    @Test
+    void getEmployeesByIds_shouldReturnFoundEmployees() throws Exception {
+        when(employeeService.getEmployeesByIds(List.of(1L, 2L)))
+                .thenReturn(List.of(new Employee(1L, "rashed@example.com", "Rashed", "Developer")));
+
+        mockMvc.perform(post("/api/employee/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1,2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(1));
+    }
+
+    @Test
+    void getEmployeesByIds_shouldAcceptIdsInTheQueryString() throws Exception {
+        when(employeeService.getEmployeesByIds(List.of(1L, 2L)))
+                .thenReturn(List.of(new Employee(2L, "sara@example.com", "Sara", "Manager")));
+
+        mockMvc.perform(get("/api/employee/batch").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(2));
+    }
+
+    @Test
+    void uploadPayrollFile_shouldStartAnImportJob() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "employees.csv", "text/csv",
+                "name,email,position\nRashed,rashed@example.com,Developer\n".getBytes());
+        when(employeeImportService.startImport(any())).thenReturn(new EmployeeImportJobResponse(7L, "employees.csv",
+                EmployeeImportStatus.RUNNING, 0, 0, 0, 0.0, null, LocalDateTime.now(), null));
+
+        mockMvc.perform(multipart("/api/employee/upload").file(file))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+    }
+
+    @Test
+    void uploadPayrollFile_shouldRejectAnEmptyFile() throws Exception {
+        when(employeeImportService.startImport(any())).thenThrow(new IllegalArgumentException("Please upload a valid file."));
+
+        mockMvc.perform(multipart("/api/employee/upload").file(new MockMultipartFile("file", new byte[0])))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Please upload a valid file."));
+    }
+
+    @Test
+    void searchEmployees_shouldReturnMatches() throws Exception {
+        when(employeeService.searchEmployees("ras dev", 5))
+                .thenReturn(List.of(new Employee(1L, "rashed@example.com", "Rashed", "Developer")));
+
+        mockMvc.perform(get("/api/employee/search").param("q", "ras dev").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Rashed"));
+    }
+
+    @Test
+    void searchEmployees_shouldReturnServiceUnavailableWhileTheIndexLoads() throws Exception {
+        when(employeeService.searchEmployees("ras", 20)).thenThrow(new SearchIndexUnavailableException());
+
+        mockMvc.perform(get("/api/employee/search").param("q", "ras"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("Employee search is still loading, try again shortly"));
+    }
 }
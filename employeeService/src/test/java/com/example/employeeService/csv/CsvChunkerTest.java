@@ -0,0 +1,69 @@
+package com.example.employeeService.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvChunkerTest {
+
+    @Test
+    void nextChunk_shouldCutOnlyBetweenRecords() throws IOException {
+        String csv = "a,1\n\"b\nstill b\",2\r\nc,3\rd,4\n";
+        CsvChunker chunker = new CsvChunker(new StringReader(csv));
+
+        CsvChunk first = chunker.nextChunk(2);
+        CsvChunk second = chunker.nextChunk(2);
+
+        assertEquals("a,1\n\"b\nstill b\",2\r\n", first.text());
+        assertEquals(1, first.firstLine());
+        assertEquals("c,3\rd,4\n", second.text());
+        assertEquals(4, second.firstLine());
+        assertNull(chunker.nextChunk(2));
+    }
+
+    @Test
+    void nextChunk_shouldReassembleToTheSameRecordsAndLinesAsOneParser() throws IOException {
+        StringBuilder csv = new StringBuilder("name,email,position\r\n");
+        for (int i = 0; i < 5_000; i++) {
+            csv.append(i % 7 == 0 ? "\"Name, " + i + "\nsecond line\"" : "Name " + i)
+                    .append(",user").append(i).append("@example.com,")
+                    .append(i % 3 == 0 ? "\"Dev \"\"" + i + "\"\"\"" : "Dev")
+                    .append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+
+        List<String> expected = new ArrayList<>();
+        CsvParser whole = new CsvParser(new StringReader(csv.toString()));
+        List<String> record;
+        while ((record = whole.readRecord()) != null) {
+            expected.add(whole.getRecordLine() + ":" + record);
+        }
+
+        List<String> actual = new ArrayList<>();
+        CsvChunker chunker = new CsvChunker(new StringReader(csv.toString()));
+        CsvChunk chunk;
+        while ((chunk = chunker.nextChunk(333)) != null) {
+            CsvParser parser = new CsvParser(new StringReader(chunk.text()), chunk.firstLine());
+            while ((record = parser.readRecord()) != null) {
+                actual.add(parser.getRecordLine() + ":" + record);
+            }
+        }
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void nextChunk_shouldReturnTheLastRecordWithoutATrailingLineBreak() throws IOException {
+        CsvChunker chunker = new CsvChunker(new StringReader("a\r\nb"));
+
+        assertEquals("a\r\n", chunker.nextChunk(1).text());
+        CsvChunk last = chunker.nextChunk(1);
+        assertEquals("b", last.text());
+        assertEquals(2, last.firstLine());
+        assertNull(chunker.nextChunk(1));
+    }
+}
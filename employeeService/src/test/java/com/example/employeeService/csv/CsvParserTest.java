@@ -0,0 +1,62 @@
+package com.example.employeeService.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvParserTest {
+
+    @Test
+    void readRecord_shouldSplitPlainFieldsAndKeepEmptyOnes() throws IOException {
+        CsvParser parser = new CsvParser(new StringReader("a,b,c\n,,\nlast"));
+
+        assertEquals(List.of("a", "b", "c"), parser.readRecord());
+        assertEquals(List.of("", "", ""), parser.readRecord());
+        assertEquals(List.of("last"), parser.readRecord());
+        assertNull(parser.readRecord());
+    }
+
+    @Test
+    void readRecord_shouldHandleQuotedCommasQuotesAndLineBreaks() throws IOException {
+        CsvParser parser = new CsvParser(new StringReader(
+                "\"Doe, John\",\"say \"\"hi\"\"\",\"two\r\nlines\"\r\nnext,\"\",x\r\n"));
+
+        assertEquals(List.of("Doe, John", "say \"hi\"", "two\r\nlines"), parser.readRecord());
+        assertEquals(1, parser.getRecordLine());
+        assertEquals(List.of("next", "", "x"), parser.readRecord());
+        assertEquals(3, parser.getRecordLine());
+        assertNull(parser.readRecord());
+    }
+
+    @Test
+    void readRecord_shouldCountLinesForLfCrAndCrlfFromTheGivenStart() throws IOException {
+        CsvParser parser = new CsvParser(new StringReader("a\nb\rc\r\nd"), 10);
+        List<Long> lines = new ArrayList<>();
+        while (parser.readRecord() != null) {
+            lines.add(parser.getRecordLine());
+        }
+
+        assertEquals(List.of(10L, 11L, 12L, 13L), lines);
+    }
+
+    @Test
+    void readRecord_shouldKeepStrayQuotesInUnquotedFields() throws IOException {
+        CsvParser parser = new CsvParser(new StringReader("5\" screen,ok"));
+
+        assertEquals(List.of("5\" screen", "ok"), parser.readRecord());
+    }
+
+    @Test
+    void readRecord_shouldFailOnUnclosedQuote() throws IOException {
+        CsvParser parser = new CsvParser(new StringReader("ok\n\"never closed,\nstill open"));
+        parser.readRecord();
+
+        CsvFormatException e = assertThrows(CsvFormatException.class, parser::readRecord);
+        assertEquals(2, e.getLine());
+    }
+}
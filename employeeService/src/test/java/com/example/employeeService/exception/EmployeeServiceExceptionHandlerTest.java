@@ -44,6 +44,21 @@ class EmployeeServiceExceptionHandlerTest {
         assertEquals(HttpStatus.NOT_FOUND.value(), body.getStatusCode());
     }
 
+    @Test
+    void testHandleIllegalArgumentException() {
+        // Arrange
+        IllegalArgumentException ex = new IllegalArgumentException("Cannot look up more than 1000 employees at once");
+        WebRequest request = mock(WebRequest.class);
+
+        // Act
+        ResponseEntity<?> response = exceptionHandler.handleIllegalArgumentException(ex, request);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        EmployeeServiceExceptionHandler.ErrorResponse body = (EmployeeServiceExceptionHandler.ErrorResponse) response.getBody();
+        assertEquals("Cannot look up more than 1000 employees at once", body.getMessage());
+    }
+
     @Test
     void testHandleGlobalException() {
         // Arrange
@@ -0,0 +1,114 @@
+package com.example.employeeService.search;
+
+import com.example.employeeService.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeSearchIndexTest {
+
+    private EmployeeSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new EmployeeSearchIndex();
+        index.put(new Employee(1L, "john.doe@example.com", "John Doe", "Backend Developer"));
+        index.put(new Employee(2L, "jane.smith@example.com", "Jane Smith", "Engineering Manager"));
+        index.put(new Employee(3L, "johanna@corp.io", "Johanna Berg", "Developer Advocate"));
+        index.put(new Employee(4L, "devops@example.com", "Sam Jones", "Site Reliability"));
+    }
+
+    @Test
+    void search_shouldMatchWordPrefixesInAnyField() {
+        assertEquals(List.of(3L, 1L), ids(index.search("joh", 10)));
+        assertEquals(List.of(2L), ids(index.search("MANAG", 10)));
+        assertEquals(List.of(3L), ids(index.search("corp", 10)));
+    }
+
+    @Test
+    void search_shouldRequireEveryQueryWord() {
+        assertEquals(List.of(1L), ids(index.search("john dev", 10)));
+        assertEquals(List.of(1L), ids(index.search("john.doe@ex", 10)));
+        assertEquals(List.of(), ids(index.search("john manager", 10)));
+    }
+
+    @Test
+    void search_shouldRankByFieldThenByName() {
+        // Email prefix beats position prefix; equal scores are ordered by name.
+        assertEquals(List.of(4L, 3L, 1L), ids(index.search("dev", 10)));
+    }
+
+    @Test
+    void search_shouldRankWholeWordsAbovePrefixes() {
+        index.put(new Employee(5L, "patel@example.com", "Dev Patel", "Tester"));
+
+        assertEquals(List.of(5L, 4L, 3L, 1L), ids(index.search("dev", 10)));
+    }
+
+    @Test
+    void search_shouldReturnOnlyTheTopResults() {
+        assertEquals(List.of(4L, 3L), ids(index.search("dev", 2)));
+        assertEquals(List.of(), index.search("   ", 10));
+    }
+
+    @Test
+    void put_shouldReplaceTheWordsOfAnUpdatedEmployee() {
+        index.put(new Employee(1L, "john.doe@example.com", "John Doe", "Product Owner"));
+
+        assertEquals(List.of(4L, 3L), ids(index.search("dev", 10)));
+        assertEquals(List.of(1L), ids(index.search("owner", 10)));
+    }
+
+    @Test
+    void remove_shouldDropTheEmployeeAndItsWords() {
+        index.remove(3L);
+
+        assertEquals(List.of(1L), ids(index.search("joh", 10)));
+        assertEquals(List.of(), ids(index.search("corp", 10)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void search_shouldReturnCopies() {
+        index.search("john", 1).get(0).setName("Changed");
+
+        assertEquals("John Doe", index.search("john", 1).get(0).getName());
+    }
+
+    @Test
+    void load_shouldNotOverwriteWritesMadeWhileLoading() {
+        index.startLoad();
+        index.put(new Employee(1L, "john.doe@example.com", "John Doe", "Product Owner"));
+        index.remove(2L);
+        index.load(List.of(
+                new Employee(1L, "john.doe@example.com", "John Doe", "Backend Developer"),
+                new Employee(2L, "jane.smith@example.com", "Jane Smith", "Engineering Manager"),
+                new Employee(5L, "li@example.com", "Li Wei", "Analyst")));
+        index.finishLoad();
+
+        assertEquals(List.of(1L), ids(index.search("owner", 10)));
+        assertEquals(List.of(), ids(index.search("jane", 10)));
+        assertEquals(List.of(5L), ids(index.search("li", 10)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void search_shouldStayFastOnALargeDirectory() {
+        EmployeeSearchIndex large = new EmployeeSearchIndex();
+        large.load(LongStream.range(0, 100_000)
+                .mapToObj(i -> new Employee(i, "user" + i + "@example.com", "Name" + i + " Surname" + (i % 500),
+                        i % 2 == 0 ? "Developer" : "Analyst"))
+                .toList());
+
+        assertEquals(List.of(4_242L), ids(large.search("name4242 surname242", 10)));
+        assertEquals(10, large.search("surname12", 10).size());
+    }
+
+    private static List<Long> ids(List<Employee> employees) {
+        return employees.stream().map(Employee::getId).toList();
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.employeeService.search;
+
+import com.example.employeeService.exception.SearchIndexUnavailableException;
+import com.example.employeeService.model.Employee;
+import com.example.employeeService.repository.EmployeeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmployeeSearchServiceTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private EmployeeSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        searchService = new EmployeeSearchService(employeeRepository, entityManager, redisTemplate, objectMapper,
+                transactionManager, new SimpleMeterRegistry(), Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        searchService.shutdown();
+    }
+
+    @Test
+    void search_shouldBeUnavailableUntilTheIndexIsLoaded() {
+        assertThrows(SearchIndexUnavailableException.class, () -> searchService.search("john", 10));
+
+        load(new Employee(1L, "john.doe@example.com", "John Doe", "Developer"));
+
+        assertTrue(searchService.isReady());
+        assertEquals(List.of(1L), ids(searchService.search("john", 10)));
+    }
+
+    @Test
+    void search_shouldRejectBlankQueriesAndOutOfRangeLimits() {
+        load();
+
+        assertThrows(IllegalArgumentException.class, () -> searchService.search(" ", 10));
+        assertThrows(IllegalArgumentException.class, () -> searchService.search("john", 0));
+        assertThrows(IllegalArgumentException.class, () -> searchService.search("john", EmployeeSearchService.MAX_LIMIT + 1));
+    }
+
+    @Test
+    void load_shouldDetachEveryEmployeeItReads() {
+        Employee john = new Employee(1L, "john.doe@example.com", "John Doe", "Developer");
+        Employee jane = new Employee(2L, "jane.smith@example.com", "Jane Smith", "Manager");
+
+        load(john, jane);
+
+        verify(entityManager).detach(john);
+        verify(entityManager).detach(jane);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void load_shouldStayUnavailableWhenTheScanFails() {
+        when(employeeRepository.streamAll()).thenThrow(new IllegalStateException("Connection refused"));
+
+        searchService.load();
+
+        assertFalse(searchService.isReady());
+        assertThrows(SearchIndexUnavailableException.class, () -> searchService.search("john", 10));
+    }
+
+    @Test
+    void indexed_shouldUpdateTheIndexAndAnnounceTheIds() throws Exception {
+        load();
+
+        searchService.indexed(new Employee(5L, "sara@example.com", "Sara Lee", "Manager"));
+
+        assertEquals(List.of(5L), ids(searchService.search("sara", 10)));
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(EmployeeSearchService.CHANNEL), message.capture());
+        SearchIndexUpdate update = objectMapper.readValue(message.getValue(), SearchIndexUpdate.class);
+        assertEquals(List.of(5L), update.getIds());
+        assertFalse(update.isRemoved());
+    }
+
+    @Test
+    void removed_shouldDropTheEmployeeFromTheIndex() {
+        load(new Employee(1L, "john.doe@example.com", "John Doe", "Developer"));
+
+        searchService.removed(1L);
+
+        assertEquals(List.of(), searchService.search("john", 10));
+        verify(redisTemplate).convertAndSend(eq(EmployeeSearchService.CHANNEL), contains("\"removed\":true"));
+    }
+
+    @Test
+    void onMessage_shouldReloadAnnouncedIdsAndDropThoseThatNoLongerExist() throws Exception {
+        load(new Employee(1L, "john.doe@example.com", "John Doe", "Developer"),
+                new Employee(2L, "jane.smith@example.com", "Jane Smith", "Manager"));
+        when(employeeRepository.findAllById(List.of(1L, 2L)))
+                .thenReturn(List.of(new Employee(1L, "john.doe@example.com", "John Doe", "Architect")));
+
+        searchService.onMessage(message(new SearchIndexUpdate("other-instance", List.of(1L, 2L), false)), null);
+
+        assertEquals(List.of(1L), ids(searchService.search("architect", 10)));
+        assertEquals(List.of(), searchService.search("jane", 10));
+    }
+
+    @Test
+    void onMessage_shouldIgnoreItsOwnUpdates() throws Exception {
+        load();
+        searchService.indexed(new Employee(5L, "sara@example.com", "Sara Lee", "Manager"));
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(EmployeeSearchService.CHANNEL), published.capture());
+
+        searchService.onMessage(new DefaultMessage(EmployeeSearchService.CHANNEL.getBytes(), published.getValue().getBytes()), null);
+
+        verify(employeeRepository, never()).findAllById(any());
+    }
+
+    private void load(Employee... employees) {
+        when(employeeRepository.streamAll()).thenReturn(Stream.of(employees));
+        searchService.load();
+    }
+
+    private DefaultMessage message(SearchIndexUpdate update) throws Exception {
+        return new DefaultMessage(EmployeeSearchService.CHANNEL.getBytes(), objectMapper.writeValueAsBytes(update));
+    }
+
+    private static List<Long> ids(List<Employee> employees) {
+        return employees.stream().map(Employee::getId).toList();
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.employeeService.service;
+
+import com.example.employeeService.model.Employee;
+import com.example.employeeService.model.EmployeeImportError;
+import com.example.employeeService.model.EmployeeImportJob;
+import com.example.employeeService.model.EmployeeImportStatus;
+import com.example.employeeService.repository.EmployeeImportErrorRepository;
+import com.example.employeeService.repository.EmployeeImportJobRepository;
+import com.example.employeeService.repository.EmployeeRepository;
+import com.example.employeeService.search.EmployeeSearchService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.example.cache.CacheGenerations;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmployeeImportServiceTest {
+
+    private static final Long JOB_ID = 7L;
+
+    @Mock
+    private EmployeeImportJobRepository jobRepository;
+
+    @Mock
+    private EmployeeImportErrorRepository errorRepository;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private CacheGenerations cacheGenerations;
+
+    @Mock
+    private EmployeeSearchService employeeSearchService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // Stands in for the employee table and its unique email constraint.
+    private final Set<String> storedEmails = new HashSet<>();
+    private final List<EmployeeImportError> storedErrors = new ArrayList<>();
+    private final AtomicInteger failNextInserts = new AtomicInteger();
+
+    private EmployeeImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        importService = service(2, 2, 100);
+
+        when(jobRepository.save(any(EmployeeImportJob.class))).thenAnswer(i -> {
+            EmployeeImportJob job = i.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(JOB_ID);
+            }
+            return job;
+        });
+        when(employeeRepository.findExistingEmails(anyCollection())).thenAnswer(i -> {
+            Collection<String> emails = i.getArgument(0);
+            synchronized (storedEmails) {
+                return emails.stream().filter(email -> storedEmails.contains(email.toLowerCase(Locale.ROOT))).toList();
+            }
+        });
+        when(employeeRepository.saveAll(anyList())).thenAnswer(i -> {
+            List<Employee> employees = i.getArgument(0);
+            synchronized (storedEmails) {
+                Set<String> emails = employees.stream()
+                        .map(employee -> employee.getEmail().toLowerCase(Locale.ROOT))
+                        .collect(Collectors.toSet());
+                if (failNextInserts.getAndDecrement() > 0 || emails.stream().anyMatch(storedEmails::contains)) {
+                    throw new DataIntegrityViolationException("Duplicate entry for key 'email'");
+                }
+                storedEmails.addAll(emails);
+            }
+            return employees;
+        });
+        when(errorRepository.saveAll(anyList())).thenAnswer(i -> {
+            synchronized (storedErrors) {
+                storedErrors.addAll(i.getArgument(0));
+            }
+            return i.getArgument(0);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    @Test
+    void execute_shouldImportValidRowsAcrossChunksAndReportEachBadRow() throws IOException {
+        // One worker, so the first of two rows with the same email always wins.
+        importService = service(2, 1, 100);
+        Path file = csv("""
+                Email,Position,Name
+                ana@example.com,Developer,Ana
+                bob@example.com,"Lead, Platform","Bob ""the builder""\"
+                not-an-email,Developer,Carl
+                dan@example.com,Developer
+                ana@example.com,Tester,Ana Again
+                eve@example.com,Manager,"Eve
+                Smith"
+
+                fay@example.com,Analyst,Fay
+                """);
+        EmployeeImportJob job = job();
+
+        importService.execute(job, file);
+
+        assertEquals(EmployeeImportStatus.COMPLETED, job.getStatus());
+        assertEquals(7, job.getRowsRead());
+        assertEquals(4, job.getImported());
+        assertEquals(3, job.getFailed());
+        assertEquals(Set.of("ana@example.com", "bob@example.com", "eve@example.com", "fay@example.com"), storedEmails);
+        assertEquals(Map.of(
+                        4L, "email: Invalid email format",
+                        5L, "Expected 3 columns but found 2",
+                        6L, "An employee with this email already exists"),
+                errorsByLine());
+        assertFalse(Files.exists(file));
+        verify(cacheGenerations).bump("Employee");
+        verify(employeeSearchService, times(3)).indexed(anyList());
+        verify(employeeRepository, atLeastOnce()).saveAll(argThat(employees -> employees != null
+                && ((List<Employee>) employees).stream().anyMatch(employee ->
+                "Bob \"the builder\"".equals(employee.getName()) && "Lead, Platform".equals(employee.getPosition()))));
+    }
+
+    @Test
+    void execute_shouldReadColumnsByPositionWhenTheHeaderIsUnknown() throws IOException {
+        Path file = csv("""
+                Name,Mail,Role
+                Ana,ana@example.com,Developer
+                """);
+        EmployeeImportJob job = job();
+
+        importService.execute(job, file);
+
+        assertEquals(1, job.getImported());
+        assertEquals(Set.of("ana@example.com"), storedEmails);
+    }
+
+    @Test
+    void execute_shouldImportLargeFilesOnParallelWorkers() throws IOException {
+        importService = service(50, 4, 100);
+        StringBuilder content = new StringBuilder("name,email,position\n");
+        for (int i = 0; i < 2_000; i++) {
+            content.append("\"Employee ").append(i).append("\",user").append(i).append("@example.com,Developer\n");
+        }
+        content.append("Broken,broken,Developer\n");
+        EmployeeImportJob job = job();
+
+        importService.execute(job, csv(content.toString()));
+
+        assertEquals(EmployeeImportStatus.COMPLETED, job.getStatus());
+        assertEquals(2_001, job.getRowsRead());
+        assertEquals(2_000, job.getImported());
+        assertEquals(2_000, storedEmails.size());
+        assertEquals(Set.of(2_002L), errorsByLine().keySet());
+    }
+
+    @Test
+    void execute_shouldRecheckAndRetryWhenAnInsertHitsADuplicate() throws IOException {
+        importService = service(10, 1, 100);
+        failNextInserts.set(1);
+        Path file = csv("""
+                name,email,position
+                Ana,ana@example.com,Developer
+                Bob,bob@example.com,Developer
+                """);
+        EmployeeImportJob job = job();
+
+        importService.execute(job, file);
+
+        assertEquals(2, job.getImported());
+        assertEquals(0, job.getFailed());
+        verify(employeeRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void execute_shouldReportRowsThatCannotBeStored() throws IOException {
+        importService = service(10, 1, 100);
+        failNextInserts.set(2);
+        Path file = csv("""
+                name,email,position
+                Ana,ana@example.com,Developer
+                """);
+        EmployeeImportJob job = job();
+
+        importService.execute(job, file);
+
+        assertEquals(EmployeeImportStatus.COMPLETED, job.getStatus());
+        assertEquals(0, job.getImported());
+        assertEquals(1, job.getFailed());
+        assertTrue(errorsByLine().get(2L).startsWith("Could not be stored"));
+        verify(cacheGenerations, never()).bump(any());
+    }
+
+    @Test
+    void execute_shouldStoreOnlyTheFirstMaxErrorsButCountThemAll() throws IOException {
+        importService = service(10, 1, 2);
+        Path file = csv("""
+                name,email,position
+                A,bad-1,Developer
+                B,bad-2,Developer
+                C,bad-3,Developer
+                """);
+        EmployeeImportJob job = job();
+
+        importService.execute(job, file);
+
+        assertEquals(3, job.getFailed());
+        assertEquals(2, storedErrors.size());
+    }
+
+    @Test
+    void execute_shouldFailTheJobForAnEmptyFile() throws IOException {
+        Path file = csv("");
+        EmployeeImportJob job = job();
+
+        importService.execute(job, file);
+
+        assertEquals(EmployeeImportStatus.FAILED, job.getStatus());
+        assertEquals("File is empty", job.getMessage());
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void startImport_shouldRejectAnEmptyUpload() {
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.startImport(new MockMultipartFile("file", new byte[0])));
+        verify(jobRepository, never()).save(any());
+    }
+
+    private EmployeeImportService service(int chunkSize, int concurrency, int maxErrors) {
+        if (importService != null) {
+            importService.shutdown();
+        }
+        return new EmployeeImportService(jobRepository, errorRepository, employeeRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(), cacheGenerations, employeeSearchService, transactionManager,
+                new SimpleMeterRegistry(), chunkSize, concurrency, maxErrors, 1);
+    }
+
+    private EmployeeImportJob job() {
+        EmployeeImportJob job = new EmployeeImportJob("employees.csv", LocalDateTime.now());
+        job.setId(JOB_ID);
+        return job;
+    }
+
+    private Map<Long, String> errorsByLine() {
+        return storedErrors.stream()
+                .sorted(Comparator.comparingLong(EmployeeImportError::getLine))
+                .collect(Collectors.toMap(EmployeeImportError::getLine, EmployeeImportError::getMessage));
+    }
+
+    private static Path csv(String content) throws IOException {
+        Path file = Files.createTempFile("employees", ".csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -1,12 +1,16 @@
 package com.example.employeeService.service;
 
+import com.example.employeeService.cache.EmployeeBatchCache;
 import com.example.employeeService.dto.EmployeeCreationRequest;
 import com.example.employeeService.exception.EmployeeNotFoundException;
 import com.example.employeeService.model.Employee;
 import com.example.employeeService.repository.EmployeeRepository;
+import com.example.employeeService.search.EmployeeSearchService;
+import org.example.cache.CacheGenerations;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Page;
@@ -14,7 +18,9 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -25,6 +31,15 @@ class EmployeeServiceTest {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private CacheGenerations cacheGenerations;
+
+    @Mock
+    private EmployeeBatchCache employeeBatchCache;
+
+    @Mock
+    private EmployeeSearchService employeeSearchService;
+
     @InjectMocks
     private EmployeeService employeeService;
 
@@ -47,6 +62,8 @@ class EmployeeServiceTest {
         assertEquals("rashed@example.com", createdEmployee.getEmail());
         assertEquals("Developer", createdEmployee.getPosition());
         verify(employeeRepository, times(1)).save(any(Employee.class));
+        verify(cacheGenerations).bump("Employee");
+        verify(employeeSearchService).indexed(employee);
     }
 
     @Test
@@ -118,6 +135,8 @@ class EmployeeServiceTest {
         assertEquals("rashed.updated@example.com", updatedEmployee.getEmail());
         assertEquals("Senior Developer", updatedEmployee.getPosition());
         verify(employeeRepository, times(1)).save(existingEmployee);
+        verify(cacheGenerations).bump("Employee");
+        verify(employeeSearchService).indexed(existingEmployee);
     }
 
     @Test
@@ -130,6 +149,54 @@ class EmployeeServiceTest {
 
         verify(employeeRepository, times(1)).existsById(employeeId); // Verify existence check
         verify(employeeRepository, times(0)).deleteById(employeeId); // Ensure delete is not called
+        verify(cacheGenerations, never()).bump(any());
+        verify(employeeSearchService, never()).removed(any());
     }
 
+
+    @Test
+    void getEmployeesByIds_shouldServeHitsFromCacheAndLoadMissesInOneQuery() {
+        Employee cached = new Employee(1L, "rashed@example.com", "Rashed", "Developer");
+        Employee loaded = new Employee(3L, "sara@example.com", "Sara", "Manager");
+        when(employeeBatchCache.getAll(any())).thenReturn(Map.of(1L, cached));
+        when(employeeBatchCache.changeStamps(List.of(3L, 2L))).thenReturn(Map.of(3L, 7L, 2L, 4L));
+        when(employeeRepository.findAllById(List.of(3L, 2L))).thenReturn(List.of(loaded));
+
+        List<Employee> employees = employeeService.getEmployeesByIds(List.of(3L, 1L, 2L, 3L));
+
+        assertEquals(List.of(loaded, cached), employees);
+        verify(employeeRepository, times(1)).findAllById(List.of(3L, 2L));
+        verify(employeeRepository, never()).findById(any());
+        // The stamps are taken before the database read so a concurrent update keeps the directory.
+        InOrder inOrder = inOrder(employeeBatchCache, employeeRepository);
+        inOrder.verify(employeeBatchCache).changeStamps(List.of(3L, 2L));
+        inOrder.verify(employeeRepository).findAllById(List.of(3L, 2L));
+        inOrder.verify(employeeBatchCache).putAll(List.of(loaded), Map.of(3L, 7L, 2L, 4L));
+    }
+
+    @Test
+    void getEmployeesByIds_shouldSkipTheDatabaseWhenEverythingIsCached() {
+        Employee cached = new Employee(1L, "rashed@example.com", "Rashed", "Developer");
+        when(employeeBatchCache.getAll(any())).thenReturn(Map.of(1L, cached));
+
+        assertEquals(List.of(cached), employeeService.getEmployeesByIds(List.of(1L)));
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void searchEmployees_shouldBeServedByTheSearchIndex() {
+        Employee employee = new Employee(1L, "rashed@example.com", "Rashed", "Developer");
+        when(employeeSearchService.search("rash", 20)).thenReturn(List.of(employee));
+
+        assertEquals(List.of(employee), employeeService.searchEmployees("rash", 20));
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void getEmployeesByIds_shouldRejectTooManyIds() {
+        List<Long> ids = LongStream.rangeClosed(1, 1001).boxed().toList();
+
+        assertThrows(IllegalArgumentException.class, () -> employeeService.getEmployeesByIds(ids));
+        verifyNoInteractions(employeeRepository, employeeBatchCache);
+    }
 }
@@ -1,6 +1,12 @@
 package com.example.notificationService.config;
 
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
@@ -10,6 +16,10 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.beans.factory.annotation.Value;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 public class RabbitMQConfig {
 
@@ -25,16 +35,80 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.password}")
     private String PASSWORD;
 
+    @Value("${notification.listener.batch-size:100}")
+    private int BATCH_SIZE;
+
+    @Value("${notification.listener.batch-timeout:500ms}")
+    private Duration BATCH_TIMEOUT;
+
+    @Value("${notification.listener.prefetch:250}")
+    private int PREFETCH;
+
+    @Value("${notification.listener.concurrency.min:2}")
+    private int MIN_CONSUMERS;
+
+    @Value("${notification.listener.concurrency.max:20}")
+    private int MAX_CONSUMERS;
+
+    @Value("${notification.retry.initial-delay:1s}")
+    private Duration RETRY_INITIAL_DELAY;
+
+    @Value("${notification.retry.multiplier:5}")
+    private double RETRY_MULTIPLIER;
+
+    @Value("${notification.retry.tiers:3}")
+    private int RETRY_TIERS;
+
     @Bean
     public Queue paymentQueue() {
         return new Queue(QUEUE_NAME, true); // Durable queue
     }
 
+    // Tier n waits initial-delay * multiplier^(n-1). The delay is part of the queue name because RabbitMQ refuses to
+    // redeclare a queue with a different TTL, so retuning the delays declares new queues instead of failing startup.
+    @Bean
+    public RetryTopology retryTopology() {
+        List<RetryTopology.Tier> tiers = new ArrayList<>();
+        double delayMillis = RETRY_INITIAL_DELAY.toMillis();
+        for (int i = 0; i < RETRY_TIERS; i++) {
+            long millis = Math.round(delayMillis);
+            tiers.add(new RetryTopology.Tier(QUEUE_NAME + ".retry." + millis + "ms", Duration.ofMillis(millis)));
+            delayMillis *= RETRY_MULTIPLIER;
+        }
+        return new RetryTopology(QUEUE_NAME, QUEUE_NAME + ".retry", tiers, QUEUE_NAME + ".dlq");
+    }
+
+    // Nothing consumes the delay queues: a message sits there until its TTL runs out and RabbitMQ dead-letters it back
+    // to the payment queue, so waiting for a retry never occupies a listener thread.
+    @Bean
+    public Declarables retryDeclarables(RetryTopology retryTopology) {
+        DirectExchange exchange = new DirectExchange(retryTopology.exchange(), true, false);
+        List<Declarable> declarables = new ArrayList<>();
+        declarables.add(exchange);
+        for (RetryTopology.Tier tier : retryTopology.tiers()) {
+            Queue delayQueue = QueueBuilder.durable(tier.queue())
+                    .ttl((int) tier.delay().toMillis())
+                    .deadLetterExchange("")
+                    .deadLetterRoutingKey(retryTopology.queue())
+                    .build();
+            declarables.add(delayQueue);
+            declarables.add(BindingBuilder.bind(delayQueue).to(exchange).with(tier.queue()));
+        }
+        Queue deadLetterQueue = QueueBuilder.durable(retryTopology.deadLetterQueue()).build();
+        declarables.add(deadLetterQueue);
+        declarables.add(BindingBuilder.bind(deadLetterQueue).to(exchange).with(retryTopology.deadLetterQueue()));
+        return new Declarables(declarables);
+    }
+
     @Bean
     public ConnectionFactory connectionFactory() {
         CachingConnectionFactory connectionFactory = new CachingConnectionFactory(HOST);
         connectionFactory.setUsername(USERNAME);
         connectionFactory.setPassword(PASSWORD);
+        // Messages are only acked once the broker has confirmed their copy on a retry, dead-letter or payment queue;
+        // with returns on, a copy no queue took fails instead of being confirmed.
+        connectionFactory.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.CORRELATED);
+        connectionFactory.setPublisherReturns(true);
         return connectionFactory;
     }
 
@@ -48,8 +122,20 @@ public class RabbitMQConfig {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(messageConverter());
-        factory.setConcurrentConsumers(3);
-        factory.setMaxConcurrentConsumers(10);
+        // Starts at the minimum; ListenerConcurrencyController sizes it within these bounds from then on, or, with
+        // autoscaling off, the container's own consumer scaling does.
+        factory.setConcurrentConsumers(MIN_CONSUMERS);
+        factory.setMaxConcurrentConsumers(MAX_CONSUMERS);
+        // Each consumer collects up to BATCH_SIZE messages, waiting at most BATCH_TIMEOUT for the next one, and hands
+        // them to the listener as one List. The listener acks them itself, normally with a single multiple-ack, so it
+        // can requeue one message without the rest.
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(BATCH_SIZE);
+        factory.setReceiveTimeout(BATCH_TIMEOUT.toMillis());
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        // The container raises this to the batch size if it is smaller, otherwise a batch could never fill up.
+        factory.setPrefetchCount(PREFETCH);
         return factory;
     }
 
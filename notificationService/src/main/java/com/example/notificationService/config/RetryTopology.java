@@ -0,0 +1,24 @@
+package com.example.notificationService.config;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Names of the queues payment messages pass through when they fail: one delay queue per retry tier, in order, and
+ * the dead-letter queue for messages that failed every tier. Failed messages are published to {@code exchange} with
+ * the target queue's name as routing key; an expired delay queue message goes back to {@code queue}.
+ *
+ * @param queue           the queue payment messages are consumed from
+ * @param exchange        direct exchange the delay queues and the dead-letter queue are bound to
+ * @param tiers           delay queues, shortest delay first
+ * @param deadLetterQueue where messages end up after the last tier
+ */
+public record RetryTopology(String queue, String exchange, List<Tier> tiers, String deadLetterQueue) {
+
+    /**
+     * @param queue delay queue; messages expire from it after {@code delay}
+     * @param delay how long a message waits before it is consumed again
+     */
+    public record Tier(String queue, Duration delay) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.notificationService.controller;
+
+import com.example.notificationService.dto.DeadLetterReplayResponse;
+import com.example.notificationService.service.DeadLetterReplayService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/notification/dead-letters")
+public class DeadLetterController {
+
+    private final DeadLetterReplayService deadLetterReplayService;
+
+    @Autowired
+    public DeadLetterController(DeadLetterReplayService deadLetterReplayService) {
+        this.deadLetterReplayService = deadLetterReplayService;
+    }
+
+    // Puts dead-lettered payment messages back on the payment queue; call again while "remaining" is above zero.
+    @PostMapping("/replay")
+    public ResponseEntity<DeadLetterReplayResponse> replay(@RequestParam(defaultValue = "1000") int limit,
+                                                           @RequestParam(defaultValue = "100") int batchSize) {
+        if (limit < 1 || batchSize < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(deadLetterReplayService.replay(limit, batchSize));
+    }
+}
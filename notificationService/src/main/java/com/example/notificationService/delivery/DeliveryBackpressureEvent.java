@@ -0,0 +1,12 @@
+package com.example.notificationService.delivery;
+
+/**
+ * Published by {@link DeliveryDispatcher} when it wants message consumption paused because a channel queue is filling
+ * up, and again when it has drained enough to resume.
+ *
+ * @param paused  whether consumption should be paused
+ * @param channel the channel whose queue triggered the change
+ * @param queued  notifications waiting on that channel at the time
+ */
+public record DeliveryBackpressureEvent(boolean paused, String channel, int queued) {
+}
@@ -0,0 +1,24 @@
+package com.example.notificationService.delivery;
+
+import com.example.notificationService.model.Notification;
+
+import java.io.IOException;
+
+/**
+ * One way of reaching a recipient, such as email or a webhook. Channels are called from the {@link DeliveryDispatcher}
+ * workers of that channel only, never from a listener thread, so they may block on the network.
+ */
+public interface DeliveryChannel {
+
+    /**
+     * Name used in the {@code notification.delivery.<name>.*} properties and as the metrics tag.
+     */
+    String name();
+
+    /**
+     * Delivers one notification, returning once the other side has accepted it.
+     *
+     * @throws IOException if it could not be delivered
+     */
+    void deliver(Notification notification) throws IOException, InterruptedException;
+}
@@ -0,0 +1,277 @@
+package com.example.notificationService.delivery;
+
+import com.example.notificationService.model.Notification;
+import com.example.notificationService.service.NotificationDispatcher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delivers notifications over every configured {@link DeliveryChannel} without blocking the caller.
+ * <p>
+ * Each channel has its own bounded queue and its own workers: {@code notification.delivery.<channel>.concurrency}
+ * threads, together sending at most {@code notification.delivery.<channel>.rate} notifications per second. A slow mail
+ * server therefore only backs up the email queue and never holds a listener thread.
+ * <p>
+ * Once any channel queue is {@code pause-at} full a {@link DeliveryBackpressureEvent} asks for consumption to be
+ * paused, and once all are below {@code resume-at} another asks for it to resume, so undelivered work waits on the
+ * broker rather than in memory. A batch that does not fit at all is rejected as a whole.
+ */
+@Service
+public class DeliveryDispatcher implements NotificationDispatcher {
+
+    private static final Logger logger = Logger.getLogger(DeliveryDispatcher.class.getName());
+
+    private final List<Lane> lanes = new ArrayList<>();
+    private final ApplicationEventPublisher eventPublisher;
+    private final int pauseAt;
+    private final int resumeAt;
+    private final Duration shutdownTimeout;
+    private final Counter rejected;
+
+    private final Object backpressureLock = new Object();
+    private volatile boolean paused;
+    private volatile boolean accepting = true;
+
+    @Autowired
+    public DeliveryDispatcher(List<DeliveryChannel> channels,
+                              Environment environment,
+                              ApplicationEventPublisher eventPublisher,
+                              MeterRegistry meterRegistry,
+                              @Value("${notification.delivery.queue-capacity:10000}") int queueCapacity,
+                              @Value("${notification.delivery.pause-at:0.5}") double pauseAt,
+                              @Value("${notification.delivery.resume-at:0.2}") double resumeAt,
+                              @Value("${notification.delivery.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this(channels, name -> new ChannelLimits(
+                        environment.getProperty("notification.delivery." + name + ".concurrency", Integer.class, 1),
+                        environment.getProperty("notification.delivery." + name + ".rate", Double.class, 0.0)),
+                eventPublisher, meterRegistry, queueCapacity, pauseAt, resumeAt, shutdownTimeout);
+    }
+
+    DeliveryDispatcher(List<DeliveryChannel> channels, Function<String, ChannelLimits> limits,
+                       ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry, int queueCapacity,
+                       double pauseAt, double resumeAt, Duration shutdownTimeout) {
+        if (!(resumeAt < pauseAt && pauseAt <= 1.0)) {
+            throw new IllegalArgumentException("Delivery resume-at must be below pause-at, which must be at most 1");
+        }
+        this.eventPublisher = eventPublisher;
+        this.pauseAt = Math.max(1, (int) (queueCapacity * pauseAt));
+        this.resumeAt = (int) (queueCapacity * resumeAt);
+        this.shutdownTimeout = shutdownTimeout;
+        this.rejected = Counter.builder("notification.delivery.rejected")
+                .description("Notifications turned away because a channel queue had no room for their batch")
+                .register(meterRegistry);
+        Gauge.builder("notification.delivery.paused", this, dispatcher -> dispatcher.paused ? 1 : 0)
+                .description("1 while consumption is paused for delivery to catch up")
+                .register(meterRegistry);
+
+        for (DeliveryChannel channel : channels) {
+            lanes.add(new Lane(channel, limits.apply(channel.name()), queueCapacity, meterRegistry));
+        }
+        if (lanes.isEmpty()) {
+            logger.warning("No notification delivery channel is enabled; notifications will be dropped");
+        }
+        lanes.forEach(Lane::start);
+    }
+
+    @Override
+    public void dispatch(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        // Producers take turns so a batch that was checked to fit cannot be squeezed out by another one; workers only
+        // ever make room, so the check stays true until the batch is in.
+        synchronized (this) {
+            if (!accepting) {
+                throw new RejectedExecutionException("Notification delivery is shutting down");
+            }
+            for (Lane lane : lanes) {
+                if (lane.queue.remainingCapacity() < notifications.size()) {
+                    rejected.increment(notifications.size());
+                    pauseIfFilling(lane);
+                    throw new RejectedExecutionException("No room for " + notifications.size()
+                            + " notifications on the " + lane.channel.name() + " queue");
+                }
+            }
+            for (Lane lane : lanes) {
+                lane.queue.addAll(notifications);
+            }
+        }
+        for (Lane lane : lanes) {
+            pauseIfFilling(lane);
+        }
+    }
+
+    boolean isPaused() {
+        return paused;
+    }
+
+    int queued(String channel) {
+        return lanes.stream().filter(lane -> lane.channel.name().equals(channel)).mapToInt(lane -> lane.queue.size()).sum();
+    }
+
+    private void pauseIfFilling(Lane lane) {
+        if (paused || lane.queue.size() < pauseAt) {
+            return;
+        }
+        synchronized (backpressureLock) {
+            int queued = lane.queue.size();
+            if (!paused && queued >= pauseAt) {
+                paused = true;
+                logger.warning("Pausing consumption, " + queued + " notifications waiting on the "
+                        + lane.channel.name() + " channel");
+                eventPublisher.publishEvent(new DeliveryBackpressureEvent(true, lane.channel.name(), queued));
+            }
+        }
+    }
+
+    private void resumeIfDrained(Lane lane) {
+        if (!paused || lane.queue.size() > resumeAt) {
+            return;
+        }
+        // Events are published under the lock so listeners see pause and resume in the order they were decided.
+        synchronized (backpressureLock) {
+            if (paused && lanes.stream().allMatch(other -> other.queue.size() <= resumeAt)) {
+                paused = false;
+                logger.info("Resuming consumption, delivery queues have drained");
+                eventPublisher.publishEvent(new DeliveryBackpressureEvent(false, lane.channel.name(), lane.queue.size()));
+            }
+        }
+    }
+
+    /**
+     * Stops accepting notifications and gives the workers up to the shutdown timeout to deliver what is queued.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        synchronized (this) {
+            accepting = false;
+        }
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        while (lanes.stream().anyMatch(Lane::busy) && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        int undelivered = lanes.stream().mapToInt(lane -> lane.queue.size()).sum();
+        if (undelivered > 0) {
+            logger.warning("Shutting down with " + undelivered + " notifications undelivered");
+        }
+        lanes.forEach(Lane::stop);
+    }
+
+    /**
+     * Per-channel worker settings.
+     *
+     * @param concurrency    worker threads, i.e. deliveries in progress at once
+     * @param ratePerSecond  deliveries started per second across those workers; 0 means unlimited
+     */
+    record ChannelLimits(int concurrency, double ratePerSecond) {
+    }
+
+    // One channel's queue, workers and meters.
+    private final class Lane {
+        final DeliveryChannel channel;
+        final BlockingQueue<Notification> queue;
+        final RateLimiter rateLimiter;
+        final List<Thread> workers = new ArrayList<>();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final Counter delivered;
+        final Counter failed;
+        final Timer deliveryTime;
+
+        Lane(DeliveryChannel channel, ChannelLimits limits, int queueCapacity, MeterRegistry meterRegistry) {
+            this.channel = channel;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.rateLimiter = new RateLimiter(limits.ratePerSecond(), System::nanoTime);
+            for (int i = 0; i < Math.max(1, limits.concurrency()); i++) {
+                Thread worker = new Thread(this::work, "notification-delivery-" + channel.name() + "-" + i);
+                worker.setDaemon(true);
+                workers.add(worker);
+            }
+            this.delivered = deliveries(meterRegistry, "delivered");
+            this.failed = deliveries(meterRegistry, "failed");
+            this.deliveryTime = Timer.builder("notification.delivery.time")
+                    .tag("channel", channel.name())
+                    .description("Time spent handing one notification to the channel")
+                    .register(meterRegistry);
+            Gauge.builder("notification.delivery.queued", queue, BlockingQueue::size)
+                    .tag("channel", channel.name())
+                    .description("Notifications waiting for a worker of the channel")
+                    .register(meterRegistry);
+        }
+
+        void start() {
+            workers.forEach(Thread::start);
+        }
+
+        void stop() {
+            workers.forEach(Thread::interrupt);
+        }
+
+        boolean busy() {
+            return !queue.isEmpty() || inFlight.get() > 0;
+        }
+
+        private void work() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Notification notification = queue.take();
+                    inFlight.incrementAndGet();
+                    try {
+                        resumeIfDrained(this);
+                        long wait = rateLimiter.reserve();
+                        if (wait > 0) {
+                            TimeUnit.NANOSECONDS.sleep(wait);
+                        }
+                        deliver(notification);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void deliver(Notification notification) throws InterruptedException {
+            long started = System.nanoTime();
+            try {
+                channel.deliver(notification);
+                delivered.increment();
+            } catch (IOException | RuntimeException e) {
+                failed.increment();
+                logger.log(Level.WARNING, "Failed to deliver notification to " + notification.getRecipient()
+                        + " over " + channel.name(), e);
+            } finally {
+                deliveryTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private Counter deliveries(MeterRegistry meterRegistry, String result) {
+            return Counter.builder("notification.delivery.deliveries")
+                    .tag("channel", channel.name())
+                    .tag("result", result)
+                    .description("Notifications handed to the channel, by outcome")
+                    .register(meterRegistry);
+        }
+    }
+}
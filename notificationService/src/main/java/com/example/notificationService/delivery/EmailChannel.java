@@ -0,0 +1,116 @@
+package com.example.notificationService.delivery;
+
+import com.example.notificationService.model.Notification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Sends each notification as a plain-text mail over SMTP to {@code <recipient>@<recipient-domain>}, opening one
+ * connection per mail. Connect and read timeouts bound how long an unresponsive mail server can hold a worker.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.delivery.email.enabled", havingValue = "true")
+public class EmailChannel implements DeliveryChannel {
+
+    private static final String CRLF = "\r\n";
+
+    private final String host;
+    private final int port;
+    private final String from;
+    private final String recipientDomain;
+    private final int timeoutMillis;
+
+    @Autowired
+    public EmailChannel(@Value("${notification.delivery.email.host:localhost}") String host,
+                        @Value("${notification.delivery.email.port:25}") int port,
+                        @Value("${notification.delivery.email.from}") String from,
+                        @Value("${notification.delivery.email.recipient-domain}") String recipientDomain,
+                        @Value("${notification.delivery.email.timeout:5s}") Duration timeout) {
+        this.host = host;
+        this.port = port;
+        this.from = from;
+        this.recipientDomain = recipientDomain;
+        this.timeoutMillis = (int) timeout.toMillis();
+    }
+
+    @Override
+    public String name() {
+        return "email";
+    }
+
+    @Override
+    public void deliver(Notification notification) throws IOException {
+        String to = notification.getRecipient() + "@" + recipientDomain;
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+            socket.setSoTimeout(timeoutMillis);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+            expect(in, '2');
+            command(out, in, "EHLO " + socket.getLocalAddress().getHostName(), '2');
+            command(out, in, "MAIL FROM:<" + from + ">", '2');
+            command(out, in, "RCPT TO:<" + to + ">", '2');
+            command(out, in, "DATA", '3');
+            out.write(message(to, notification));
+            command(out, in, ".", '2');
+            // The mail is accepted at this point, so a server that hangs up without answering QUIT is fine.
+            out.write("QUIT" + CRLF);
+            out.flush();
+        }
+    }
+
+    private String message(String to, Notification notification) {
+        StringBuilder message = new StringBuilder()
+                .append("From: ").append(from).append(CRLF)
+                .append("To: ").append(to).append(CRLF)
+                .append("Subject: Payment received").append(CRLF)
+                .append("Date: ").append(DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now())).append(CRLF)
+                .append("Content-Type: text/plain; charset=UTF-8").append(CRLF)
+                .append("Content-Transfer-Encoding: 8bit").append(CRLF)
+                .append(CRLF);
+        for (String line : String.valueOf(notification.getMessage()).split("\r?\n", -1)) {
+            // A lone "." ends the data section, so lines starting with one get it doubled.
+            if (line.startsWith(".")) {
+                message.append('.');
+            }
+            message.append(line).append(CRLF);
+        }
+        return message.toString();
+    }
+
+    private static void command(Writer out, BufferedReader in, String command, char expectedClass) throws IOException {
+        out.write(command + CRLF);
+        out.flush();
+        expect(in, expectedClass);
+    }
+
+    // Reads a possibly multi-line reply ("250-..." continues, "250 ..." ends it) and checks its first digit.
+    private static void expect(BufferedReader in, char expectedClass) throws IOException {
+        String line;
+        do {
+            line = in.readLine();
+            if (line == null) {
+                throw new IOException("SMTP server closed the connection");
+            }
+        } while (line.length() > 3 && line.charAt(3) == '-');
+        if (line.isEmpty() || line.charAt(0) != expectedClass) {
+            throw new IOException("SMTP server answered: " + line);
+        }
+    }
+}
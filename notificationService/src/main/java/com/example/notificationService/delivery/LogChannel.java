@@ -0,0 +1,28 @@
+package com.example.notificationService.delivery;
+
+import com.example.notificationService.model.Notification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.logging.Logger;
+
+/**
+ * Writes notifications to the log, which is all this service did before real channels existed. On by default so a
+ * setup without a mail server or webhook still shows what would have been sent.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.delivery.log.enabled", havingValue = "true", matchIfMissing = true)
+public class LogChannel implements DeliveryChannel {
+
+    private static final Logger logger = Logger.getLogger(LogChannel.class.getName());
+
+    @Override
+    public String name() {
+        return "log";
+    }
+
+    @Override
+    public void deliver(Notification notification) {
+        logger.info("Sending notification to user: " + notification);
+    }
+}
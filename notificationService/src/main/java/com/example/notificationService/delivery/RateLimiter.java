@@ -0,0 +1,40 @@
+package com.example.notificationService.delivery;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Spaces out calls evenly at a fixed rate. Each caller reserves the next free slot and is told how long to wait for
+ * it, so concurrent workers of one channel share the rate without a token-refill thread.
+ */
+final class RateLimiter {
+
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+    private long nextFreeNanos;
+
+    /**
+     * @param permitsPerSecond calls allowed per second; 0 or less means no limit
+     */
+    RateLimiter(double permitsPerSecond, LongSupplier nanoClock) {
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+        this.nanoClock = nanoClock;
+        this.nextFreeNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Reserves a slot and returns how many nanoseconds the caller has to wait before using it.
+     */
+    long reserve() {
+        if (intervalNanos == 0) {
+            return 0;
+        }
+        long now = nanoClock.getAsLong();
+        synchronized (this) {
+            // Idle time does not build up credit, so a quiet channel cannot burst past the rate afterwards.
+            long slot = Math.max(now, nextFreeNanos);
+            nextFreeNanos = slot + intervalNanos;
+            return slot - now;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.notificationService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeadLetterReplayResponse {
+
+    private int replayed;
+    private int batches;
+    // Messages left in the dead-letter queue afterwards.
+    private long remaining;
+}
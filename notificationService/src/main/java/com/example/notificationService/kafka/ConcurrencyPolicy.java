@@ -0,0 +1,145 @@
+package com.example.notificationService.kafka;
+
+import java.time.Duration;
+
+/**
+ * Decides how many consumers the payment listener should run, and with what prefetch, from periodic load samples.
+ * <p>
+ * It scales up when the backlog would take longer than {@code targetDrainTime} to clear at the current rate and the
+ * consumers are busy; more consumers would not help if they are idle or if per-message latency has grown well past
+ * what it was before the last scale-up, since then the work downstream is the bottleneck. It scales down when the
+ * consumers are mostly idle and the backlog fits in one batch per consumer. A direction has to hold for several
+ * samples in a row, and nothing changes within the cooldown after a change, so short bursts do not make the consumer
+ * count flap.
+ * <p>
+ * Prefetch is sized to hold {@code prefetchBuffer} worth of messages per consumer at the measured rate, so slow
+ * processing gets a small prefetch and messages are not parked on one busy consumer.
+ */
+final class ConcurrencyPolicy {
+
+    /**
+     * One sampling interval.
+     *
+     * @param queueDepth     messages ready on the queue
+     * @param throughput     messages handled per second during the interval
+     * @param utilisation    share of the interval the consumers spent handling messages, 0 to 1
+     * @param latencyMillis  average time to handle one message
+     */
+    record Sample(long queueDepth, double throughput, double utilisation, double latencyMillis) {
+    }
+
+    /**
+     * @param consumers new consumer count
+     * @param prefetch  new prefetch per consumer
+     * @param reason    why, for the event and the log
+     */
+    record Decision(int consumers, int prefetch, String reason) {
+    }
+
+    private final int minConsumers;
+    private final int maxConsumers;
+    private final int batchSize;
+    private final int maxPrefetch;
+    private final double targetDrainSeconds;
+    private final double busyUtilisation;
+    private final double idleUtilisation;
+    private final double maxLatencyGrowth;
+    private final int scaleUpSamples;
+    private final int scaleDownSamples;
+    private final long cooldownNanos;
+    private final double prefetchBufferSeconds;
+
+    private int consumers;
+    private int prefetch;
+    private int upStreak;
+    private int downStreak;
+    private long lastChangeNanos = Long.MIN_VALUE;
+    // Per-message latency measured just before the last scale-up; later samples are compared against it.
+    private double baselineLatencyMillis;
+
+    ConcurrencyPolicy(int minConsumers, int maxConsumers, int batchSize, int initialPrefetch, int maxPrefetch,
+                      Duration targetDrainTime, double busyUtilisation, double idleUtilisation,
+                      double maxLatencyGrowth, int scaleUpSamples, int scaleDownSamples, Duration cooldown,
+                      Duration prefetchBuffer) {
+        if (minConsumers < 1 || maxConsumers < minConsumers) {
+            throw new IllegalArgumentException("Listener concurrency needs 1 <= min <= max");
+        }
+        if (idleUtilisation >= busyUtilisation) {
+            throw new IllegalArgumentException("Idle utilisation must be below busy utilisation");
+        }
+        this.minConsumers = minConsumers;
+        this.maxConsumers = maxConsumers;
+        this.batchSize = batchSize;
+        this.maxPrefetch = Math.max(batchSize, maxPrefetch);
+        this.targetDrainSeconds = targetDrainTime.toMillis() / 1000.0;
+        this.busyUtilisation = busyUtilisation;
+        this.idleUtilisation = idleUtilisation;
+        this.maxLatencyGrowth = maxLatencyGrowth;
+        this.scaleUpSamples = scaleUpSamples;
+        this.scaleDownSamples = scaleDownSamples;
+        this.cooldownNanos = cooldown.toNanos();
+        this.prefetchBufferSeconds = prefetchBuffer.toMillis() / 1000.0;
+        this.consumers = minConsumers;
+        this.prefetch = Math.min(Math.max(initialPrefetch, batchSize), this.maxPrefetch);
+    }
+
+    int consumers() {
+        return consumers;
+    }
+
+    int prefetch() {
+        return prefetch;
+    }
+
+    /**
+     * Takes one sample and returns the change to make, or {@code null} to keep the listener as it is.
+     */
+    Decision decide(Sample sample, long nowNanos) {
+        boolean backlogged = sample.queueDepth() > 0
+                && (sample.throughput() <= 0 || sample.queueDepth() / sample.throughput() > targetDrainSeconds);
+        boolean busy = sample.utilisation() >= busyUtilisation;
+        boolean latencyGrowing = baselineLatencyMillis > 0
+                && sample.latencyMillis() > baselineLatencyMillis * maxLatencyGrowth;
+        boolean idle = sample.utilisation() <= idleUtilisation && sample.queueDepth() <= (long) consumers * batchSize;
+
+        upStreak = backlogged && busy && !latencyGrowing && consumers < maxConsumers ? upStreak + 1 : 0;
+        downStreak = idle && consumers > minConsumers ? downStreak + 1 : 0;
+        if (lastChangeNanos != Long.MIN_VALUE && nowNanos - lastChangeNanos < cooldownNanos) {
+            return null;
+        }
+
+        if (upStreak >= scaleUpSamples) {
+            int target = Math.min(maxConsumers, Math.max(consumers + 1, (int) Math.ceil(consumers * 1.5)));
+            baselineLatencyMillis = sample.latencyMillis();
+            return change(target, sample, nowNanos, String.format("backlog of %d would take %.0fs to drain at %.0f/s",
+                    sample.queueDepth(), sample.queueDepth() / Math.max(sample.throughput(), 1), sample.throughput()));
+        }
+        if (downStreak >= scaleDownSamples) {
+            int target = Math.max(minConsumers, consumers - Math.max(1, consumers / 4));
+            baselineLatencyMillis = 0;
+            return change(target, sample, nowNanos, String.format("consumers %.0f%% busy with %d queued",
+                    sample.utilisation() * 100, sample.queueDepth()));
+        }
+        return null;
+    }
+
+    private Decision change(int target, Sample sample, long nowNanos, String reason) {
+        consumers = target;
+        prefetch = prefetchFor(sample);
+        upStreak = 0;
+        downStreak = 0;
+        lastChangeNanos = nowNanos;
+        return new Decision(consumers, prefetch, reason);
+    }
+
+    // Enough for each consumer to keep busy for the prefetch buffer at the rate one consumer has been handling
+    // messages, but never below one batch, which the container needs to fill a batch at all.
+    private int prefetchFor(Sample sample) {
+        if (sample.latencyMillis() <= 0) {
+            return prefetch;
+        }
+        double perConsumerRate = 1000.0 / sample.latencyMillis();
+        long wanted = Math.round(perConsumerRate * prefetchBufferSeconds);
+        return (int) Math.min(maxPrefetch, Math.max(batchSize, wanted));
+    }
+}
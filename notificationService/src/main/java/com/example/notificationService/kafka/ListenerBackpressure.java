@@ -0,0 +1,71 @@
+package com.example.notificationService.kafka;
+
+import com.example.notificationService.delivery.DeliveryBackpressureEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Stops the Rabbit listener containers while delivery is backed up and starts them again once it has caught up.
+ * A stopped container lets its consumers finish their current batch and hands prefetched messages back to the broker,
+ * so the backlog waits in the queue instead of in this service.
+ * <p>
+ * Stopping a container waits for its listener threads, and the event may come from one of them, so the containers
+ * are switched on a thread of their own, in the order the events were published.
+ */
+@Component
+public class ListenerBackpressure {
+
+    private static final Logger logger = Logger.getLogger(ListenerBackpressure.class.getName());
+
+    private final RabbitListenerEndpointRegistry listenerEndpointRegistry;
+    private final ExecutorService switcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "notification-backpressure");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean closing;
+
+    @Autowired
+    public ListenerBackpressure(RabbitListenerEndpointRegistry listenerEndpointRegistry) {
+        this.listenerEndpointRegistry = listenerEndpointRegistry;
+    }
+
+    @EventListener
+    public void onBackpressure(DeliveryBackpressureEvent event) {
+        switcher.execute(() -> apply(event));
+    }
+
+    // Delivery drains during shutdown, which must not restart containers the context has already stopped.
+    @EventListener(ContextClosedEvent.class)
+    public void onContextClosed() {
+        closing = true;
+    }
+
+    void apply(DeliveryBackpressureEvent event) {
+        if (!event.paused() && closing) {
+            return;
+        }
+        listenerEndpointRegistry.getListenerContainers().forEach(container -> {
+            if (event.paused() && container.isRunning()) {
+                container.stop();
+            } else if (!event.paused() && !container.isRunning()) {
+                container.start();
+            }
+        });
+        logger.info((event.paused() ? "Paused" : "Resumed") + " payment consumption, " + event.queued()
+                + " notifications queued on the " + event.channel() + " channel");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        switcher.shutdownNow();
+    }
+}
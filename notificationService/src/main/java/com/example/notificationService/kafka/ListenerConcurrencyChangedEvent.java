@@ -0,0 +1,20 @@
+package com.example.notificationService.kafka;
+
+/**
+ * Published by {@link ListenerConcurrencyController} each time it resizes a listener container, with the sample that
+ * led to it.
+ *
+ * @param listenerId       the resized listener
+ * @param previousConsumers consumers before the change
+ * @param consumers        consumers after the change
+ * @param previousPrefetch prefetch before the change
+ * @param prefetch         prefetch after the change; existing consumers keep theirs until they are replaced
+ * @param reason           why the controller made the change
+ * @param queueDepth       messages ready on the queue
+ * @param utilisation      share of the last interval the consumers were busy, 0 to 1
+ * @param latencyMillis    average time to handle one message during the last interval
+ */
+public record ListenerConcurrencyChangedEvent(String listenerId, int previousConsumers, int consumers,
+                                              int previousPrefetch, int prefetch, String reason, long queueDepth,
+                                              double utilisation, double latencyMillis) {
+}
@@ -0,0 +1,209 @@
+package com.example.notificationService.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Resizes the payment listener to its load: every interval it samples the queue depth and how busy the consumers
+ * were, asks the {@link ConcurrencyPolicy} whether to change, and applies the answer to the running container.
+ * <p>
+ * The container is pinned to the chosen count (concurrent and maximum consumers equal), which takes over from the
+ * container's own scaling. Nothing is sampled while the container is stopped, e.g. paused by
+ * {@link ListenerBackpressure}, since a growing queue then says nothing about how many consumers are needed.
+ */
+@Component
+public class ListenerConcurrencyController {
+
+    private static final Logger logger = Logger.getLogger(ListenerConcurrencyController.class.getName());
+
+    private final RabbitListenerEndpointRegistry listenerEndpointRegistry;
+    private final AmqpAdmin amqpAdmin;
+    private final NotificationConsumer notificationConsumer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String queueName;
+    private final ConcurrencyPolicy policy;
+    private final LongSupplier nanoClock;
+    private final Counter scaledUp;
+    private final Counter scaledDown;
+    private final ScheduledExecutorService sampler;
+
+    // What the container was last set to; before the first resize that is the factory's ceiling.
+    private int appliedConsumers;
+    private long lastSampleNanos = -1;
+    private long lastBusyNanos;
+    private long lastHandledMessages;
+    private volatile long queueDepth;
+    private volatile double utilisation;
+    private volatile double latencyMillis;
+
+    @Autowired
+    public ListenerConcurrencyController(RabbitListenerEndpointRegistry listenerEndpointRegistry,
+                                         AmqpAdmin amqpAdmin,
+                                         NotificationConsumer notificationConsumer,
+                                         ApplicationEventPublisher eventPublisher,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${rabbitmq.queue.name}") String queueName,
+                                         @Value("${notification.listener.concurrency.min:2}") int minConsumers,
+                                         @Value("${notification.listener.concurrency.max:20}") int maxConsumers,
+                                         @Value("${notification.listener.batch-size:100}") int batchSize,
+                                         @Value("${notification.listener.prefetch:250}") int prefetch,
+                                         @Value("${notification.listener.autoscale.enabled:true}") boolean enabled,
+                                         @Value("${notification.listener.autoscale.interval:5s}") Duration interval,
+                                         @Value("${notification.listener.autoscale.max-prefetch:1000}") int maxPrefetch,
+                                         @Value("${notification.listener.autoscale.prefetch-buffer:2s}") Duration prefetchBuffer,
+                                         @Value("${notification.listener.autoscale.target-drain-time:60s}") Duration targetDrainTime,
+                                         @Value("${notification.listener.autoscale.busy-utilisation:0.75}") double busyUtilisation,
+                                         @Value("${notification.listener.autoscale.idle-utilisation:0.3}") double idleUtilisation,
+                                         @Value("${notification.listener.autoscale.max-latency-growth:2.0}") double maxLatencyGrowth,
+                                         @Value("${notification.listener.autoscale.scale-up-samples:2}") int scaleUpSamples,
+                                         @Value("${notification.listener.autoscale.scale-down-samples:6}") int scaleDownSamples,
+                                         @Value("${notification.listener.autoscale.cooldown:30s}") Duration cooldown) {
+        this(listenerEndpointRegistry, amqpAdmin, notificationConsumer, eventPublisher, meterRegistry, queueName,
+                maxConsumers, new ConcurrencyPolicy(minConsumers, maxConsumers, batchSize, prefetch, maxPrefetch,
+                        targetDrainTime, busyUtilisation, idleUtilisation, maxLatencyGrowth, scaleUpSamples,
+                        scaleDownSamples, cooldown, prefetchBuffer),
+                System::nanoTime);
+        if (enabled) {
+            sampler.scheduleAtFixedRate(this::sample, interval.toNanos(), interval.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    ListenerConcurrencyController(RabbitListenerEndpointRegistry listenerEndpointRegistry, AmqpAdmin amqpAdmin,
+                                  NotificationConsumer notificationConsumer, ApplicationEventPublisher eventPublisher,
+                                  MeterRegistry meterRegistry, String queueName, int factoryMaxConsumers,
+                                  ConcurrencyPolicy policy, LongSupplier nanoClock) {
+        this.listenerEndpointRegistry = listenerEndpointRegistry;
+        this.amqpAdmin = amqpAdmin;
+        this.notificationConsumer = notificationConsumer;
+        this.eventPublisher = eventPublisher;
+        this.queueName = queueName;
+        this.policy = policy;
+        this.nanoClock = nanoClock;
+        this.appliedConsumers = factoryMaxConsumers;
+
+        this.scaledUp = resizes(meterRegistry, "up");
+        this.scaledDown = resizes(meterRegistry, "down");
+        Gauge.builder("notification.listener.consumers", policy, ConcurrencyPolicy::consumers)
+                .description("Consumers the payment listener is set to run")
+                .register(meterRegistry);
+        Gauge.builder("notification.listener.prefetch", policy, ConcurrencyPolicy::prefetch)
+                .description("Prefetch given to new payment listener consumers")
+                .register(meterRegistry);
+        Gauge.builder("notification.listener.queue.depth", this, controller -> controller.queueDepth)
+                .description("Messages ready on the payment queue at the last sample")
+                .register(meterRegistry);
+        Gauge.builder("notification.listener.utilisation", this, controller -> controller.utilisation)
+                .description("Share of the last interval the payment listener consumers were busy")
+                .register(meterRegistry);
+        Gauge.builder("notification.listener.latency", this, controller -> controller.latencyMillis)
+                .baseUnit("milliseconds")
+                .description("Average time to handle one payment message during the last interval")
+                .register(meterRegistry);
+
+        this.sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-listener-autoscale");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Takes one sample and resizes the listener if the policy says so. Never throws, so the schedule keeps running
+     * while the broker is unreachable.
+     */
+    void sample() {
+        try {
+            MessageListenerContainer listenerContainer =
+                    listenerEndpointRegistry.getListenerContainer(NotificationConsumer.LISTENER_ID);
+            if (!(listenerContainer instanceof SimpleMessageListenerContainer container) || !container.isRunning()) {
+                lastSampleNanos = -1;
+                return;
+            }
+            long now = nanoClock.getAsLong();
+            long busy = notificationConsumer.busyNanos();
+            long handled = notificationConsumer.handledMessages();
+            QueueInformation queueInformation = amqpAdmin.getQueueInfo(queueName);
+            if (queueInformation == null) {
+                return;
+            }
+            queueDepth = queueInformation.getMessageCount();
+            if (appliedConsumers != policy.consumers()) {
+                resize(container, policy.consumers(), policy.prefetch());
+            }
+            if (lastSampleNanos >= 0 && now > lastSampleNanos) {
+                decide(container, now - lastSampleNanos, busy - lastBusyNanos, handled - lastHandledMessages);
+            }
+            lastSampleNanos = now;
+            lastBusyNanos = busy;
+            lastHandledMessages = handled;
+        } catch (RuntimeException e) {
+            logger.log(Level.FINE, "Could not sample the payment listener", e);
+        }
+    }
+
+    private void decide(SimpleMessageListenerContainer container, long elapsedNanos, long busyNanos, long handled) {
+        double seconds = elapsedNanos / 1e9;
+        utilisation = Math.min(1.0, busyNanos / ((double) elapsedNanos * policy.consumers()));
+        latencyMillis = handled > 0 ? busyNanos / 1e6 / handled : 0;
+        ConcurrencyPolicy.Sample sample = new ConcurrencyPolicy.Sample(queueDepth, handled / seconds, utilisation, latencyMillis);
+
+        int previousConsumers = policy.consumers();
+        int previousPrefetch = policy.prefetch();
+        ConcurrencyPolicy.Decision decision = policy.decide(sample, nanoClock.getAsLong());
+        if (decision == null) {
+            return;
+        }
+        resize(container, decision.consumers(), decision.prefetch());
+        (decision.consumers() > previousConsumers ? scaledUp : scaledDown).increment();
+        logger.info("Resizing payment listener from " + previousConsumers + " to " + decision.consumers()
+                + " consumers, prefetch " + previousPrefetch + " to " + decision.prefetch() + ": " + decision.reason());
+        eventPublisher.publishEvent(new ListenerConcurrencyChangedEvent(NotificationConsumer.LISTENER_ID,
+                previousConsumers, decision.consumers(), previousPrefetch, decision.prefetch(), decision.reason(),
+                sample.queueDepth(), sample.utilisation(), sample.latencyMillis()));
+    }
+
+    // The container checks concurrent <= max on every setter, so the ceiling goes first when growing and last when
+    // shrinking. A new prefetch reaches consumers started from now on; running ones keep theirs.
+    private void resize(SimpleMessageListenerContainer container, int consumers, int prefetch) {
+        container.setPrefetchCount(prefetch);
+        if (consumers > appliedConsumers) {
+            container.setMaxConcurrentConsumers(consumers);
+            container.setConcurrentConsumers(consumers);
+        } else {
+            container.setConcurrentConsumers(consumers);
+            container.setMaxConcurrentConsumers(consumers);
+        }
+        appliedConsumers = consumers;
+    }
+
+    private static Counter resizes(MeterRegistry meterRegistry, String direction) {
+        return Counter.builder("notification.listener.resizes")
+                .tag("direction", direction)
+                .description("Times the payment listener consumer count was changed")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sampler.shutdownNow();
+    }
+}
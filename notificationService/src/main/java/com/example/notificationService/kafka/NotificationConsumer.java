@@ -1,19 +1,51 @@
 package com.example.notificationService.kafka;
 
 import com.example.notificationService.model.Notification;
+import com.example.notificationService.service.NotificationCoalescer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import com.rabbitmq.client.Channel;
 import org.example.PaymentRequest;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
 
 @Service
 public class NotificationConsumer {
 
+    static final String LISTENER_ID = "payment-notifications";
+
     private static final Logger logger = Logger.getLogger(NotificationConsumer.class.getName());
 
-    private void sendNotificationToUser(Notification message) {
-        logger.info("Sending notification to user: " + message);
+    private final NotificationCoalescer notificationCoalescer;
+    private final PaymentRetryRouter paymentRetryRouter;
+    private final ObjectMapper objectMapper;
+    private final DistributionSummary batchSizes;
+    // Time spent in the listener and messages handled, sampled by ListenerConcurrencyController.
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAdder handledMessages = new LongAdder();
+
+    @Autowired
+    public NotificationConsumer(NotificationCoalescer notificationCoalescer, PaymentRetryRouter paymentRetryRouter,
+                                ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.notificationCoalescer = notificationCoalescer;
+        this.paymentRetryRouter = paymentRetryRouter;
+        this.objectMapper = objectMapper;
+        this.batchSizes = DistributionSummary.builder("notification.consumer.batch.size")
+                .description("Payment messages received per listener invocation")
+                .register(meterRegistry);
     }
 
     /*@KafkaListener(topics = "payment-topic", groupId = "paymentService")
@@ -26,20 +58,121 @@ public class NotificationConsumer {
         sendNotificationToUser(notificationMessage);
     }*/
 
-    @RabbitListener(queues = "${rabbitmq.queue.name}")
-    public void consumeNotification(PaymentRequest paymentRequest) {
-        System.out.println("Received message: " + paymentRequest);
+    // Receives up to notification.listener.batch-size messages at once and acks them together with one multiple-ack.
+    // Messages that cannot be handled are passed to the retry router first, so one bad message neither fails the rest
+    // of its batch nor comes straight back; with coalescing on, the coalescer does the same for digests that fail
+    // after the batch was acked. A message the router could not publish is requeued on its own while the rest of the
+    // batch is acked, so nothing already on a retry queue comes back as well. When delivery is backed up the
+    // readable messages are requeued, by which time consumption is being paused; those already dead-lettered are
+    // acked so they are not delivered a second time.
+    @RabbitListener(id = LISTENER_ID, queues = "${rabbitmq.queue.name}")
+    public void consumeNotifications(List<Message> messages, Channel channel) throws IOException {
+        logger.fine(() -> "Received " + messages.size() + " payment messages");
+        batchSizes.record(messages.size());
+        long started = System.nanoTime();
+        Set<Message> requeue = Collections.newSetFromMap(new IdentityHashMap<>());
+        try {
+            handle(messages, requeue);
+            acknowledge(channel, messages, requeue);
+        } catch (RejectedExecutionException e) {
+            acknowledge(channel, messages, requeue);
+            throw e;
+        } catch (RuntimeException e) {
+            if (!messages.isEmpty()) {
+                channel.basicNack(deliveryTag(messages.get(messages.size() - 1)), true, true);
+            }
+            throw e;
+        } finally {
+            busyNanos.add(System.nanoTime() - started);
+            handledMessages.add(messages.size());
+        }
+    }
 
-        Notification notificationMessage = createNotificationMessage(paymentRequest.getAccountNumber(),
-                paymentRequest.getAmount());
+    long busyNanos() {
+        return busyNanos.sum();
+    }
 
-        sendNotificationToUser(notificationMessage);
+    long handledMessages() {
+        return handledMessages.sum();
+    }
+
+    // Collects the messages to requeue: those the router could not publish and, when the coalescer turns the batch
+    // away, every readable one.
+    private void handle(List<Message> messages, Set<Message> requeue) {
+        List<Message> readable = new ArrayList<>(messages.size());
+        List<Notification> notifications = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            PaymentRequest paymentRequest;
+            try {
+                paymentRequest = objectMapper.readValue(message.getBody(), PaymentRequest.class);
+            } catch (IOException e) {
+                // No number of retries will make this parse.
+                route(message, () -> paymentRetryRouter.deadLetter(message, e), requeue);
+                continue;
+            }
+            readable.add(message);
+            notifications.add(createNotificationMessage(paymentRequest.getAccountNumber(), paymentRequest.getAmount()));
+        }
+
+        try {
+            notificationCoalescer.add(notifications, readable);
+        } catch (RejectedExecutionException e) {
+            requeue.addAll(readable);
+            throw e;
+        } catch (RuntimeException e) {
+            logger.warning("Handing over " + notifications.size() + " notifications failed, retrying them one by one: " + e);
+            for (int i = 0; i < notifications.size(); i++) {
+                try {
+                    notificationCoalescer.add(List.of(notifications.get(i)), List.of(readable.get(i)));
+                } catch (RuntimeException single) {
+                    Message message = readable.get(i);
+                    route(message, () -> paymentRetryRouter.retry(message, single), requeue);
+                }
+            }
+        }
+    }
+
+    private void route(Message message, Runnable routing, Set<Message> unrouted) {
+        try {
+            routing.run();
+        } catch (RuntimeException e) {
+            logger.warning("Could not hand a payment message to the retry queues, requeueing it: " + e);
+            unrouted.add(message);
+        }
+    }
+
+    private static void acknowledge(Channel channel, List<Message> messages, Set<Message> requeue) throws IOException {
+        if (messages.isEmpty()) {
+            return;
+        }
+        long lastDeliveryTag = deliveryTag(messages.get(messages.size() - 1));
+        if (requeue.isEmpty()) {
+            channel.basicAck(lastDeliveryTag, true);
+            return;
+        }
+        if (requeue.size() == messages.size()) {
+            channel.basicNack(lastDeliveryTag, true, true);
+            return;
+        }
+        for (Message message : messages) {
+            if (requeue.contains(message)) {
+                channel.basicNack(deliveryTag(message), false, true);
+            } else {
+                channel.basicAck(deliveryTag(message), false);
+            }
+        }
+    }
+
+    private static long deliveryTag(Message message) {
+        return message.getMessageProperties().getDeliveryTag();
     }
 
     private Notification createNotificationMessage(String accountNumber, double amount) {
         Notification notification = new Notification();
         notification.setMessage("account number: " + accountNumber + "has been paid successfully with amount: " + amount);
         notification.setRecipient(accountNumber);
+        notification.setAmount(amount);
+        notification.setPaymentCount(1);
         return notification;
     }
 }
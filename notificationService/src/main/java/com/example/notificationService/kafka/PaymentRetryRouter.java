@@ -0,0 +1,127 @@
+package com.example.notificationService.kafka;
+
+import com.example.notificationService.config.RetryTopology;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+/**
+ * Moves a payment message that could not be handled to the next retry tier of the {@link RetryTopology}, or to the
+ * dead-letter queue once it has been through them all. The original delivery can then be acked, so a bad message
+ * neither spins on the payment queue nor makes the listener wait.
+ * <p>
+ * Every publish waits for the broker's confirm, so a method that returns has put the copy on its queue; one that the
+ * broker refuses, returns as unroutable or does not confirm within {@code notification.retry.confirm-timeout} throws
+ * an {@link AmqpException} and the original must not be acked.
+ */
+@Component
+public class PaymentRetryRouter {
+
+    static final String ATTEMPT_HEADER = "x-retry-attempt";
+    static final String ERROR_HEADER = "x-retry-last-error";
+
+    private static final Logger logger = Logger.getLogger(PaymentRetryRouter.class.getName());
+
+    private final RabbitTemplate rabbitTemplate;
+    private final RetryTopology retryTopology;
+    private final Duration confirmTimeout;
+    private final List<Counter> retried = new ArrayList<>();
+    private final Counter deadLettered;
+
+    @Autowired
+    public PaymentRetryRouter(RabbitTemplate rabbitTemplate,
+                              RetryTopology retryTopology,
+                              MeterRegistry meterRegistry,
+                              @Value("${notification.retry.confirm-timeout:5s}") Duration confirmTimeout) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.retryTopology = retryTopology;
+        this.confirmTimeout = confirmTimeout;
+        for (int i = 0; i < retryTopology.tiers().size(); i++) {
+            retried.add(routed(meterRegistry, String.valueOf(i + 1)));
+        }
+        this.deadLettered = routed(meterRegistry, "dead-letter");
+    }
+
+    /**
+     * Schedules another attempt at the message after the next tier's delay, or dead-letters it if none is left.
+     */
+    public void retry(Message message, Throwable cause) {
+        int attempt = attempts(message) + 1;
+        if (attempt > retryTopology.tiers().size()) {
+            deadLetter(message, cause);
+            return;
+        }
+        RetryTopology.Tier tier = retryTopology.tiers().get(attempt - 1);
+        logger.warning("Retrying payment message in " + tier.delay() + " (attempt " + attempt + "): " + cause);
+        publish(tier.queue(), message, attempt, cause);
+        retried.get(attempt - 1).increment();
+    }
+
+    /**
+     * Sends the message straight to the dead-letter queue, for failures another attempt cannot fix.
+     */
+    public void deadLetter(Message message, Throwable cause) {
+        logger.severe("Dead-lettering payment message after " + attempts(message) + " retries: " + cause);
+        publish(retryTopology.deadLetterQueue(), message, attempts(message), cause);
+        deadLettered.increment();
+    }
+
+    static int attempts(Message message) {
+        Object attempts = message.getMessageProperties().getHeader(ATTEMPT_HEADER);
+        return attempts instanceof Number number ? number.intValue() : 0;
+    }
+
+    private void publish(String queue, Message message, int attempt, Throwable cause) {
+        Message copy = MessageBuilder.fromClonedMessage(message)
+                .setHeader(ATTEMPT_HEADER, attempt)
+                .setHeader(ERROR_HEADER, StringUtils.truncate(String.valueOf(cause), 1_000))
+                .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                .build();
+        CorrelationData correlation = new CorrelationData();
+        rabbitTemplate.send(retryTopology.exchange(), queue, copy, correlation);
+        awaitConfirm(correlation, queue);
+    }
+
+    private void awaitConfirm(CorrelationData correlation, String queue) {
+        CorrelationData.Confirm confirm;
+        try {
+            confirm = correlation.getFuture().get(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted waiting for the broker to confirm a message for " + queue, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new AmqpException("The broker did not confirm a message for " + queue, e);
+        }
+        if (!confirm.isAck()) {
+            throw new AmqpException("The broker refused a message for " + queue + ": " + confirm.getReason());
+        }
+        if (correlation.getReturned() != null) {
+            throw new AmqpException("No queue took the message for " + queue + ": "
+                    + correlation.getReturned().getReplyText());
+        }
+    }
+
+    private static Counter routed(MeterRegistry meterRegistry, String tier) {
+        return Counter.builder("notification.retry.routed")
+                .tag("tier", tier)
+                .description("Payment messages sent to a retry tier or the dead-letter queue")
+                .register(meterRegistry);
+    }
+}
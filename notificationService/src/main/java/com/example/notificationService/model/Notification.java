@@ -6,4 +6,7 @@ import lombok.Data;
 public class Notification {
     private String recipient;
     private String message;
+    // Total paid and number of payments covered; a digest covers several payments to the same recipient.
+    private double amount;
+    private int paymentCount;
 }
@@ -0,0 +1,173 @@
+package com.example.notificationService.service;
+
+import com.example.notificationService.config.RetryTopology;
+import com.example.notificationService.dto.DeadLetterReplayResponse;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmListener;
+import com.rabbitmq.client.GetResponse;
+import com.rabbitmq.client.ReturnListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Moves messages from the dead-letter queue back onto the payment queue once whatever made them fail is fixed.
+ * <p>
+ * Works in batches: each batch is fetched unacked, republished with its retry count cleared, and acked with one
+ * multiple-ack once the broker has confirmed every copy. Copies the broker refuses are nacked back onto the
+ * dead-letter queue on their own while the rest of the batch is acked. A failure part way through, a missing confirm
+ * or a copy returned as unroutable returns the whole unacked batch to the dead-letter queue, so a message can be
+ * replayed twice but is never lost. Relies on the connection factory having publisher confirms on.
+ */
+@Service
+public class DeadLetterReplayService {
+
+    private static final Logger logger = Logger.getLogger(DeadLetterReplayService.class.getName());
+
+    private final RabbitTemplate rabbitTemplate;
+    private final RetryTopology retryTopology;
+    private final int maxBatchSize;
+    private final Duration confirmTimeout;
+    private final Counter replayed;
+
+    @Autowired
+    public DeadLetterReplayService(RabbitTemplate rabbitTemplate,
+                                   RetryTopology retryTopology,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${notification.retry.replay.max-batch-size:500}") int maxBatchSize,
+                                   @Value("${notification.retry.confirm-timeout:5s}") Duration confirmTimeout) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.retryTopology = retryTopology;
+        this.maxBatchSize = maxBatchSize;
+        this.confirmTimeout = confirmTimeout;
+        this.replayed = Counter.builder("notification.retry.replayed")
+                .description("Dead-lettered payment messages put back on the payment queue")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Replays up to {@code limit} messages, oldest first, {@code batchSize} at a time.
+     */
+    public DeadLetterReplayResponse replay(int limit, int batchSize) {
+        if (limit < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("limit and batchSize must be positive");
+        }
+        int size = Math.min(batchSize, maxBatchSize);
+        int total = 0;
+        int batches = 0;
+        while (total < limit) {
+            int requested = Math.min(size, limit - total);
+            int moved = replayBatch(requested);
+            if (moved > 0) {
+                total += moved;
+                batches++;
+            }
+            // A short batch means the queue ran dry or the broker refused some copies; neither improves right away.
+            if (moved < requested) {
+                break;
+            }
+        }
+        replayed.increment(total);
+        long remaining = rabbitTemplate.execute(channel ->
+                (long) channel.queueDeclarePassive(retryTopology.deadLetterQueue()).getMessageCount());
+        logger.info("Replayed " + total + " dead-lettered payment messages in " + batches + " batches, "
+                + remaining + " left");
+        return new DeadLetterReplayResponse(total, batches, remaining);
+    }
+
+    private int replayBatch(int size) {
+        return rabbitTemplate.execute(channel -> {
+            // Publish sequence number of each copy, mapped to the delivery tag of the dead letter it was made from.
+            NavigableMap<Long, Long> published = new ConcurrentSkipListMap<>();
+            NavigableSet<Long> unconfirmed = new ConcurrentSkipListSet<>();
+            Set<Long> refused = ConcurrentHashMap.newKeySet();
+            AtomicBoolean returned = new AtomicBoolean();
+            ConfirmListener confirmListener = channel.addConfirmListener(
+                    (sequence, multiple) -> confirmed(unconfirmed, sequence, multiple),
+                    (sequence, multiple) -> refused.addAll(confirmed(unconfirmed, sequence, multiple)));
+            ReturnListener returnListener = channel.addReturnListener(message -> returned.set(true));
+            try {
+                while (published.size() < size) {
+                    GetResponse response = channel.basicGet(retryTopology.deadLetterQueue(), false);
+                    if (response == null) {
+                        break;
+                    }
+                    long sequence = channel.getNextPublishSeqNo();
+                    published.put(sequence, response.getEnvelope().getDeliveryTag());
+                    unconfirmed.add(sequence);
+                    channel.basicPublish("", retryTopology.queue(), true, withoutRetryHeaders(response.getProps()),
+                            response.getBody());
+                }
+                if (published.isEmpty()) {
+                    return 0;
+                }
+                long lastDeliveryTag = published.lastEntry().getValue();
+                if (!awaitConfirms(channel) || returned.get()) {
+                    channel.basicNack(lastDeliveryTag, true, true);
+                    throw new AmqpException("The payment queue did not take " + published.size()
+                            + " replayed messages; they are back on the dead-letter queue");
+                }
+                if (refused.isEmpty()) {
+                    channel.basicAck(lastDeliveryTag, true);
+                    return published.size();
+                }
+                logger.warning("The broker refused " + refused.size() + " replayed messages; they stay dead-lettered");
+                for (Map.Entry<Long, Long> copy : published.entrySet()) {
+                    if (refused.contains(copy.getKey())) {
+                        channel.basicNack(copy.getValue(), false, true);
+                    } else {
+                        channel.basicAck(copy.getValue(), false);
+                    }
+                }
+                return published.size() - refused.size();
+            } finally {
+                channel.removeConfirmListener(confirmListener);
+                channel.removeReturnListener(returnListener);
+            }
+        });
+    }
+
+    // Takes the sequence numbers a confirm covers out of the unconfirmed set and returns them.
+    private static Set<Long> confirmed(NavigableSet<Long> unconfirmed, long sequence, boolean multiple) {
+        Set<Long> covered = new HashSet<>(multiple ? unconfirmed.headSet(sequence, true) : Set.of(sequence));
+        unconfirmed.removeAll(covered);
+        return covered;
+    }
+
+    // False when the confirms did not all arrive in time; refusals arrive as confirms and are told apart by the
+    // listener.
+    private boolean awaitConfirms(Channel channel) throws InterruptedException {
+        try {
+            channel.waitForConfirms(confirmTimeout.toMillis());
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    // A replayed message starts over with the full set of retry tiers.
+    private static AMQP.BasicProperties withoutRetryHeaders(AMQP.BasicProperties properties) {
+        Map<String, Object> headers = properties.getHeaders() != null ? new HashMap<>(properties.getHeaders()) : new HashMap<>();
+        headers.keySet().removeIf(name -> name.startsWith("x-retry-"));
+        return properties.builder().headers(headers).build();
+    }
+}
@@ -0,0 +1,447 @@
+package com.example.notificationService.service;
+
+import com.example.notificationService.kafka.PaymentRetryRouter;
+import com.example.notificationService.model.Notification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.amqp.core.Message;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Merges notifications for the same recipient that arrive within a short window into one digest, so a payroll
+ * followed by adjustments produces one notification per account instead of one per payment.
+ * <p>
+ * A recipient's first notification opens a window; the digest is sent when the window closes, when it covers
+ * {@code max-count} payments, or earlier when the buffered digests exceed the memory budget (oldest first).
+ * Windows are tracked on a timer wheel advanced by a single thread: one slot per tick, each slot holding the digests
+ * whose window closes on that tick, so no timer or thread is needed per recipient.
+ * <p>
+ * Coalescing makes delivery at most once. Buffered notifications have already been acked on the queue, so whatever
+ * is buffered when the process dies is lost: up to {@code window} worth of payments, bounded by
+ * {@code memory-budget}. A longer window or a larger budget merges more and puts more at risk. Each digest keeps the
+ * payment messages it was built from, so one that delivery fails to take is not dropped: it is buffered for another
+ * window, and after {@code max-attempts} failed dispatches its messages go through the {@link PaymentRetryRouter}
+ * like any other failed payment. On a normal shutdown everything still buffered is sent, and what cannot be goes to
+ * the retry queues as well. A window of 0 turns coalescing off, and with it the trade-off: every dispatch then happens
+ * before the listener acks its batch, so a failure reaches the consumer.
+ */
+@Component
+public class NotificationCoalescer {
+
+    // Rough size of a buffered digest apart from its strings and message bodies: the digest object, its map entry and
+    // the BigDecimal.
+    static final long ENTRY_OVERHEAD_BYTES = 160;
+    static final int DISPATCH_CHUNK = 100;
+
+    private static final Logger logger = Logger.getLogger(NotificationCoalescer.class.getName());
+
+    private final NotificationDispatcher notificationDispatcher;
+    private final PaymentRetryRouter paymentRetryRouter;
+    private final LongSupplier nanoClock;
+    private final boolean enabled;
+    private final long tickNanos;
+    private final long windowTicks;
+    private final int maxCount;
+    private final long memoryBudgetBytes;
+    private final int maxAttempts;
+    private final long startNanos;
+
+    private final Map<String, Digest> digests = new HashMap<>();
+    private final Digest[] slotHeads;
+    private final Digest[] slotTails;
+    private final int slotMask;
+    private long currentTick;
+    private long usedBytes;
+
+    private final Counter windowFlushes;
+    private final Counter countFlushes;
+    private final Counter pressureFlushes;
+    private final Counter deferred;
+    private final Counter failed;
+    private final Counter dropped;
+    private final ScheduledExecutorService ticker;
+
+    @Autowired
+    public NotificationCoalescer(NotificationDispatcher notificationDispatcher,
+                                 PaymentRetryRouter paymentRetryRouter,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${notification.coalescing.window:10s}") Duration window,
+                                 @Value("${notification.coalescing.max-count:50}") int maxCount,
+                                 @Value("${notification.coalescing.memory-budget:16MB}") DataSize memoryBudget,
+                                 @Value("${notification.coalescing.max-attempts:3}") int maxAttempts,
+                                 @Value("${notification.coalescing.tick:100ms}") Duration tick) {
+        this(notificationDispatcher, paymentRetryRouter, meterRegistry, window, maxCount, memoryBudget.toBytes(),
+                maxAttempts, tick, System::nanoTime);
+        if (enabled) {
+            ticker.scheduleAtFixedRate(this::advance, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    NotificationCoalescer(NotificationDispatcher notificationDispatcher, PaymentRetryRouter paymentRetryRouter,
+                          MeterRegistry meterRegistry, Duration window, int maxCount, long memoryBudgetBytes,
+                          int maxAttempts, Duration tick, LongSupplier nanoClock) {
+        if (tick.isZero() || tick.isNegative()) {
+            throw new IllegalArgumentException("Coalescing tick must be positive");
+        }
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Coalescing max-attempts must be at least 1");
+        }
+        this.notificationDispatcher = notificationDispatcher;
+        this.paymentRetryRouter = paymentRetryRouter;
+        this.nanoClock = nanoClock;
+        this.enabled = !window.isZero() && !window.isNegative() && maxCount > 1;
+        this.tickNanos = tick.toNanos();
+        this.windowTicks = Math.max(1, (window.toNanos() + tickNanos - 1) / tickNanos);
+        if (enabled && windowTicks >= 1 << 20) {
+            throw new IllegalArgumentException("Coalescing window must be less than " + (1 << 20) + " ticks");
+        }
+        this.maxCount = maxCount;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.maxAttempts = maxAttempts;
+        this.startNanos = nanoClock.getAsLong();
+
+        // One more slot than the window is long, so every slot only ever holds digests closing on the same tick.
+        int slots = enabled ? Integer.highestOneBit((int) windowTicks + 1) << 1 : 1;
+        this.slotHeads = new Digest[slots];
+        this.slotTails = new Digest[slots];
+        this.slotMask = slots - 1;
+
+        this.windowFlushes = flushes(meterRegistry, "window");
+        this.countFlushes = flushes(meterRegistry, "count");
+        this.pressureFlushes = flushes(meterRegistry, "pressure");
+        this.deferred = Counter.builder("notification.coalescing.deferred")
+                .description("Digests buffered for another window because delivery was backed up")
+                .register(meterRegistry);
+        this.failed = Counter.builder("notification.coalescing.failed")
+                .description("Digests buffered for another window because dispatching them failed")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("notification.coalescing.dropped")
+                .description("Payment messages of failed digests that could not be handed to the retry queues")
+                .register(meterRegistry);
+        Gauge.builder("notification.coalescing.pending", this, NotificationCoalescer::pending)
+                .description("Recipients with a digest waiting for its window to close")
+                .register(meterRegistry);
+        Gauge.builder("notification.coalescing.memory.used", this, NotificationCoalescer::usedBytes)
+                .baseUnit("bytes")
+                .description("Estimated memory held by buffered digests")
+                .register(meterRegistry);
+
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Takes the notifications for delivery; {@code sources.get(i)} is the payment message
+     * {@code notifications.get(i)} was made from, kept so a digest that cannot be delivered can be retried.
+     */
+    public void add(List<Notification> notifications, List<Message> sources) {
+        if (!enabled) {
+            notificationDispatcher.dispatch(notifications);
+            return;
+        }
+        List<Digest> ready = new ArrayList<>();
+        synchronized (this) {
+            for (int i = 0; i < notifications.size(); i++) {
+                Notification notification = notifications.get(i);
+                if (notification.getRecipient() == null) {
+                    Digest digest = new Digest(notification, currentTick);
+                    digest.keep(List.of(sources.get(i)));
+                    ready.add(digest);
+                    continue;
+                }
+                Digest digest = buffer(notification, List.of(sources.get(i)));
+                if (digest.count >= maxCount) {
+                    ready.add(remove(digest));
+                    countFlushes.increment();
+                }
+            }
+            if (usedBytes > memoryBudgetBytes) {
+                relievePressure(ready);
+            }
+        }
+        send(ready);
+    }
+
+    /**
+     * Moves the wheel up to the current time and sends the digests whose window has closed.
+     */
+    void advance() {
+        List<Digest> ready = new ArrayList<>();
+        synchronized (this) {
+            long nowTick = (nanoClock.getAsLong() - startNanos) / tickNanos;
+            while (currentTick < nowTick) {
+                currentTick++;
+                Digest digest = slotHeads[(int) (currentTick & slotMask)];
+                while (digest != null && digest.deadline <= currentTick) {
+                    Digest next = digest.next;
+                    ready.add(remove(digest));
+                    windowFlushes.increment();
+                    digest = next;
+                }
+            }
+        }
+        send(ready);
+    }
+
+    /**
+     * Sends everything still buffered.
+     */
+    public void flushAll() {
+        List<Digest> ready;
+        synchronized (this) {
+            ready = removeAll();
+        }
+        send(ready);
+    }
+
+    synchronized int pending() {
+        return digests.size();
+    }
+
+    synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    // Sends the digests closest to closing until a quarter of the budget is free again, so a burst of new
+    // recipients does not flush one digest per notification.
+    private void relievePressure(List<Digest> ready) {
+        long target = memoryBudgetBytes - memoryBudgetBytes / 4;
+        for (long tick = currentTick + 1; usedBytes > target && tick <= currentTick + windowTicks; tick++) {
+            Digest digest = slotHeads[(int) (tick & slotMask)];
+            while (digest != null && usedBytes > target) {
+                Digest next = digest.next;
+                ready.add(remove(digest));
+                pressureFlushes.increment();
+                digest = next;
+            }
+        }
+    }
+
+    // Only a digest that failed to dispatch can come back without a recipient; it gets a wheel slot but no map entry.
+    private Digest buffer(Notification notification, Collection<Message> sources) {
+        String recipient = notification.getRecipient();
+        Digest digest = recipient != null ? digests.get(recipient) : null;
+        if (digest == null) {
+            digest = new Digest(notification, currentTick + windowTicks);
+            if (recipient != null) {
+                digests.put(recipient, digest);
+            }
+            link(digest);
+            usedBytes += digest.bytes;
+        } else {
+            digest.add(notification);
+        }
+        usedBytes += digest.keep(sources);
+        return digest;
+    }
+
+    // A digest sent back after a failed dispatch merges into one opened since for the same recipient and keeps the
+    // higher attempt count of the two.
+    private void rebuffer(Digest failedDigest, int attempts) {
+        Digest digest = buffer(failedDigest.toNotification(), failedDigest.sources);
+        digest.attempts = Math.max(digest.attempts, attempts);
+    }
+
+    // Every digest on the wheel, including those without a recipient, in the order their windows close.
+    private List<Digest> removeAll() {
+        List<Digest> removed = new ArrayList<>();
+        for (long tick = currentTick; tick <= currentTick + windowTicks; tick++) {
+            Digest digest = slotHeads[(int) (tick & slotMask)];
+            while (digest != null) {
+                Digest next = digest.next;
+                removed.add(remove(digest));
+                digest = next;
+            }
+        }
+        return removed;
+    }
+
+    private Digest remove(Digest digest) {
+        if (digest.first.getRecipient() != null) {
+            digests.remove(digest.first.getRecipient());
+        }
+        unlink(digest);
+        usedBytes -= digest.bytes;
+        return digest;
+    }
+
+    private void link(Digest digest) {
+        int slot = (int) (digest.deadline & slotMask);
+        digest.previous = slotTails[slot];
+        if (slotTails[slot] != null) {
+            slotTails[slot].next = digest;
+        } else {
+            slotHeads[slot] = digest;
+        }
+        slotTails[slot] = digest;
+    }
+
+    private void unlink(Digest digest) {
+        int slot = (int) (digest.deadline & slotMask);
+        if (digest.previous != null) {
+            digest.previous.next = digest.next;
+        } else {
+            slotHeads[slot] = digest.next;
+        }
+        if (digest.next != null) {
+            digest.next.previous = digest.previous;
+        } else {
+            slotTails[slot] = digest.previous;
+        }
+        digest.previous = null;
+        digest.next = null;
+    }
+
+    // Hands digests over in chunks so a tick closing thousands of windows cannot exceed what delivery takes at once.
+    // Whatever delivery turns away because it is backed up is buffered again and retried when the new window closes;
+    // that does not count as an attempt. A chunk that fails in any other way is retried the same way, and digests out
+    // of attempts go to the retry queues.
+    private void send(List<Digest> ready) {
+        for (int from = 0; from < ready.size(); from += DISPATCH_CHUNK) {
+            List<Digest> chunk = ready.subList(from, Math.min(from + DISPATCH_CHUNK, ready.size()));
+            try {
+                notificationDispatcher.dispatch(chunk.stream().map(Digest::toNotification).toList());
+            } catch (RejectedExecutionException e) {
+                List<Digest> rest = ready.subList(from, ready.size());
+                logger.warning("Delivery is backed up, keeping " + rest.size() + " digests for another window");
+                deferred.increment(rest.size());
+                synchronized (this) {
+                    rest.forEach(digest -> rebuffer(digest, digest.attempts));
+                }
+                return;
+            } catch (RuntimeException e) {
+                dispatchFailed(chunk, e);
+            }
+        }
+    }
+
+    private void dispatchFailed(List<Digest> chunk, RuntimeException cause) {
+        List<Digest> exhausted = new ArrayList<>();
+        synchronized (this) {
+            for (Digest digest : chunk) {
+                if (digest.attempts + 1 < maxAttempts) {
+                    rebuffer(digest, digest.attempts + 1);
+                } else {
+                    exhausted.add(digest);
+                }
+            }
+        }
+        failed.increment(chunk.size() - exhausted.size());
+        logger.log(Level.WARNING, "Failed to dispatch " + chunk.size() + " coalesced notifications, keeping "
+                + (chunk.size() - exhausted.size()) + " for another window and retrying " + exhausted.size()
+                + " through the retry queues after " + maxAttempts + " attempts", cause);
+        retry(exhausted, cause);
+    }
+
+    // Each payment message behind the digests goes to its next retry tier, from where it is consumed again.
+    private void retry(List<Digest> undelivered, Throwable cause) {
+        for (Digest digest : undelivered) {
+            for (Message source : digest.sources) {
+                try {
+                    paymentRetryRouter.retry(source, cause);
+                } catch (RuntimeException e) {
+                    dropped.increment();
+                    logger.log(Level.SEVERE, "Lost a payment notification for " + digest.first.getRecipient()
+                            + ", it could not be handed to the retry queues", e);
+                }
+            }
+        }
+    }
+
+    private Counter flushes(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("notification.coalescing.flushes")
+                .tag("reason", reason)
+                .description("Digests sent, by what closed them")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        flushAll();
+        List<Digest> undelivered;
+        synchronized (this) {
+            undelivered = removeAll();
+        }
+        if (!undelivered.isEmpty()) {
+            logger.warning("Shutting down with " + undelivered.size()
+                    + " coalesced notifications undelivered, sending them through the retry queues");
+            retry(undelivered, new IllegalStateException("Shut down before the notification was delivered"));
+        }
+    }
+
+    // Payments to one recipient within the current window; also a node of its wheel slot's list.
+    private static final class Digest {
+        final Notification first;
+        final long deadline;
+        final List<Message> sources = new ArrayList<>(1);
+        long bytes;
+        BigDecimal total;
+        int count;
+        // Dispatches of this digest that failed.
+        int attempts;
+        Digest previous;
+        Digest next;
+
+        Digest(Notification first, long deadline) {
+            this.first = first;
+            this.deadline = deadline;
+            this.bytes = ENTRY_OVERHEAD_BYTES + 2L * ((first.getRecipient() != null ? first.getRecipient().length() : 0)
+                    + (first.getMessage() != null ? first.getMessage().length() : 0));
+            this.total = BigDecimal.valueOf(first.getAmount());
+            this.count = Math.max(first.getPaymentCount(), 1);
+        }
+
+        void add(Notification notification) {
+            total = total.add(BigDecimal.valueOf(notification.getAmount()));
+            count += Math.max(notification.getPaymentCount(), 1);
+        }
+
+        // Returns how much the digest grew.
+        long keep(Collection<Message> messages) {
+            long added = 0;
+            for (Message message : messages) {
+                sources.add(message);
+                added += message.getBody().length;
+            }
+            bytes += added;
+            return added;
+        }
+
+        Notification toNotification() {
+            if (count == Math.max(first.getPaymentCount(), 1)) {
+                return first;
+            }
+            Notification digest = new Notification();
+            digest.setRecipient(first.getRecipient());
+            digest.setAmount(total.doubleValue());
+            digest.setPaymentCount(count);
+            digest.setMessage("account number: " + first.getRecipient() + " has been paid successfully " + count
+                    + " times with total amount: " + total.toPlainString());
+            return digest;
+        }
+    }
+}
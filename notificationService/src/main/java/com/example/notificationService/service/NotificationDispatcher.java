@@ -0,0 +1,20 @@
+package com.example.notificationService.service;
+
+import com.example.notificationService.model.Notification;
+
+import java.util.List;
+
+/**
+ * Hands notifications over for delivery. Takes whole batches so the consumer can pass on everything one listener
+ * invocation received.
+ */
+public interface NotificationDispatcher {
+
+    /**
+     * Accepts the notifications for delivery without waiting for them to be delivered.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if there is no room for the whole batch; none of it
+     *                                                         was accepted
+     */
+    void dispatch(List<Notification> notifications);
+}
@@ -0,0 +1,51 @@
+package com.example.notificationService.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.Queue;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RabbitMQConfigTest {
+
+    private final RabbitMQConfig rabbitMQConfig = new RabbitMQConfig();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rabbitMQConfig, "QUEUE_NAME", "payment-queue");
+        ReflectionTestUtils.setField(rabbitMQConfig, "RETRY_INITIAL_DELAY", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(rabbitMQConfig, "RETRY_MULTIPLIER", 5.0);
+        ReflectionTestUtils.setField(rabbitMQConfig, "RETRY_TIERS", 3);
+    }
+
+    @Test
+    void retryTopology_shouldBackOffExponentially() {
+        RetryTopology retryTopology = rabbitMQConfig.retryTopology();
+
+        assertEquals(List.of(Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofSeconds(25)),
+                retryTopology.tiers().stream().map(RetryTopology.Tier::delay).toList());
+        assertEquals("payment-queue.retry.25000ms", retryTopology.tiers().get(2).queue());
+        assertEquals("payment-queue.dlq", retryTopology.deadLetterQueue());
+    }
+
+    @Test
+    void retryDeclarables_shouldExpireDelayedMessagesBackToThePaymentQueue() {
+        RetryTopology retryTopology = rabbitMQConfig.retryTopology();
+
+        List<Queue> queues = rabbitMQConfig.retryDeclarables(retryTopology).getDeclarablesByType(Queue.class);
+        List<Binding> bindings = rabbitMQConfig.retryDeclarables(retryTopology).getDeclarablesByType(Binding.class);
+
+        assertEquals(4, queues.size());
+        assertEquals(Map.of("x-message-ttl", 5000, "x-dead-letter-exchange", "", "x-dead-letter-routing-key", "payment-queue"),
+                queues.get(1).getArguments());
+        assertEquals(Map.of(), queues.get(3).getArguments());
+        assertEquals(List.of("payment-queue.retry.1000ms", "payment-queue.retry.5000ms", "payment-queue.retry.25000ms",
+                "payment-queue.dlq"), bindings.stream().map(Binding::getRoutingKey).toList());
+    }
+}
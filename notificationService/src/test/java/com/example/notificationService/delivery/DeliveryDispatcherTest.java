@@ -0,0 +1,187 @@
+package com.example.notificationService.delivery;
+
+import com.example.notificationService.model.Notification;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeliveryDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<DeliveryBackpressureEvent> events = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private DeliveryDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void dispatch_shouldReturnWithoutWaitingForASlowChannel() throws Exception {
+        RecordingChannel slow = new RecordingChannel("email", release);
+        RecordingChannel fast = new RecordingChannel("webhook", null);
+        dispatcher = dispatcher(List.of(slow, fast), 1, 100);
+
+        dispatcher.dispatch(notifications(10));
+
+        awaitTrue(() -> fast.delivered.size() == 10);
+        awaitTrue(() -> slow.active.get() == 1);
+        assertTrue(slow.delivered.isEmpty());
+        assertEquals(9, dispatcher.queued("email"));
+
+        release.countDown();
+        awaitTrue(() -> slow.delivered.size() == 10);
+        assertEquals(10.0, meterRegistry.get("notification.delivery.deliveries")
+                .tag("channel", "email").tag("result", "delivered").counter().count());
+    }
+
+    @Test
+    void dispatch_shouldRunAtMostTheConfiguredNumberOfDeliveriesAtOnce() throws Exception {
+        RecordingChannel channel = new RecordingChannel("email", release);
+        dispatcher = dispatcher(List.of(channel), 3, 100);
+
+        dispatcher.dispatch(notifications(20));
+        awaitTrue(() -> channel.active.get() == 3);
+        TimeUnit.MILLISECONDS.sleep(50);
+        release.countDown();
+        awaitTrue(() -> channel.delivered.size() == 20);
+
+        assertEquals(3, channel.maxActive.get());
+    }
+
+    @Test
+    void dispatch_shouldAskForAPauseWhenAQueueFillsAndRejectBatchesThatDoNotFit() throws Exception {
+        RecordingChannel channel = new RecordingChannel("email", release);
+        dispatcher = dispatcher(List.of(channel), 1, 10);
+        dispatcher.dispatch(notifications(1));
+        awaitTrue(() -> channel.active.get() == 1);
+
+        dispatcher.dispatch(notifications(4));
+        assertTrue(events.isEmpty());
+        dispatcher.dispatch(notifications(1));
+        assertEquals(List.of(new DeliveryBackpressureEvent(true, "email", 5)), events);
+        assertTrue(dispatcher.isPaused());
+
+        assertThrows(RejectedExecutionException.class, () -> dispatcher.dispatch(notifications(6)));
+        assertEquals(5, dispatcher.queued("email"));
+        assertEquals(6.0, meterRegistry.get("notification.delivery.rejected").counter().count());
+
+        release.countDown();
+        awaitTrue(() -> channel.delivered.size() == 6);
+        assertFalse(dispatcher.isPaused());
+        assertEquals(2, events.size());
+        assertFalse(events.get(1).paused());
+    }
+
+    @Test
+    void dispatch_shouldCountFailedDeliveriesAndCarryOn() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        DeliveryChannel failing = new DeliveryChannel() {
+            @Override
+            public String name() {
+                return "webhook";
+            }
+
+            @Override
+            public void deliver(Notification notification) throws IOException {
+                if (calls.incrementAndGet() == 1) {
+                    throw new IOException("connection refused");
+                }
+            }
+        };
+        dispatcher = dispatcher(List.of(failing), 1, 100);
+
+        dispatcher.dispatch(notifications(3));
+
+        awaitTrue(() -> calls.get() == 3);
+        awaitTrue(() -> meterRegistry.get("notification.delivery.deliveries")
+                .tag("channel", "webhook").tag("result", "delivered").counter().count() == 2.0);
+        assertEquals(1.0, meterRegistry.get("notification.delivery.deliveries")
+                .tag("channel", "webhook").tag("result", "failed").counter().count());
+    }
+
+    @Test
+    void shutdown_shouldDeliverWhatIsQueuedAndRefuseMore() throws Exception {
+        RecordingChannel channel = new RecordingChannel("email", null);
+        dispatcher = dispatcher(List.of(channel), 1, 100);
+        dispatcher.dispatch(notifications(5));
+
+        dispatcher.shutdown();
+
+        assertEquals(5, channel.delivered.size());
+        assertThrows(RejectedExecutionException.class, () -> dispatcher.dispatch(notifications(1)));
+    }
+
+    private DeliveryDispatcher dispatcher(List<DeliveryChannel> channels, int concurrency, int queueCapacity) {
+        return new DeliveryDispatcher(channels, name -> new DeliveryDispatcher.ChannelLimits(concurrency, 0),
+                event -> events.add((DeliveryBackpressureEvent) event), meterRegistry, queueCapacity, 0.5, 0.2, Duration.ofSeconds(5));
+    }
+
+    private static List<Notification> notifications(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            Notification notification = new Notification();
+            notification.setRecipient("ACC-" + i);
+            notification.setMessage("paid");
+            return notification;
+        }).toList();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within 5 seconds");
+            }
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+
+    // Records deliveries and how many run at once; holds every delivery until the latch opens, if one is given.
+    private static final class RecordingChannel implements DeliveryChannel {
+        final String name;
+        final CountDownLatch gate;
+        final List<Notification> delivered = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+
+        RecordingChannel(String name, CountDownLatch gate) {
+            this.name = name;
+            this.gate = gate;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public void deliver(Notification notification) throws InterruptedException {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                if (gate != null) {
+                    gate.await();
+                }
+                delivered.add(notification);
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+    }
+}
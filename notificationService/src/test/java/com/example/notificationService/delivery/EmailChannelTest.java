@@ -0,0 +1,152 @@
+package com.example.notificationService.delivery;
+
+import com.example.notificationService.model.Notification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailChannelTest {
+
+    private SmtpServer smtpServer;
+    private EmailChannel emailChannel;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        smtpServer = new SmtpServer();
+        emailChannel = new EmailChannel("localhost", smtpServer.port(), "payments@example.com",
+                "accounts.example.com", Duration.ofSeconds(2));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        smtpServer.close();
+    }
+
+    @Test
+    void deliver_shouldSendTheNotificationAsAMail() throws Exception {
+        emailChannel.deliver(notification("ACC-1", "account number: ACC-1 has been paid\n.50 was rounded"));
+
+        assertEquals(1, smtpServer.mails.size());
+        SmtpServer.Mail mail = smtpServer.mails.get(0);
+        assertEquals("payments@example.com", mail.from());
+        assertEquals("ACC-1@accounts.example.com", mail.to());
+        assertTrue(mail.data().contains("Subject: Payment received\r\n"));
+        assertTrue(mail.data().endsWith("\r\naccount number: ACC-1 has been paid\r\n..50 was rounded\r\n"));
+    }
+
+    @Test
+    void deliver_shouldFailWhenTheServerRefusesTheRecipient() {
+        smtpServer.refuseRecipients = true;
+
+        IOException e = assertThrows(IOException.class, () -> emailChannel.deliver(notification("ACC-2", "paid")));
+
+        assertTrue(e.getMessage().contains("550"));
+        assertTrue(smtpServer.mails.isEmpty());
+    }
+
+    @Test
+    void deliver_shouldGiveUpOnAServerThatDoesNotAnswer() throws Exception {
+        try (ServerSocket silent = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            EmailChannel channel = new EmailChannel("localhost", silent.getLocalPort(), "payments@example.com",
+                    "accounts.example.com", Duration.ofMillis(200));
+
+            assertThrows(IOException.class, () -> channel.deliver(notification("ACC-3", "paid")));
+        }
+    }
+
+    private static Notification notification(String recipient, String message) {
+        Notification notification = new Notification();
+        notification.setRecipient(recipient);
+        notification.setMessage(message);
+        return notification;
+    }
+
+    // Just enough of an SMTP server to accept mail on a loopback port and keep what it received.
+    private static final class SmtpServer implements AutoCloseable {
+        record Mail(String from, String to, String data) {
+        }
+
+        final List<Mail> mails = new CopyOnWriteArrayList<>();
+        final ServerSocket serverSocket;
+        volatile boolean refuseRecipients;
+
+        SmtpServer() throws IOException {
+            serverSocket = new ServerSocket(0, 10, InetAddress.getLoopbackAddress());
+            Thread thread = new Thread(this::serve, "smtp-server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void serve() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    session(socket);
+                } catch (IOException e) {
+                    // Closed by the test, or the client hung up.
+                }
+            }
+        }
+
+        private void session(Socket socket) throws IOException {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            out.print("220 localhost ESMTP\r\n");
+            out.flush();
+            String from = null;
+            String to = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith("EHLO")) {
+                    reply(out, "250-localhost\r\n250 8BITMIME");
+                } else if (line.startsWith("MAIL FROM:")) {
+                    from = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                    reply(out, "250 OK");
+                } else if (line.startsWith("RCPT TO:")) {
+                    to = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                    reply(out, refuseRecipients ? "550 No such user" : "250 OK");
+                } else if (line.equals("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    StringBuilder data = new StringBuilder();
+                    while (!(line = in.readLine()).equals(".")) {
+                        data.append(line).append("\r\n");
+                    }
+                    mails.add(new Mail(from, to, data.toString()));
+                    reply(out, "250 OK");
+                } else if (line.equals("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    reply(out, "502 Command not implemented");
+                }
+            }
+        }
+
+        private static void reply(PrintWriter out, String reply) {
+            out.print(reply + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.notificationService.delivery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void reserve_shouldSpaceCallsEvenly() {
+        RateLimiter rateLimiter = new RateLimiter(4, nanos::get);
+
+        assertEquals(0, rateLimiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(250), rateLimiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), rateLimiter.reserve());
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(150), rateLimiter.reserve());
+    }
+
+    @Test
+    void reserve_shouldNotLetIdleTimeBuildUpABurst() {
+        RateLimiter rateLimiter = new RateLimiter(10, nanos::get);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        assertEquals(0, rateLimiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), rateLimiter.reserve());
+    }
+
+    @Test
+    void reserve_shouldNeverWaitWithoutARate() {
+        RateLimiter rateLimiter = new RateLimiter(0, nanos::get);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(0, rateLimiter.reserve());
+        }
+    }
+}
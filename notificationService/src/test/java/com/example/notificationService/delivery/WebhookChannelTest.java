@@ -0,0 +1,93 @@
+package com.example.notificationService.delivery;
+
+import com.example.notificationService.model.Notification;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookChannelTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<byte[]> received = new CopyOnWriteArrayList<>();
+    private volatile int status = 204;
+    private volatile long delayMillis;
+
+    private HttpServer server;
+    private WebhookChannel webhookChannel;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/notifications", exchange -> {
+            received.add(exchange.getRequestBody().readAllBytes());
+            try {
+                TimeUnit.MILLISECONDS.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+        webhookChannel = channel(Duration.ofSeconds(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void deliver_shouldPostTheNotificationAsJson() throws Exception {
+        Notification notification = new Notification();
+        notification.setRecipient("ACC-1");
+        notification.setMessage("paid");
+        notification.setAmount(1500.5);
+        notification.setPaymentCount(2);
+
+        webhookChannel.deliver(notification);
+
+        assertEquals(1, received.size());
+        JsonNode body = objectMapper.readTree(received.get(0));
+        assertEquals("ACC-1", body.get("recipient").asText());
+        assertEquals(1500.5, body.get("amount").asDouble());
+        assertEquals(2, body.get("paymentCount").asInt());
+    }
+
+    @Test
+    void deliver_shouldFailOnAnErrorStatus() {
+        status = 503;
+
+        IOException e = assertThrows(IOException.class, () -> webhookChannel.deliver(new Notification()));
+
+        assertTrue(e.getMessage().contains("503"));
+    }
+
+    @Test
+    void deliver_shouldGiveUpOnASlowEndpoint() {
+        delayMillis = 1_000;
+        WebhookChannel impatient = channel(Duration.ofMillis(100));
+
+        assertThrows(HttpTimeoutException.class, () -> impatient.deliver(new Notification()));
+    }
+
+    private WebhookChannel channel(Duration timeout) {
+        URI url = URI.create("http://localhost:" + server.getAddress().getPort() + "/notifications");
+        return new WebhookChannel(url, timeout, objectMapper);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.notificationService.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyPolicyTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final ConcurrencyPolicy policy = new ConcurrencyPolicy(2, 20, 100, 250, 1000, Duration.ofSeconds(60),
+            0.75, 0.3, 2.0, 2, 3, Duration.ofSeconds(30), Duration.ofSeconds(2));
+
+    private long now;
+
+    @Test
+    void decide_shouldScaleUpOnceABusyBacklogPersists() {
+        assertNull(next(backlog(10.0)));
+
+        ConcurrencyPolicy.Decision decision = next(backlog(10.0));
+
+        assertNotNull(decision);
+        assertEquals(3, decision.consumers());
+        // 10ms per message is 100/s per consumer, 200 for a 2s buffer, raised to one batch at least.
+        assertEquals(200, decision.prefetch());
+        assertTrue(decision.reason().contains("backlog of 100000"));
+    }
+
+    @Test
+    void decide_shouldNotScaleUpOnASingleSpike() {
+        assertNull(next(backlog(10.0)));
+        assertNull(next(new ConcurrencyPolicy.Sample(0, 500, 0.5, 10.0)));
+        assertNull(next(backlog(10.0)));
+    }
+
+    @Test
+    void decide_shouldNotScaleUpIdleConsumersWhateverTheBacklog() {
+        for (int i = 0; i < 5; i++) {
+            assertNull(next(new ConcurrencyPolicy.Sample(100_000, 500, 0.4, 10.0)));
+        }
+    }
+
+    @Test
+    void decide_shouldWaitForTheCooldownBetweenChanges() {
+        next(backlog(10.0));
+        assertEquals(3, next(backlog(10.0)).consumers());
+
+        now += 5 * SECOND;
+        assertNull(next(backlog(10.0)));
+        now += 5 * SECOND;
+        assertNull(next(backlog(10.0)));
+
+        now += 25 * SECOND;
+        assertEquals(5, next(backlog(10.0)).consumers());
+    }
+
+    @Test
+    void decide_shouldStopScalingUpWhenLatencyGrowsWithTheConsumers() {
+        next(backlog(10.0));
+        next(backlog(10.0));
+        now += 60 * SECOND;
+
+        assertNull(next(backlog(25.0)));
+        assertNull(next(backlog(25.0)));
+        assertEquals(3, policy.consumers());
+    }
+
+    @Test
+    void decide_shouldScaleDownStepByStepWhenIdleAndNeverBelowTheMinimum() {
+        next(backlog(10.0));
+        next(backlog(10.0));
+        now += 60 * SECOND;
+        next(backlog(10.0));
+        assertEquals(5, next(backlog(10.0)).consumers());
+
+        now += 60 * SECOND;
+        ConcurrencyPolicy.Sample idle = new ConcurrencyPolicy.Sample(20, 50, 0.05, 2.0);
+        assertNull(next(idle));
+        assertNull(next(idle));
+        assertEquals(4, next(idle).consumers());
+
+        for (int i = 0; i < 20; i++) {
+            now += 60 * SECOND;
+            next(idle);
+        }
+        assertEquals(2, policy.consumers());
+    }
+
+    @Test
+    void decide_shouldNeverGoAboveTheMaximum() {
+        for (int i = 0; i < 40; i++) {
+            now += 60 * SECOND;
+            next(backlog(10.0));
+        }
+
+        assertEquals(20, policy.consumers());
+    }
+
+    @Test
+    void decide_shouldKeepPrefetchWithinOneBatchAndTheMaximum() {
+        next(backlog(0.5));
+        assertEquals(1000, next(backlog(0.5)).prefetch());
+
+        now += 60 * SECOND;
+        ConcurrencyPolicy policy = new ConcurrencyPolicy(2, 20, 100, 250, 1000, Duration.ofSeconds(60),
+                0.75, 0.3, 2.0, 1, 3, Duration.ofSeconds(30), Duration.ofSeconds(2));
+        assertEquals(100, policy.decide(backlog(500.0), now).prefetch());
+    }
+
+    private ConcurrencyPolicy.Decision next(ConcurrencyPolicy.Sample sample) {
+        now += 5 * SECOND;
+        return policy.decide(sample, now);
+    }
+
+    // 100k queued at 500/s is over three minutes of backlog, with the consumers nearly always busy.
+    private static ConcurrencyPolicy.Sample backlog(double latencyMillis) {
+        return new ConcurrencyPolicy.Sample(100_000, 500, 0.9, latencyMillis);
+    }
+}
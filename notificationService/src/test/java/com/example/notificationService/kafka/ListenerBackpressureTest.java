@@ -0,0 +1,60 @@
+package com.example.notificationService.kafka;
+
+import com.example.notificationService.delivery.DeliveryBackpressureEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class ListenerBackpressureTest {
+
+    @Mock
+    private RabbitListenerEndpointRegistry listenerEndpointRegistry;
+
+    @Mock
+    private MessageListenerContainer running;
+
+    @Mock
+    private MessageListenerContainer stopped;
+
+    private ListenerBackpressure listenerBackpressure;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(running.isRunning()).thenReturn(true);
+        when(listenerEndpointRegistry.getListenerContainers()).thenReturn(List.of(running, stopped));
+        listenerBackpressure = new ListenerBackpressure(listenerEndpointRegistry);
+    }
+
+    @Test
+    void apply_shouldStopRunningContainersOnPause() {
+        listenerBackpressure.apply(new DeliveryBackpressureEvent(true, "email", 5_000));
+
+        verify(running).stop();
+        verify(stopped, never()).stop();
+    }
+
+    @Test
+    void apply_shouldStartStoppedContainersOnResume() {
+        listenerBackpressure.apply(new DeliveryBackpressureEvent(false, "email", 2_000));
+
+        verify(stopped).start();
+        verify(running, never()).start();
+    }
+
+    @Test
+    void apply_shouldNotResumeOnceTheContextIsClosing() {
+        listenerBackpressure.onContextClosed();
+
+        listenerBackpressure.apply(new DeliveryBackpressureEvent(false, "email", 0));
+
+        verify(stopped, never()).start();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.notificationService.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ListenerConcurrencyControllerTest {
+
+    @Mock
+    private RabbitListenerEndpointRegistry listenerEndpointRegistry;
+
+    @Mock
+    private SimpleMessageListenerContainer container;
+
+    @Mock
+    private AmqpAdmin amqpAdmin;
+
+    @Mock
+    private NotificationConsumer notificationConsumer;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Object> events = new ArrayList<>();
+    private final AtomicLong nanos = new AtomicLong(1_000_000_000L);
+    private ListenerConcurrencyController controller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(listenerEndpointRegistry.getListenerContainer(NotificationConsumer.LISTENER_ID)).thenReturn(container);
+        when(container.isRunning()).thenReturn(true);
+        when(amqpAdmin.getQueueInfo("payment-queue")).thenReturn(new QueueInformation("payment-queue", 100_000, 2));
+        ConcurrencyPolicy policy = new ConcurrencyPolicy(2, 20, 100, 250, 1000, Duration.ofSeconds(60),
+                0.75, 0.3, 2.0, 1, 3, Duration.ZERO, Duration.ofSeconds(2));
+        controller = new ListenerConcurrencyController(listenerEndpointRegistry, amqpAdmin, notificationConsumer,
+                events::add, meterRegistry, "payment-queue", 20, policy, nanos::get);
+    }
+
+    @Test
+    void sample_shouldPinTheContainerToThePolicyOnFirstSight() {
+        controller.sample();
+
+        InOrder inOrder = inOrder(container);
+        inOrder.verify(container).setConcurrentConsumers(2);
+        inOrder.verify(container).setMaxConcurrentConsumers(2);
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void sample_shouldScaleUpABusyListenerAndReportIt() {
+        controller.sample();
+        // Two consumers busy 90% of 5s, handling 2,500 messages: 500/s at 3.6ms each.
+        nanos.addAndGet(Duration.ofSeconds(5).toNanos());
+        when(notificationConsumer.busyNanos()).thenReturn(Duration.ofMillis(9_000).toNanos());
+        when(notificationConsumer.handledMessages()).thenReturn(2_500L);
+
+        controller.sample();
+
+        InOrder inOrder = inOrder(container);
+        inOrder.verify(container).setMaxConcurrentConsumers(3);
+        inOrder.verify(container).setConcurrentConsumers(3);
+        verify(container).setPrefetchCount(556);
+        ListenerConcurrencyChangedEvent event = (ListenerConcurrencyChangedEvent) events.get(0);
+        assertEquals(2, event.previousConsumers());
+        assertEquals(3, event.consumers());
+        assertEquals(100_000, event.queueDepth());
+        assertEquals(0.9, event.utilisation(), 1e-9);
+        assertEquals(3.6, event.latencyMillis(), 1e-9);
+        assertEquals(1.0, meterRegistry.get("notification.listener.resizes").tag("direction", "up").counter().count());
+        assertEquals(3.0, meterRegistry.get("notification.listener.consumers").gauge().value());
+        assertEquals(100_000.0, meterRegistry.get("notification.listener.queue.depth").gauge().value());
+    }
+
+    @Test
+    void sample_shouldLeaveAStoppedContainerAlone() {
+        when(container.isRunning()).thenReturn(false);
+
+        controller.sample();
+
+        verify(container, never()).setConcurrentConsumers(anyInt());
+        verifyNoInteractions(amqpAdmin);
+    }
+
+    @Test
+    void sample_shouldKeepGoingWhenTheBrokerIsUnreachable() {
+        when(amqpAdmin.getQueueInfo("payment-queue")).thenThrow(new AmqpConnectException(new ConnectException()));
+
+        assertDoesNotThrow(() -> controller.sample());
+        assertTrue(events.isEmpty());
+    }
+}
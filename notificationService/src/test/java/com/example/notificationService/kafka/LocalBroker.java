@@ -0,0 +1,171 @@
+package com.example.notificationService.kafka;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.Consumer;
+import com.rabbitmq.client.Envelope;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * In-process stand-in for a RabbitMQ broker with a single queue, good enough to run a real listener container
+ * against: it honours basic.qos prefetch, delivers on its own thread per consumer, and requeues nacked messages.
+ * Counts the ack frames it receives so tests can compare acknowledgement traffic.
+ */
+class LocalBroker {
+
+    private final String queue;
+    private final BlockingDeque<byte[]> ready = new LinkedBlockingDeque<>();
+    private final AtomicInteger consumerTags = new AtomicInteger();
+    private final AtomicLong ackFrames = new AtomicLong();
+    private final AtomicLong ackedMessages = new AtomicLong();
+    private final CachingConnectionFactory connectionFactory;
+
+    LocalBroker(String queue) throws Exception {
+        this.queue = queue;
+        Connection connection = mock(Connection.class);
+        when(connection.isOpen()).thenReturn(true);
+        when(connection.createChannel()).thenAnswer(i -> new ChannelState(connection).channel);
+        when(connection.createChannel(anyInt())).thenAnswer(i -> new ChannelState(connection).channel);
+
+        com.rabbitmq.client.ConnectionFactory rabbitConnectionFactory = mock(com.rabbitmq.client.ConnectionFactory.class);
+        when(rabbitConnectionFactory.newConnection(nullable(ExecutorService.class), nullable(String.class)))
+                .thenReturn(connection);
+        when(rabbitConnectionFactory.getHost()).thenReturn("localhost");
+        connectionFactory = new CachingConnectionFactory(rabbitConnectionFactory);
+    }
+
+    CachingConnectionFactory connectionFactory() {
+        return connectionFactory;
+    }
+
+    void publish(byte[] body) {
+        ready.add(body);
+    }
+
+    long ackFrames() {
+        return ackFrames.get();
+    }
+
+    long ackedMessages() {
+        return ackedMessages.get();
+    }
+
+    void shutdown() {
+        connectionFactory.destroy();
+    }
+
+    private class ChannelState {
+        final Channel channel = mock(Channel.class);
+        // Unacked deliveries by delivery tag, so acks and nacks can release or requeue them.
+        final NavigableMap<Long, byte[]> unacked = new ConcurrentSkipListMap<>();
+        final AtomicLong deliveryTags = new AtomicLong();
+        volatile int prefetch;
+        volatile Thread deliveryThread;
+
+        ChannelState(Connection connection) throws Exception {
+            when(channel.isOpen()).thenReturn(true);
+            when(channel.getConnection()).thenReturn(connection);
+            when(channel.queueDeclarePassive(anyString())).thenReturn(new AMQP.Queue.DeclareOk.Builder().queue(queue).build());
+            doAnswer(i -> {
+                prefetch = i.getArgument(0);
+                return null;
+            }).when(channel).basicQos(anyInt());
+            doAnswer(i -> {
+                prefetch = i.getArgument(0);
+                return null;
+            }).when(channel).basicQos(anyInt(), anyBoolean());
+            when(channel.basicConsume(anyString(), anyBoolean(), anyString(), anyBoolean(), anyBoolean(), any(), any(Consumer.class)))
+                    .thenAnswer(i -> consume(i.getArgument(6)));
+            doAnswer(i -> {
+                release(i.getArgument(0), i.getArgument(1), false);
+                return null;
+            }).when(channel).basicAck(anyLong(), anyBoolean());
+            doAnswer(i -> {
+                release(i.getArgument(0), i.getArgument(1), i.getArgument(2));
+                return null;
+            }).when(channel).basicNack(anyLong(), anyBoolean(), anyBoolean());
+            doAnswer(i -> {
+                release(i.getArgument(0), false, i.getArgument(1));
+                return null;
+            }).when(channel).basicReject(anyLong(), anyBoolean());
+            doAnswer(i -> {
+                stopDelivery();
+                return null;
+            }).when(channel).basicCancel(anyString());
+            doAnswer(i -> {
+                stopDelivery();
+                return null;
+            }).when(channel).close();
+        }
+
+        private String consume(Consumer consumer) {
+            String consumerTag = "ctag-" + consumerTags.incrementAndGet();
+            consumer.handleConsumeOk(consumerTag);
+            deliveryThread = new Thread(() -> deliver(consumerTag, consumer), "local-broker-" + consumerTag);
+            deliveryThread.setDaemon(true);
+            deliveryThread.start();
+            return consumerTag;
+        }
+
+        private void deliver(String consumerTag, Consumer consumer) {
+            AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder()
+                    .contentType("application/json")
+                    .headers(Map.of("__TypeId__", "org.example.PaymentRequest"))
+                    .build();
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    synchronized (this) {
+                        while (prefetch > 0 && unacked.size() >= prefetch) {
+                            wait();
+                        }
+                    }
+                    byte[] body = ready.poll(100, TimeUnit.MILLISECONDS);
+                    if (body == null) {
+                        continue;
+                    }
+                    long tag = deliveryTags.incrementAndGet();
+                    unacked.put(tag, body);
+                    consumer.handleDelivery(consumerTag, new Envelope(tag, false, "", queue), properties, body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private synchronized void release(long tag, boolean multiple, boolean requeue) {
+            NavigableMap<Long, byte[]> released = multiple ? unacked.headMap(tag, true) : unacked.subMap(tag, true, tag, true);
+            if (requeue) {
+                released.descendingMap().values().forEach(ready::addFirst);
+            } else {
+                ackFrames.incrementAndGet();
+                ackedMessages.addAndGet(released.size());
+            }
+            released.clear();
+            notifyAll();
+        }
+
+        private void stopDelivery() {
+            Thread thread = deliveryThread;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.notificationService.kafka;
+
+import com.example.notificationService.config.RabbitMQConfig;
+import com.example.notificationService.model.Notification;
+import com.example.notificationService.service.NotificationCoalescer;
+import com.example.notificationService.service.NotificationDispatcher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.PaymentRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.listener.MethodRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Drains a 50k-payment payroll through a real listener container against {@link LocalBroker}, once one message per
+ * listener call as before and once with the batched container from {@link RabbitMQConfig}. Prints drain time,
+ * process CPU per message (including the broker stand-in) and the number of ack frames. Coalescing is turned off so
+ * only consumption is measured.
+ * <p>
+ * {@code mvn test -Dtest=NotificationConsumerBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class NotificationConsumerBenchmarkTest {
+
+    private static final String QUEUE = "payment-queue";
+    private static final int PAYMENTS = 50_000;
+    private static final int WARMUP = 10_000;
+
+    private final AtomicInteger dispatched = new AtomicInteger();
+    private final NotificationConsumer consumer = new NotificationConsumer(new NotificationCoalescer(new NotificationDispatcher() {
+        @Override
+        public void dispatch(List<Notification> notifications) {
+            dispatched.addAndGet(notifications.size());
+        }
+    }, mock(PaymentRetryRouter.class), new SimpleMeterRegistry(), Duration.ZERO, 1, DataSize.ofMegabytes(1), 3,
+            Duration.ofMillis(100)),
+            mock(PaymentRetryRouter.class), new ObjectMapper(), new SimpleMeterRegistry());
+
+    @Test
+    void drain50kPayments() throws Exception {
+        LoggingSystem.get(getClass().getClassLoader()).setLogLevel("org.springframework.amqp", LogLevel.INFO);
+
+        drain(false, WARMUP);
+        drain(true, WARMUP);
+
+        Result single = drain(false, PAYMENTS);
+        Result batched = drain(true, PAYMENTS);
+
+        single.print("one message per call");
+        batched.print("batched");
+        assertEquals(PAYMENTS, single.ackedMessages);
+        assertEquals(PAYMENTS, batched.ackedMessages);
+        assertTrue(batched.ackFrames < single.ackFrames / 10);
+    }
+
+    private Result drain(boolean batched, int payments) throws Exception {
+        LocalBroker broker = new LocalBroker(QUEUE);
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (int i = 0; i < payments; i++) {
+            broker.publish(objectMapper.writeValueAsBytes(new PaymentRequest("ACC-" + (i % 5_000), 100.0 + i)));
+        }
+        dispatched.set(0);
+
+        SimpleMessageListenerContainer container = batched
+                ? container(batchedFactory(broker), consumer, "consumeNotifications", PaymentRequest.class, true)
+                : container(singleFactory(broker), new SingleMessageListener(consumer), "consume", Message.class, false);
+
+        long cpuBefore = processCpuNanos();
+        long started = System.nanoTime();
+        container.start();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (dispatched.get() < payments || broker.ackedMessages() < payments) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Queue not drained: " + dispatched.get() + " of " + payments);
+            }
+            Thread.sleep(5);
+        }
+        long elapsed = System.nanoTime() - started;
+        long cpu = processCpuNanos() - cpuBefore;
+        container.stop();
+        broker.shutdown();
+        return new Result(payments, elapsed, cpu, broker.ackFrames(), broker.ackedMessages());
+    }
+
+    private SimpleRabbitListenerContainerFactory batchedFactory(LocalBroker broker) {
+        RabbitMQConfig config = new RabbitMQConfig();
+        ReflectionTestUtils.setField(config, "BATCH_SIZE", 100);
+        ReflectionTestUtils.setField(config, "BATCH_TIMEOUT", Duration.ofMillis(500));
+        ReflectionTestUtils.setField(config, "PREFETCH", 250);
+        ReflectionTestUtils.setField(config, "MIN_CONSUMERS", 3);
+        ReflectionTestUtils.setField(config, "MAX_CONSUMERS", 10);
+        return (SimpleRabbitListenerContainerFactory) config.rabbitListenerContainerFactory(broker.connectionFactory());
+    }
+
+    // The container settings before batching: three consumers, default prefetch, one ack per message.
+    private SimpleRabbitListenerContainerFactory singleFactory(LocalBroker broker) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(broker.connectionFactory());
+        factory.setMessageConverter(new RabbitMQConfig().messageConverter());
+        factory.setConcurrentConsumers(3);
+        factory.setMaxConcurrentConsumers(10);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        return factory;
+    }
+
+    private SimpleMessageListenerContainer container(SimpleRabbitListenerContainerFactory factory, Object bean,
+                                                     String method, Class<?> payload, boolean batch) throws Exception {
+        DefaultMessageHandlerMethodFactory handlerMethodFactory = new DefaultMessageHandlerMethodFactory();
+        handlerMethodFactory.afterPropertiesSet();
+        MethodRabbitListenerEndpoint endpoint = new MethodRabbitListenerEndpoint();
+        endpoint.setBean(bean);
+        endpoint.setMethod(bean.getClass().getMethod(method, batch ? List.class : payload, Channel.class));
+        endpoint.setMessageHandlerMethodFactory(handlerMethodFactory);
+        endpoint.setQueueNames(QUEUE);
+        endpoint.setId("benchmark-" + batch);
+        SimpleMessageListenerContainer container = factory.createListenerContainer(endpoint);
+        container.afterPropertiesSet();
+        return container;
+    }
+
+    private static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+
+    public static class SingleMessageListener {
+        private final NotificationConsumer consumer;
+
+        SingleMessageListener(NotificationConsumer consumer) {
+            this.consumer = consumer;
+        }
+
+        public void consume(Message message, Channel channel) throws IOException {
+            consumer.consumeNotifications(List.of(message), channel);
+        }
+    }
+
+    private record Result(int payments, long elapsedNanos, long cpuNanos, long ackFrames, long ackedMessages) {
+        void print(String mode) {
+            System.out.printf("%-22s %,d payments in %,d ms (%,.0f/s), %.1f us CPU/message, %,d ack frames%n",
+                    mode + ":", payments, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    payments * 1e9 / elapsedNanos, cpuNanos / 1e3 / payments, ackFrames);
+        }
+    }
+}
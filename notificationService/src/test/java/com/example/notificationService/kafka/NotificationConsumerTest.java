@@ -0,0 +1,156 @@
+package com.example.notificationService.kafka;
+
+import com.example.notificationService.model.Notification;
+import com.example.notificationService.service.NotificationCoalescer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.PaymentRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class NotificationConsumerTest {
+
+    @Mock
+    private NotificationCoalescer notificationCoalescer;
+
+    @Mock
+    private PaymentRetryRouter paymentRetryRouter;
+
+    @Mock
+    private Channel channel;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NotificationConsumer notificationConsumer;
+    private long deliveryTag;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        notificationConsumer = new NotificationConsumer(notificationCoalescer, paymentRetryRouter, objectMapper, meterRegistry);
+    }
+
+    @Test
+    void consumeNotifications_shouldHandTheWholeBatchOnAtOnce() throws Exception {
+        List<Message> messages = List.of(
+                message(new PaymentRequest("ACC-1", 1500.0)),
+                message(new PaymentRequest("ACC-2", 250.5)));
+        notificationConsumer.consumeNotifications(messages, channel);
+
+        ArgumentCaptor<List<Notification>> notifications = ArgumentCaptor.forClass(List.class);
+        verify(notificationCoalescer, times(1)).add(notifications.capture(), eq(messages));
+        assertEquals(List.of("ACC-1", "ACC-2"),
+                notifications.getValue().stream().map(Notification::getRecipient).toList());
+        assertEquals("account number: ACC-2has been paid successfully with amount: 250.5",
+                notifications.getValue().get(1).getMessage());
+        assertEquals(250.5, notifications.getValue().get(1).getAmount());
+        assertEquals(1, notifications.getValue().get(1).getPaymentCount());
+        assertEquals(1, meterRegistry.get("notification.consumer.batch.size").summary().count());
+        assertEquals(2.0, meterRegistry.get("notification.consumer.batch.size").summary().totalAmount());
+        assertEquals(2, notificationConsumer.handledMessages());
+        verifyNoInteractions(paymentRetryRouter);
+        verify(channel).basicAck(2, true);
+        verifyNoMoreInteractions(channel);
+    }
+
+    @Test
+    void consumeNotifications_shouldDeadLetterUnreadableMessagesAndHandleTheRest() throws Exception {
+        Message unreadable = message("{not json".getBytes());
+
+        notificationConsumer.consumeNotifications(List.of(unreadable, message(new PaymentRequest("ACC-1", 10.0))), channel);
+
+        verify(paymentRetryRouter).deadLetter(eq(unreadable), any(IOException.class));
+        verify(notificationCoalescer).add(argThat(notifications -> notifications.size() == 1), any());
+    }
+
+    @Test
+    void consumeNotifications_shouldRetryOnlyTheMessagesThatFail() throws Exception {
+        Message good = message(new PaymentRequest("ACC-1", 10.0));
+        Message bad = message(new PaymentRequest("ACC-2", 20.0));
+        IllegalStateException failure = new IllegalStateException("boom");
+        doThrow(failure).when(notificationCoalescer).add(argThat(notifications ->
+                notifications.stream().anyMatch(notification -> notification.getRecipient().equals("ACC-2"))), any());
+
+        notificationConsumer.consumeNotifications(List.of(good, bad), channel);
+
+        verify(notificationCoalescer).add(argThat(notifications -> notifications.size() == 1
+                && notifications.get(0).getRecipient().equals("ACC-1")), eq(List.of(good)));
+        verify(paymentRetryRouter).retry(bad, failure);
+        verify(paymentRetryRouter, never()).retry(eq(good), any());
+        verify(channel).basicAck(2, true);
+    }
+
+    @Test
+    void consumeNotifications_shouldRequeueOnlyTheMessagesTheRouterCouldNotPublish() throws Exception {
+        Message good = message(new PaymentRequest("ACC-1", 10.0));
+        Message bad = message(new PaymentRequest("ACC-2", 20.0));
+        Message unroutable = message(new PaymentRequest("ACC-3", 30.0));
+        doThrow(new IllegalStateException("boom")).when(notificationCoalescer).add(argThat(notifications ->
+                notifications.stream().anyMatch(notification -> !notification.getRecipient().equals("ACC-1"))), any());
+        doThrow(new AmqpException("not confirmed")).when(paymentRetryRouter).retry(eq(unroutable), any());
+
+        notificationConsumer.consumeNotifications(List.of(good, bad, unroutable), channel);
+
+        verify(paymentRetryRouter).retry(eq(bad), any());
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(2, false);
+        verify(channel).basicNack(3, false, true);
+        verifyNoMoreInteractions(channel);
+    }
+
+    @Test
+    void consumeNotifications_shouldFailTheBatchWhileDeliveryIsBackedUp() throws Exception {
+        doThrow(new RejectedExecutionException("full")).when(notificationCoalescer).add(any(), any());
+
+        List<Message> messages = List.of(message(new PaymentRequest("ACC-1", 10.0)), message(new PaymentRequest("ACC-2", 20.0)));
+
+        assertThrows(RejectedExecutionException.class, () -> notificationConsumer.consumeNotifications(messages, channel));
+
+        verifyNoInteractions(paymentRetryRouter);
+        verify(channel).basicNack(2, true, true);
+        verifyNoMoreInteractions(channel);
+    }
+
+    @Test
+    void consumeNotifications_shouldNotRequeueWhatWasDeadLetteredWhenDeliveryIsBackedUp() throws Exception {
+        Message unreadable = message("{not json".getBytes());
+        Message readable = message(new PaymentRequest("ACC-1", 10.0));
+        doThrow(new RejectedExecutionException("full")).when(notificationCoalescer).add(any(), any());
+
+        assertThrows(RejectedExecutionException.class, () ->
+                notificationConsumer.consumeNotifications(List.of(unreadable, readable), channel));
+
+        verify(paymentRetryRouter).deadLetter(eq(unreadable), any(IOException.class));
+        verify(channel).basicAck(1, false);
+        verify(channel).basicNack(2, false, true);
+        verifyNoMoreInteractions(channel);
+    }
+
+    private Message message(PaymentRequest paymentRequest) throws Exception {
+        return message(objectMapper.writeValueAsBytes(paymentRequest));
+    }
+
+    private Message message(byte[] body) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(++deliveryTag);
+        return new Message(body, properties);
+    }
+}
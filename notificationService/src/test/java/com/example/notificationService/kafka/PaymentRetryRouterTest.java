@@ -0,0 +1,124 @@
+package com.example.notificationService.kafka;
+
+import com.example.notificationService.config.RetryTopology;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verify;
+
+class PaymentRetryRouterTest {
+
+    private static final RetryTopology TOPOLOGY = new RetryTopology("payment-queue", "payment-queue.retry",
+            List.of(new RetryTopology.Tier("payment-queue.retry.1000ms", Duration.ofSeconds(1)),
+                    new RetryTopology.Tier("payment-queue.retry.5000ms", Duration.ofSeconds(5))),
+            "payment-queue.dlq");
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PaymentRetryRouter paymentRetryRouter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        paymentRetryRouter = new PaymentRetryRouter(rabbitTemplate, TOPOLOGY, meterRegistry, Duration.ofSeconds(1));
+        confirmWith(new CorrelationData.Confirm(true, null));
+    }
+
+    @Test
+    void retry_shouldSendAFirstFailureToTheShortestDelay() {
+        paymentRetryRouter.retry(message(0), new IllegalStateException("boom"));
+
+        Message sent = sent("payment-queue.retry.1000ms");
+        assertEquals(1, PaymentRetryRouter.attempts(sent));
+        assertEquals("java.lang.IllegalStateException: boom",
+                sent.getMessageProperties().getHeader(PaymentRetryRouter.ERROR_HEADER));
+        assertArrayEquals("payload".getBytes(), sent.getBody());
+        assertEquals(1.0, meterRegistry.get("notification.retry.routed").tag("tier", "1").counter().count());
+    }
+
+    @Test
+    void retry_shouldBackOffFurtherOnEachAttempt() {
+        paymentRetryRouter.retry(message(1), new IllegalStateException("boom"));
+
+        assertEquals(2, PaymentRetryRouter.attempts(sent("payment-queue.retry.5000ms")));
+    }
+
+    @Test
+    void retry_shouldDeadLetterOnceEveryTierWasTried() {
+        paymentRetryRouter.retry(message(2), new IllegalStateException("boom"));
+
+        assertEquals(2, PaymentRetryRouter.attempts(sent("payment-queue.dlq")));
+        assertEquals(1.0, meterRegistry.get("notification.retry.routed").tag("tier", "dead-letter").counter().count());
+    }
+
+    @Test
+    void retry_shouldFailWhenTheBrokerRefusesTheCopy() {
+        confirmWith(new CorrelationData.Confirm(false, "internal error"));
+
+        assertThrows(AmqpException.class, () -> paymentRetryRouter.retry(message(0), new IllegalStateException("boom")));
+        assertEquals(0.0, meterRegistry.get("notification.retry.routed").tag("tier", "1").counter().count());
+    }
+
+    @Test
+    void retry_shouldFailWhenNoQueueTookTheCopy() {
+        doAnswer(i -> {
+            CorrelationData correlation = i.getArgument(3);
+            correlation.setReturned(new ReturnedMessage(i.getArgument(2), 312, "NO_ROUTE", "payment-queue.retry",
+                    "payment-queue.retry.1000ms"));
+            correlation.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        assertThrows(AmqpException.class, () -> paymentRetryRouter.retry(message(0), new IllegalStateException("boom")));
+    }
+
+    @Test
+    void retry_shouldFailWhenTheBrokerDoesNotConfirm() {
+        paymentRetryRouter = new PaymentRetryRouter(rabbitTemplate, TOPOLOGY, meterRegistry, Duration.ofMillis(10));
+        doNothing().when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        assertThrows(AmqpException.class, () -> paymentRetryRouter.retry(message(0), new IllegalStateException("boom")));
+    }
+
+    private void confirmWith(CorrelationData.Confirm confirm) {
+        doAnswer(i -> i.<CorrelationData>getArgument(3).getFuture().complete(confirm)).when(rabbitTemplate)
+                .send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    private Message sent(String queue) {
+        ArgumentCaptor<Message> message = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq("payment-queue.retry"), eq(queue), message.capture(), any(CorrelationData.class));
+        return message.getValue();
+    }
+
+    private static Message message(int attempts) {
+        MessageProperties properties = new MessageProperties();
+        if (attempts > 0) {
+            properties.setHeader(PaymentRetryRouter.ATTEMPT_HEADER, attempts);
+        }
+        return new Message("payload".getBytes(), properties);
+    }
+}
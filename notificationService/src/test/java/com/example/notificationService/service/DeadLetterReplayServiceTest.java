@@ -0,0 +1,136 @@
+package com.example.notificationService.service;
+
+import com.example.notificationService.config.RetryTopology;
+import com.example.notificationService.dto.DeadLetterReplayResponse;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmCallback;
+import com.rabbitmq.client.ConfirmListener;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DeadLetterReplayServiceTest {
+
+    private static final RetryTopology TOPOLOGY = new RetryTopology("payment-queue", "payment-queue.retry",
+            List.of(new RetryTopology.Tier("payment-queue.retry.1000ms", Duration.ofSeconds(1))), "payment-queue.dlq");
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private Channel channel;
+
+    private final Deque<GetResponse> deadLetters = new ArrayDeque<>();
+    private final AtomicLong nextSequence = new AtomicLong(1);
+    private final Set<Long> refusedSequences = new HashSet<>();
+    private ConfirmCallback ack;
+    private ConfirmCallback nack;
+    private DeadLetterReplayService deadLetterReplayService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(rabbitTemplate.execute(any())).thenAnswer(i -> i.<ChannelCallback<?>>getArgument(0).doInRabbit(channel));
+        when(channel.basicGet("payment-queue.dlq", false)).thenAnswer(i -> deadLetters.poll());
+        when(channel.getNextPublishSeqNo()).thenAnswer(i -> nextSequence.getAndIncrement());
+        when(channel.addConfirmListener(any(ConfirmCallback.class), any(ConfirmCallback.class))).thenAnswer(i -> {
+            ack = i.getArgument(0);
+            nack = i.getArgument(1);
+            return mock(ConfirmListener.class);
+        });
+        // Confirms each copy published so far, one by one, refusing those in refusedSequences.
+        when(channel.waitForConfirms(anyLong())).thenAnswer(i -> {
+            for (long sequence = 1; sequence < nextSequence.get(); sequence++) {
+                (refusedSequences.contains(sequence) ? nack : ack).handle(sequence, false);
+            }
+            return refusedSequences.isEmpty();
+        });
+        when(channel.queueDeclarePassive("payment-queue.dlq")).thenAnswer(i ->
+                new AMQP.Queue.DeclareOk.Builder().queue("payment-queue.dlq").messageCount(deadLetters.size()).build());
+        for (int i = 1; i <= 5; i++) {
+            AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder()
+                    .headers(Map.of("x-retry-attempt", 3, "x-retry-last-error", "boom", "__TypeId__", "org.example.PaymentRequest"))
+                    .build();
+            deadLetters.add(new GetResponse(new Envelope(i, false, "", "payment-queue.dlq"), properties, ("m" + i).getBytes(), 0));
+        }
+        deadLetterReplayService = new DeadLetterReplayService(rabbitTemplate, TOPOLOGY, new SimpleMeterRegistry(), 500,
+                Duration.ofSeconds(1));
+    }
+
+    @Test
+    void replay_shouldMoveMessagesBackInBatchesAndAckEachBatchOnce() throws Exception {
+        DeadLetterReplayResponse response = deadLetterReplayService.replay(4, 2);
+
+        assertEquals(new DeadLetterReplayResponse(4, 2, 1), response);
+        verify(channel, times(4)).basicPublish(eq(""), eq("payment-queue"), eq(true), any(AMQP.BasicProperties.class),
+                any(byte[].class));
+        verify(channel).basicAck(2, true);
+        verify(channel).basicAck(4, true);
+        verify(channel, times(2)).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void replay_shouldClearTheRetryCountSoEveryTierIsTriedAgain() throws Exception {
+        deadLetterReplayService.replay(1, 10);
+
+        ArgumentCaptor<AMQP.BasicProperties> properties = ArgumentCaptor.forClass(AMQP.BasicProperties.class);
+        verify(channel).basicPublish(eq(""), eq("payment-queue"), eq(true), properties.capture(), eq("m1".getBytes()));
+        assertEquals(Map.of("__TypeId__", "org.example.PaymentRequest"), properties.getValue().getHeaders());
+    }
+
+    @Test
+    void replay_shouldStopWhenTheQueueIsEmpty() throws Exception {
+        DeadLetterReplayResponse response = deadLetterReplayService.replay(100, 3);
+
+        assertEquals(new DeadLetterReplayResponse(5, 2, 0), response);
+        verify(channel).basicAck(3, true);
+        verify(channel).basicAck(5, true);
+    }
+
+    @Test
+    void replay_shouldLeaveRefusedCopiesDeadLetteredAndAckTheRest() throws Exception {
+        refusedSequences.add(2L);
+
+        DeadLetterReplayResponse response = deadLetterReplayService.replay(3, 3);
+
+        assertEquals(2, response.getReplayed());
+        assertEquals(1, response.getBatches());
+        verify(channel).basicAck(1, false);
+        verify(channel).basicNack(2, false, true);
+        verify(channel).basicAck(3, false);
+        verify(channel, never()).basicAck(anyLong(), eq(true));
+    }
+
+    @Test
+    void replay_shouldPutTheBatchBackWhenTheBrokerDoesNotConfirm() throws Exception {
+        when(channel.waitForConfirms(anyLong())).thenThrow(new TimeoutException());
+
+        assertThrows(AmqpException.class, () -> deadLetterReplayService.replay(2, 2));
+
+        verify(channel).basicNack(2, true, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.notificationService.service;
+
+import com.example.notificationService.config.RetryTopology;
+import com.example.notificationService.kafka.NotificationConsumer;
+import com.example.notificationService.kafka.PaymentRetryRouter;
+import com.example.notificationService.model.Notification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.PaymentRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class NotificationCoalescerTest {
+
+    private final List<Notification> sent = new ArrayList<>();
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private boolean deliveryBackedUp;
+    private boolean deliveryBroken;
+    private final NotificationDispatcher dispatcher = new NotificationDispatcher() {
+        @Override
+        public void dispatch(List<Notification> notifications) {
+            if (deliveryBackedUp) {
+                throw new RejectedExecutionException("full");
+            }
+            if (deliveryBroken) {
+                throw new IllegalStateException("broken");
+            }
+            sent.addAll(notifications);
+        }
+    };
+
+    private PaymentRetryRouter paymentRetryRouter = mock(PaymentRetryRouter.class);
+    private NotificationCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = coalescer(Duration.ofSeconds(10), 50, 1 << 20);
+    }
+
+    @Test
+    void add_shouldSendOneDigestPerRecipientWhenTheWindowCloses() {
+        add(payment("ACC-1", 1500.10), payment("ACC-2", 80.0));
+        advanceBy(Duration.ofSeconds(4));
+        add(payment("ACC-1", 200.20), payment("ACC-1", 0.01));
+
+        advanceBy(Duration.ofSeconds(5));
+        assertTrue(sent.isEmpty());
+
+        advanceBy(Duration.ofSeconds(1));
+        assertEquals(2, sent.size());
+        Notification digest = sent.stream().filter(n -> n.getRecipient().equals("ACC-1")).findFirst().orElseThrow();
+        assertEquals(3, digest.getPaymentCount());
+        assertEquals(1700.31, digest.getAmount());
+        assertEquals("account number: ACC-1 has been paid successfully 3 times with total amount: 1700.31", digest.getMessage());
+        assertEquals(2.0, meterRegistry.get("notification.coalescing.flushes").tag("reason", "window").counter().count());
+    }
+
+    @Test
+    void add_shouldSendASinglePaymentUnchanged() {
+        Notification payment = payment("ACC-1", 1500.0);
+        add(payment);
+
+        advanceBy(Duration.ofSeconds(10));
+
+        assertEquals(List.of(payment), sent);
+    }
+
+    @Test
+    void add_shouldStartANewWindowAfterADigestWasSent() {
+        add(payment("ACC-1", 1.0));
+        advanceBy(Duration.ofSeconds(10));
+        add(payment("ACC-1", 2.0));
+
+        advanceBy(Duration.ofSeconds(9));
+        assertEquals(1, sent.size());
+
+        advanceBy(Duration.ofSeconds(1));
+        assertEquals(List.of(1.0, 2.0), sent.stream().map(Notification::getAmount).toList());
+    }
+
+    @Test
+    void add_shouldSendEarlyOnceMaxCountPaymentsAreBuffered() {
+        coalescer = coalescer(Duration.ofSeconds(10), 3, 1 << 20);
+
+        add(payment("ACC-1", 1.0), payment("ACC-1", 2.0), payment("ACC-1", 3.0), payment("ACC-1", 4.0));
+
+        assertEquals(1, sent.size());
+        assertEquals(3, sent.get(0).getPaymentCount());
+        assertEquals(6.0, sent.get(0).getAmount());
+        assertEquals(1, coalescer.pending());
+    }
+
+    @Test
+    void add_shouldSendTheOldestDigestsFirstWhenOverTheMemoryBudget() {
+        long perDigest = NotificationCoalescer.ENTRY_OVERHEAD_BYTES + 2L * ("ACC-0".length() + "paid".length());
+        coalescer = coalescer(Duration.ofSeconds(10), 50, perDigest * 4);
+
+        for (int i = 0; i < 5; i++) {
+            add(payment("ACC-" + i, i));
+            advanceBy(Duration.ofSeconds(1));
+        }
+
+        // Over budget with five digests: the two oldest go, leaving three (at most three quarters of the budget).
+        assertEquals(List.of("ACC-0", "ACC-1"), sent.stream().map(Notification::getRecipient).toList());
+        assertEquals(3, coalescer.pending());
+        assertEquals(perDigest * 3, coalescer.usedBytes());
+        assertEquals(2.0, meterRegistry.get("notification.coalescing.flushes").tag("reason", "pressure").counter().count());
+    }
+
+    @Test
+    void add_shouldPassEverythingThroughWhenTheWindowIsZero() {
+        coalescer = coalescer(Duration.ZERO, 50, 1 << 20);
+
+        add(payment("ACC-1", 1.0), payment("ACC-1", 2.0));
+
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    void advance_shouldKeepDigestsForAnotherWindowWhileDeliveryIsBackedUp() {
+        add(payment("ACC-1", 1.0), payment("ACC-1", 2.0));
+        deliveryBackedUp = true;
+        advanceBy(Duration.ofSeconds(10));
+        assertEquals(1, coalescer.pending());
+
+        deliveryBackedUp = false;
+        add(payment("ACC-1", 4.0));
+        advanceBy(Duration.ofSeconds(10));
+
+        assertEquals(1, sent.size());
+        assertEquals(3, sent.get(0).getPaymentCount());
+        assertEquals(7.0, sent.get(0).getAmount());
+        assertEquals(1.0, meterRegistry.get("notification.coalescing.deferred").counter().count());
+    }
+
+    @Test
+    void advance_shouldKeepDigestsThatFailedToDispatchForAnotherWindow() {
+        add(payment("ACC-1", 1.0), payment("ACC-1", 2.0));
+        deliveryBroken = true;
+        advanceBy(Duration.ofSeconds(10));
+        assertEquals(1, coalescer.pending());
+
+        deliveryBroken = false;
+        advanceBy(Duration.ofSeconds(10));
+
+        assertEquals(1, sent.size());
+        assertEquals(3.0, sent.get(0).getAmount());
+        assertEquals(1.0, meterRegistry.get("notification.coalescing.failed").counter().count());
+    }
+
+    @Test
+    void advance_shouldRetryThePaymentsOfADigestOnceItHasFailedMaxAttemptsTimes() {
+        add(payment("ACC-1", 1.0), payment("ACC-1", 2.0));
+        deliveryBroken = true;
+
+        for (int i = 0; i < 3; i++) {
+            advanceBy(Duration.ofSeconds(10));
+        }
+
+        assertEquals(0, coalescer.pending());
+        assertEquals(0, coalescer.usedBytes());
+        verify(paymentRetryRouter, times(2)).retry(any(Message.class), any(IllegalStateException.class));
+        assertEquals(2.0, meterRegistry.get("notification.coalescing.failed").counter().count());
+        assertEquals(0.0, meterRegistry.get("notification.coalescing.dropped").counter().count());
+    }
+
+    @Test
+    void consumedPayment_shouldEndUpInARetryTierWhenItsDigestCannotBeDispatched() throws Exception {
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        RetryTopology topology = new RetryTopology("payment-queue", "payment-queue.retry",
+                List.of(new RetryTopology.Tier("payment-queue.retry.1000ms", Duration.ofSeconds(1))),
+                "payment-queue.dlq");
+        paymentRetryRouter = new PaymentRetryRouter(rabbitTemplate, topology, meterRegistry, Duration.ofSeconds(1));
+        doAnswer(i -> i.<CorrelationData>getArgument(3).getFuture().complete(new CorrelationData.Confirm(true, null)))
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        coalescer = coalescer(Duration.ofSeconds(10), 50, 1 << 20);
+        ObjectMapper objectMapper = new ObjectMapper();
+        NotificationConsumer consumer = new NotificationConsumer(coalescer, paymentRetryRouter, objectMapper,
+                meterRegistry);
+        Message payment = new Message(objectMapper.writeValueAsBytes(new PaymentRequest("ACC-1", 10.0)),
+                new MessageProperties());
+        deliveryBroken = true;
+
+        consumer.consumeNotifications(List.of(payment), mock(Channel.class));
+        for (int i = 0; i < 3; i++) {
+            advanceBy(Duration.ofSeconds(10));
+        }
+
+        ArgumentCaptor<Message> retried = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq("payment-queue.retry"), eq("payment-queue.retry.1000ms"), retried.capture(),
+                any(CorrelationData.class));
+        assertArrayEquals(payment.getBody(), retried.getValue().getBody());
+    }
+
+    @Test
+    void add_shouldLetTheListenerSeeARejectedBatchWhenNotCoalescing() {
+        coalescer = coalescer(Duration.ZERO, 50, 1 << 20);
+        deliveryBackedUp = true;
+
+        assertThrows(RejectedExecutionException.class, () -> add(payment("ACC-1", 1.0)));
+    }
+
+    @Test
+    void shutdown_shouldRetryWhatCannotBeSent() {
+        add(payment("ACC-1", 1.0));
+        deliveryBackedUp = true;
+
+        coalescer.shutdown();
+
+        verify(paymentRetryRouter).retry(any(Message.class), any(IllegalStateException.class));
+        assertEquals(0, coalescer.pending());
+    }
+
+    @Test
+    void shutdown_shouldSendEverythingStillBuffered() {
+        add(payment("ACC-1", 1.0), payment("ACC-2", 2.0), payment("ACC-1", 3.0));
+
+        coalescer.shutdown();
+
+        assertEquals(2, sent.size());
+        assertEquals(0, coalescer.pending());
+        assertEquals(0, coalescer.usedBytes());
+    }
+
+    private NotificationCoalescer coalescer(Duration window, int maxCount, long memoryBudget) {
+        return new NotificationCoalescer(dispatcher, paymentRetryRouter, meterRegistry, window, maxCount, memoryBudget,
+                3, Duration.ofMillis(100), nanos::get);
+    }
+
+    private void add(Notification... payments) {
+        List<Message> sources = Arrays.stream(payments)
+                .map(payment -> new Message(new byte[0], new MessageProperties()))
+                .toList();
+        coalescer.add(List.of(payments), sources);
+    }
+
+    private void advanceBy(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+        coalescer.advance();
+    }
+
+    private static Notification payment(String recipient, double amount) {
+        Notification notification = new Notification();
+        notification.setRecipient(recipient);
+        notification.setMessage("paid");
+        notification.setAmount(amount);
+        notification.setPaymentCount(1);
+        return notification;
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.paymentService.client;
 
-import com.example.paymentService.dto.Account;
+import com.example.paymentService.dto.AccountSlice;
+import com.example.paymentService.dto.BalanceUpdateRequest;
+import com.example.paymentService.dto.BalanceUpdateResult;
+import feign.Response;
 import org.springframework.cloud.openfeign.FeignClient;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 
 @FeignClient(name = "accountService", path = "/api/account")
 public interface AccountClient {
@@ -16,6 +19,19 @@ public interface AccountClient {
     @PostMapping("/{id}/rollback")
     void rollbackBalance(@PathVariable("id") String accountNumber, @RequestBody Double amount);
 
+    @PostMapping("/balances/batch")
+    List<BalanceUpdateResult> updateBalances(@RequestBody List<BalanceUpdateRequest> updates);
+
+    // Undoes credits applied by updateBalances under these references; unknown or already reverted ones are skipped.
+    @PostMapping("/balances/batch/revert")
+    List<BalanceUpdateResult> revertCredits(@RequestBody List<String> references);
+
     @GetMapping("/all")
-    Page<Account> getAllAccounts(Pageable pageable);
+    AccountSlice getAccounts(@RequestParam(value = "after", required = false) String after,
+                             @RequestParam("limit") int limit,
+                             @RequestParam("includeTotal") boolean includeTotal);
+
+    // Raw response so the NDJSON body can be read incrementally; use AccountStreamReader instead of calling this.
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    Response streamAccounts(@RequestParam(value = "after", required = false) String after);
 }
@@ -0,0 +1,63 @@
+package com.example.paymentService.client;
+
+import com.example.paymentService.dto.Account;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import feign.Response;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads {@code GET /api/account/stream} one account at a time, so a consumer walks the whole accounts table in a
+ * single request with only the socket buffer in memory. The returned stream owns the HTTP response and must be
+ * closed.
+ */
+@Component
+public class AccountStreamReader {
+
+    private final AccountClient accountClient;
+    private final ObjectReader accountReader;
+
+    @Autowired
+    public AccountStreamReader(AccountClient accountClient, ObjectMapper objectMapper) {
+        this.accountClient = accountClient;
+        this.accountReader = objectMapper.readerFor(Account.class);
+    }
+
+    /** Streams accounts ordered by account number, starting after {@code after} when it is given. */
+    public Stream<Account> streamAccounts(String after) {
+        Response response = accountClient.streamAccounts(after);
+        if (response.status() != 200 || response.body() == null) {
+            response.close();
+            throw new IllegalStateException("accountService answered " + response.status() + " to the account stream");
+        }
+
+        MappingIterator<Account> accounts;
+        try {
+            accounts = accountReader.readValues(response.body().asInputStream());
+        } catch (IOException e) {
+            response.close();
+            throw new UncheckedIOException(e);
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(accounts, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> close(accounts, response));
+    }
+
+    private static void close(MappingIterator<Account> accounts, Response response) {
+        try {
+            accounts.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            response.close();
+        }
+    }
+}
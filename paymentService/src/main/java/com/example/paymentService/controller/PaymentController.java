@@ -1,48 +1,112 @@
 package com.example.paymentService.controller;
 
-import com.example.paymentService.dto.PaymentResponse;
+import com.example.paymentService.dto.PaymentConnection;
+import com.example.paymentService.dto.PaymentExportFormat;
+import com.example.paymentService.dto.PaymentSummaryResponse;
+import com.example.paymentService.dto.PayrollRunResponse;
 import com.example.paymentService.model.Payment;
+import com.example.paymentService.service.PaymentExportService;
 import com.example.paymentService.service.PaymentService;
+import com.example.paymentService.service.PaymentSummaryService;
+import com.example.paymentService.service.PayrollRunService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/payment")
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PayrollRunService payrollRunService;
+    private final PaymentExportService paymentExportService;
+    private final PaymentSummaryService paymentSummaryService;
 
     @Autowired
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, PayrollRunService payrollRunService,
+                             PaymentExportService paymentExportService, PaymentSummaryService paymentSummaryService) {
         this.paymentService = paymentService;
+        this.payrollRunService = payrollRunService;
+        this.paymentExportService = paymentExportService;
+        this.paymentSummaryService = paymentSummaryService;
     }
 
     @PostMapping("/{accountNumber}")
     public ResponseEntity<Payment> createPayment(@PathVariable String accountNumber,
-                                                 @RequestParam Double amount) {
-        Payment payment = paymentService.createPayment(accountNumber, amount);
+                                                 @RequestParam Double amount,
+                                                 @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        Payment payment = paymentService.createPayment(accountNumber, amount, idempotencyKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(payment);
     }
 
     @PostMapping("/all")
-    public ResponseEntity<List<PaymentResponse>> createPaymentsForAllEmployees(@RequestParam Double amount) {
-        List<PaymentResponse> payments = paymentService.createPaymentsForAllEmployees(amount);
-        return ResponseEntity.status(HttpStatus.CREATED).body(payments);
+    public ResponseEntity<PayrollRunResponse> createPaymentsForAllEmployees(@RequestParam Double amount) {
+        PayrollRunResponse run = payrollRunService.startRun(amount);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(run);
+    }
+
+    @GetMapping("/runs/{id}")
+    public ResponseEntity<PayrollRunResponse> getPayrollRun(@PathVariable Long id) {
+        return ResponseEntity.ok(payrollRunService.getRun(id));
+    }
+
+    @GetMapping("/runs/{id}/payments")
+    public ResponseEntity<Page<Payment>> getPayrollRunPayments(@PathVariable Long id, Pageable pageable) {
+        return ResponseEntity.ok(payrollRunService.getRunPayments(id, pageable));
     }
 
     @GetMapping("/employee/{accountNumber}")
-    public ResponseEntity<List<Payment>> getPaymentsByAccountNumber(@PathVariable String accountNumber) {
-        List<Payment> payments = paymentService.getPaymentsByAccountNumber(accountNumber);
+    public ResponseEntity<PaymentConnection> getPaymentsByAccountNumber(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + PaymentService.DEFAULT_HISTORY_PAGE_SIZE) int limit) {
+        PaymentConnection payments = paymentService.getPaymentsByAccountNumber(accountNumber, from, to, after, limit);
         return ResponseEntity.ok(payments);
     }
 
+    @GetMapping("/summary/{accountNumber}")
+    public ResponseEntity<PaymentSummaryResponse> getPaymentSummary(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(paymentSummaryService.getSummary(accountNumber, date != null ? date : LocalDate.now()));
+    }
+
+    @PostMapping("/summary/rebuild")
+    public ResponseEntity<Long> rebuildPaymentSummaries() {
+        return ResponseEntity.ok(paymentSummaryService.rebuild());
+    }
+
     @GetMapping
-    public ResponseEntity<List<Payment>> getAllPayments() {
-        List<Payment> payments = paymentService.getAllPayments();
-        return ResponseEntity.ok(payments);
+    public ResponseEntity<StreamingResponseBody> getAllPayments() {
+        return export(PaymentExportFormat.JSON);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPayments(@RequestParam(defaultValue = "ndjson") String format) {
+        return export(PaymentExportFormat.from(format));
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(PaymentExportFormat format) {
+        StreamingResponseBody body = out -> paymentExportService.export(format, out);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()));
+        if (format != PaymentExportFormat.JSON) {
+            response.header(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename("payments." + format.getExtension()).build().toString());
+        }
+        return response.body(body);
     }
 }
\ No newline at end of file
@@ -1,43 +1,71 @@
 package com.example.paymentService.controller;
 
-import com.example.paymentService.dto.PaymentResponse;
+import com.example.paymentService.dto.PaymentConnection;
+import com.example.paymentService.dto.PaymentSummaryResponse;
+import com.example.paymentService.dto.PayrollRunResponse;
 import com.example.paymentService.model.Payment;
 import com.example.paymentService.service.PaymentService;
+import com.example.paymentService.service.PaymentSummaryService;
+import com.example.paymentService.service.PayrollRunService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Controller
 public class PaymentGraphQLController {
 
     private final PaymentService paymentService;
+    private final PayrollRunService payrollRunService;
+    private final PaymentSummaryService paymentSummaryService;
 
     @Autowired
-    public PaymentGraphQLController(PaymentService paymentService) {
+    public PaymentGraphQLController(PaymentService paymentService, PayrollRunService payrollRunService,
+                                    PaymentSummaryService paymentSummaryService) {
         this.paymentService = paymentService;
+        this.payrollRunService = payrollRunService;
+        this.paymentSummaryService = paymentSummaryService;
     }
 
     @MutationMapping
-    public Payment createPayment(@Argument String accountNumber, @Argument Double amount) {
-        return paymentService.createPayment(accountNumber, amount);
+    public Payment createPayment(@Argument String accountNumber, @Argument Double amount,
+                                 @Argument String idempotencyKey) {
+        return paymentService.createPayment(accountNumber, amount, idempotencyKey);
     }
 
     @MutationMapping
-    public List<PaymentResponse> createPaymentsForAllEmployees(@Argument Double amount) {
-        return paymentService.createPaymentsForAllEmployees(amount);
+    public PayrollRunResponse createPaymentsForAllEmployees(@Argument Double amount) {
+        return payrollRunService.startRun(amount);
     }
 
     @QueryMapping
-    public List<Payment> getPaymentsByAccountNumber(@Argument String accountNumber) {
-        return paymentService.getPaymentsByAccountNumber(accountNumber);
+    public PayrollRunResponse getPayrollRun(@Argument Long id) {
+        return payrollRunService.getRun(id);
     }
 
     @QueryMapping
-    public List<Payment> getAllPayments() {
-        return paymentService.getAllPayments();
+    public Page<Payment> getPayrollRunPayments(@Argument Long id, @Argument int page, @Argument int size) {
+        return payrollRunService.getRunPayments(id, PageRequest.of(page, size));
+    }
+
+    @QueryMapping
+    public PaymentConnection getPaymentsByAccountNumber(@Argument String accountNumber, @Argument int first,
+                                                        @Argument String after, @Argument String from,
+                                                        @Argument String to) {
+        return paymentService.getPaymentsByAccountNumber(accountNumber,
+                from != null ? LocalDateTime.parse(from) : null,
+                to != null ? LocalDateTime.parse(to) : null,
+                after, first);
+    }
+
+    @QueryMapping
+    public PaymentSummaryResponse getPaymentSummary(@Argument String accountNumber, @Argument String date) {
+        return paymentSummaryService.getSummary(accountNumber, date != null ? LocalDate.parse(date) : LocalDate.now());
     }
 }
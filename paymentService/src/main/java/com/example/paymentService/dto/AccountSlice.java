@@ -0,0 +1,17 @@
+package com.example.paymentService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountSlice {
+    private List<Account> content;
+    private boolean hasNext;
+    private String nextCursor;
+    private Long totalElements;
+}
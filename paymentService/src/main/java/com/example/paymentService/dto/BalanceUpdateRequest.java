@@ -1,6 +1,5 @@
 package com.example.paymentService.dto;
 
-import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -8,15 +7,20 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
-public class PaymentResponse {
+@AllArgsConstructor
+public class BalanceUpdateRequest {
 
     @NotBlank(message = "Account number cannot be blank")
     private String accountNumber;
 
     @NotNull(message = "Amount cannot be null")
-    @DecimalMin(value = "0.0", inclusive = false, message = "Amount must be greater than 0")
     private Double amount;
 
+    // accountService applies an update with a reference at most once, so a resent credit is not paid twice.
+    private String reference;
+
+    public BalanceUpdateRequest(String accountNumber, Double amount) {
+        this(accountNumber, amount, null);
+    }
 }
@@ -0,0 +1,16 @@
+package com.example.paymentService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceUpdateResult {
+
+    private String accountNumber;
+    private Double amount;
+    private Double balance;
+    private boolean updated;
+}
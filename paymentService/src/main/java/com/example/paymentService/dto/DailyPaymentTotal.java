@@ -0,0 +1,17 @@
+package com.example.paymentService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyPaymentTotal {
+    private String accountNumber;
+    private LocalDate day;
+    private Double total;
+    private Long count;
+}
@@ -0,0 +1,13 @@
+package com.example.paymentService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageInfo {
+    private boolean hasNextPage;
+    private String endCursor;
+}
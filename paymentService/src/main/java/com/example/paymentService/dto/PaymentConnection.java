@@ -0,0 +1,19 @@
+package com.example.paymentService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of an account's payment history, newest first, in the Relay connection shape. Pass
+ * {@code pageInfo.endCursor} as {@code after} to fetch the next page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentConnection {
+    private List<PaymentEdge> edges;
+    private PageInfo pageInfo;
+}
@@ -0,0 +1,14 @@
+package com.example.paymentService.dto;
+
+import com.example.paymentService.model.Payment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentEdge {
+    private String cursor;
+    private Payment node;
+}
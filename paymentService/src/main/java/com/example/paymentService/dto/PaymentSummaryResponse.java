@@ -0,0 +1,18 @@
+package com.example.paymentService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentSummaryResponse {
+    private String accountNumber;
+    private LocalDate date;
+    private PeriodTotal day;
+    private PeriodTotal month;
+    private PeriodTotal year;
+}
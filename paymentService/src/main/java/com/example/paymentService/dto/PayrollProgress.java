@@ -0,0 +1,17 @@
+package com.example.paymentService.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Getter
+@ToString
+public class PayrollProgress {
+
+    private final AtomicLong pages = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    // Failed payments whose credit could not be reverted either; also counted in failed.
+    private final AtomicLong unresolved = new AtomicLong();
+}
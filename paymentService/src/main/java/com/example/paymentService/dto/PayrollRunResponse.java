@@ -0,0 +1,27 @@
+package com.example.paymentService.dto;
+
+import com.example.paymentService.model.PayrollRunStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PayrollRunResponse {
+
+    private Long id;
+    private Double amount;
+    private PayrollRunStatus status;
+    private int pagesCompleted;
+    private long processed;
+    private long failed;
+    // Failed payments whose credit may still be applied, listed in payroll_unresolved_credit.
+    private long unresolved;
+    // Payments completed per second since the run started.
+    private double throughput;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,137 @@
+package com.example.paymentService.kafka;
+
+import com.example.paymentService.model.OutboxMessage;
+import com.example.paymentService.repository.OutboxMessageRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.PaymentRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Publishes outbox rows to RabbitMQ in batches over a single channel, waits for the broker to confirm the batch and
+ * only then marks the rows as sent. Delivery is at-least-once: a crash between the confirm and the commit republishes
+ * the batch, so each message carries its outbox id as the AMQP message id for consumers to de-duplicate on.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = Logger.getLogger(OutboxRelay.class.getName());
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long confirmTimeoutMillis;
+    private final Duration retention;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter publishedCounter;
+
+    @Autowired
+    public OutboxRelay(OutboxMessageRepository outboxMessageRepository,
+                       RabbitTemplate rabbitTemplate,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${payment.outbox.batch-size:200}") int batchSize,
+                       @Value("${payment.outbox.confirm-timeout-ms:5000}") long confirmTimeoutMillis,
+                       @Value("${payment.outbox.retention-hours:24}") long retentionHours) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+        this.retention = Duration.ofHours(retentionHours);
+
+        Gauge.builder("payment.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .baseUnit("seconds")
+                .description("Age of the oldest payment notification still waiting in the outbox")
+                .register(meterRegistry);
+        this.publishedCounter = Counter.builder("payment.outbox.published")
+                .description("Payment notifications published from the outbox and confirmed by the broker")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.outbox.poll-interval-ms:500}")
+    public void relay() {
+        try {
+            int published;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } while (published == batchSize);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Outbox relay stopped, retrying on the next poll", e);
+        } finally {
+            updateLag();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.outbox.purge-interval-ms:3600000}")
+    public void purgeSent() {
+        Integer purged = transactionTemplate.execute(status ->
+                outboxMessageRepository.deleteSentBefore(LocalDateTime.now().minus(retention)));
+        if (purged != null && purged > 0) {
+            logger.info("Purged " + purged + " sent outbox messages");
+        }
+    }
+
+    private int publishBatch() {
+        List<OutboxMessage> batch = outboxMessageRepository.findUnsentForUpdate(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        rabbitTemplate.invoke(operations -> {
+            for (OutboxMessage message : batch) {
+                operations.convertAndSend(message.getQueue(), readPayload(message), amqpMessage -> {
+                    amqpMessage.getMessageProperties().setMessageId(String.valueOf(message.getId()));
+                    return amqpMessage;
+                });
+            }
+            // Throws if any message of the batch is nacked or unconfirmed, which rolls back and retries the batch.
+            operations.waitForConfirmsOrDie(confirmTimeoutMillis);
+            return null;
+        });
+
+        outboxMessageRepository.markSent(batch.stream().map(OutboxMessage::getId).toList(), LocalDateTime.now());
+        publishedCounter.increment(batch.size());
+        return batch.size();
+    }
+
+    private PaymentRequest readPayload(OutboxMessage message) {
+        try {
+            return objectMapper.readValue(message.getPayload(), PaymentRequest.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable outbox message " + message.getId(), e);
+        }
+    }
+
+    private void updateLag() {
+        try {
+            lagMillis.set(outboxMessageRepository.findFirstBySentAtIsNullOrderByIdAsc()
+                    .map(oldest -> Math.max(Duration.between(oldest.getCreatedAt(), LocalDateTime.now()).toMillis(), 0))
+                    .orElse(0L));
+        } catch (Exception e) {
+            logger.log(Level.FINE, "Could not refresh outbox lag", e);
+        }
+    }
+}
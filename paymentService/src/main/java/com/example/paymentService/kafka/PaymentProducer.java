@@ -1,34 +1,68 @@
 package com.example.paymentService.kafka;
 
+import com.example.paymentService.model.OutboxMessage;
+import com.example.paymentService.repository.OutboxMessageRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.PaymentRequest;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.logging.Logger;
 
+/**
+ * Writes payment notifications to the outbox in the caller's transaction, so a notification exists if and only if
+ * its payment was committed. {@link OutboxRelay} publishes them to RabbitMQ afterwards.
+ */
 @Service
 public class PaymentProducer {
 
     private static final Logger logger = Logger.getLogger(PaymentProducer.class.getName());
-    private static final String QUEUE_NAME  = "payment-queue";
+    static final String QUEUE_NAME  = "payment-queue";
 
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public PaymentProducer(RabbitTemplate rabbitTemplate) {
-        this.rabbitTemplate = rabbitTemplate;
+    public PaymentProducer(OutboxMessageRepository outboxMessageRepository, ObjectMapper objectMapper) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.objectMapper = objectMapper;
     }
 
+    @Transactional(propagation = Propagation.MANDATORY)
     public void sendPayment(PaymentRequest paymentRequest) {
-        logger.info("Sending payment request: " + paymentRequest);
+        logger.info("Queueing payment request: " + paymentRequest);
+
+        outboxMessageRepository.save(toOutboxMessage(paymentRequest, LocalDateTime.now()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void sendPayments(List<PaymentRequest> paymentRequests) {
+        if (paymentRequests.isEmpty()) {
+            return;
+        }
+        logger.info("Queueing " + paymentRequests.size() + " payment requests");
+
+        LocalDateTime now = LocalDateTime.now();
+        outboxMessageRepository.saveAll(paymentRequests.stream()
+                .map(paymentRequest -> toOutboxMessage(paymentRequest, now))
+                .toList());
+    }
 
-        rabbitTemplate.convertAndSend(QUEUE_NAME, paymentRequest);
+    private OutboxMessage toOutboxMessage(PaymentRequest paymentRequest, LocalDateTime now) {
+        try {
+            return new OutboxMessage(QUEUE_NAME, objectMapper.writeValueAsString(paymentRequest), now);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize payment request " + paymentRequest, e);
+        }
     }
 
    /* private final KafkaTemplate<String, PaymentRequest> kafkaTemplate;
@@ -0,0 +1,51 @@
+package com.example.paymentService.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Maps an {@code Idempotency-Key} to the payment it created. The key is the primary key, so two requests racing
+ * with the same key cannot both commit.
+ */
+@Entity
+@Table(name = "payment_idempotency_key", indexes = @Index(name = "idx_idempotency_created", columnList = "createdAt"))
+@Getter
+@NoArgsConstructor
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    private String idempotencyKey;
+
+    private Long paymentId;
+    private LocalDateTime createdAt;
+
+    // Always INSERT a new key instead of letting save() merge over a row another request just committed.
+    @Transient
+    private boolean isNew = true;
+
+    public IdempotencyRecord(String idempotencyKey, Long paymentId, LocalDateTime createdAt) {
+        this.idempotencyKey = idempotencyKey;
+        this.paymentId = paymentId;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.paymentService.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.id.TimeOrderedId;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "payment_outbox", indexes = @Index(name = "idx_outbox_unsent", columnList = "sentAt, id"))
+@Data
+@NoArgsConstructor
+public class OutboxMessage {
+
+    @Id
+    @TimeOrderedId(nodeIdSetting = "payment.id.node-id")
+    private Long id;
+
+    private String queue;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    private LocalDateTime createdAt;
+
+    // Null until the relay has had the message confirmed by the broker.
+    private LocalDateTime sentAt;
+
+    public OutboxMessage(String queue, String payload, LocalDateTime createdAt) {
+        this.queue = queue;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+}
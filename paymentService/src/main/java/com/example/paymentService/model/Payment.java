@@ -1,27 +1,38 @@
 package com.example.paymentService.model;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.example.id.TimeOrderedId;
 
 import java.time.LocalDateTime;
 
 @Entity
+// A payroll run pays each account once; single payments have no run and are not constrained.
+@Table(indexes = {
+        @Index(name = "idx_payment_payroll_run", columnList = "payrollRunId"),
+        @Index(name = "idx_payment_account_time", columnList = "accountNumber, timestamp, id")
+}, uniqueConstraints = @UniqueConstraint(name = "uk_payment_payroll_run_account",
+        columnNames = {"payrollRunId", "accountNumber"}))
 @Data
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId(nodeIdSetting = "payment.id.node-id")
     private Long id;
 
     private String accountNumber;
     private Double amount;
     private LocalDateTime timestamp;
 
+    // Set for payments created by a payroll run, null for single payments.
+    private Long payrollRunId;
+
     public Payment() {}
 
     public Payment(String accountNumber, Double amount, LocalDateTime now) {
@@ -29,4 +40,4 @@ public class Payment {
         this.amount = amount;
         this.timestamp = now;
     }
-}
\ No newline at end of file
+}
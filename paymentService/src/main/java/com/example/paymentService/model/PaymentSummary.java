@@ -0,0 +1,26 @@
+package com.example.paymentService.model;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running payment totals for one account over one day or month. Rows are only ever incremented, in the same
+ * transaction as the payments they count, so a lookup never has to touch the payment table.
+ */
+@Entity
+@Table(name = "payment_summary")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentSummary {
+
+    @EmbeddedId
+    private PaymentSummaryId id;
+
+    private double totalAmount;
+    private long paymentCount;
+}
@@ -0,0 +1,26 @@
+package com.example.paymentService.model;
+
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentSummaryId implements Serializable {
+
+    private String accountNumber;
+
+    @Enumerated(EnumType.STRING)
+    private SummaryPeriod period;
+
+    // The day itself for DAY rows, the first of the month for MONTH rows.
+    private LocalDate periodStart;
+}
@@ -0,0 +1,50 @@
+package com.example.paymentService.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "payroll_run")
+@Data
+@NoArgsConstructor
+public class PayrollRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Double amount;
+
+    @Enumerated(EnumType.STRING)
+    private PayrollRunStatus status;
+
+    // Number of account pages committed so far.
+    private int nextPage;
+
+    // Last account number of the last committed page; a resumed run continues after it.
+    private String lastAccountNumber;
+
+    private long processed;
+    private long failed;
+    private long unresolved;
+
+    // Instance currently executing the run and when it last said so; another instance may take the run over once
+    // the heartbeat is older than the lease timeout.
+    private String owner;
+    private LocalDateTime heartbeatAt;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+
+    public PayrollRun(Double amount, LocalDateTime now) {
+        this.amount = amount;
+        this.status = PayrollRunStatus.RUNNING;
+        this.startedAt = now;
+        this.updatedAt = now;
+        this.heartbeatAt = now;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.paymentService.model;
+
+public enum PayrollRunStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
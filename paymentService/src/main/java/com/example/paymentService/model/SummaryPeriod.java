@@ -0,0 +1,12 @@
+package com.example.paymentService.model;
+
+import java.time.LocalDate;
+
+public enum SummaryPeriod {
+    DAY,
+    MONTH;
+
+    public LocalDate startOf(LocalDate date) {
+        return this == DAY ? date : date.withDayOfMonth(1);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.paymentService.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A payroll credit that may have been applied in accountService without a payment to show for it, because neither
+ * storing the payment nor reverting the credit succeeded. Needs reconciling by hand against the account's credits.
+ */
+@Entity
+@Table(name = "payroll_unresolved_credit", indexes = @Index(name = "idx_unresolved_payroll_run", columnList = "payrollRunId"))
+@Data
+@NoArgsConstructor
+public class UnresolvedCredit {
+
+    // The reference the credit was sent under, see PayrollEngine.creditReference.
+    @Id
+    private String reference;
+
+    private Long payrollRunId;
+    private String accountNumber;
+    private Double amount;
+    private LocalDateTime recordedAt;
+
+    public UnresolvedCredit(String reference, Long payrollRunId, String accountNumber, Double amount,
+                            LocalDateTime recordedAt) {
+        this.reference = reference;
+        this.payrollRunId = payrollRunId;
+        this.accountNumber = accountNumber;
+        this.amount = amount;
+        this.recordedAt = recordedAt;
+    }
+}
@@ -1,13 +1,58 @@
 package com.example.paymentService.repository;
 
 
+import com.example.paymentService.dto.DailyPaymentTotal;
 import com.example.paymentService.model.Payment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, String> {
-    List<Payment> findByAccountNumber(String accountNumber);
-}
\ No newline at end of file
+public interface PaymentRepository extends JpaRepository<Payment, Long> {
+
+    int EXPORT_FETCH_SIZE = 1000;
+
+    // Read through a server-side cursor (useCursorFetch=true) EXPORT_FETCH_SIZE rows at a time; must run in a transaction.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Payment p ORDER BY p.id")
+    Stream<Payment> streamAll();
+
+    // Keyset page of an account's history, newest first, served from idx_payment_account_time without OFFSET.
+    @Query("SELECT p FROM Payment p WHERE p.accountNumber = :accountNumber AND p.timestamp >= :from "
+            + "AND (p.timestamp < :beforeTimestamp OR (p.timestamp = :beforeTimestamp AND p.id < :beforeId)) "
+            + "ORDER BY p.timestamp DESC, p.id DESC")
+    List<Payment> findHistoryPage(@Param("accountNumber") String accountNumber,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                  @Param("beforeId") Long beforeId,
+                                  Pageable pageable);
+
+    // Per-account daily totals computed by the database, used to rebuild payment_summary.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT new com.example.paymentService.dto.DailyPaymentTotal(p.accountNumber, extract(date from p.timestamp), "
+            + "sum(p.amount), count(p)) FROM Payment p "
+            + "GROUP BY p.accountNumber, extract(date from p.timestamp) "
+            + "ORDER BY p.accountNumber, extract(date from p.timestamp)")
+    Stream<DailyPaymentTotal> streamDailyTotals();
+
+    Page<Payment> findByPayrollRunId(Long payrollRunId, Pageable pageable);
+
+    @Query("SELECT p.accountNumber FROM Payment p WHERE p.payrollRunId = :payrollRunId AND p.accountNumber IN :accountNumbers")
+    Set<String> findPaidAccountNumbers(@Param("payrollRunId") Long payrollRunId,
+                                       @Param("accountNumbers") Collection<String> accountNumbers);
+}
@@ -0,0 +1,10 @@
+package com.example.paymentService.repository;
+
+import com.example.paymentService.model.PaymentSummary;
+
+import java.util.List;
+
+public interface PaymentSummaryBatchRepository {
+
+    void addToSummaries(List<PaymentSummary> deltas);
+}
@@ -0,0 +1,36 @@
+package com.example.paymentService.repository;
+
+import com.example.paymentService.model.PaymentSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.List;
+
+public class PaymentSummaryBatchRepositoryImpl implements PaymentSummaryBatchRepository {
+
+    // Creates the row on the first payment of the period and increments it afterwards, in one statement.
+    private static final String ADD_TO_SUMMARY_SQL = "INSERT INTO payment_summary "
+            + "(account_number, period, period_start, total_amount, payment_count) VALUES (?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE total_amount = total_amount + VALUES(total_amount), "
+            + "payment_count = payment_count + VALUES(payment_count)";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public PaymentSummaryBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addToSummaries(List<PaymentSummary> deltas) {
+        jdbcTemplate.batchUpdate(ADD_TO_SUMMARY_SQL, deltas, BATCH_SIZE, (ps, delta) -> {
+            ps.setString(1, delta.getId().getAccountNumber());
+            ps.setString(2, delta.getId().getPeriod().name());
+            ps.setDate(3, Date.valueOf(delta.getId().getPeriodStart()));
+            ps.setDouble(4, delta.getTotalAmount());
+            ps.setLong(5, delta.getPaymentCount());
+        });
+    }
+}
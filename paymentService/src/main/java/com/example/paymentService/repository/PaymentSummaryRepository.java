@@ -0,0 +1,20 @@
+package com.example.paymentService.repository;
+
+import com.example.paymentService.model.PaymentSummary;
+import com.example.paymentService.model.PaymentSummaryId;
+import com.example.paymentService.model.SummaryPeriod;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PaymentSummaryRepository extends JpaRepository<PaymentSummary, PaymentSummaryId>,
+        PaymentSummaryBatchRepository {
+
+    List<PaymentSummary> findByIdAccountNumberAndIdPeriodAndIdPeriodStartBetween(String accountNumber,
+                                                                                   SummaryPeriod period,
+                                                                                   LocalDate from,
+                                                                                   LocalDate to);
+}
@@ -0,0 +1,34 @@
+package com.example.paymentService.repository;
+
+import com.example.paymentService.model.PayrollRun;
+import com.example.paymentService.model.PayrollRunStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PayrollRunRepository extends JpaRepository<PayrollRun, Long> {
+    List<PayrollRun> findByStatus(PayrollRunStatus status);
+
+    // Takes a running run over if nobody has heartbeated it since staleBefore; 1 means this caller now owns it.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE PayrollRun r SET r.owner = :owner, r.heartbeatAt = :now WHERE r.id = :id "
+            + "AND r.status = com.example.paymentService.model.PayrollRunStatus.RUNNING "
+            + "AND (r.heartbeatAt IS NULL OR r.heartbeatAt < :staleBefore)")
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    // Extends the lease; 0 means the run finished or another instance has taken it over.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE PayrollRun r SET r.heartbeatAt = :now WHERE r.id = :id AND r.owner = :owner "
+            + "AND r.status = com.example.paymentService.model.PayrollRunStatus.RUNNING")
+    int heartbeat(@Param("id") Long id, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
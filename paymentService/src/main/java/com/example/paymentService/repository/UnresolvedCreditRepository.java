@@ -0,0 +1,9 @@
+package com.example.paymentService.repository;
+
+import com.example.paymentService.model.UnresolvedCredit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UnresolvedCreditRepository extends JpaRepository<UnresolvedCredit, String> {
+}
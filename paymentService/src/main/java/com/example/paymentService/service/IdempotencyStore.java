@@ -0,0 +1,131 @@
+package com.example.paymentService.service;
+
+import com.example.paymentService.exception.IdempotencyKeyConflictException;
+import com.example.paymentService.model.IdempotencyRecord;
+import com.example.paymentService.model.Payment;
+import com.example.paymentService.repository.IdempotencyRecordRepository;
+import com.example.paymentService.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Remembers which payment each {@code Idempotency-Key} produced. Recent keys are answered from a bounded in-memory
+ * map with a TTL; older ones fall back to the {@code payment_idempotency_key} table, which is purged after the
+ * retention period.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = Logger.getLogger(IdempotencyStore.class.getName());
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final PaymentRepository paymentRepository;
+    private final Map<String, CachedPayment> recent;
+    private final long cacheTtlNanos;
+    private final Duration retention;
+
+    @Autowired
+    public IdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                            PaymentRepository paymentRepository,
+                            @Value("${payment.idempotency.cache-size:10000}") int cacheSize,
+                            @Value("${payment.idempotency.cache-ttl-minutes:10}") long cacheTtlMinutes,
+                            @Value("${payment.idempotency.retention-hours:24}") long retentionHours) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.paymentRepository = paymentRepository;
+        this.cacheTtlNanos = Duration.ofMinutes(cacheTtlMinutes).toNanos();
+        this.retention = Duration.ofHours(retentionHours);
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPayment> eldest) {
+                return size() > cacheSize || eldest.getValue().isExpired(System.nanoTime());
+            }
+        };
+    }
+
+    public Optional<Payment> find(String idempotencyKey) {
+        Payment cached = getRecent(idempotencyKey);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<Payment> stored = idempotencyRecordRepository.findById(idempotencyKey)
+                .flatMap(record -> paymentRepository.findById(record.getPaymentId()));
+        stored.ifPresent(payment -> putRecent(idempotencyKey, payment));
+        return stored;
+    }
+
+    /**
+     * Records the key in the caller's transaction before any side effect happens. A concurrent request that already
+     * holds the same key makes this fail with {@link IdempotencyKeyConflictException}.
+     */
+    public void remember(String idempotencyKey, Payment payment) {
+        try {
+            idempotencyRecordRepository.saveAndFlush(
+                    new IdempotencyRecord(idempotencyKey, payment.getId(), LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            throw new IdempotencyKeyConflictException(
+                    "A payment with Idempotency-Key " + idempotencyKey + " is already being processed");
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Only cache once the payment is committed; a rolled back payment must stay retryable.
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    putRecent(idempotencyKey, payment);
+                }
+            });
+        } else {
+            putRecent(idempotencyKey, payment);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            logger.info("Purged " + purged + " expired idempotency keys");
+        }
+    }
+
+    private Payment getRecent(String idempotencyKey) {
+        synchronized (recent) {
+            CachedPayment cached = recent.get(idempotencyKey);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.isExpired(System.nanoTime())) {
+                recent.remove(idempotencyKey);
+                return null;
+            }
+            return cached.payment();
+        }
+    }
+
+    private void putRecent(String idempotencyKey, Payment payment) {
+        synchronized (recent) {
+            recent.put(idempotencyKey, new CachedPayment(payment, System.nanoTime() + cacheTtlNanos));
+        }
+    }
+
+    private record CachedPayment(Payment payment, long expiresAtNanos) {
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos > 0;
+        }
+    }
+}
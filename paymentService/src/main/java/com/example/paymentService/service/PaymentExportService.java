@@ -0,0 +1,145 @@
+package com.example.paymentService.service;
+
+import com.example.paymentService.dto.PaymentExportFormat;
+import com.example.paymentService.model.Payment;
+import com.example.paymentService.repository.PaymentRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole payments table to an output stream while reading it through a database cursor. Each row is
+ * detached once written, so memory use does not depend on the size of the table.
+ */
+@Service
+public class PaymentExportService {
+
+    private static final String CSV_HEADER = "id,accountNumber,amount,timestamp,payrollRunId";
+
+    private final PaymentRepository paymentRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public PaymentExportService(PaymentRepository paymentRepository, EntityManager entityManager,
+                                ObjectMapper objectMapper) {
+        this.paymentRepository = paymentRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public long export(PaymentExportFormat format, OutputStream out) throws IOException {
+        long rows = 0;
+        try (Stream<Payment> payments = paymentRepository.streamAll();
+             RowWriter writer = rowWriter(format, out)) {
+            Iterator<Payment> iterator = payments.iterator();
+            while (iterator.hasNext()) {
+                Payment payment = iterator.next();
+                writer.write(payment);
+                entityManager.detach(payment);
+                if (++rows % PaymentRepository.EXPORT_FETCH_SIZE == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private RowWriter rowWriter(PaymentExportFormat format, OutputStream out) throws IOException {
+        ObjectWriter jsonWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return switch (format) {
+            case JSON -> new JsonRowWriter(jsonWriter.writeValuesAsArray(out));
+            case NDJSON -> new JsonRowWriter(jsonWriter.withRootValueSeparator("\n").writeValues(out));
+            case CSV -> new CsvRowWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        };
+    }
+
+    private interface RowWriter extends AutoCloseable {
+
+        void write(Payment payment) throws IOException;
+
+        void flush() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private record JsonRowWriter(SequenceWriter sequenceWriter) implements RowWriter {
+
+        @Override
+        public void write(Payment payment) throws IOException {
+            sequenceWriter.write(payment);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            sequenceWriter.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Closing finishes the JSON array; the target stream stays open for the container.
+            sequenceWriter.close();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(CSV_HEADER);
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(Payment payment) throws IOException {
+            writer.write(String.valueOf(payment.getId()));
+            writer.write(',');
+            writer.write(quote(payment.getAccountNumber()));
+            writer.write(',');
+            writer.write(String.valueOf(payment.getAmount()));
+            writer.write(',');
+            writer.write(payment.getTimestamp() != null ? payment.getTimestamp().toString() : "");
+            writer.write(',');
+            writer.write(payment.getPayrollRunId() != null ? payment.getPayrollRunId().toString() : "");
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+
+        private static String quote(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.contains(",") || value.contains("\"") || value.contains("\r") || value.contains("\n")) {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+            return value;
+        }
+    }
+}
@@ -1,45 +1,76 @@
 package com.example.paymentService.service;
 
 import com.example.paymentService.client.AccountClient;
-import com.example.paymentService.dto.Account;
-import com.example.paymentService.dto.PaymentResponse;
+import com.example.paymentService.dto.PageInfo;
+import com.example.paymentService.dto.PaymentConnection;
+import com.example.paymentService.dto.PaymentEdge;
+import com.example.paymentService.exception.IdempotencyKeyConflictException;
 import com.example.paymentService.kafka.PaymentProducer;
 import com.example.paymentService.model.Payment;
 import com.example.paymentService.repository.PaymentRepository;
 import org.example.PaymentRequest;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
 
 @Service
 @Validated
 public class PaymentService {
 
+    public static final int DEFAULT_HISTORY_PAGE_SIZE = 20;
+    public static final int MAX_HISTORY_PAGE_SIZE = 100;
+
+    // Open-ended bounds kept inside the DATETIME range.
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime HISTORY_END = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     private final PaymentRepository paymentRepository;
     private final AccountClient accountClient;
     private final PaymentProducer paymentProducer;
+    private final IdempotencyStore idempotencyStore;
+    private final PaymentSummaryService paymentSummaryService;
 
     @Autowired
-    public PaymentService(PaymentRepository paymentRepository, AccountClient accountClient, PaymentProducer paymentProducer) {
+    public PaymentService(PaymentRepository paymentRepository, AccountClient accountClient, PaymentProducer paymentProducer,
+                          IdempotencyStore idempotencyStore, PaymentSummaryService paymentSummaryService) {
         this.paymentRepository = paymentRepository;
         this.accountClient = accountClient;
         this.paymentProducer = paymentProducer;
+        this.idempotencyStore = idempotencyStore;
+        this.paymentSummaryService = paymentSummaryService;
     }
 
     @Transactional
     public Payment createPayment(String accountNumber, Double amount) {
+        return createPayment(accountNumber, amount, null);
+    }
+
+    /**
+     * Creates a payment once per {@code idempotencyKey}: a retried request with the same key gets the original
+     * payment back without the account being credited again.
+     */
+    @Transactional
+    public Payment createPayment(String accountNumber, Double amount, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            Optional<Payment> original = idempotencyStore.find(idempotencyKey);
+            if (original.isPresent()) {
+                return replay(original.get(), accountNumber, amount, idempotencyKey);
+            }
+        }
 
         Payment payment = new Payment(accountNumber,amount, LocalDateTime.now());
         payment = paymentRepository.save(payment);
+        if (idempotencyKey != null) {
+            idempotencyStore.remember(idempotencyKey, payment);
+        }
         boolean paymentMade = false;
         try {
             accountClient.updateBalance(accountNumber, amount);
@@ -49,6 +80,8 @@ public class PaymentService {
             paymentRequest.setAmount(amount);
             paymentRequest.setAccountNumber(accountNumber);
             paymentProducer.sendPayment(paymentRequest);
+            // Last, so the summary row lock is not held across the accountService call.
+            paymentSummaryService.record(List.of(payment));
         } catch (Exception e) {
             if (paymentMade) {
                 accountClient.rollbackBalance(accountNumber, amount);
@@ -58,57 +91,45 @@ public class PaymentService {
         return payment;
     }
 
-    public List<Payment> getPaymentsByAccountNumber(String accountNumber) {
-        List<Payment> account=paymentRepository.findByAccountNumber(accountNumber);
-        System.out.println(accountNumber);
-        if (account.isEmpty()){
-            throw new NoSuchElementException("No payment history found for account number: " + accountNumber);
+    private Payment replay(Payment original, String accountNumber, Double amount, String idempotencyKey) {
+        if (!original.getAccountNumber().equals(accountNumber) || !Objects.equals(original.getAmount(), amount)) {
+            throw new IdempotencyKeyConflictException(
+                    "Idempotency-Key " + idempotencyKey + " was already used for a different payment");
         }
-        return account;
-    }
-
-    public List<Payment> getAllPayments() {
-        return paymentRepository.findAll();
+        return original;
     }
 
-    @Transactional
-    public List<PaymentResponse> createPaymentsForAllEmployees(Double amount) {
-        List<PaymentResponse> paymentResponses = new ArrayList<>();
-
-        int pageNumber = 0;
-        int pageSize = 20;  // page size based on performance and expected load
-        Pageable pageable = PageRequest.of(pageNumber, pageSize);
-
-        Page<Account> accountPage;
-        do {
-            accountPage = accountClient.getAllAccounts(pageable);
-
-            for (Account account : accountPage.getContent()) {
-                Payment payment = new Payment(account.getAccountNumber(), amount, LocalDateTime.now());
-
-                accountClient.updateBalance(account.getAccountNumber(), amount);
-
-                PaymentRequest paymentRequest = new PaymentRequest();
-                paymentRequest.setAmount(amount);
-                paymentRequest.setAccountNumber(account.getAccountNumber());
-                paymentProducer.sendPayment(paymentRequest);
-
-                paymentRepository.save(payment);
-
-                PaymentResponse paymentResponse = new PaymentResponse(
-                        payment.getAccountNumber(),
-                        payment.getAmount()
-                );
-                paymentResponses.add(paymentResponse);
-            }
-
-            pageNumber++;
-            pageable = PageRequest.of(pageNumber, pageSize);
-
-        } while (accountPage.hasNext());
+    /**
+     * Returns one page of the account's payments, newest first, optionally limited to {@code [from, to)}. Pages are
+     * addressed by the {@code after} cursor of the previous page rather than an offset, so deep pages cost the same
+     * as the first one.
+     */
+    public PaymentConnection getPaymentsByAccountNumber(String accountNumber, LocalDateTime from, LocalDateTime to,
+                                                        String after, int limit) {
+        if (limit < 1 || limit > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        LocalDateTime lowerBound = from != null ? from : HISTORY_START;
+        PaymentCursor position = after != null
+                ? PaymentCursor.decode(after)
+                : new PaymentCursor(to != null ? to : HISTORY_END, Long.MIN_VALUE);
+
+        // One extra row tells whether another page exists without a COUNT query.
+        List<Payment> payments = paymentRepository.findHistoryPage(accountNumber, lowerBound,
+                position.timestamp(), position.id(), PageRequest.of(0, limit + 1));
+        if (payments.isEmpty() && after == null && from == null && to == null) {
+            throw new NoSuchElementException("No payment history found for account number: " + accountNumber);
+        }
 
-        return paymentResponses;
+        boolean hasNextPage = payments.size() > limit;
+        List<PaymentEdge> edges = payments.stream()
+                .limit(limit)
+                .map(payment -> new PaymentEdge(PaymentCursor.of(payment).encode(), payment))
+                .toList();
+        String endCursor = edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor();
+        return new PaymentConnection(edges, new PageInfo(hasNextPage, endCursor));
     }
 
 
+
 }
\ No newline at end of file
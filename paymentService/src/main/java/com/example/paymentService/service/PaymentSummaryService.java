@@ -0,0 +1,154 @@
+package com.example.paymentService.service;
+
+import com.example.paymentService.dto.DailyPaymentTotal;
+import com.example.paymentService.dto.PaymentSummaryResponse;
+import com.example.paymentService.dto.PeriodTotal;
+import com.example.paymentService.model.Payment;
+import com.example.paymentService.model.PaymentSummary;
+import com.example.paymentService.model.PaymentSummaryId;
+import com.example.paymentService.model.SummaryPeriod;
+import com.example.paymentService.repository.PaymentRepository;
+import com.example.paymentService.repository.PaymentSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the {@code payment_summary} read model: per-account totals by day and by month, incremented alongside
+ * every payment so that "paid today / this month / this year" is a handful of primary key reads.
+ */
+@Service
+public class PaymentSummaryService {
+
+    private static final Logger logger = Logger.getLogger(PaymentSummaryService.class.getName());
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    // Fixed lock order so concurrent payroll chunks never deadlock on each other's summary rows.
+    private static final Comparator<PaymentSummary> LOCK_ORDER = Comparator
+            .comparing((PaymentSummary summary) -> summary.getId().getAccountNumber())
+            .thenComparing(summary -> summary.getId().getPeriod())
+            .thenComparing(summary -> summary.getId().getPeriodStart());
+
+    private final PaymentSummaryRepository paymentSummaryRepository;
+    private final PaymentRepository paymentRepository;
+
+    @Autowired
+    public PaymentSummaryService(PaymentSummaryRepository paymentSummaryRepository,
+                                 PaymentRepository paymentRepository) {
+        this.paymentSummaryRepository = paymentSummaryRepository;
+        this.paymentRepository = paymentRepository;
+    }
+
+    /**
+     * Adds the payments to their day and month totals. Must run in the transaction that stores the payments.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(List<Payment> payments) {
+        if (payments.isEmpty()) {
+            return;
+        }
+        Map<PaymentSummaryId, PaymentSummary> deltas = new LinkedHashMap<>();
+        for (Payment payment : payments) {
+            LocalDate day = payment.getTimestamp().toLocalDate();
+            for (SummaryPeriod period : SummaryPeriod.values()) {
+                add(deltas, payment.getAccountNumber(), period, period.startOf(day), payment.getAmount(), 1);
+            }
+        }
+        List<PaymentSummary> sorted = new ArrayList<>(deltas.values());
+        sorted.sort(LOCK_ORDER);
+        paymentSummaryRepository.addToSummaries(sorted);
+    }
+
+    public PaymentSummaryResponse getSummary(String accountNumber, LocalDate date) {
+        LocalDate yearStart = date.withDayOfYear(1);
+        LocalDate monthStart = SummaryPeriod.MONTH.startOf(date);
+
+        Optional<PaymentSummary> day = paymentSummaryRepository.findById(
+                new PaymentSummaryId(accountNumber, SummaryPeriod.DAY, date));
+        // At most twelve rows: the months of the year up to and including this one.
+        List<PaymentSummary> months = paymentSummaryRepository.findByIdAccountNumberAndIdPeriodAndIdPeriodStartBetween(
+                accountNumber, SummaryPeriod.MONTH, yearStart, monthStart);
+
+        PeriodTotal month = new PeriodTotal(monthStart, 0, 0);
+        PeriodTotal year = new PeriodTotal(yearStart, 0, 0);
+        for (PaymentSummary summary : months) {
+            if (summary.getId().getPeriodStart().equals(monthStart)) {
+                month = toPeriodTotal(summary);
+            }
+            year.setTotal(year.getTotal() + summary.getTotalAmount());
+            year.setCount(year.getCount() + summary.getPaymentCount());
+        }
+
+        return new PaymentSummaryResponse(accountNumber, date,
+                day.map(this::toPeriodTotal).orElse(new PeriodTotal(date, 0, 0)), month, year);
+    }
+
+    /**
+     * Regenerates every summary row from the payment table. The database computes the daily totals; month rows are
+     * summed from them one account at a time, so memory stays bounded by one account's months. Payments written while
+     * the rebuild runs may be counted twice or not at all, so run it while payments are quiet.
+     */
+    @Transactional
+    public long rebuild() {
+        paymentSummaryRepository.deleteAllInBatch();
+
+        long rows = 0;
+        List<PaymentSummary> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+        Map<PaymentSummaryId, PaymentSummary> months = new LinkedHashMap<>();
+        String currentAccount = null;
+
+        try (Stream<DailyPaymentTotal> totals = paymentRepository.streamDailyTotals()) {
+            for (DailyPaymentTotal total : (Iterable<DailyPaymentTotal>) totals::iterator) {
+                if (!total.getAccountNumber().equals(currentAccount)) {
+                    rows += flush(months.values(), batch);
+                    months.clear();
+                    currentAccount = total.getAccountNumber();
+                }
+                batch.add(new PaymentSummary(new PaymentSummaryId(total.getAccountNumber(), SummaryPeriod.DAY,
+                        total.getDay()), total.getTotal(), total.getCount()));
+                add(months, total.getAccountNumber(), SummaryPeriod.MONTH, SummaryPeriod.MONTH.startOf(total.getDay()),
+                        total.getTotal(), total.getCount());
+                if (batch.size() >= REBUILD_BATCH_SIZE) {
+                    rows += flush(List.of(), batch);
+                }
+            }
+        }
+        rows += flush(months.values(), batch);
+
+        logger.info("Rebuilt payment_summary with " + rows + " rows");
+        return rows;
+    }
+
+    private int flush(Iterable<PaymentSummary> extra, List<PaymentSummary> batch) {
+        extra.forEach(batch::add);
+        int size = batch.size();
+        if (size > 0) {
+            paymentSummaryRepository.addToSummaries(batch);
+            batch.clear();
+        }
+        return size;
+    }
+
+    private static void add(Map<PaymentSummaryId, PaymentSummary> deltas, String accountNumber, SummaryPeriod period,
+                            LocalDate periodStart, double amount, long count) {
+        PaymentSummary delta = deltas.computeIfAbsent(new PaymentSummaryId(accountNumber, period, periodStart),
+                id -> new PaymentSummary(id, 0, 0));
+        delta.setTotalAmount(delta.getTotalAmount() + amount);
+        delta.setPaymentCount(delta.getPaymentCount() + count);
+    }
+
+    private PeriodTotal toPeriodTotal(PaymentSummary summary) {
+        return new PeriodTotal(summary.getId().getPeriodStart(), summary.getTotalAmount(), summary.getPaymentCount());
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.paymentService.service;
+
+import com.example.paymentService.client.AccountClient;
+import com.example.paymentService.client.AccountStreamReader;
+import com.example.paymentService.dto.Account;
+import com.example.paymentService.dto.BalanceUpdateRequest;
+import com.example.paymentService.dto.BalanceUpdateResult;
+import com.example.paymentService.dto.PayrollProgress;
+import com.example.paymentService.kafka.PaymentProducer;
+import com.example.paymentService.model.Payment;
+import com.example.paymentService.model.PayrollRun;
+import com.example.paymentService.model.UnresolvedCredit;
+import com.example.paymentService.repository.PaymentRepository;
+import com.example.paymentService.repository.UnresolvedCreditRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.example.PaymentRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Runs payroll over every account: accounts are read in one pass from the accountService stream, the next page is
+ * read while the current one is being paid,
+ * and each page is split into chunks that are credited, then stored together with their outbox notifications,
+ * in batches on a bounded pool. Every credit carries a reference made of the run and the account, so a chunk sent
+ * again after a crash between crediting and storing does not pay anyone twice.
+ * <p>
+ * A chunk whose credit call fails, or whose payments cannot be stored, has its credits reverted by reference, since
+ * accountService may have applied them before the failure reached us. Credits that cannot be reverted either are
+ * stored in {@code payroll_unresolved_credit} and counted as unresolved, to be reconciled by hand.
+ */
+@Service
+public class PayrollEngine {
+
+    private static final Logger logger = Logger.getLogger(PayrollEngine.class.getName());
+
+    private final AccountClient accountClient;
+    private final AccountStreamReader accountStreamReader;
+    private final PaymentRepository paymentRepository;
+    private final UnresolvedCreditRepository unresolvedCreditRepository;
+    private final PaymentProducer paymentProducer;
+    private final PaymentSummaryService paymentSummaryService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+    private final int pageSize;
+    private final int chunkSize;
+
+    private final Counter processedCounter;
+    private final Counter failedCounter;
+    private final Counter unresolvedCounter;
+    private final Counter pageCounter;
+
+    @Autowired
+    public PayrollEngine(AccountClient accountClient,
+                         AccountStreamReader accountStreamReader,
+                         PaymentRepository paymentRepository,
+                         UnresolvedCreditRepository unresolvedCreditRepository,
+                         PaymentProducer paymentProducer,
+                         PaymentSummaryService paymentSummaryService,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${payroll.page-size:200}") int pageSize,
+                         @Value("${payroll.chunk-size:50}") int chunkSize,
+                         @Value("${payroll.concurrency:8}") int concurrency) {
+        this.accountClient = accountClient;
+        this.accountStreamReader = accountStreamReader;
+        this.paymentRepository = paymentRepository;
+        this.unresolvedCreditRepository = unresolvedCreditRepository;
+        this.paymentProducer = paymentProducer;
+        this.paymentSummaryService = paymentSummaryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pageSize = pageSize;
+        this.chunkSize = chunkSize;
+        this.workers = Executors.newFixedThreadPool(concurrency, payrollThreadFactory());
+
+        this.processedCounter = Counter.builder("payroll.payments")
+                .tag("outcome", "processed")
+                .description("Payroll payments credited and stored")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("payroll.payments")
+                .tag("outcome", "failed")
+                .description("Payroll payments that could not be completed")
+                .register(meterRegistry);
+        this.unresolvedCounter = Counter.builder("payroll.payments")
+                .tag("outcome", "unresolved")
+                .description("Failed payroll payments whose credit could not be reverted")
+                .register(meterRegistry);
+        this.pageCounter = Counter.builder("payroll.pages")
+                .description("Account pages processed by payroll")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Pays every account after {@code run.getLastAccountNumber()}. {@code onPageCommitted} receives the last account
+     * number of a page once all its payments are stored, so the caller can checkpoint the run.
+     */
+    public void run(PayrollRun run, PayrollProgress progress, Consumer<String> onPageCommitted) {
+        try (Stream<Account> stream = accountStreamReader.streamAccounts(run.getLastAccountNumber())) {
+            Iterator<Account> iterator = stream.iterator();
+            boolean firstPage = true;
+            List<Account> page = nextPage(iterator);
+            while (!page.isEmpty()) {
+                List<Account> accounts = page;
+                if (firstPage) {
+                    // A resumed run may have stored part of this page before it stopped.
+                    accounts = withoutPaidAccounts(run.getId(), accounts);
+                    firstPage = false;
+                }
+
+                List<CompletableFuture<Void>> chunks = new ArrayList<>();
+                for (int from = 0; from < accounts.size(); from += chunkSize) {
+                    List<Account> chunk = accounts.subList(from, Math.min(from + chunkSize, accounts.size()));
+                    chunks.add(CompletableFuture.runAsync(() -> processChunk(chunk, run, progress), workers));
+                }
+                // Read the next page off the stream while the workers pay this one.
+                List<Account> next = nextPage(iterator);
+                chunks.forEach(CompletableFuture::join);
+
+                progress.getPages().incrementAndGet();
+                pageCounter.increment();
+                onPageCommitted.accept(page.get(page.size() - 1).getAccountNumber());
+                page = next;
+            }
+        }
+
+        logger.info("Payroll run " + run.getId() + " finished: " + progress);
+    }
+
+    private List<Account> nextPage(Iterator<Account> accounts) {
+        List<Account> page = new ArrayList<>(pageSize);
+        while (page.size() < pageSize && accounts.hasNext()) {
+            page.add(accounts.next());
+        }
+        return page;
+    }
+
+    private List<Account> withoutPaidAccounts(Long runId, List<Account> accounts) {
+        if (accounts.isEmpty()) {
+            return accounts;
+        }
+        Set<String> paid = paymentRepository.findPaidAccountNumbers(runId,
+                accounts.stream().map(Account::getAccountNumber).toList());
+        if (paid.isEmpty()) {
+            return accounts;
+        }
+        return accounts.stream()
+                .filter(account -> !paid.contains(account.getAccountNumber()))
+                .toList();
+    }
+
+    private void processChunk(List<Account> accounts, PayrollRun run, PayrollProgress progress) {
+        Double amount = run.getAmount();
+        List<BalanceUpdateRequest> credits = accounts.stream()
+                .map(account -> new BalanceUpdateRequest(account.getAccountNumber(), amount,
+                        creditReference(run, account.getAccountNumber())))
+                .toList();
+
+        List<BalanceUpdateResult> results;
+        try {
+            results = accountClient.updateBalances(credits);
+        } catch (Exception e) {
+            // The call may have failed after accountService committed, e.g. on a read timeout.
+            logger.log(Level.WARNING, "Failed to credit " + credits.size() + " accounts, reverting their credits", e);
+            fail(run, credits.stream().map(BalanceUpdateRequest::getAccountNumber).toList(), progress);
+            return;
+        }
+
+        List<String> credited = results.stream()
+                .filter(BalanceUpdateResult::isUpdated)
+                .map(BalanceUpdateResult::getAccountNumber)
+                .toList();
+        recordFailed(progress, results.size() - credited.size());
+
+        List<Payment> saved;
+        try {
+            saved = storePayments(run, credited);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Failed to store " + credited.size() + " payments, reverting their credits", e);
+            fail(run, credited, progress);
+            return;
+        }
+
+        progress.getProcessed().addAndGet(saved.size());
+        processedCounter.increment(saved.size());
+    }
+
+    // An instance that lost its lease keeps paying until its next checkpoint, so the new owner may get to the same
+    // accounts first; accountService reports their credits as applied to both. The unique key on run and account
+    // lets only one payment in, and the other owner's payments stand: the rest of the chunk is stored without them.
+    private List<Payment> storePayments(PayrollRun run, List<String> accountNumbers) {
+        try {
+            return store(run, accountNumbers);
+        } catch (DataIntegrityViolationException e) {
+            Set<String> paid = paymentRepository.findPaidAccountNumbers(run.getId(), accountNumbers);
+            if (paid.isEmpty()) {
+                throw e;
+            }
+            logger.info(paid.size() + " accounts of payroll run " + run.getId() + " were already paid by another instance");
+            List<String> unpaid = accountNumbers.stream().filter(accountNumber -> !paid.contains(accountNumber)).toList();
+            return unpaid.isEmpty() ? List.of() : store(run, unpaid);
+        }
+    }
+
+    // Payments, their outbox notifications and summary totals commit together.
+    private List<Payment> store(PayrollRun run, List<String> accountNumbers) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Payment> payments = accountNumbers.stream()
+                .map(accountNumber -> {
+                    Payment payment = new Payment(accountNumber, run.getAmount(), now);
+                    payment.setPayrollRunId(run.getId());
+                    return payment;
+                })
+                .toList();
+        return transactionTemplate.execute(status -> {
+            List<Payment> stored = paymentRepository.saveAll(payments);
+            paymentProducer.sendPayments(stored.stream()
+                    .map(payment -> new PaymentRequest(payment.getAccountNumber(), payment.getAmount()))
+                    .toList());
+            paymentSummaryService.record(stored);
+            return stored;
+        });
+    }
+
+    // Reverts and counts as failed the credits of accounts that have no payment for the run. Accounts another owner
+    // has paid in the meantime keep their credit.
+    private void fail(PayrollRun run, List<String> accountNumbers, PayrollProgress progress) {
+        if (accountNumbers.isEmpty()) {
+            return;
+        }
+        List<String> unpaid = accountNumbers;
+        try {
+            Set<String> paid = paymentRepository.findPaidAccountNumbers(run.getId(), accountNumbers);
+            unpaid = accountNumbers.stream().filter(accountNumber -> !paid.contains(accountNumber)).toList();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Could not check for payments stored by another instance, reverting all", e);
+        }
+        revertCredits(run, unpaid, progress);
+        recordFailed(progress, unpaid.size());
+    }
+
+    // A run credits an account at most once, whichever instance sends it and however often it is resent.
+    static String creditReference(PayrollRun run, String accountNumber) {
+        return "payroll-" + run.getId() + "-" + accountNumber;
+    }
+
+    // References that were never applied are skipped by accountService, so reverting a whole chunk is safe.
+    private void revertCredits(PayrollRun run, List<String> accountNumbers, PayrollProgress progress) {
+        if (accountNumbers.isEmpty()) {
+            return;
+        }
+        try {
+            accountClient.revertCredits(accountNumbers.stream()
+                    .map(accountNumber -> creditReference(run, accountNumber))
+                    .toList());
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Failed to revert credits for " + accountNumbers.size() + " accounts", e);
+            recordUnresolved(run, accountNumbers, progress);
+        }
+    }
+
+    private void recordUnresolved(PayrollRun run, List<String> accountNumbers, PayrollProgress progress) {
+        progress.getUnresolved().addAndGet(accountNumbers.size());
+        unresolvedCounter.increment(accountNumbers.size());
+        LocalDateTime now = LocalDateTime.now();
+        List<UnresolvedCredit> unresolved = accountNumbers.stream()
+                .map(accountNumber -> new UnresolvedCredit(creditReference(run, accountNumber), run.getId(),
+                        accountNumber, run.getAmount(), now))
+                .toList();
+        try {
+            unresolvedCreditRepository.saveAll(unresolved);
+        } catch (Exception e) {
+            // Last resort: the references are at least in the log.
+            logger.log(Level.SEVERE, "Failed to record unresolved credits " + unresolved.stream()
+                    .map(UnresolvedCredit::getReference).toList(), e);
+        }
+    }
+
+    private void recordFailed(PayrollProgress progress, int count) {
+        if (count > 0) {
+            progress.getFailed().addAndGet(count);
+            failedCounter.increment(count);
+        }
+    }
+
+    private static ThreadFactory payrollThreadFactory() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "payroll-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.paymentService.service;
+
+import com.example.paymentService.dto.PayrollProgress;
+import com.example.paymentService.dto.PayrollRunResponse;
+import com.example.paymentService.model.Payment;
+import com.example.paymentService.model.PayrollRun;
+import com.example.paymentService.model.PayrollRunStatus;
+import com.example.paymentService.repository.PaymentRepository;
+import com.example.paymentService.repository.PayrollRunRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs payroll in the background. Each run is stored in {@code payroll_run} and checkpointed after every account
+ * page, so a run interrupted by a crash is picked up again from its last committed page.
+ * <p>
+ * A run is executed by one instance at a time: the owner heartbeats it while it runs, and any instance may claim a
+ * running run whose heartbeat is older than {@code payroll.lease-timeout}. An owner that finds its lease gone at a
+ * checkpoint stops and leaves the run to the new owner.
+ */
+@Service
+public class PayrollRunService {
+
+    private static final Logger logger = Logger.getLogger(PayrollRunService.class.getName());
+
+    private final PayrollRunRepository payrollRunRepository;
+    private final PaymentRepository paymentRepository;
+    private final PayrollEngine payrollEngine;
+    private final ExecutorService runExecutor;
+    private final ScheduledExecutorService leaseScheduler;
+    private final int maxConcurrentRuns;
+    private final String instanceId;
+    private final Duration leaseTimeout;
+    private final Set<Long> ownedRuns = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public PayrollRunService(PayrollRunRepository payrollRunRepository,
+                             PaymentRepository paymentRepository,
+                             PayrollEngine payrollEngine,
+                             @Value("${payroll.max-concurrent-runs:1}") int maxConcurrentRuns,
+                             @Value("${payroll.instance-id:${random.uuid}}") String instanceId,
+                             @Value("${payroll.lease-timeout:60s}") Duration leaseTimeout) {
+        this.payrollRunRepository = payrollRunRepository;
+        this.paymentRepository = paymentRepository;
+        this.payrollEngine = payrollEngine;
+        this.maxConcurrentRuns = maxConcurrentRuns;
+        this.instanceId = instanceId;
+        this.leaseTimeout = leaseTimeout;
+        this.runExecutor = Executors.newFixedThreadPool(maxConcurrentRuns, runnable -> {
+            Thread thread = new Thread(runnable, "payroll-run");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.leaseScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payroll-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public PayrollRunResponse startRun(Double amount) {
+        if (amount == null || amount <= 0) {
+            throw new IllegalArgumentException("Payroll amount must be greater than 0");
+        }
+        PayrollRun newRun = new PayrollRun(amount, LocalDateTime.now());
+        newRun.setOwner(instanceId);
+        PayrollRun run = payrollRunRepository.save(newRun);
+        PayrollRunResponse response = toResponse(run);
+        ownedRuns.add(run.getId());
+        runExecutor.submit(() -> execute(run));
+        return response;
+    }
+
+    public PayrollRunResponse getRun(Long id) {
+        return toResponse(findRun(id));
+    }
+
+    public Page<Payment> getRunPayments(Long id, Pageable pageable) {
+        findRun(id);
+        return paymentRepository.findByPayrollRunId(id, pageable);
+    }
+
+    /**
+     * Starts heartbeating owned runs and looking for abandoned ones. Both happen every quarter of the lease timeout,
+     * so a run left by a crashed instance is resumed within about one timeout.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLeases() {
+        long interval = Math.max(leaseTimeout.toMillis() / 4, 1);
+        leaseScheduler.scheduleWithFixedDelay(this::renewLeases, interval, interval, TimeUnit.MILLISECONDS);
+        leaseScheduler.scheduleWithFixedDelay(this::resumeInterruptedRuns, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    void resumeInterruptedRuns() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime staleBefore = now.minus(leaseTimeout);
+            for (PayrollRun run : payrollRunRepository.findByStatus(PayrollRunStatus.RUNNING)) {
+                if (ownedRuns.size() >= maxConcurrentRuns) {
+                    return;
+                }
+                if (ownedRuns.contains(run.getId())
+                        || payrollRunRepository.claim(run.getId(), instanceId, now, staleBefore) == 0) {
+                    continue;
+                }
+                run.setOwner(instanceId);
+                run.setHeartbeatAt(now);
+                ownedRuns.add(run.getId());
+                logger.info("Resuming payroll run " + run.getId() + " after account " + run.getLastAccountNumber());
+                runExecutor.submit(() -> execute(run));
+            }
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Could not look for interrupted payroll runs", e);
+        }
+    }
+
+    void renewLeases() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            for (Long id : ownedRuns) {
+                if (payrollRunRepository.heartbeat(id, instanceId, now) == 0) {
+                    logger.warning("Lost the lease on payroll run " + id);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Could not heartbeat payroll runs", e);
+        }
+    }
+
+    void execute(PayrollRun run) {
+        PayrollProgress progress = new PayrollProgress();
+        progress.getProcessed().set(run.getProcessed());
+        progress.getFailed().set(run.getFailed());
+        progress.getUnresolved().set(run.getUnresolved());
+        progress.getPages().set(run.getNextPage());
+
+        try {
+            payrollEngine.run(run, progress, lastAccountNumber -> checkpoint(run, progress, lastAccountNumber));
+            finish(run, progress, PayrollRunStatus.COMPLETED);
+        } catch (LeaseLostException e) {
+            logger.warning(e.getMessage());
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Payroll run " + run.getId() + " failed", e);
+            finish(run, progress, PayrollRunStatus.FAILED);
+        } finally {
+            ownedRuns.remove(run.getId());
+        }
+    }
+
+    private void checkpoint(PayrollRun run, PayrollProgress progress, String lastAccountNumber) {
+        renewLease(run);
+        run.setLastAccountNumber(lastAccountNumber);
+        run.setNextPage(progress.getPages().intValue());
+        copyProgress(run, progress);
+        payrollRunRepository.save(run);
+    }
+
+    private void finish(PayrollRun run, PayrollProgress progress, PayrollRunStatus status) {
+        try {
+            renewLease(run);
+        } catch (LeaseLostException e) {
+            logger.warning(e.getMessage());
+            return;
+        }
+        copyProgress(run, progress);
+        run.setStatus(status);
+        run.setFinishedAt(run.getUpdatedAt());
+        payrollRunRepository.save(run);
+    }
+
+    // Checked right before every write of the run, so an instance that lost the lease never overwrites the new
+    // owner's progress; the fresh heartbeat keeps the run from being claimed before the save lands.
+    private void renewLease(PayrollRun run) {
+        LocalDateTime now = LocalDateTime.now();
+        if (payrollRunRepository.heartbeat(run.getId(), instanceId, now) == 0) {
+            throw new LeaseLostException("Payroll run " + run.getId() + " is owned by another instance now, stopping");
+        }
+        run.setHeartbeatAt(now);
+    }
+
+    private void copyProgress(PayrollRun run, PayrollProgress progress) {
+        run.setProcessed(progress.getProcessed().get());
+        run.setFailed(progress.getFailed().get());
+        run.setUnresolved(progress.getUnresolved().get());
+        run.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private PayrollRun findRun(Long id) {
+        return payrollRunRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("No payroll run found with id: " + id));
+    }
+
+    private PayrollRunResponse toResponse(PayrollRun run) {
+        LocalDateTime end = run.getFinishedAt() != null ? run.getFinishedAt() : LocalDateTime.now();
+        long elapsedMillis = Math.max(Duration.between(run.getStartedAt(), end).toMillis(), 1);
+        double throughput = run.getProcessed() * 1000.0 / elapsedMillis;
+
+        return new PayrollRunResponse(run.getId(), run.getAmount(), run.getStatus(), run.getNextPage(),
+                run.getProcessed(), run.getFailed(), run.getUnresolved(), throughput, run.getStartedAt(),
+                run.getFinishedAt());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        leaseScheduler.shutdownNow();
+        runExecutor.shutdown();
+    }
+
+    private static class LeaseLostException extends RuntimeException {
+        LeaseLostException(String message) {
+            super(message);
+        }
+    }
+}
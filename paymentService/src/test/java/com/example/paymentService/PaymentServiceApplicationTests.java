@@ -3,7 +3,7 @@ package com.example.paymentService;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.payment.id.node-id=0")
 class PaymentServiceApplicationTests {
 
 	@Test
@@ -0,0 +1,79 @@
+package com.example.paymentService.client;
+
+import com.example.paymentService.dto.Account;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class AccountStreamReaderTest {
+
+    @Mock
+    private AccountClient accountClient;
+
+    private AccountStreamReader accountStreamReader;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        accountStreamReader = new AccountStreamReader(accountClient, new ObjectMapper());
+    }
+
+    @Test
+    void streamAccounts_shouldReadEachLineAndCloseTheResponse() {
+        AtomicBoolean closed = new AtomicBoolean();
+        String body = "{\"accountNumber\":\"acc1\",\"balance\":10.0,\"employeeId\":1}\n"
+                + "{\"accountNumber\":\"acc2\",\"balance\":20.0,\"employeeId\":2}";
+        when(accountClient.streamAccounts("acc0")).thenReturn(response(200, body, closed));
+
+        List<Account> accounts;
+        try (Stream<Account> stream = accountStreamReader.streamAccounts("acc0")) {
+            accounts = stream.toList();
+        }
+
+        assertEquals(2, accounts.size());
+        assertEquals("acc2", accounts.get(1).getAccountNumber());
+        assertEquals(20.0, accounts.get(1).getBalance());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void streamAccounts_shouldFailOnErrorStatus() {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(accountClient.streamAccounts(null)).thenReturn(response(503, "", closed));
+
+        assertThrows(IllegalStateException.class, () -> accountStreamReader.streamAccounts(null));
+        assertTrue(closed.get());
+    }
+
+    private Response response(int status, String body, AtomicBoolean closed) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ByteArrayInputStream in = new ByteArrayInputStream(bytes) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        return Response.builder()
+                .status(status)
+                .reason("status " + status)
+                .request(Request.create(Request.HttpMethod.GET, "/api/account/stream", Map.of(), null,
+                        StandardCharsets.UTF_8, null))
+                .headers(Map.of())
+                .body(in, bytes.length)
+                .build();
+    }
+}
@@ -1,8 +1,19 @@
 package com.example.paymentService.controller;
 
-import com.example.paymentService.dto.PaymentResponse;
+import com.example.paymentService.dto.PageInfo;
+import com.example.paymentService.dto.PaymentConnection;
+import com.example.paymentService.dto.PaymentEdge;
+import com.example.paymentService.dto.PaymentExportFormat;
+import com.example.paymentService.dto.PaymentSummaryResponse;
+import com.example.paymentService.dto.PayrollRunResponse;
+import com.example.paymentService.dto.PeriodTotal;
+import com.example.paymentService.exception.IdempotencyKeyConflictException;
 import com.example.paymentService.model.Payment;
+import com.example.paymentService.model.PayrollRunStatus;
+import com.example.paymentService.service.PaymentExportService;
 import com.example.paymentService.service.PaymentService;
+import com.example.paymentService.service.PaymentSummaryService;
+import com.example.paymentService.service.PayrollRunService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,13 +23,19 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -32,6 +49,15 @@ class PaymentControllerTest {
     @MockBean
     private PaymentService paymentService;
 
+    @MockBean
+    private PayrollRunService payrollRunService;
+
+    @MockBean
+    private PaymentExportService paymentExportService;
+
+    @MockBean
+    private PaymentSummaryService paymentSummaryService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -48,7 +74,7 @@ class PaymentControllerTest {
         Payment payment = new Payment(accountNumber, amount, LocalDateTime.now());
         payment.setId(1L);
 
-        when(paymentService.createPayment(eq(accountNumber), eq(amount))).thenReturn(payment);
+        when(paymentService.createPayment(eq(accountNumber), eq(amount), isNull())).thenReturn(payment);
 
         // Act & Assert
         mockMvc.perform(post("/api/payment/{accountNumber}", accountNumber)
@@ -61,24 +87,73 @@ class PaymentControllerTest {
     }
 
     @Test
-    void createPaymentsForAllEmployees_shouldReturnCreatedPayments() throws Exception {
+    void createPayment_shouldPassIdempotencyKeyToService() throws Exception {
+        Payment payment = new Payment("acc123", 500.0, LocalDateTime.now());
+        payment.setId(1L);
+
+        when(paymentService.createPayment(eq("acc123"), eq(500.0), eq("key-1"))).thenReturn(payment);
+
+        mockMvc.perform(post("/api/payment/{accountNumber}", "acc123")
+                        .param("amount", "500.0")
+                        .header("Idempotency-Key", "key-1"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    void createPayment_shouldReturnConflictWhenIdempotencyKeyIsReused() throws Exception {
+        when(paymentService.createPayment(eq("acc123"), eq(500.0), eq("key-1")))
+                .thenThrow(new IdempotencyKeyConflictException("Idempotency-Key key-1 was already used for a different payment"));
+
+        mockMvc.perform(post("/api/payment/{accountNumber}", "acc123")
+                        .param("amount", "500.0")
+                        .header("Idempotency-Key", "key-1"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void createPaymentsForAllEmployees_shouldStartPayrollRun() throws Exception {
         // Arrange
         Double amount = 100.0;
-        PaymentResponse paymentResponse1 = new PaymentResponse("acc123", 100.0);
-        PaymentResponse paymentResponse2 = new PaymentResponse("acc456", 100.0);
+        PayrollRunResponse run = new PayrollRunResponse(7L, amount, PayrollRunStatus.RUNNING, 0, 0, 0, 0, 0.0,
+                LocalDateTime.now(), null);
 
-        when(paymentService.createPaymentsForAllEmployees(eq(amount))).thenReturn(List.of(paymentResponse1, paymentResponse2));
+        when(payrollRunService.startRun(eq(amount))).thenReturn(run);
 
         // Act & Assert
         mockMvc.perform(post("/api/payment/all")
                         .param("amount", String.valueOf(amount))
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isCreated())
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[0].accountNumber").value("acc123"))
-                .andExpect(jsonPath("$[0].amount").value(100.0))
-                .andExpect(jsonPath("$[1].accountNumber").value("acc456"))
-                .andExpect(jsonPath("$[1].amount").value(100.0));
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.amount").value(100.0));
+    }
+
+    @Test
+    void getPayrollRun_shouldReturnRunStatus() throws Exception {
+        // Arrange
+        PayrollRunResponse run = new PayrollRunResponse(7L, 100.0, PayrollRunStatus.COMPLETED, 3, 590, 10, 0, 118.0,
+                LocalDateTime.now().minusSeconds(5), LocalDateTime.now());
+
+        when(payrollRunService.getRun(7L)).thenReturn(run);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/payment/runs/{id}", 7L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.pagesCompleted").value(3))
+                .andExpect(jsonPath("$.processed").value(590))
+                .andExpect(jsonPath("$.failed").value(10))
+                .andExpect(jsonPath("$.throughput").value(118.0));
+    }
+
+    @Test
+    void getPayrollRun_shouldReturnNotFoundForUnknownRun() throws Exception {
+        when(payrollRunService.getRun(99L)).thenThrow(new NoSuchElementException("No payroll run found with id: 99"));
+
+        mockMvc.perform(get("/api/payment/runs/{id}", 99L))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -90,41 +165,119 @@ class PaymentControllerTest {
         Payment payment2 = new Payment(accountNumber, 300.0, LocalDateTime.now());
         payment2.setId(2L);
 
-        when(paymentService.getPaymentsByAccountNumber(accountNumber)).thenReturn(List.of(payment1, payment2));
+        PaymentConnection connection = new PaymentConnection(
+                List.of(new PaymentEdge("c1", payment1), new PaymentEdge("c2", payment2)),
+                new PageInfo(true, "c2"));
+
+        when(paymentService.getPaymentsByAccountNumber(eq(accountNumber), isNull(), isNull(), isNull(), eq(2)))
+                .thenReturn(connection);
 
         // Act & Assert
         mockMvc.perform(get("/api/payment/employee/{accountNumber}", accountNumber)
+                        .param("limit", "2")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].accountNumber").value("acc123"))
-                .andExpect(jsonPath("$[0].amount").value(200.0))
-                .andExpect(jsonPath("$[1].id").value(2))
-                .andExpect(jsonPath("$[1].accountNumber").value("acc123"))
-                .andExpect(jsonPath("$[1].amount").value(300.0));
+                .andExpect(jsonPath("$.edges", hasSize(2)))
+                .andExpect(jsonPath("$.edges[0].node.id").value(1))
+                .andExpect(jsonPath("$.edges[0].node.accountNumber").value("acc123"))
+                .andExpect(jsonPath("$.edges[1].node.amount").value(300.0))
+                .andExpect(jsonPath("$.pageInfo.hasNextPage").value(true))
+                .andExpect(jsonPath("$.pageInfo.endCursor").value("c2"));
     }
 
     @Test
-    void getAllPayments_shouldReturnAllPayments() throws Exception {
-        // Arrange
-        Payment payment1 = new Payment("acc123", 200.0, LocalDateTime.now());
-        payment1.setId(1L);
-        Payment payment2 = new Payment("acc456", 300.0, LocalDateTime.now());
-        payment2.setId(2L);
+    void getPaymentsByEmployeeId_shouldPassTimeRangeAndCursor() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        when(paymentService.getPaymentsByAccountNumber("acc123", from, to, "c2", 20))
+                .thenReturn(new PaymentConnection(List.of(), new PageInfo(false, null)));
 
-        when(paymentService.getAllPayments()).thenReturn(List.of(payment1, payment2));
+        mockMvc.perform(get("/api/payment/employee/{accountNumber}", "acc123")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-02-01T00:00:00")
+                        .param("after", "c2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.edges", hasSize(0)))
+                .andExpect(jsonPath("$.pageInfo.hasNextPage").value(false));
+    }
 
-        // Act & Assert
-        mockMvc.perform(get("/api/payment")
-                        .contentType(MediaType.APPLICATION_JSON))
+    @Test
+    void getPaymentsByEmployeeId_shouldRejectInvalidCursor() throws Exception {
+        when(paymentService.getPaymentsByAccountNumber(eq("acc123"), isNull(), isNull(), eq("bad"), eq(20)))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: bad"));
+
+        mockMvc.perform(get("/api/payment/employee/{accountNumber}", "acc123").param("after", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getPaymentSummary_shouldReturnDayMonthAndYearTotals() throws Exception {
+        LocalDate date = LocalDate.of(2024, 3, 15);
+        PaymentSummaryResponse summary = new PaymentSummaryResponse("acc123", date,
+                new PeriodTotal(date, 100.0, 1),
+                new PeriodTotal(LocalDate.of(2024, 3, 1), 400.0, 3),
+                new PeriodTotal(LocalDate.of(2024, 1, 1), 1500.0, 9));
+
+        when(paymentSummaryService.getSummary("acc123", date)).thenReturn(summary);
+
+        mockMvc.perform(get("/api/payment/summary/{accountNumber}", "acc123").param("date", "2024-03-15"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.day.total").value(100.0))
+                .andExpect(jsonPath("$.month.count").value(3))
+                .andExpect(jsonPath("$.year.total").value(1500.0))
+                .andExpect(jsonPath("$.year.periodStart").value("2024-01-01"));
+    }
+
+    @Test
+    void rebuildPaymentSummaries_shouldReturnRowsWritten() throws Exception {
+        when(paymentSummaryService.rebuild()).thenReturn(42L);
+
+        mockMvc.perform(post("/api/payment/summary/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("42"));
+    }
+
+    @Test
+    void getAllPayments_shouldStreamJsonArray() throws Exception {
+        when(paymentExportService.export(eq(PaymentExportFormat.JSON), any(OutputStream.class))).thenAnswer(i -> {
+            OutputStream out = i.getArgument(1);
+            out.write("[{\"id\":1,\"accountNumber\":\"acc123\",\"amount\":200.0}]".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/payment"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].accountNumber").value("acc123"));
+    }
+
+    @Test
+    void exportPayments_shouldStreamCsvAttachment() throws Exception {
+        when(paymentExportService.export(eq(PaymentExportFormat.CSV), any(OutputStream.class))).thenAnswer(i -> {
+            OutputStream out = i.getArgument(1);
+            out.write("id,accountNumber,amount,timestamp,payrollRunId\r\n".getBytes(StandardCharsets.UTF_8));
+            return 0L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/payment/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].accountNumber").value("acc123"))
-                .andExpect(jsonPath("$[0].amount").value(200.0))
-                .andExpect(jsonPath("$[1].id").value(2))
-                .andExpect(jsonPath("$[1].accountNumber").value("acc456"))
-                .andExpect(jsonPath("$[1].amount").value(300.0));
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"payments.csv\""))
+                .andExpect(content().string("id,accountNumber,amount,timestamp,payrollRunId\r\n"));
+    }
+
+    @Test
+    void exportPayments_shouldRejectUnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/payment/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
     }
 }
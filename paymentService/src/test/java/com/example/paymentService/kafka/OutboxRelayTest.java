@@ -0,0 +1,107 @@
+package com.example.paymentService.kafka;
+
+import com.example.paymentService.model.OutboxMessage;
+import com.example.paymentService.repository.OutboxMessageRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.PaymentRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private RabbitOperations rabbitOperations;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        outboxRelay = new OutboxRelay(outboxMessageRepository, rabbitTemplate, new ObjectMapper(), transactionManager,
+                meterRegistry, 2, 1000, 24);
+
+        when(rabbitTemplate.invoke(any())).thenAnswer(i -> {
+            RabbitTemplate.OperationsCallback<?> callback = i.getArgument(0);
+            return callback.doInRabbit(rabbitOperations);
+        });
+        when(outboxMessageRepository.findFirstBySentAtIsNullOrderByIdAsc()).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void relay_shouldPublishBatchesUntilOutboxIsDrained() {
+        when(outboxMessageRepository.findUnsentForUpdate(any(Pageable.class)))
+                .thenReturn(List.of(message(1L, "acc1"), message(2L, "acc2")))
+                .thenReturn(List.of(message(3L, "acc3")));
+
+        outboxRelay.relay();
+
+        verify(rabbitOperations, times(3)).convertAndSend(eq("payment-queue"), any(PaymentRequest.class),
+                any(MessagePostProcessor.class));
+        verify(rabbitOperations, times(2)).waitForConfirmsOrDie(1000);
+        verify(outboxMessageRepository).markSent(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        verify(outboxMessageRepository).markSent(eq(List.of(3L)), any(LocalDateTime.class));
+        assertEquals(3.0, meterRegistry.get("payment.outbox.published").counter().count());
+    }
+
+    @Test
+    void relay_shouldLeaveMessagesUnsentWhenBrokerDoesNotConfirm() {
+        when(outboxMessageRepository.findUnsentForUpdate(any(Pageable.class)))
+                .thenReturn(List.of(message(1L, "acc1")));
+        doThrow(new AmqpTimeoutException("no confirm received")).when(rabbitOperations).waitForConfirmsOrDie(1000);
+        OutboxMessage oldest = message(1L, "acc1");
+        oldest.setCreatedAt(LocalDateTime.now().minusSeconds(30));
+        when(outboxMessageRepository.findFirstBySentAtIsNullOrderByIdAsc()).thenReturn(Optional.of(oldest));
+
+        outboxRelay.relay();
+
+        verify(outboxMessageRepository, never()).markSent(anyCollection(), any());
+        verify(transactionManager).rollback(any());
+        assertTrue(meterRegistry.get("payment.outbox.lag").gauge().value() >= 30.0);
+    }
+
+    @Test
+    void relay_shouldDoNothingWhenOutboxIsEmpty() {
+        when(outboxMessageRepository.findUnsentForUpdate(any(Pageable.class))).thenReturn(List.of());
+
+        outboxRelay.relay();
+
+        verify(rabbitTemplate, never()).invoke(any());
+        assertEquals(0.0, meterRegistry.get("payment.outbox.lag").gauge().value());
+    }
+
+    private OutboxMessage message(Long id, String accountNumber) {
+        OutboxMessage message = new OutboxMessage("payment-queue",
+                "{\"accountNumber\":\"" + accountNumber + "\",\"amount\":100.0}", LocalDateTime.now());
+        message.setId(id);
+        return message;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.paymentService.repository;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The previous {@code Payment} mapping with an IDENTITY id, kept only as the baseline for {@link PaymentInsertBenchmarkTest}.
+ */
+@Entity
+@Table(name = "identity_payment")
+@Getter
+@NoArgsConstructor
+class IdentityPayment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String accountNumber;
+    private Double amount;
+    private LocalDateTime timestamp;
+
+    IdentityPayment(String accountNumber, Double amount, LocalDateTime timestamp) {
+        this.accountNumber = accountNumber;
+        this.amount = amount;
+        this.timestamp = timestamp;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.paymentService.repository;
+
+import com.example.paymentService.model.Payment;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares inserting 100k payments with the old IDENTITY id (one INSERT per row) against the time-ordered id with
+ * JDBC batching. Runs against the in-memory database, so absolute numbers understate the gain over a network.
+ * <p>
+ * {@code mvn test -Dtest=PaymentInsertBenchmarkTest -Dbenchmark=true}
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=100",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.payment.id.node-id=0"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PaymentInsertBenchmarkTest {
+
+    private static final int PAYMENTS = 100_000;
+    private static final int CHUNK = 1_000;
+    private static final int WARMUP = 10_000;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void insert100kPayments() {
+        LocalDateTime now = LocalDateTime.now();
+
+        insertIdentity(WARMUP, now);
+        insertBatched(WARMUP, now);
+
+        long identityMillis = insertIdentity(PAYMENTS, now);
+        long batchedMillis = insertBatched(PAYMENTS, now);
+
+        System.out.printf("IDENTITY:            %,d payments in %,d ms (%,.0f/s)%n",
+                PAYMENTS, identityMillis, PAYMENTS * 1000.0 / identityMillis);
+        System.out.printf("time-ordered+batch:  %,d payments in %,d ms (%,.0f/s)%n",
+                PAYMENTS, batchedMillis, PAYMENTS * 1000.0 / batchedMillis);
+        assertEquals(PAYMENTS + WARMUP, paymentRepository.count());
+    }
+
+    private long insertIdentity(int count, LocalDateTime now) {
+        return timeInChunks(count, chunk -> {
+            for (int i = 0; i < chunk; i++) {
+                entityManager.persist(new IdentityPayment("acc" + i, 100.0, now));
+            }
+        });
+    }
+
+    private long insertBatched(int count, LocalDateTime now) {
+        return timeInChunks(count, chunk -> {
+            List<Payment> payments = new ArrayList<>(chunk);
+            for (int i = 0; i < chunk; i++) {
+                payments.add(new Payment("acc" + i, 100.0, now));
+            }
+            paymentRepository.saveAll(payments);
+        });
+    }
+
+    private long timeInChunks(int count, IntConsumer insertChunk) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long start = System.nanoTime();
+        for (int done = 0; done < count; done += CHUNK) {
+            int chunk = Math.min(CHUNK, count - done);
+            transactionTemplate.executeWithoutResult(status -> {
+                insertChunk.accept(chunk);
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.paymentService.repository;
+
+import com.example.paymentService.model.Payment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.payment.id.node-id=0"
+})
+class PaymentRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @BeforeEach
+    void setUp() {
+        List<Payment> payments = new ArrayList<>();
+        for (int day = 0; day < 5; day++) {
+            // Two payments per day share a timestamp so the id has to break the tie.
+            payments.add(new Payment("acc1", 10.0, START.plusDays(day)));
+            payments.add(new Payment("acc1", 20.0, START.plusDays(day)));
+        }
+        payments.add(new Payment("acc2", 99.0, START.plusDays(2)));
+        paymentRepository.saveAll(payments);
+    }
+
+    @Test
+    void findHistoryPage_shouldWalkWholeHistoryNewestFirstWithoutGapsOrDuplicates() {
+        List<Payment> seen = new ArrayList<>();
+        LocalDateTime beforeTimestamp = END;
+        Long beforeId = Long.MIN_VALUE;
+
+        List<Payment> page;
+        do {
+            page = paymentRepository.findHistoryPage("acc1", START, beforeTimestamp, beforeId, PageRequest.of(0, 3));
+            seen.addAll(page);
+            if (!page.isEmpty()) {
+                Payment last = page.get(page.size() - 1);
+                beforeTimestamp = last.getTimestamp();
+                beforeId = last.getId();
+            }
+        } while (page.size() == 3);
+
+        assertEquals(10, seen.size());
+        assertEquals(10, seen.stream().map(Payment::getId).distinct().count());
+        for (int i = 1; i < seen.size(); i++) {
+            Payment previous = seen.get(i - 1);
+            Payment current = seen.get(i);
+            boolean descending = previous.getTimestamp().isAfter(current.getTimestamp())
+                    || (previous.getTimestamp().equals(current.getTimestamp()) && previous.getId() > current.getId());
+            assertTrue(descending);
+        }
+    }
+
+    @Test
+    void findHistoryPage_shouldApplyTimeRange() {
+        List<Payment> page = paymentRepository.findHistoryPage("acc1", START.plusDays(1), START.plusDays(3),
+                Long.MIN_VALUE, PageRequest.of(0, 10));
+
+        assertEquals(4, page.size());
+        assertEquals(START.plusDays(2), page.get(0).getTimestamp());
+        assertEquals(START.plusDays(1), page.get(3).getTimestamp());
+    }
+
+    @Test
+    void streamAll_shouldReturnEveryPaymentInIdOrder() {
+        try (Stream<Payment> payments = paymentRepository.streamAll()) {
+            List<Long> ids = payments.map(Payment::getId).toList();
+
+            assertEquals(11, ids.size());
+            assertEquals(ids.stream().sorted().toList(), ids);
+        }
+    }
+
+    @Test
+    void save_shouldRejectASecondPaymentOfTheSameRunToTheSameAccount() {
+        Payment first = new Payment("acc1", 10.0, START);
+        first.setPayrollRunId(7L);
+        paymentRepository.saveAndFlush(first);
+        Payment second = new Payment("acc1", 10.0, START);
+        second.setPayrollRunId(7L);
+
+        assertThrows(DataIntegrityViolationException.class, () -> paymentRepository.saveAndFlush(second));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.paymentService.repository;
+
+import com.example.paymentService.dto.PaymentSummaryResponse;
+import com.example.paymentService.model.Payment;
+import com.example.paymentService.model.PaymentSummary;
+import com.example.paymentService.model.PaymentSummaryId;
+import com.example.paymentService.model.SummaryPeriod;
+import com.example.paymentService.service.PaymentSummaryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// MySQL compatibility mode so the INSERT ... ON DUPLICATE KEY UPDATE upsert runs as it does in production.
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:payment-summary;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.payment.id.node-id=0"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PaymentSummaryService.class)
+class PaymentSummaryRepositoryTest {
+
+    private static final LocalDateTime MARCH_15 = LocalDateTime.of(2024, 3, 15, 9, 0);
+
+    @Autowired
+    private PaymentSummaryService paymentSummaryService;
+
+    @Autowired
+    private PaymentSummaryRepository paymentSummaryRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Test
+    void record_shouldIncrementExistingRows() {
+        paymentSummaryService.record(List.of(new Payment("acc1", 100.0, MARCH_15)));
+        paymentSummaryService.record(List.of(new Payment("acc1", 50.0, MARCH_15),
+                new Payment("acc1", 25.0, MARCH_15.plusDays(10))));
+
+        PaymentSummary day = paymentSummaryRepository.findById(
+                new PaymentSummaryId("acc1", SummaryPeriod.DAY, LocalDate.of(2024, 3, 15))).orElseThrow();
+        PaymentSummary month = paymentSummaryRepository.findById(
+                new PaymentSummaryId("acc1", SummaryPeriod.MONTH, LocalDate.of(2024, 3, 1))).orElseThrow();
+
+        assertEquals(150.0, day.getTotalAmount());
+        assertEquals(2, day.getPaymentCount());
+        assertEquals(175.0, month.getTotalAmount());
+        assertEquals(3, month.getPaymentCount());
+    }
+
+    @Test
+    void rebuild_shouldRegenerateSummariesFromPayments() {
+        List<Payment> payments = List.of(
+                new Payment("acc1", 100.0, MARCH_15),
+                new Payment("acc1", 50.0, MARCH_15.plusHours(3)),
+                new Payment("acc1", 10.0, MARCH_15.minusMonths(1)),
+                new Payment("acc2", 70.0, MARCH_15));
+        paymentRepository.saveAll(payments);
+        paymentSummaryService.record(List.of(new Payment("acc1", 999.0, MARCH_15)));
+
+        long rows = paymentSummaryService.rebuild();
+        PaymentSummaryResponse summary = paymentSummaryService.getSummary("acc1", MARCH_15.toLocalDate());
+
+        assertEquals(6, rows);
+        assertEquals(150.0, summary.getDay().getTotal());
+        assertEquals(2, summary.getDay().getCount());
+        assertEquals(150.0, summary.getMonth().getTotal());
+        assertEquals(160.0, summary.getYear().getTotal());
+        assertEquals(3, summary.getYear().getCount());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.paymentService.repository;
+
+import com.example.paymentService.model.PayrollRun;
+import com.example.paymentService.model.PayrollRunStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.payment.id.node-id=0"
+})
+class PayrollRunRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 15, 9, 0);
+
+    @Autowired
+    private PayrollRunRepository payrollRunRepository;
+
+    @Test
+    void claim_shouldOnlyTakeOverRunsWithAStaleHeartbeat() {
+        PayrollRun run = ownedBy("instance-a", NOW.minusSeconds(10));
+
+        assertEquals(0, payrollRunRepository.claim(run.getId(), "instance-b", NOW, NOW.minusSeconds(60)));
+        assertEquals(1, payrollRunRepository.claim(run.getId(), "instance-b", NOW.plusSeconds(60), NOW));
+        // Whoever claims second sees the heartbeat the first claim just wrote.
+        assertEquals(0, payrollRunRepository.claim(run.getId(), "instance-c", NOW.plusSeconds(60), NOW));
+        assertEquals("instance-b", payrollRunRepository.findById(run.getId()).orElseThrow().getOwner());
+    }
+
+    @Test
+    void claim_shouldIgnoreFinishedRuns() {
+        PayrollRun run = ownedBy("instance-a", NOW.minusHours(1));
+        run.setStatus(PayrollRunStatus.COMPLETED);
+        payrollRunRepository.saveAndFlush(run);
+
+        assertEquals(0, payrollRunRepository.claim(run.getId(), "instance-b", NOW, NOW.minusSeconds(60)));
+    }
+
+    @Test
+    void heartbeat_shouldOnlySucceedForTheCurrentOwner() {
+        PayrollRun run = ownedBy("instance-a", NOW.minusHours(1));
+        payrollRunRepository.claim(run.getId(), "instance-b", NOW, NOW.minusSeconds(60));
+
+        assertEquals(0, payrollRunRepository.heartbeat(run.getId(), "instance-a", NOW));
+        assertEquals(1, payrollRunRepository.heartbeat(run.getId(), "instance-b", NOW));
+    }
+
+    private PayrollRun ownedBy(String owner, LocalDateTime heartbeatAt) {
+        PayrollRun run = new PayrollRun(100.0, heartbeatAt);
+        run.setOwner(owner);
+        return payrollRunRepository.saveAndFlush(run);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.paymentService.service;
+
+import com.example.paymentService.exception.IdempotencyKeyConflictException;
+import com.example.paymentService.model.IdempotencyRecord;
+import com.example.paymentService.model.Payment;
+import com.example.paymentService.repository.IdempotencyRecordRepository;
+import com.example.paymentService.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class IdempotencyStoreTest {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    private IdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotencyStore = new IdempotencyStore(idempotencyRecordRepository, paymentRepository, 2, 10, 24);
+    }
+
+    @Test
+    void find_shouldAnswerRememberedKeysFromMemory() {
+        Payment payment = payment(1L);
+
+        idempotencyStore.remember("key-1", payment);
+
+        assertSame(payment, idempotencyStore.find("key-1").orElseThrow());
+        verify(idempotencyRecordRepository, never()).findById(any());
+    }
+
+    @Test
+    void find_shouldFallBackToDatabaseAndCacheTheResult() {
+        Payment payment = payment(1L);
+        when(idempotencyRecordRepository.findById("key-1"))
+                .thenReturn(Optional.of(new IdempotencyRecord("key-1", 1L, LocalDateTime.now())));
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(payment));
+
+        assertSame(payment, idempotencyStore.find("key-1").orElseThrow());
+        assertSame(payment, idempotencyStore.find("key-1").orElseThrow());
+        verify(idempotencyRecordRepository, times(1)).findById("key-1");
+    }
+
+    @Test
+    void find_shouldEvictLeastRecentlyUsedKeysBeyondCapacity() {
+        idempotencyStore.remember("key-1", payment(1L));
+        idempotencyStore.remember("key-2", payment(2L));
+        idempotencyStore.remember("key-3", payment(3L));
+
+        assertTrue(idempotencyStore.find("key-1").isEmpty());
+        assertTrue(idempotencyStore.find("key-3").isPresent());
+    }
+
+    @Test
+    void remember_shouldReportConcurrentUseOfTheSameKey() {
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertThrows(IdempotencyKeyConflictException.class, () -> idempotencyStore.remember("key-1", payment(1L)));
+        assertTrue(idempotencyStore.find("key-1").isEmpty());
+    }
+
+    private Payment payment(Long id) {
+        Payment payment = new Payment("acc123", 500.0, LocalDateTime.now());
+        payment.setId(id);
+        return payment;
+    }
+}
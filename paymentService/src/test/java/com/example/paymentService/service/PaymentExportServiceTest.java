@@ -0,0 +1,91 @@
+package com.example.paymentService.service;
+
+import com.example.paymentService.dto.PaymentExportFormat;
+import com.example.paymentService.model.Payment;
+import com.example.paymentService.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PaymentExportServiceTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 3, 1, 9, 30);
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private PaymentExportService paymentExportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ObjectMapper objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        paymentExportService = new PaymentExportService(paymentRepository, entityManager, objectMapper);
+
+        when(paymentRepository.streamAll()).thenAnswer(i -> Stream.of(payment(1L, "acc1", null), payment(2L, "acc,2", 7L)));
+    }
+
+    @Test
+    void export_shouldWriteJsonArray() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = paymentExportService.export(PaymentExportFormat.JSON, out);
+
+        assertEquals(2, rows);
+        String json = out.toString(StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("[{\"id\":1,"));
+        assertTrue(json.endsWith("}]"));
+    }
+
+    @Test
+    void export_shouldWriteOnePaymentPerLineAsNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        paymentExportService.export(PaymentExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"accountNumber\":\"acc1\""));
+        assertTrue(lines[1].contains("\"timestamp\":\"2024-03-01T09:30:00\""));
+    }
+
+    @Test
+    void export_shouldWriteQuotedCsvAndDetachEveryRow() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        paymentExportService.export(PaymentExportFormat.CSV, out);
+
+        assertEquals("id,accountNumber,amount,timestamp,payrollRunId\r\n"
+                        + "1,acc1,100.0,2024-03-01T09:30,\r\n"
+                        + "2,\"acc,2\",100.0,2024-03-01T09:30,7\r\n",
+                out.toString(StandardCharsets.UTF_8));
+        verify(entityManager, times(2)).detach(any(Payment.class));
+    }
+
+    private Payment payment(Long id, String accountNumber, Long payrollRunId) {
+        Payment payment = new Payment(accountNumber, 100.0, TIMESTAMP);
+        payment.setId(id);
+        payment.setPayrollRunId(payrollRunId);
+        return payment;
+    }
+}
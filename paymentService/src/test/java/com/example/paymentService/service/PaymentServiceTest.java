@@ -1,9 +1,8 @@
 package com.example.paymentService.service;
 
 import com.example.paymentService.client.AccountClient;
-import com.example.paymentService.dto.Account;
-import com.example.paymentService.dto.AccountUpdateRequest;
-import com.example.paymentService.dto.PaymentResponse;
+import com.example.paymentService.dto.PaymentConnection;
+import com.example.paymentService.exception.IdempotencyKeyConflictException;
 import com.example.paymentService.kafka.PaymentProducer;
 import com.example.paymentService.model.Payment;
 import com.example.paymentService.repository.PaymentRepository;
@@ -13,13 +12,12 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -37,6 +35,12 @@ class PaymentServiceTest {
     @Mock
     private PaymentProducer paymentProducer;
 
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    @Mock
+    private PaymentSummaryService paymentSummaryService;
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -65,89 +69,100 @@ class PaymentServiceTest {
         verify(paymentRepository, times(1)).save(any(Payment.class));
         verify(accountClient, times(1)).updateBalance(eq(accountNumber), eq(amount)); // Fixed
         verify(paymentProducer, times(1)).sendPayment(any(PaymentRequest.class));
+        verify(paymentSummaryService, times(1)).record(List.of(payment));
     }
 
-
     @Test
-    void getPaymentsByAccountNumber_shouldReturnPayments() {
-        String accountNumber = "acc123";
-        Payment payment1 = new Payment(accountNumber, 200.0, LocalDateTime.now());
-        payment1.setId(1L);
-        Payment payment2 = new Payment(accountNumber, 300.0, LocalDateTime.now());
-        payment2.setId(2L);
+    void createPayment_shouldRememberIdempotencyKeyBeforeCreditingAccount() {
+        Payment payment = new Payment("acc123", 500.0, LocalDateTime.now());
+        payment.setId(1L);
 
-        when(paymentRepository.findByAccountNumber(accountNumber)).thenReturn(List.of(payment1, payment2));
+        when(idempotencyStore.find("key-1")).thenReturn(Optional.empty());
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
 
-        List<Payment> payments = paymentService.getPaymentsByAccountNumber(accountNumber);
+        paymentService.createPayment("acc123", 500.0, "key-1");
 
-        assertNotNull(payments);
-        assertEquals(2, payments.size());
-        assertEquals(1L, payments.get(0).getId());
-        assertEquals(2L, payments.get(1).getId());
-        verify(paymentRepository, times(1)).findByAccountNumber(accountNumber);
+        var inOrder = inOrder(idempotencyStore, accountClient);
+        inOrder.verify(idempotencyStore).remember("key-1", payment);
+        inOrder.verify(accountClient).updateBalance("acc123", 500.0);
     }
 
-
     @Test
-    void getAllPayments_shouldReturnAllPayments() {
-        // Arrange
-        Payment payment1 = new Payment("acc123", 200.0, LocalDateTime.now());
-        payment1.setId(1L);
-        Payment payment2 = new Payment("acc456", 300.0, LocalDateTime.now());
-        payment2.setId(2L);
-
-        when(paymentRepository.findAll()).thenReturn(List.of(payment1, payment2));
-
-        List<Payment> payments = paymentService.getAllPayments();
-
-        assertNotNull(payments);
-        assertEquals(2, payments.size());
-        assertEquals(1L, payments.get(0).getId());
-        assertEquals(2L, payments.get(1).getId());
-        verify(paymentRepository, times(1)).findAll();
-    }
+    void createPayment_shouldReplayOriginalPaymentForKnownIdempotencyKey() {
+        Payment original = new Payment("acc123", 500.0, LocalDateTime.now());
+        original.setId(1L);
+
+        when(idempotencyStore.find("key-1")).thenReturn(Optional.of(original));
+
+        Payment replayed = paymentService.createPayment("acc123", 500.0, "key-1");
 
+        assertSame(original, replayed);
+        verifyNoInteractions(accountClient, paymentProducer);
+        verify(paymentRepository, never()).save(any(Payment.class));
+    }
 
     @Test
-    void createPaymentsForAllEmployees_shouldReturnPaymentResponses() {
-        Double amount = 100.0;
-        Account account1 = new Account();
-        account1.setAccountNumber("acc123");
-        account1.setBalance(1000.0);
-        account1.setEmployeeId(1L);
+    void createPayment_shouldRejectIdempotencyKeyReusedForDifferentPayment() {
+        Payment original = new Payment("acc123", 500.0, LocalDateTime.now());
+        original.setId(1L);
+
+        when(idempotencyStore.find("key-1")).thenReturn(Optional.of(original));
 
-        Account account2 = new Account();
-        account2.setAccountNumber("acc456");
-        account2.setBalance(1500.0);
-        account2.setEmployeeId(2L);
+        assertThrows(IdempotencyKeyConflictException.class,
+                () -> paymentService.createPayment("acc123", 750.0, "key-1"));
+        verifyNoInteractions(accountClient);
+    }
 
-        List<Account> accounts = List.of(account1, account2);
 
-        Pageable pageable = PageRequest.of(0, 2);
-        Page<Account> accountPage = new PageImpl<>(accounts, pageable, accounts.size());
+    @Test
+    void getPaymentsByAccountNumber_shouldReturnFirstPageWithCursor() {
+        String accountNumber = "acc123";
+        LocalDateTime now = LocalDateTime.now();
+        Payment payment1 = new Payment(accountNumber, 200.0, now);
+        payment1.setId(2L);
+        Payment payment2 = new Payment(accountNumber, 300.0, now.minusDays(1));
+        payment2.setId(1L);
 
-        when(accountClient.getAllAccounts(any(Pageable.class))).thenReturn(accountPage);
+        when(paymentRepository.findHistoryPage(eq(accountNumber), any(LocalDateTime.class), any(LocalDateTime.class),
+                eq(Long.MIN_VALUE), eq(PageRequest.of(0, 2)))).thenReturn(List.of(payment1, payment2));
 
-        when(paymentRepository.save(any(Payment.class))).thenAnswer(i -> {
-            Payment savedPayment = i.getArgument(0);
-            savedPayment.setId(savedPayment.getAccountNumber().equals("acc123") ? 1L : 2L);
-            return savedPayment;
-        });
+        PaymentConnection page = paymentService.getPaymentsByAccountNumber(accountNumber, null, null, null, 1);
 
-        doNothing().when(accountClient).updateBalance(anyString(), eq(amount)); // Fixed
-        doNothing().when(paymentProducer).sendPayment(any(PaymentRequest.class));
+        assertEquals(1, page.getEdges().size());
+        assertEquals(2L, page.getEdges().get(0).getNode().getId());
+        assertTrue(page.getPageInfo().isHasNextPage());
+        assertEquals(page.getEdges().get(0).getCursor(), page.getPageInfo().getEndCursor());
+    }
 
-        List<PaymentResponse> paymentResponses = paymentService.createPaymentsForAllEmployees(amount);
+    @Test
+    void getPaymentsByAccountNumber_shouldContinueAfterCursor() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 5, 1, 12, 0);
+        Payment last = new Payment("acc123", 200.0, timestamp);
+        last.setId(7L);
+        when(paymentRepository.findHistoryPage(any(), any(), any(), any(), any())).thenReturn(List.of(last));
+        String endCursor = paymentService.getPaymentsByAccountNumber("acc123", null, null, null, 5)
+                .getPageInfo().getEndCursor();
+
+        PaymentConnection next = paymentService.getPaymentsByAccountNumber("acc123", null, null, endCursor, 5);
+
+        assertFalse(next.getPageInfo().isHasNextPage());
+        verify(paymentRepository).findHistoryPage(eq("acc123"), any(LocalDateTime.class), eq(timestamp), eq(7L),
+                eq(PageRequest.of(0, 6)));
+    }
 
-        assertNotNull(paymentResponses);
-        assertEquals(2, paymentResponses.size());
-        assertEquals("acc123", paymentResponses.get(0).getAccountNumber());
-        assertEquals(amount, paymentResponses.get(0).getAmount());
-        assertEquals("acc456", paymentResponses.get(1).getAccountNumber());
+    @Test
+    void getPaymentsByAccountNumber_shouldThrowWhenAccountHasNoHistory() {
+        when(paymentRepository.findHistoryPage(any(), any(), any(), any(), any())).thenReturn(List.of());
 
-        verify(accountClient, times(2)).updateBalance(anyString(), eq(amount)); // Fixed
-        verify(paymentProducer, times(2)).sendPayment(any(PaymentRequest.class));
-        verify(paymentRepository, times(2)).save(any(Payment.class));
+        assertThrows(NoSuchElementException.class,
+                () -> paymentService.getPaymentsByAccountNumber("acc123", null, null, null, 20));
     }
 
+    @Test
+    void getPaymentsByAccountNumber_shouldRejectInvalidCursorAndLimit() {
+        assertThrows(IllegalArgumentException.class,
+                () -> paymentService.getPaymentsByAccountNumber("acc123", null, null, "not-a-cursor", 20));
+        assertThrows(IllegalArgumentException.class,
+                () -> paymentService.getPaymentsByAccountNumber("acc123", null, null, null, 0));
+    }
 }
@@ -0,0 +1,115 @@
+package com.example.paymentService.service;
+
+import com.example.paymentService.dto.DailyPaymentTotal;
+import com.example.paymentService.dto.PaymentSummaryResponse;
+import com.example.paymentService.model.Payment;
+import com.example.paymentService.model.PaymentSummary;
+import com.example.paymentService.model.PaymentSummaryId;
+import com.example.paymentService.model.SummaryPeriod;
+import com.example.paymentService.repository.PaymentRepository;
+import com.example.paymentService.repository.PaymentSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PaymentSummaryServiceTest {
+
+    @Mock
+    private PaymentSummaryRepository paymentSummaryRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @InjectMocks
+    private PaymentSummaryService paymentSummaryService;
+
+    private final List<PaymentSummary> written = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(i -> written.addAll(i.getArgument(0))).when(paymentSummaryRepository).addToSummaries(anyList());
+    }
+
+    @Test
+    void record_shouldAggregatePaymentsIntoDayAndMonthDeltasInLockOrder() {
+        LocalDateTime march15 = LocalDateTime.of(2024, 3, 15, 10, 0);
+        paymentSummaryService.record(List.of(
+                new Payment("acc2", 50.0, march15),
+                new Payment("acc1", 100.0, march15),
+                new Payment("acc1", 25.0, march15.plusDays(1))));
+
+        assertEquals(List.of(
+                summary("acc1", SummaryPeriod.DAY, LocalDate.of(2024, 3, 15), 100.0, 1),
+                summary("acc1", SummaryPeriod.DAY, LocalDate.of(2024, 3, 16), 25.0, 1),
+                summary("acc1", SummaryPeriod.MONTH, LocalDate.of(2024, 3, 1), 125.0, 2),
+                summary("acc2", SummaryPeriod.DAY, LocalDate.of(2024, 3, 15), 50.0, 1),
+                summary("acc2", SummaryPeriod.MONTH, LocalDate.of(2024, 3, 1), 50.0, 1)), written);
+    }
+
+    @Test
+    void getSummary_shouldCombineDayRowWithMonthRowsOfTheYear() {
+        LocalDate date = LocalDate.of(2024, 3, 15);
+        when(paymentSummaryRepository.findById(new PaymentSummaryId("acc1", SummaryPeriod.DAY, date)))
+                .thenReturn(Optional.of(summary("acc1", SummaryPeriod.DAY, date, 100.0, 1)));
+        when(paymentSummaryRepository.findByIdAccountNumberAndIdPeriodAndIdPeriodStartBetween("acc1",
+                SummaryPeriod.MONTH, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 1)))
+                .thenReturn(List.of(
+                        summary("acc1", SummaryPeriod.MONTH, LocalDate.of(2024, 1, 1), 1000.0, 4),
+                        summary("acc1", SummaryPeriod.MONTH, LocalDate.of(2024, 3, 1), 300.0, 2)));
+
+        PaymentSummaryResponse response = paymentSummaryService.getSummary("acc1", date);
+
+        assertEquals(100.0, response.getDay().getTotal());
+        assertEquals(300.0, response.getMonth().getTotal());
+        assertEquals(2, response.getMonth().getCount());
+        assertEquals(1300.0, response.getYear().getTotal());
+        assertEquals(6, response.getYear().getCount());
+    }
+
+    @Test
+    void getSummary_shouldReturnZerosForAccountWithoutPayments() {
+        when(paymentSummaryRepository.findById(any())).thenReturn(Optional.empty());
+        when(paymentSummaryRepository.findByIdAccountNumberAndIdPeriodAndIdPeriodStartBetween(any(), any(), any(), any()))
+                .thenReturn(List.of());
+
+        PaymentSummaryResponse response = paymentSummaryService.getSummary("acc1", LocalDate.of(2024, 3, 15));
+
+        assertEquals(0.0, response.getDay().getTotal());
+        assertEquals(LocalDate.of(2024, 3, 1), response.getMonth().getPeriodStart());
+        assertEquals(0, response.getYear().getCount());
+    }
+
+    @Test
+    void rebuild_shouldReplaceSummariesWithDayRowsAndSummedMonthRows() {
+        when(paymentRepository.streamDailyTotals()).thenReturn(Stream.of(
+                new DailyPaymentTotal("acc1", LocalDate.of(2024, 3, 15), 100.0, 1L),
+                new DailyPaymentTotal("acc1", LocalDate.of(2024, 3, 16), 50.0, 2L),
+                new DailyPaymentTotal("acc2", LocalDate.of(2024, 4, 1), 10.0, 1L)));
+
+        long rows = paymentSummaryService.rebuild();
+
+        assertEquals(5, rows);
+        verify(paymentSummaryRepository).deleteAllInBatch();
+        assertTrue(written.contains(summary("acc1", SummaryPeriod.MONTH, LocalDate.of(2024, 3, 1), 150.0, 3)));
+        assertTrue(written.contains(summary("acc2", SummaryPeriod.MONTH, LocalDate.of(2024, 4, 1), 10.0, 1)));
+        assertTrue(written.contains(summary("acc1", SummaryPeriod.DAY, LocalDate.of(2024, 3, 16), 50.0, 2)));
+    }
+
+    private PaymentSummary summary(String accountNumber, SummaryPeriod period, LocalDate start, double total, long count) {
+        return new PaymentSummary(new PaymentSummaryId(accountNumber, period, start), total, count);
+    }
+}
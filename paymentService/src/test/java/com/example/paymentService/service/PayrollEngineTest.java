@@ -0,0 +1,271 @@
+package com.example.paymentService.service;
+
+import com.example.paymentService.client.AccountClient;
+import com.example.paymentService.client.AccountStreamReader;
+import com.example.paymentService.dto.Account;
+import com.example.paymentService.dto.BalanceUpdateRequest;
+import com.example.paymentService.dto.BalanceUpdateResult;
+import com.example.paymentService.dto.PayrollProgress;
+import com.example.paymentService.kafka.PaymentProducer;
+import com.example.paymentService.model.Payment;
+import com.example.paymentService.model.PayrollRun;
+import com.example.paymentService.model.UnresolvedCredit;
+import com.example.paymentService.repository.PaymentRepository;
+import com.example.paymentService.repository.UnresolvedCreditRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.example.PaymentRequest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PayrollEngineTest {
+
+    private static final Long RUN_ID = 42L;
+
+    @Mock
+    private AccountClient accountClient;
+
+    @Mock
+    private AccountStreamReader accountStreamReader;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private UnresolvedCreditRepository unresolvedCreditRepository;
+
+    @Mock
+    private PaymentProducer paymentProducer;
+
+    @Mock
+    private PaymentSummaryService paymentSummaryService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PayrollEngine payrollEngine;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        payrollEngine = new PayrollEngine(accountClient, accountStreamReader, paymentRepository, unresolvedCreditRepository,
+                paymentProducer, paymentSummaryService, transactionManager, meterRegistry, 2, 1, 4);
+
+        when(accountClient.updateBalances(anyList())).thenAnswer(i -> {
+            List<BalanceUpdateRequest> updates = i.getArgument(0);
+            return updates.stream()
+                    .map(update -> new BalanceUpdateResult(update.getAccountNumber(), update.getAmount(), 1000.0, true))
+                    .toList();
+        });
+        when(paymentRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
+        when(paymentRepository.findPaidAccountNumbers(any(), anyCollection())).thenReturn(Set.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        payrollEngine.shutdown();
+    }
+
+    @Test
+    void run_shouldPayEveryAccountAcrossPagesAndCheckpointEachPage() {
+        List<Account> accounts = IntStream.range(0, 5).mapToObj(i -> account("acc" + i)).toList();
+        when(accountStreamReader.streamAccounts(any())).thenAnswer(i -> streamOf(accounts, i.getArgument(0)));
+
+        PayrollProgress progress = new PayrollProgress();
+        List<String> checkpoints = new ArrayList<>();
+        payrollEngine.run(run(null), progress, checkpoints::add);
+
+        assertEquals(List.of("acc1", "acc3", "acc4"), checkpoints);
+        assertEquals(3, progress.getPages().get());
+        assertEquals(5, progress.getProcessed().get());
+        assertEquals(0, progress.getFailed().get());
+        verify(accountClient, times(5)).updateBalances(anyList());
+        verify(accountClient).updateBalances(argThat(updates -> updates != null && updates.size() == 1
+                && ("payroll-" + RUN_ID + "-acc3").equals(updates.get(0).getReference())));
+        verify(paymentProducer, times(5)).sendPayments(anyList());
+        verify(paymentSummaryService, times(5)).record(anyList());
+        verify(paymentRepository, times(5)).saveAll(argThat(payments -> payments != null
+                && ((List<Payment>) payments).stream().allMatch(payment -> RUN_ID.equals(payment.getPayrollRunId()))));
+        assertEquals(5.0, meterRegistry.get("payroll.payments").tag("outcome", "processed").counter().count());
+    }
+
+    @Test
+    void run_shouldResumeAfterCheckpointAndSkipAlreadyPaidAccounts() {
+        List<Account> accounts = IntStream.range(0, 5).mapToObj(i -> account("acc" + i)).toList();
+        when(accountStreamReader.streamAccounts(any())).thenAnswer(i -> streamOf(accounts, i.getArgument(0)));
+        when(paymentRepository.findPaidAccountNumbers(eq(RUN_ID), anyCollection())).thenReturn(Set.of("acc2"));
+
+        PayrollProgress progress = new PayrollProgress();
+        List<String> checkpoints = new ArrayList<>();
+        payrollEngine.run(run("acc1"), progress, checkpoints::add);
+
+        assertEquals(List.of("acc3", "acc4"), checkpoints);
+        assertEquals(2, progress.getProcessed().get());
+        verify(accountStreamReader).streamAccounts("acc1");
+        verify(accountClient, never()).updateBalances(argThat(updates -> updates != null
+                && updates.stream().anyMatch(update -> "acc2".equals(update.getAccountNumber()))));
+    }
+
+    @Test
+    void run_shouldMovePastAFirstPageThatWasAlreadyPaidAndCloseTheStream() {
+        List<Account> accounts = IntStream.range(0, 4).mapToObj(i -> account("acc" + i)).toList();
+        AtomicBoolean closed = new AtomicBoolean();
+        when(accountStreamReader.streamAccounts(null)).thenReturn(accounts.stream().onClose(() -> closed.set(true)));
+        when(paymentRepository.findPaidAccountNumbers(eq(RUN_ID), anyCollection())).thenReturn(Set.of("acc0", "acc1"));
+
+        PayrollProgress progress = new PayrollProgress();
+        List<String> checkpoints = new ArrayList<>();
+        payrollEngine.run(run(null), progress, checkpoints::add);
+
+        assertEquals(List.of("acc1", "acc3"), checkpoints);
+        assertEquals(2, progress.getProcessed().get());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void run_shouldStopWhenThereAreNoAccounts() {
+        when(accountStreamReader.streamAccounts(any())).thenReturn(Stream.empty());
+
+        PayrollProgress progress = new PayrollProgress();
+        payrollEngine.run(run(null), progress, page -> fail("no page should be committed"));
+
+        assertEquals(0, progress.getPages().get());
+        verify(accountClient, never()).updateBalances(anyList());
+    }
+
+    @Test
+    void run_shouldCountAccountsThatCouldNotBeCredited() {
+        when(accountStreamReader.streamAccounts(any())).thenReturn(Stream.of(account("acc0"), account("acc1")));
+        when(accountClient.updateBalances(argThat(updates -> updates != null && updates.size() == 1
+                && "acc1".equals(updates.get(0).getAccountNumber()))))
+                .thenThrow(new RuntimeException("accountService unavailable"));
+
+        PayrollProgress progress = new PayrollProgress();
+        payrollEngine.run(run(null), progress, page -> { });
+
+        assertEquals(1, progress.getProcessed().get());
+        assertEquals(1, progress.getFailed().get());
+        // accountService may have applied the credit before the call failed.
+        verify(accountClient).revertCredits(List.of("payroll-" + RUN_ID + "-acc1"));
+        assertEquals(0, progress.getUnresolved().get());
+    }
+
+    @Test
+    void run_shouldRecordCreditsThatCannotBeReverted() {
+        when(accountStreamReader.streamAccounts(any())).thenReturn(Stream.of(account("acc0")));
+        when(accountClient.updateBalances(anyList())).thenThrow(new RuntimeException("read timed out"));
+        when(accountClient.revertCredits(anyList())).thenThrow(new RuntimeException("accountService unavailable"));
+
+        PayrollProgress progress = new PayrollProgress();
+        List<String> checkpoints = new ArrayList<>();
+        payrollEngine.run(run(null), progress, checkpoints::add);
+
+        assertEquals(1, progress.getFailed().get());
+        assertEquals(1, progress.getUnresolved().get());
+        assertEquals(List.of("acc0"), checkpoints);
+        verify(unresolvedCreditRepository).saveAll(argThat((List<UnresolvedCredit> credits) -> credits.size() == 1
+                && ("payroll-" + RUN_ID + "-acc0").equals(credits.get(0).getReference())
+                && RUN_ID.equals(credits.get(0).getPayrollRunId())));
+        assertEquals(1.0, meterRegistry.get("payroll.payments").tag("outcome", "unresolved").counter().count());
+    }
+
+    @Test
+    void run_shouldRevertCreditsWhenPaymentsCannotBeStored() {
+        when(accountStreamReader.streamAccounts(any())).thenReturn(Stream.of(account("acc0")));
+        when(paymentRepository.saveAll(anyList())).thenThrow(new RuntimeException("database down"));
+
+        PayrollProgress progress = new PayrollProgress();
+        payrollEngine.run(run(null), progress, page -> { });
+
+        assertEquals(0, progress.getProcessed().get());
+        assertEquals(1, progress.getFailed().get());
+        verify(accountClient).revertCredits(List.of("payroll-" + RUN_ID + "-acc0"));
+        verify(paymentProducer, never()).sendPayments(anyList());
+    }
+
+    @Test
+    void run_shouldRevertCreditsWhenOutboxWriteFails() {
+        when(accountStreamReader.streamAccounts(any())).thenReturn(Stream.of(account("acc0")));
+        doThrow(new RuntimeException("outbox insert failed")).when(paymentProducer).sendPayments(anyList());
+
+        PayrollProgress progress = new PayrollProgress();
+        payrollEngine.run(run(null), progress, page -> { });
+
+        assertEquals(0, progress.getProcessed().get());
+        assertEquals(1, progress.getFailed().get());
+        verify(transactionManager).rollback(any());
+        verify(accountClient).revertCredits(List.of("payroll-" + RUN_ID + "-acc0"));
+    }
+
+    @Test
+    void run_shouldKeepPaymentsAnotherOwnerStoredFirstWithoutRevertingTheirCredits() {
+        when(accountStreamReader.streamAccounts(any())).thenReturn(Stream.of(account("acc0"), account("acc1")));
+        when(paymentRepository.saveAll(argThat((List<Payment> payments) -> payments != null
+                && "acc0".equals(payments.get(0).getAccountNumber()))))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry '42-acc0'"));
+        when(paymentRepository.findPaidAccountNumbers(RUN_ID, List.of("acc0"))).thenReturn(Set.of("acc0"));
+
+        PayrollProgress progress = new PayrollProgress();
+        payrollEngine.run(run(null), progress, page -> { });
+
+        assertEquals(1, progress.getProcessed().get());
+        assertEquals(0, progress.getFailed().get());
+        verify(accountClient, never()).revertCredits(anyList());
+        verify(paymentProducer).sendPayments(argThat((List<PaymentRequest> requests) -> requests.size() == 1
+                && "acc1".equals(requests.get(0).getAccountNumber())));
+    }
+
+    @Test
+    void run_shouldNotRevertCreditsOfAccountsAnotherOwnerPaidWhenTheCreditCallFails() {
+        when(accountStreamReader.streamAccounts(any())).thenReturn(Stream.of(account("acc0"), account("acc1")));
+        when(accountClient.updateBalances(argThat(updates -> updates != null
+                && "acc0".equals(updates.get(0).getAccountNumber()))))
+                .thenThrow(new RuntimeException("read timed out"));
+        when(paymentRepository.findPaidAccountNumbers(RUN_ID, List.of("acc0"))).thenReturn(Set.of("acc0"));
+
+        PayrollProgress progress = new PayrollProgress();
+        payrollEngine.run(run(null), progress, page -> { });
+
+        assertEquals(1, progress.getProcessed().get());
+        assertEquals(0, progress.getFailed().get());
+        verify(accountClient, never()).revertCredits(anyList());
+    }
+
+    private PayrollRun run(String lastAccountNumber) {
+        PayrollRun run = new PayrollRun(100.0, LocalDateTime.now());
+        run.setId(RUN_ID);
+        run.setLastAccountNumber(lastAccountNumber);
+        return run;
+    }
+
+    private Stream<Account> streamOf(List<Account> accounts, String after) {
+        return accounts.stream()
+                .filter(account -> after == null || account.getAccountNumber().compareTo(after) > 0);
+    }
+
+    private Account account(String accountNumber) {
+        Account account = new Account();
+        account.setAccountNumber(accountNumber);
+        account.setBalance(1000.0);
+        account.setEmployeeId(1L);
+        return account;
+    }
+}
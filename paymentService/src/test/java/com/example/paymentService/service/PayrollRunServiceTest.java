@@ -0,0 +1,183 @@
+package com.example.paymentService.service;
+
+import com.example.paymentService.dto.PayrollProgress;
+import com.example.paymentService.dto.PayrollRunResponse;
+import com.example.paymentService.model.PayrollRun;
+import com.example.paymentService.model.PayrollRunStatus;
+import com.example.paymentService.repository.PaymentRepository;
+import com.example.paymentService.repository.PayrollRunRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PayrollRunServiceTest {
+
+    @Mock
+    private PayrollRunRepository payrollRunRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PayrollEngine payrollEngine;
+
+    private PayrollRunService payrollRunService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        payrollRunService = new PayrollRunService(payrollRunRepository, paymentRepository, payrollEngine, 1,
+                "instance-a", Duration.ofSeconds(60));
+        when(payrollRunRepository.heartbeat(anyLong(), eq("instance-a"), any())).thenReturn(1);
+        when(payrollRunRepository.save(any(PayrollRun.class))).thenAnswer(i -> {
+            PayrollRun run = i.getArgument(0);
+            if (run.getId() == null) {
+                run.setId(1L);
+            }
+            return run;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        payrollRunService.shutdown();
+    }
+
+    @Test
+    void startRun_shouldReturnImmediatelyWithRunningRun() {
+        PayrollRunResponse response = payrollRunService.startRun(100.0);
+
+        assertEquals(1L, response.getId());
+        assertEquals(PayrollRunStatus.RUNNING, response.getStatus());
+        assertEquals(100.0, response.getAmount());
+    }
+
+    @Test
+    void startRun_shouldRejectNonPositiveAmount() {
+        assertThrows(IllegalArgumentException.class, () -> payrollRunService.startRun(0.0));
+        verify(payrollRunRepository, never()).save(any());
+    }
+
+    @Test
+    void execute_shouldCheckpointEveryPageAndCompleteRun() {
+        PayrollRun run = new PayrollRun(100.0, LocalDateTime.now());
+        run.setId(1L);
+        doAnswer(i -> {
+            PayrollProgress progress = i.getArgument(1);
+            Consumer<String> onPageCommitted = i.getArgument(2);
+            progress.getProcessed().addAndGet(20);
+            progress.getPages().incrementAndGet();
+            onPageCommitted.accept("acc19");
+            progress.getProcessed().addAndGet(15);
+            progress.getFailed().addAndGet(5);
+            progress.getUnresolved().addAndGet(2);
+            progress.getPages().incrementAndGet();
+            onPageCommitted.accept("acc39");
+            return null;
+        }).when(payrollEngine).run(eq(run), any(PayrollProgress.class), any(Consumer.class));
+
+        payrollRunService.execute(run);
+
+        assertEquals(PayrollRunStatus.COMPLETED, run.getStatus());
+        assertEquals(2, run.getNextPage());
+        assertEquals("acc39", run.getLastAccountNumber());
+        assertEquals(35, run.getProcessed());
+        assertEquals(5, run.getFailed());
+        assertEquals(2, run.getUnresolved());
+        assertNotNull(run.getFinishedAt());
+        verify(payrollRunRepository, times(3)).save(run);
+    }
+
+    @Test
+    void execute_shouldResumeWithStoredCountsAndMarkFailedRuns() {
+        PayrollRun run = new PayrollRun(100.0, LocalDateTime.now());
+        run.setId(1L);
+        run.setNextPage(3);
+        run.setLastAccountNumber("acc59");
+        run.setProcessed(60);
+        doAnswer(i -> {
+            PayrollProgress progress = i.getArgument(1);
+            assertEquals(60, progress.getProcessed().get());
+            assertEquals(3, progress.getPages().get());
+            throw new IllegalStateException("accountService down");
+        }).when(payrollEngine).run(eq(run), any(PayrollProgress.class), any(Consumer.class));
+
+        payrollRunService.execute(run);
+
+        assertEquals(PayrollRunStatus.FAILED, run.getStatus());
+        assertEquals(3, run.getNextPage());
+        assertEquals("acc59", run.getLastAccountNumber());
+        assertEquals(60, run.getProcessed());
+    }
+
+    @Test
+    void execute_shouldStopWithoutWritingWhenAnotherInstanceTookTheRunOver() {
+        PayrollRun run = new PayrollRun(100.0, LocalDateTime.now());
+        run.setId(1L);
+        when(payrollRunRepository.heartbeat(eq(1L), eq("instance-a"), any())).thenReturn(0);
+        doAnswer(i -> {
+            Consumer<String> onPageCommitted = i.getArgument(2);
+            onPageCommitted.accept("acc19");
+            fail("the run should stop at the checkpoint");
+            return null;
+        }).when(payrollEngine).run(eq(run), any(PayrollProgress.class), any(Consumer.class));
+
+        payrollRunService.execute(run);
+
+        assertEquals(PayrollRunStatus.RUNNING, run.getStatus());
+        assertNull(run.getLastAccountNumber());
+        verify(payrollRunRepository, never()).save(any());
+    }
+
+    @Test
+    void resumeInterruptedRuns_shouldRestartRunsItClaims() {
+        PayrollRun run = new PayrollRun(100.0, LocalDateTime.now().minusMinutes(5));
+        run.setId(1L);
+        run.setNextPage(2);
+        when(payrollRunRepository.findByStatus(PayrollRunStatus.RUNNING)).thenReturn(List.of(run));
+        when(payrollRunRepository.claim(eq(1L), eq("instance-a"), any(), any())).thenReturn(1);
+
+        payrollRunService.resumeInterruptedRuns();
+
+        verify(payrollEngine, timeout(2000)).run(eq(run), any(PayrollProgress.class), any(Consumer.class));
+        assertEquals("instance-a", run.getOwner());
+    }
+
+    @Test
+    void resumeInterruptedRuns_shouldLeaveRunsWithALiveOwnerAlone() {
+        PayrollRun run = new PayrollRun(100.0, LocalDateTime.now());
+        run.setId(1L);
+        run.setOwner("instance-b");
+        when(payrollRunRepository.findByStatus(PayrollRunStatus.RUNNING)).thenReturn(List.of(run));
+        when(payrollRunRepository.claim(eq(1L), eq("instance-a"), any(), any())).thenReturn(0);
+
+        payrollRunService.resumeInterruptedRuns();
+
+        verify(payrollRunRepository).claim(eq(1L), eq("instance-a"), any(),
+                argThat(staleBefore -> staleBefore.isBefore(LocalDateTime.now().minusSeconds(59))));
+        verify(payrollEngine, after(200).never()).run(any(), any(), any());
+    }
+
+    @Test
+    void getRun_shouldThrowForUnknownRun() {
+        when(payrollRunRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(NoSuchElementException.class, () -> payrollRunService.getRun(99L));
+    }
+}